@@ -0,0 +1,204 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.jmh;
+
+import io.rainfall.ObjectGenerator;
+import io.rainfall.ehcache.operation.BulkBatch;
+import io.rainfall.ehcache2.CacheConfig;
+import io.rainfall.generator.ByteArrayGenerator;
+import io.rainfall.generator.LongGenerator;
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.Element;
+import net.sf.ehcache.config.CacheConfiguration;
+import net.sf.ehcache.config.Configuration;
+import net.sf.ehcache.config.DiskStoreConfiguration;
+import net.sf.ehcache.config.PersistenceConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single operation microbenchmarks of an Ehcache 2 cache on the heap and disk tiers.
+ * <p>
+ * Open source Ehcache 2 has no offheap tier, the disk tier is a local temporary swap.
+ * The cache is set up through a {@link CacheConfig} and pre-loaded with the same key/value generators as the
+ * Rainfall scenarios. The bulk benchmarks include the planning of the batch, measured alone by
+ * {@link #bulkPlanning}.
+ *
+ * @author Aurelien Broszniowski
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Ehcache2Benchmark {
+
+  @Param({ "heap", "disk" })
+  public String tier;
+
+  @Param({ "100000" })
+  public int nbElements;
+
+  @Param({ "1024" })
+  public int valueLength;
+
+  @Param({ "10" })
+  public int bulkBatchSize;
+
+  private final ObjectGenerator<Long> keyGenerator = new LongGenerator();
+  private ObjectGenerator<byte[]> valueGenerator;
+  private byte[] value;
+
+  private File rootDirectory;
+  private CacheManager cacheManager;
+  private Ehcache cache;
+
+  private final BulkBatch.PerThread<Long, byte[]> batches = new BulkBatch.PerThread<Long, byte[]>();
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    valueGenerator = ByteArrayGenerator.fixedLength(valueLength);
+    value = valueGenerator.generate(0L);
+
+    rootDirectory = File.createTempFile("rainfall-jmh", "");
+    rootDirectory.delete();
+
+    CacheConfiguration cacheConfiguration = new CacheConfiguration("bench", nbElements);
+    if ("disk".equals(tier)) {
+      cacheConfiguration.maxEntriesLocalHeap(nbElements / 10)
+          .persistence(new PersistenceConfiguration().strategy(PersistenceConfiguration.Strategy.LOCALTEMPSWAP));
+    } else if (!"heap".equals(tier)) {
+      throw new IllegalArgumentException("Unknown tier : " + tier);
+    }
+    cacheManager = new CacheManager(new Configuration()
+        .name("rainfall-jmh-" + tier)
+        .diskStore(new DiskStoreConfiguration().path(rootDirectory.getAbsolutePath()))
+        .cache(cacheConfiguration));
+
+    CacheConfig<Long, byte[]> cacheConfig = CacheConfig.<Long, byte[]>cacheConfig()
+        .caches(cacheManager.getEhcache("bench"));
+    cache = cacheConfig.getCaches().get(0);
+
+    for (long i = 0; i < nbElements; i++) {
+      cache.put(new Element(keyGenerator.generate(i), valueGenerator.generate(i)));
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    cacheManager.shutdown();
+    delete(rootDirectory);
+  }
+
+  private static void delete(final File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        delete(child);
+      }
+    }
+    file.delete();
+  }
+
+  @State(Scope.Thread)
+  public static class Sequence extends KeySequence {
+
+    @Setup(Level.Trial)
+    public void setUp(final Ehcache2Benchmark benchmark) {
+      range(benchmark.nbElements);
+    }
+  }
+
+  @Benchmark
+  public Element get(final Sequence sequence) {
+    return cache.get(keyGenerator.generate(sequence.next()));
+  }
+
+  @Benchmark
+  public void put(final Sequence sequence) {
+    cache.put(new Element(keyGenerator.generate(sequence.next()), value));
+  }
+
+  @Benchmark
+  public Element putIfAbsent(final Sequence sequence) {
+    return cache.putIfAbsent(new Element(keyGenerator.generate(sequence.next()), value));
+  }
+
+  @Benchmark
+  public Element replace(final Sequence sequence) {
+    return cache.replace(new Element(keyGenerator.generate(sequence.next()), value));
+  }
+
+  @Benchmark
+  public int bulkPlanning(final Sequence sequence) {
+    return batches.get(bulkBatchSize).planEntries(sequence, keyGenerator, valueGenerator, bulkBatchSize);
+  }
+
+  @Benchmark
+  public Map<Object, Element> getAll(final Sequence sequence) {
+    BulkBatch<Long, byte[]> batch = batches.get(bulkBatchSize);
+    batch.planKeys(sequence, keyGenerator, bulkBatchSize);
+    return cache.getAll(batch.getKeys());
+  }
+
+  @Benchmark
+  public void putAll(final Sequence sequence) {
+    BulkBatch<Long, byte[]> batch = batches.get(bulkBatchSize);
+    batch.planEntries(sequence, keyGenerator, valueGenerator, bulkBatchSize);
+    List<Element> elements = new ArrayList<Element>(bulkBatchSize);
+    for (Map.Entry<Long, byte[]> entry : batch.getEntries().entrySet()) {
+      elements.add(new Element(entry.getKey(), entry.getValue()));
+    }
+    cache.putAll(elements);
+  }
+
+  @Benchmark
+  @Group("readWrite")
+  @GroupThreads(3)
+  public Element readWriteGet(final Sequence sequence) {
+    return cache.get(keyGenerator.generate(sequence.next()));
+  }
+
+  @Benchmark
+  @Group("readWrite")
+  @GroupThreads(1)
+  public void readWritePut(final Sequence sequence) {
+    cache.put(new Element(keyGenerator.generate(sequence.next()), value));
+  }
+}
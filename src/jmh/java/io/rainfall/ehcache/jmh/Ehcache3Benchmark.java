@@ -0,0 +1,206 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.jmh;
+
+import io.rainfall.ObjectGenerator;
+import io.rainfall.ehcache.operation.BulkBatch;
+import io.rainfall.ehcache3.CacheConfig;
+import io.rainfall.generator.ByteArrayGenerator;
+import io.rainfall.generator.LongGenerator;
+import org.ehcache.Cache;
+import org.ehcache.CacheManager;
+import org.ehcache.config.ResourcePools;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.impl.config.persistence.CacheManagerPersistenceConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.ehcache.config.builders.CacheConfigurationBuilder.newCacheConfigurationBuilder;
+import static org.ehcache.config.builders.CacheManagerBuilder.newCacheManagerBuilder;
+import static org.ehcache.config.builders.ResourcePoolsBuilder.newResourcePoolsBuilder;
+
+/**
+ * Single operation microbenchmarks of an Ehcache 3 cache on the heap, offheap and disk tiers.
+ * <p>
+ * The cache is set up through a {@link CacheConfig} and pre-loaded with the same key/value generators as the
+ * Rainfall scenarios, so the results can be cross-checked with the Rainfall runs.
+ * The bulk benchmarks include the planning of the batch, measured alone by {@link #bulkPlanning}.
+ *
+ * @author Aurelien Broszniowski
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Ehcache3Benchmark {
+
+  @Param({ "heap", "offheap", "disk" })
+  public String tier;
+
+  @Param({ "100000" })
+  public int nbElements;
+
+  @Param({ "1024" })
+  public int valueLength;
+
+  @Param({ "10" })
+  public int bulkBatchSize;
+
+  private final ObjectGenerator<Long> keyGenerator = new LongGenerator();
+  private ObjectGenerator<byte[]> valueGenerator;
+  private byte[] value;
+
+  private File rootDirectory;
+  private CacheManager cacheManager;
+  private Cache<Long, byte[]> cache;
+
+  private final BulkBatch.PerThread<Long, byte[]> batches = new BulkBatch.PerThread<Long, byte[]>();
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    valueGenerator = ByteArrayGenerator.fixedLength(valueLength);
+    value = valueGenerator.generate(0L);
+
+    rootDirectory = File.createTempFile("rainfall-jmh", "");
+    rootDirectory.delete();
+    cacheManager = newCacheManagerBuilder()
+        .with(new CacheManagerPersistenceConfiguration(rootDirectory))
+        .withCache("bench", newCacheConfigurationBuilder(Long.class, byte[].class, resourcePools()).build())
+        .build(true);
+
+    CacheConfig<Long, byte[]> cacheConfig = CacheConfig.cacheConfig(Long.class, byte[].class)
+        .cache("bench", cacheManager.getCache("bench", Long.class, byte[].class));
+    cache = cacheConfig.getCaches().get(0);
+
+    for (long i = 0; i < nbElements; i++) {
+      cache.put(keyGenerator.generate(i), valueGenerator.generate(i));
+    }
+  }
+
+  private ResourcePools resourcePools() {
+    long sizeInMb = Math.max(1L, MemoryUnit.B.toBytes(2L * nbElements * valueLength) / MemoryUnit.MB.toBytes(1));
+    if ("heap".equals(tier)) {
+      return newResourcePoolsBuilder().heap(nbElements, EntryUnit.ENTRIES).build();
+    } else if ("offheap".equals(tier)) {
+      return newResourcePoolsBuilder().heap(nbElements / 10, EntryUnit.ENTRIES)
+          .offheap(sizeInMb, MemoryUnit.MB).build();
+    } else if ("disk".equals(tier)) {
+      return newResourcePoolsBuilder().heap(nbElements / 10, EntryUnit.ENTRIES)
+          .disk(sizeInMb, MemoryUnit.MB).build();
+    }
+    throw new IllegalArgumentException("Unknown tier : " + tier);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    cacheManager.close();
+    delete(rootDirectory);
+  }
+
+  private static void delete(final File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        delete(child);
+      }
+    }
+    file.delete();
+  }
+
+  @State(Scope.Thread)
+  public static class Sequence extends KeySequence {
+
+    @Setup(Level.Trial)
+    public void setUp(final Ehcache3Benchmark benchmark) {
+      range(benchmark.nbElements);
+    }
+  }
+
+  @Benchmark
+  public byte[] get(final Sequence sequence) {
+    return cache.get(keyGenerator.generate(sequence.next()));
+  }
+
+  @Benchmark
+  public void put(final Sequence sequence) {
+    cache.put(keyGenerator.generate(sequence.next()), value);
+  }
+
+  @Benchmark
+  public byte[] putIfAbsent(final Sequence sequence) {
+    return cache.putIfAbsent(keyGenerator.generate(sequence.next()), value);
+  }
+
+  @Benchmark
+  public byte[] replace(final Sequence sequence) {
+    return cache.replace(keyGenerator.generate(sequence.next()), value);
+  }
+
+  @Benchmark
+  public int bulkPlanning(final Sequence sequence) {
+    return batches.get(bulkBatchSize).planEntries(sequence, keyGenerator, valueGenerator, bulkBatchSize);
+  }
+
+  @Benchmark
+  public Map<Long, byte[]> getAll(final Sequence sequence) {
+    BulkBatch<Long, byte[]> batch = batches.get(bulkBatchSize);
+    batch.planKeys(sequence, keyGenerator, bulkBatchSize);
+    return cache.getAll(batch.getKeys());
+  }
+
+  @Benchmark
+  public void putAll(final Sequence sequence) {
+    BulkBatch<Long, byte[]> batch = batches.get(bulkBatchSize);
+    batch.planEntries(sequence, keyGenerator, valueGenerator, bulkBatchSize);
+    cache.putAll(batch.getEntries());
+  }
+
+  @Benchmark
+  @Group("readWrite")
+  @GroupThreads(3)
+  public byte[] readWriteGet(final Sequence sequence) {
+    return cache.get(keyGenerator.generate(sequence.next()));
+  }
+
+  @Benchmark
+  @Group("readWrite")
+  @GroupThreads(1)
+  public void readWritePut(final Sequence sequence) {
+    cache.put(keyGenerator.generate(sequence.next()), value);
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.jmh;
+
+import io.rainfall.SequenceGenerator;
+
+import java.util.Random;
+
+/**
+ * Uniform sequence over the pre-loaded key range of a benchmark, each benchmark exposes it as a thread state.
+ *
+ * @author Aurelien Broszniowski
+ */
+public abstract class KeySequence implements SequenceGenerator {
+
+  private final Random random = new Random();
+  private int range = 1;
+
+  protected void range(final int range) {
+    this.range = range;
+  }
+
+  @Override
+  public long next() {
+    return random.nextInt(range);
+  }
+
+  @Override
+  public String getDescription() {
+    return "Uniform sequence in [0, " + range + "[";
+  }
+}
@@ -16,9 +16,15 @@
 
 package io.rainfall;
 
+import io.rainfall.ehcache.generator.sequence.InsertionSequenceGenerator;
+import io.rainfall.ehcache.generator.sequence.SkewedSequencesGenerator;
+import io.rainfall.ehcache.statistics.AccessRecorder;
+import io.rainfall.ehcache.statistics.EhcacheResult;
+import io.rainfall.ehcache.trace.AccessType;
 import io.rainfall.generator.IterationSequenceGenerator;
 import io.rainfall.generator.RandomSequenceGenerator;
 import io.rainfall.generator.sequence.Distribution;
+import io.rainfall.statistics.StatisticsHolder;
 import io.rainfall.utils.NullObjectGenerator;
 import io.rainfall.utils.NullSequenceGenerator;
 
@@ -65,4 +71,55 @@ public abstract class EhcacheOperation<K, V> implements Operation {
     return this;
   }
 
+  public EhcacheOperation<K, V> zipfian(long min, long max, double theta) {
+    return withSequence(SkewedSequencesGenerator.zipfian(min, max, theta));
+  }
+
+  public EhcacheOperation<K, V> scrambledZipfian(long min, long max, double theta) {
+    return withSequence(SkewedSequencesGenerator.scrambledZipfian(min, max, theta));
+  }
+
+  public EhcacheOperation<K, V> hotspot(long min, long max, double hotSetFraction, double hotOperationsFraction) {
+    return withSequence(SkewedSequencesGenerator.hotspot(min, max, hotSetFraction, hotOperationsFraction));
+  }
+
+  public EhcacheOperation<K, V> latest(InsertionSequenceGenerator insertions, long window, double theta) {
+    return withSequence(SkewedSequencesGenerator.latest(insertions, window, theta));
+  }
+
+  private EhcacheOperation<K, V> withSequence(SequenceGenerator sequenceGenerator) {
+    if (this.sequenceGenerator instanceof NullSequenceGenerator) {
+      this.sequenceGenerator = sequenceGenerator;
+    } else {
+      throw new IllegalStateException("SequenceGenerator already chosen");
+    }
+    return this;
+  }
+
+  /**
+   * Records the result of a cache access in the statistics, and in the {@link AccessRecorder}s configured for
+   * the run (e.g. the trace recorder).
+   */
+  protected void record(final StatisticsHolder statisticsHolder, final AccessRecorder recorder, final String name,
+                        final AccessType accessType, final long sequence, final Object value,
+                        final long start, final long end, final EhcacheResult result) {
+    statisticsHolder.record(name, (end - start), result);
+    if (recorder != null) {
+      recorder.record(name, accessType, sequence, value, start, (end - start), result);
+    }
+  }
+
+  /**
+   * Records the latency of a bulk call amortized over the entries of the batch, once per batch : the entry result
+   * reports the per-entry latency distribution, and its throughput times the batch size gives the entries per
+   * second.
+   */
+  protected void recordEntries(final StatisticsHolder statisticsHolder, final String name, final long latencyInNs,
+                               final long size, final EhcacheResult result) {
+    if (size == 0) {
+      return;
+    }
+    statisticsHolder.record(name, latencyInNs / size, result);
+  }
+
 }
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.execution;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.Execution;
+import io.rainfall.Scenario;
+import io.rainfall.TestException;
+import io.rainfall.configuration.ConcurrencyConfig;
+import io.rainfall.statistics.StatisticsHolder;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Execution loading the key range [min, max[ into the caches with bulk puts, out of the scenario machinery : the
+ * scenario is not executed, the range is cut in batches which the threads of the {@link ConcurrencyConfig} claim
+ * one after the other, so that a slow thread doesn't hold back the others.
+ * <p>
+ * Each batch is recorded as a PUTALL, and the load throughput is reported separately once done. The end of the
+ * load can be awaited from another thread with {@link #awaitLoaded(long, TimeUnit)}.
+ *
+ * @author Aurelien Broszniowski
+ */
+public abstract class AbstractBulkPreload extends Execution {
+
+  /**
+   * Loads batches for a single thread.
+   */
+  protected interface Loader {
+
+    /**
+     * @return the number of entries put in the caches, all caches included
+     */
+    long load(long from, long to) throws Exception;
+  }
+
+  protected final long min;
+  protected final long max;
+  protected int batchSize = 1000;
+  private PrintStream out = System.out;
+
+  private final CountDownLatch loaded = new CountDownLatch(1);
+  private volatile long loadedEntries;
+  private volatile long elapsedInNs;
+
+  protected AbstractBulkPreload(final long min, final long max) {
+    if (max < min) {
+      throw new IllegalArgumentException("max must be greater than or equal to min");
+    }
+    this.min = min;
+    this.max = max;
+  }
+
+  /**
+   * Creates the loader of a thread, holding its reusable batch structures.
+   */
+  protected abstract Loader loader(StatisticsHolder statisticsHolder, Map<Class<? extends Configuration>, Configuration> configurations);
+
+  @Override
+  public <E extends Enum<E>> void execute(final StatisticsHolder<E> statisticsHolder, final Scenario scenario, final Map<Class<? extends Configuration>, Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+    ConcurrencyConfig concurrencyConfig = (ConcurrencyConfig)configurations.get(ConcurrencyConfig.class);
+    int nbThreads = concurrencyConfig.getThreadsCount();
+    ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+    final AtomicLong nextBatch = new AtomicLong(min);
+    final AtomicLong entries = new AtomicLong();
+    final long start = System.nanoTime();
+
+    try {
+      List<Future<Void>> futures = new ArrayList<Future<Void>>();
+      for (int threadNb = 0; threadNb < nbThreads; threadNb++) {
+        futures.add(executor.submit(new Callable<Void>() {
+
+          @Override
+          public Void call() throws Exception {
+            Loader loader = loader(statisticsHolder, configurations);
+            long count = 0;
+            long from;
+            while ((from = nextBatch.getAndAdd(batchSize)) < max) {
+              count += loader.load(from, Math.min(max, from + batchSize));
+            }
+            entries.addAndGet(count);
+            return null;
+          }
+        }));
+      }
+
+      executor.shutdown();
+      long timeoutInSeconds = concurrencyConfig.getTimeoutInSeconds();
+      boolean success = executor.awaitTermination(timeoutInSeconds, SECONDS);
+      if (!success) {
+        executor.shutdownNow();
+        throw new TestException("Preload timed out after " + timeoutInSeconds + " seconds.");
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      throw new TestException("Preload didn't stop correctly.", e);
+    } catch (ExecutionException e) {
+      throw new TestException("Preload failed.", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+
+    elapsedInNs = System.nanoTime() - start;
+    loadedEntries = entries.get();
+    loaded.countDown();
+    out.println(String.format("Preload : %d entries in %.3f s (%.1f entries/s)", loadedEntries,
+        elapsedInNs / (double)SECONDS.toNanos(1), getEntriesPerSecond()));
+  }
+
+  /**
+   * @return true if the load completed before the timeout
+   */
+  public boolean awaitLoaded(final long timeout, final TimeUnit unit) throws InterruptedException {
+    return loaded.await(timeout, unit);
+  }
+
+  public long getLoadedEntries() {
+    return loadedEntries;
+  }
+
+  public double getEntriesPerSecond() {
+    long elapsed = elapsedInNs;
+    return elapsed == 0 ? 0 : (loadedEntries * (double)SECONDS.toNanos(1)) / elapsed;
+  }
+
+  public AbstractBulkPreload batchSize(final int batchSize) {
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("Batch size must be strictly positive");
+    }
+    this.batchSize = batchSize;
+    return this;
+  }
+
+  public AbstractBulkPreload reportTo(final PrintStream out) {
+    this.out = out;
+    return this;
+  }
+
+  @Override
+  public String getDescription() {
+    return "Execution : preload of [" + min + ", " + max + "[ in batches of " + batchSize;
+  }
+}
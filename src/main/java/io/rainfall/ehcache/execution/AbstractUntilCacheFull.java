@@ -0,0 +1,110 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.execution;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.Execution;
+import io.rainfall.Scenario;
+import io.rainfall.TestException;
+import io.rainfall.WeightedOperation;
+import io.rainfall.configuration.ConcurrencyConfig;
+import io.rainfall.statistics.StatisticsHolder;
+import io.rainfall.utils.RangeMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Executes the scenario until the caches are full, as reported by a {@link CacheFullMonitor} : the worker
+ * threads only read its volatile flag between two scenario iterations.
+ *
+ * @author Aurelien Broszniowski
+ */
+public abstract class AbstractUntilCacheFull extends Execution {
+
+  /**
+   * Starts monitoring the caches of the run.
+   */
+  protected abstract CacheFullMonitor monitor(Map<Class<? extends Configuration>, Configuration> configurations);
+
+  /**
+   * Stops monitoring the caches, e.g. unregisters the listeners.
+   */
+  protected abstract void release(CacheFullMonitor monitor);
+
+  @Override
+  public <E extends Enum<E>> void execute(final StatisticsHolder<E> statisticsHolder, final Scenario scenario, final Map<Class<? extends Configuration>, Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+
+    ConcurrencyConfig concurrencyConfig = (ConcurrencyConfig)configurations.get(ConcurrencyConfig.class);
+    int nbThreads = concurrencyConfig.getThreadsCount();
+    final CacheFullMonitor monitor = monitor(configurations);
+    ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+
+    try {
+      List<Future<Void>> futures = new ArrayList<Future<Void>>();
+      for (int threadNb = 0; threadNb < nbThreads; threadNb++) {
+        futures.add(executor.submit(new Callable<Void>() {
+
+          @Override
+          public Void call() throws Exception {
+            List<RangeMap<WeightedOperation>> operations = scenario.getOperations();
+            while (!monitor.isFull()) {
+              for (RangeMap<WeightedOperation> operation : operations) {
+                operation.get(weightRnd.nextFloat(operation.getHigherBound()))
+                    .getOperation().exec(statisticsHolder, configurations, assertions);
+              }
+            }
+            return null;
+          }
+        }));
+      }
+
+      executor.shutdown();
+      long timeoutInSeconds = concurrencyConfig.getTimeoutInSeconds();
+      boolean success = executor.awaitTermination(timeoutInSeconds, SECONDS);
+      if (!success) {
+        executor.shutdownNow();
+        throw new TestException("Execution of Scenario timed out after " + timeoutInSeconds + " seconds.");
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      throw new TestException("Execution of Scenario didn't stop correctly.", e);
+    } catch (ExecutionException e) {
+      throw new TestException("Execution of Scenario failed.", e.getCause());
+    } finally {
+      executor.shutdownNow();
+      monitor.stop();
+      release(monitor);
+    }
+  }
+
+  @Override
+  public String getDescription() {
+    return "Execution : until caches are full";
+  }
+}
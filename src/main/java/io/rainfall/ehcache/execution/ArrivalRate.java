@@ -0,0 +1,233 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.execution;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.Execution;
+import io.rainfall.Scenario;
+import io.rainfall.TestException;
+import io.rainfall.WeightedOperation;
+import io.rainfall.configuration.ConcurrencyConfig;
+import io.rainfall.statistics.StatisticsHolder;
+import io.rainfall.utils.RangeMap;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Open-model execution : the scenario is scheduled at a fixed arrival rate, whatever the time the caches take
+ * to answer.
+ * <p>
+ * Each thread owns an equal share of the arrival rate, and each scenario iteration has an intended start time.
+ * When an iteration starts late because the previous one stalled (eviction, disk write, GC...), its latency is
+ * still measured from its intended start time, so the stall is accounted for in every iteration it delayed
+ * (coordinated omission correction). Both the corrected and the uncorrected histograms of the scenario
+ * iterations are reported at the end of the execution, the operations keep recording their own (uncorrected)
+ * latencies in the usual reports. The lateness of the iteration running on a thread is published by
+ * {@link #latenessOfCurrentThreadInNs()}, so that a {@link io.rainfall.ehcache.statistics.CorrectedLatencies}
+ * reports both latencies per cache and per result.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class ArrivalRate extends Execution {
+
+  private static final int SIGNIFICANT_DIGITS = 3;
+
+  private static final ThreadLocal<long[]> lateness = new ThreadLocal<long[]>() {
+    @Override
+    protected long[] initialValue() {
+      return new long[1];
+    }
+  };
+
+  private final long operationsPerSecond;
+  private final long durationInNs;
+  private final PrintStream out;
+
+  private final Histogram corrected = new Histogram(SIGNIFICANT_DIGITS);
+  private final Histogram uncorrected = new Histogram(SIGNIFICANT_DIGITS);
+  private volatile long elapsedInNs;
+
+  public ArrivalRate(final long operationsPerSecond, final long duration, final TimeUnit unit) {
+    this(operationsPerSecond, duration, unit, System.out);
+  }
+
+  public ArrivalRate(final long operationsPerSecond, final long duration, final TimeUnit unit, final PrintStream out) {
+    if (operationsPerSecond <= 0) {
+      throw new IllegalArgumentException("Arrival rate must be strictly positive");
+    }
+    this.operationsPerSecond = operationsPerSecond;
+    this.durationInNs = unit.toNanos(duration);
+    this.out = out;
+  }
+
+  public static ArrivalRate arrivalRate(final long operationsPerSecond, final long duration, final TimeUnit unit) {
+    return new ArrivalRate(operationsPerSecond, duration, unit);
+  }
+
+  @Override
+  public <E extends Enum<E>> void execute(final StatisticsHolder<E> statisticsHolder, final Scenario scenario, final Map<Class<? extends Configuration>, Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+
+    ConcurrencyConfig concurrencyConfig = (ConcurrencyConfig)configurations.get(ConcurrencyConfig.class);
+    final int nbThreads = concurrencyConfig.getThreadsCount();
+    ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+
+    final double intervalInNs = ((double)SECONDS.toNanos(1) * nbThreads) / operationsPerSecond;
+    final long startInNs = statisticsHolder.getTimeInNs();
+    final long endInNs = startInNs + durationInNs;
+
+    corrected.reset();
+    uncorrected.reset();
+
+    List<Future<Void>> futures = new ArrayList<Future<Void>>();
+    for (int threadNb = 0; threadNb < nbThreads; threadNb++) {
+      final long firstIntendedStart = startInNs + (long)((intervalInNs * threadNb) / nbThreads);
+      futures.add(executor.submit(new Callable<Void>() {
+
+        @Override
+        public Void call() throws Exception {
+          Histogram threadCorrected = new Histogram(SIGNIFICANT_DIGITS);
+          Histogram threadUncorrected = new Histogram(SIGNIFICANT_DIGITS);
+          List<RangeMap<WeightedOperation>> operations = scenario.getOperations();
+
+          long[] threadLateness = lateness.get();
+          long iteration = 0;
+          long intendedStart = firstIntendedStart;
+          while (intendedStart < endInNs) {
+            long now = statisticsHolder.getTimeInNs();
+            while (now < intendedStart) {
+              LockSupport.parkNanos(intendedStart - now);
+              now = statisticsHolder.getTimeInNs();
+            }
+            threadLateness[0] = now - intendedStart;
+
+            for (RangeMap<WeightedOperation> operation : operations) {
+              operation.get(weightRnd.nextFloat(operation.getHigherBound()))
+                  .getOperation().exec(statisticsHolder, configurations, assertions);
+            }
+            long end = statisticsHolder.getTimeInNs();
+
+            threadCorrected.recordValue(end - intendedStart);
+            threadUncorrected.recordValue(end - now);
+            iteration++;
+            intendedStart = firstIntendedStart + (long)(iteration * intervalInNs);
+          }
+          threadLateness[0] = 0;
+
+          synchronized (corrected) {
+            corrected.add(threadCorrected);
+            uncorrected.add(threadUncorrected);
+          }
+          return null;
+        }
+      }));
+    }
+
+    executor.shutdown();
+    try {
+      long timeoutInSeconds = concurrencyConfig.getTimeoutInSeconds();
+      boolean success = executor.awaitTermination(timeoutInSeconds, SECONDS);
+      if (!success) {
+        executor.shutdownNow();
+        throw new TestException("Execution of Scenario timed out after " + timeoutInSeconds + " seconds.");
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      throw new TestException("Execution of Scenario didn't stop correctly.", e);
+    } catch (ExecutionException e) {
+      throw new TestException("Execution of Scenario failed.", e.getCause());
+    }
+
+    elapsedInNs = statisticsHolder.getTimeInNs() - startInNs;
+    writeText(out);
+  }
+
+  /**
+   * Writes the text report of the scenario iterations in the directory.
+   */
+  public void report(final File directory) throws FileNotFoundException {
+    if (!directory.exists() && !directory.mkdirs()) {
+      throw new FileNotFoundException("Can not create directory " + directory);
+    }
+    PrintStream text = new PrintStream(new File(directory, "arrival-rate.txt"));
+    try {
+      writeText(text);
+    } finally {
+      text.close();
+    }
+  }
+
+  public void writeText(final PrintStream out) {
+    long count = getCorrectedHistogram().getTotalCount();
+    double achievedRate = elapsedInNs == 0 ? 0 : (count * (double)SECONDS.toNanos(1)) / elapsedInNs;
+    out.println(String.format("Arrival rate : target %d ops/s, achieved %.1f ops/s (%d scenario iterations)",
+        operationsPerSecond, achievedRate, count));
+    out.println("Latency from intended start (corrected for coordinated omission), in us :");
+    getCorrectedHistogram().outputPercentileDistribution(out, 1000.0);
+    out.println("Latency from actual start (uncorrected), in us :");
+    getUncorrectedHistogram().outputPercentileDistribution(out, 1000.0);
+  }
+
+  /**
+   * @return how late the scenario iteration running on the calling thread started after its intended start time,
+   * in ns, 0 outside of an arrival rate execution
+   */
+  public static long latenessOfCurrentThreadInNs() {
+    return lateness.get()[0];
+  }
+
+  /**
+   * @return a copy of the latencies of the scenario iterations measured from their intended start time, in ns
+   */
+  public Histogram getCorrectedHistogram() {
+    synchronized (corrected) {
+      return corrected.copy();
+    }
+  }
+
+  /**
+   * @return a copy of the latencies of the scenario iterations measured from their actual start time, in ns
+   */
+  public Histogram getUncorrectedHistogram() {
+    synchronized (corrected) {
+      return uncorrected.copy();
+    }
+  }
+
+  @Override
+  public String getDescription() {
+    return "Execution : open model at " + operationsPerSecond + " scenario iterations/s during "
+           + TimeUnit.NANOSECONDS.toSeconds(durationInNs) + " seconds";
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.execution;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks whether every cache of a run is full, so that the worker threads only have to read a volatile flag.
+ * <p>
+ * Caches are reported full by eviction listeners ({@link #cacheFull(String)}) and/or by a background sampler
+ * ({@link #sampleEvery(long, TimeUnit, Runnable)}), never by the worker threads themselves.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class CacheFullMonitor {
+
+  private final Set<String> notFull;
+  private volatile boolean full;
+  private ScheduledExecutorService sampler;
+
+  public CacheFullMonitor(final Collection<String> cacheNames) {
+    this.notFull = new HashSet<String>(cacheNames);
+    this.full = notFull.isEmpty();
+  }
+
+  public boolean isFull() {
+    return full;
+  }
+
+  /**
+   * Marks a cache as full, the monitor is full once all its caches are.
+   */
+  public void cacheFull(final String cacheName) {
+    if (full) {
+      return;
+    }
+    synchronized (notFull) {
+      if (notFull.remove(cacheName) && notFull.isEmpty()) {
+        full = true;
+      }
+    }
+  }
+
+  public boolean isCacheFull(final String cacheName) {
+    synchronized (notFull) {
+      return !notFull.contains(cacheName);
+    }
+  }
+
+  /**
+   * Runs the sampler in a background thread at a fixed interval, until the monitor is stopped.
+   */
+  public synchronized CacheFullMonitor sampleEvery(final long period, final TimeUnit unit, final Runnable sample) {
+    if (sampler != null) {
+      throw new IllegalStateException("Sampler already started");
+    }
+    sampler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(final Runnable r) {
+        Thread thread = new Thread(r, "Cache full monitor");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    sampler.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        if (!full) {
+          sample.run();
+        }
+      }
+    }, period, period, unit);
+    return this;
+  }
+
+  public synchronized void stop() {
+    if (sampler != null) {
+      sampler.shutdownNow();
+      sampler = null;
+    }
+  }
+}
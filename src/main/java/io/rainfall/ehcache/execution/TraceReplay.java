@@ -0,0 +1,182 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.execution;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.Execution;
+import io.rainfall.Scenario;
+import io.rainfall.TestException;
+import io.rainfall.WeightedOperation;
+import io.rainfall.configuration.ConcurrencyConfig;
+import io.rainfall.ehcache.trace.TraceCursor;
+import io.rainfall.ehcache.trace.TraceReader;
+import io.rainfall.ehcache.trace.TraceRecord;
+import io.rainfall.statistics.StatisticsHolder;
+import io.rainfall.utils.RangeMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Execution replaying a trace file : the scenario is executed once per trace record, with
+ * {@link TraceRecord#current()} set to the record, so that a
+ * {@link io.rainfall.ehcache.trace.TraceDispatchOperation} runs the operation of its access type on its key.
+ * <p>
+ * Records are replayed either as fast as possible, or at the time they were recorded (relative to the start of
+ * the replay, optionally sped up). As fast as possible, the partitions of the trace are spread over the threads
+ * of the {@link ConcurrencyConfig}, each one replaying its partitions in order. At the recorded pace, the blocks
+ * of every partition are spread over all the threads, so that a trace with fewer partitions than threads still
+ * uses them all, the recorded timestamps keeping the order. Either way, each thread merges its records in
+ * timestamp order.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class TraceReplay extends Execution {
+
+  private final File trace;
+  private final double speed;
+  private final PrintStream out;
+
+  /**
+   * @param speed 0 to replay as fast as possible, otherwise the factor applied to the recorded timestamps
+   *              (1 to replay in real time, 2 for twice as fast...)
+   */
+  public TraceReplay(final File trace, final double speed, final PrintStream out) {
+    if (speed < 0) {
+      throw new IllegalArgumentException("Speed must be positive");
+    }
+    this.trace = trace;
+    this.speed = speed;
+    this.out = out;
+  }
+
+  public static TraceReplay replay(final File trace) {
+    return new TraceReplay(trace, 0, System.out);
+  }
+
+  public static TraceReplay replay(final File trace, final double speed) {
+    return new TraceReplay(trace, speed, System.out);
+  }
+
+  @Override
+  public <E extends Enum<E>> void execute(final StatisticsHolder<E> statisticsHolder, final Scenario scenario, final Map<Class<? extends Configuration>, Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+    final TraceReader reader;
+    try {
+      reader = new TraceReader(trace);
+    } catch (IOException e) {
+      throw new TestException("Can not open trace " + trace, e);
+    }
+
+    ConcurrencyConfig concurrencyConfig = (ConcurrencyConfig)configurations.get(ConcurrencyConfig.class);
+    final int nbThreads = concurrencyConfig.getThreadsCount();
+    ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+    final AtomicLong replayed = new AtomicLong();
+    final AtomicLong maxLagInNs = new AtomicLong();
+    final long startInNs = statisticsHolder.getTimeInNs();
+
+    try {
+      List<Future<Void>> futures = new ArrayList<Future<Void>>();
+      for (int threadNb = 0; threadNb < nbThreads; threadNb++) {
+        final TraceCursor cursor = reader.cursor(threadNb, nbThreads, speed > 0);
+        futures.add(executor.submit(new Callable<Void>() {
+
+          @Override
+          public Void call() throws Exception {
+            List<RangeMap<WeightedOperation>> operations = scenario.getOperations();
+            TraceRecord record = TraceRecord.current();
+            long count = 0;
+            long maxLag = 0;
+
+            while (cursor.next(record)) {
+              if (speed > 0) {
+                long intendedStart = startInNs + (long)(record.getTimestampInNs() / speed);
+                long now = statisticsHolder.getTimeInNs();
+                while (now < intendedStart) {
+                  LockSupport.parkNanos(intendedStart - now);
+                  now = statisticsHolder.getTimeInNs();
+                }
+                maxLag = Math.max(maxLag, now - intendedStart);
+              }
+              for (RangeMap<WeightedOperation> operation : operations) {
+                operation.get(weightRnd.nextFloat(operation.getHigherBound()))
+                    .getOperation().exec(statisticsHolder, configurations, assertions);
+              }
+              count++;
+            }
+
+            replayed.addAndGet(count);
+            long previous;
+            do {
+              previous = maxLagInNs.get();
+            } while (maxLag > previous && !maxLagInNs.compareAndSet(previous, maxLag));
+            return null;
+          }
+        }));
+      }
+
+      executor.shutdown();
+      long timeoutInSeconds = concurrencyConfig.getTimeoutInSeconds();
+      boolean success = executor.awaitTermination(timeoutInSeconds, SECONDS);
+      if (!success) {
+        executor.shutdownNow();
+        throw new TestException("Execution of Scenario timed out after " + timeoutInSeconds + " seconds.");
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      throw new TestException("Execution of Scenario didn't stop correctly.", e);
+    } catch (ExecutionException e) {
+      throw new TestException("Execution of Scenario failed.", e.getCause());
+    } finally {
+      executor.shutdownNow();
+      try {
+        reader.close();
+      } catch (IOException e) {
+        // the replay itself went fine
+      }
+    }
+
+    long elapsedInNs = statisticsHolder.getTimeInNs() - startInNs;
+    long count = replayed.get();
+    out.println(String.format("Trace replay : %d of %d records in %.3f s (%.1f records/s)", count,
+        reader.getRecordCount(), elapsedInNs / (double)SECONDS.toNanos(1),
+        elapsedInNs == 0 ? 0 : (count * (double)SECONDS.toNanos(1)) / elapsedInNs));
+    if (speed > 0) {
+      out.println(String.format("Maximum lag behind the recorded timestamps : %.3f ms", maxLagInNs.get() / 1000000.0));
+    }
+  }
+
+  @Override
+  public String getDescription() {
+    return "Execution : replay of trace " + trace + (speed > 0 ? " at x" + speed + " the recorded pace" : " as fast as possible");
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.expiry;
+
+import io.rainfall.Configuration;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Expiry-driven workloads : the entries are written with expiry durations drawn from an {@link ExpiryDuration},
+ * and the misses on expired entries are reported with the {@link io.rainfall.ehcache.statistics.EhcacheResult#EXPIRED}
+ * result, apart from the misses on entries which were never present.
+ * <p>
+ * Registered as a configuration of the run. The Ehcache 2 put operations set the time to live or time to idle of
+ * each element they write. Ehcache 3 takes its expiry from the cache configuration, so its caches must be built
+ * with the {@link io.rainfall.ehcache3.expiry.DistributedExpiry} of this expiration. The key space is the range of
+ * the key sequences, so that each key tracks its own expiration time.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class Expiration extends Configuration {
+
+  private final int keySpace;
+  private ExpiryMode mode = ExpiryMode.TIME_TO_LIVE;
+  private ExpiryDuration duration;
+  private final ConcurrentMap<String, ExpiringCache> caches = new ConcurrentHashMap<String, ExpiringCache>();
+
+  public Expiration(final int keySpace) {
+    if (keySpace <= 0) {
+      throw new IllegalArgumentException("The key space must be positive");
+    }
+    this.keySpace = keySpace;
+  }
+
+  public static Expiration expiration(final int keySpace) {
+    return new Expiration(keySpace);
+  }
+
+  public Expiration timeToLive(final ExpiryDuration duration) {
+    this.mode = ExpiryMode.TIME_TO_LIVE;
+    this.duration = duration;
+    return this;
+  }
+
+  public Expiration timeToIdle(final ExpiryDuration duration) {
+    this.mode = ExpiryMode.TIME_TO_IDLE;
+    this.duration = duration;
+    return this;
+  }
+
+  public ExpiryMode getMode() {
+    return mode;
+  }
+
+  /**
+   * @return the expiry duration of the next entry written, in milliseconds
+   */
+  public long nextInMs() {
+    if (duration == null) {
+      throw new IllegalStateException("No expiry duration, configure it using timeToLive() or timeToIdle()");
+    }
+    return duration.nextInMs();
+  }
+
+  /**
+   * @return the expiry state of the cache, created once per cache name
+   */
+  public ExpiringCache expiringCache(final String cacheName) {
+    ExpiringCache cache = caches.get(cacheName);
+    if (cache == null) {
+      ExpiringCache created = new ExpiringCache(cacheName, mode, keySpace);
+      cache = caches.putIfAbsent(cacheName, created);
+      if (cache == null) {
+        cache = created;
+      }
+    }
+    return cache;
+  }
+
+  public List<ExpiringCache> getExpiringCaches() {
+    return new ArrayList<ExpiringCache>(caches.values());
+  }
+
+  public void writeText(final PrintStream out) {
+    out.println("Expiration (" + mode + ")");
+    out.println(String.format("%-20s %16s %16s", "cache", "expired misses", "absent misses"));
+    for (ExpiringCache cache : getExpiringCaches()) {
+      out.println(String.format("%-20s %16d %16d", cache.getCacheName(), cache.getExpiredMisses(),
+          cache.getAbsentMisses()));
+    }
+  }
+
+  @Override
+  public List<String> getDescription() {
+    List<String> desc = new ArrayList<String>();
+    desc.add("Entries expiring " + (mode == ExpiryMode.TIME_TO_LIVE ? "after written" : "when idle") + ", "
+             + (duration == null ? "no duration" : duration.getDescription()) + ", over a key space of " + keySpace);
+    return desc;
+  }
+}
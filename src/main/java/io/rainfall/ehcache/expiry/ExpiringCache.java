@@ -0,0 +1,123 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.expiry;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Expiry state of a cache : the expiration time of each key, from which a miss is told to be on an expired entry
+ * or on an entry which was never present, and the count of both kinds of misses.
+ * <p>
+ * The expiration times are indexed by key sequence modulo the key space of the {@link Expiration}, and are taken
+ * from the wall clock, as the expiration times of Ehcache 2 and 3. A key whose entry was evicted after it expired
+ * counts as expired.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class ExpiringCache {
+
+  private static final long ABSENT = 0L;
+
+  private final String cacheName;
+  private final ExpiryMode mode;
+  private final AtomicLongArray expirations;
+  private final AtomicLongArray durations;
+  private final AtomicLong expiredMisses = new AtomicLong();
+  private final AtomicLong absentMisses = new AtomicLong();
+
+  ExpiringCache(final String cacheName, final ExpiryMode mode, final int keySpace) {
+    this.cacheName = cacheName;
+    this.mode = mode;
+    this.expirations = new AtomicLongArray(keySpace);
+    this.durations = new AtomicLongArray(keySpace);
+  }
+
+  public String getCacheName() {
+    return cacheName;
+  }
+
+  private int index(final long key) {
+    int index = (int)(key % expirations.length());
+    return index < 0 ? index + expirations.length() : index;
+  }
+
+  /**
+   * Tracks the write of a key, whose entry expires after the duration.
+   */
+  public void written(final long key, final long durationInMs) {
+    int index = index(key);
+    durations.set(index, durationInMs);
+    expirations.set(index, System.currentTimeMillis() + durationInMs);
+  }
+
+  /**
+   * @return the expiry duration of the last write of a key, in milliseconds, or 0 if it was never written
+   */
+  public long getDurationInMs(final long key) {
+    return durations.get(index(key));
+  }
+
+  /**
+   * Tracks the hit of a key : in time to idle mode, its entry expires again after the duration of its last write.
+   */
+  public void accessed(final long key) {
+    if (mode == ExpiryMode.TIME_TO_IDLE) {
+      int index = index(key);
+      long durationInMs = durations.get(index);
+      if (durationInMs > 0) {
+        expirations.set(index, System.currentTimeMillis() + durationInMs);
+      }
+    }
+  }
+
+  /**
+   * Tracks the hit of a key whose entry got a new expiry duration when accessed.
+   */
+  public void accessed(final long key, final long durationInMs) {
+    int index = index(key);
+    durations.set(index, durationInMs);
+    expirations.set(index, System.currentTimeMillis() + durationInMs);
+  }
+
+  public void removed(final long key) {
+    expirations.set(index(key), ABSENT);
+  }
+
+  /**
+   * Counts a miss of a key.
+   *
+   * @return true if the miss is on an expired entry, false if the entry was never present or was removed
+   */
+  public boolean missed(final long key) {
+    long expiration = expirations.get(index(key));
+    if (expiration != ABSENT && expiration <= System.currentTimeMillis()) {
+      expiredMisses.incrementAndGet();
+      return true;
+    }
+    absentMisses.incrementAndGet();
+    return false;
+  }
+
+  public long getExpiredMisses() {
+    return expiredMisses.get();
+  }
+
+  public long getAbsentMisses() {
+    return absentMisses.get();
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.expiry;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distribution of the expiry durations given to the entries written.
+ *
+ * @author Aurelien Broszniowski
+ */
+public abstract class ExpiryDuration {
+
+  private final ThreadLocal<Random> random = new ThreadLocal<Random>() {
+    @Override
+    protected Random initialValue() {
+      return new Random();
+    }
+  };
+
+  /**
+   * Every entry gets the same duration.
+   */
+  public static ExpiryDuration fixed(final long duration, final TimeUnit unit) {
+    final long durationInMs = toMillis(duration, unit);
+    return new ExpiryDuration() {
+      @Override
+      public long nextInMs() {
+        return durationInMs;
+      }
+
+      @Override
+      public String getDescription() {
+        return "fixed duration of " + durationInMs + "ms";
+      }
+    };
+  }
+
+  /**
+   * The durations are uniformly distributed between min and max.
+   */
+  public static ExpiryDuration uniform(final long min, final long max, final TimeUnit unit) {
+    if (max < min) {
+      throw new IllegalArgumentException("The duration range must be min <= max");
+    }
+    final long minInMs = toMillis(min, unit);
+    final long rangeInMs = toMillis(max, unit) - minInMs;
+    return new ExpiryDuration() {
+      @Override
+      public long nextInMs() {
+        return minInMs + (long)(random().nextDouble() * rangeInMs);
+      }
+
+      @Override
+      public String getDescription() {
+        return "uniform duration between " + minInMs + "ms and " + (minInMs + rangeInMs) + "ms";
+      }
+    };
+  }
+
+  /**
+   * The durations are exponentially distributed around the mean : most entries are short lived, a few live long.
+   */
+  public static ExpiryDuration exponential(final long mean, final TimeUnit unit) {
+    final long meanInMs = toMillis(mean, unit);
+    return new ExpiryDuration() {
+      @Override
+      public long nextInMs() {
+        return Math.max(1L, (long)(-meanInMs * Math.log(1.0 - random().nextDouble())));
+      }
+
+      @Override
+      public String getDescription() {
+        return "exponential duration of mean " + meanInMs + "ms";
+      }
+    };
+  }
+
+  private static long toMillis(final long duration, final TimeUnit unit) {
+    long durationInMs = unit.toMillis(duration);
+    if (durationInMs <= 0) {
+      throw new IllegalArgumentException("The expiry duration must be at least 1ms");
+    }
+    return durationInMs;
+  }
+
+  protected Random random() {
+    return random.get();
+  }
+
+  /**
+   * @return the expiry duration of the next entry written, in milliseconds, at least 1ms
+   */
+  public abstract long nextInMs();
+
+  public abstract String getDescription();
+}
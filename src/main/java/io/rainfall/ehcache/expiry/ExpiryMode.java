@@ -0,0 +1,33 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.expiry;
+
+/**
+ * Expiry of the entries written by the operations when an {@link Expiration} is configured.
+ *
+ * @author Aurelien Broszniowski
+ */
+public enum ExpiryMode {
+  /**
+   * The entries expire after their duration from their last write.
+   */
+  TIME_TO_LIVE,
+  /**
+   * The entries expire after their duration from their last access.
+   */
+  TIME_TO_IDLE
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.generator;
+
+import io.rainfall.ObjectGenerator;
+
+/**
+ * Generator returning objects pre-generated at setup time, so that the generation cost and its allocations are
+ * taken out of the measured loop.
+ * <p>
+ * The object for a seed is the one generated by the delegate for (seed modulo pool size), the same instance is
+ * returned for every call. When used as a key generator, the pool must be at least as large as the range of the
+ * sequence, otherwise distinct sequence values share keys.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class PooledObjectGenerator<T> implements ObjectGenerator<T> {
+
+  private final ObjectGenerator<T> delegate;
+  private final Object[] pool;
+
+  public PooledObjectGenerator(final ObjectGenerator<T> delegate, final int size) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("Pool size must be strictly positive");
+    }
+    this.delegate = delegate;
+    this.pool = new Object[size];
+    for (int i = 0; i < size; i++) {
+      pool[i] = delegate.generate((long)i);
+    }
+  }
+
+  public static <T> PooledObjectGenerator<T> pooled(final ObjectGenerator<T> generator, final int size) {
+    return new PooledObjectGenerator<T>(generator, size);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public T generate(final Long seed) {
+    return (T)pool[index(seed, pool.length)];
+  }
+
+  static int index(final long seed, final int size) {
+    int index = (int)(seed % size);
+    return index < 0 ? index + size : index;
+  }
+
+  @Override
+  public String getDescription() {
+    return delegate.getDescription() + " (pool of " + pool.length + ")";
+  }
+}
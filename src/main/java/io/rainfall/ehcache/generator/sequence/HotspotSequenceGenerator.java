@@ -0,0 +1,64 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.generator.sequence;
+
+import io.rainfall.SequenceGenerator;
+
+/**
+ * Sequence in [min, max] where a fraction of the operations goes to a hot set made of the lowest values, e.g.
+ * 80% of the operations on 20% of the keys. Values are uniform within the hot set and within the cold set.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class HotspotSequenceGenerator implements SequenceGenerator {
+
+  private final long min;
+  private final long hotItems;
+  private final long coldItems;
+  private final double hotOperationsFraction;
+  private final double hotSetFraction;
+
+  public HotspotSequenceGenerator(final long min, final long max, final double hotSetFraction, final double hotOperationsFraction) {
+    if (max < min) {
+      throw new IllegalArgumentException("max must be greater than or equal to min");
+    }
+    if (hotSetFraction < 0 || hotSetFraction > 1 || hotOperationsFraction < 0 || hotOperationsFraction > 1) {
+      throw new IllegalArgumentException("Fractions must be in [0, 1]");
+    }
+    long items = max - min + 1;
+    this.min = min;
+    this.hotItems = Math.max(1, (long)(items * hotSetFraction));
+    this.coldItems = items - hotItems;
+    this.hotSetFraction = hotSetFraction;
+    this.hotOperationsFraction = hotOperationsFraction;
+  }
+
+  @Override
+  public long next() {
+    XorShiftRandom random = XorShiftRandom.current();
+    if (coldItems == 0 || random.nextDouble() < hotOperationsFraction) {
+      return min + random.nextLong(hotItems);
+    }
+    return min + hotItems + random.nextLong(coldItems);
+  }
+
+  @Override
+  public String getDescription() {
+    return "Hotspot sequence in [" + min + ", " + (min + hotItems + coldItems - 1) + "] ("
+           + (hotOperationsFraction * 100) + "% of operations on " + (hotSetFraction * 100) + "% of values)";
+  }
+}
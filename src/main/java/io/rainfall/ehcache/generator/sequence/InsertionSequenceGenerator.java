@@ -0,0 +1,59 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.generator.sequence;
+
+import io.rainfall.SequenceGenerator;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sequential sequence for the inserting operations, keeping track of the last value handed out so that a
+ * {@link LatestSequenceGenerator} can target the most recently inserted keys.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class InsertionSequenceGenerator implements SequenceGenerator {
+
+  private final long min;
+  private final AtomicLong next;
+
+  public InsertionSequenceGenerator(final long min) {
+    this.min = min;
+    this.next = new AtomicLong(min);
+  }
+
+  @Override
+  public long next() {
+    return next.getAndIncrement();
+  }
+
+  /**
+   * @return the last value handed out, or min - 1 if none was
+   */
+  public long last() {
+    return next.get() - 1;
+  }
+
+  public long getMin() {
+    return min;
+  }
+
+  @Override
+  public String getDescription() {
+    return "Insertion sequence from " + min;
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.generator.sequence;
+
+import io.rainfall.SequenceGenerator;
+
+/**
+ * Sequence skewed toward the values most recently handed out by an {@link InsertionSequenceGenerator} : the
+ * distance to the last inserted value follows a zipfian distribution over a window of values.
+ * <p>
+ * While fewer values than the window have been inserted, the distance is folded into the inserted range.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class LatestSequenceGenerator implements SequenceGenerator {
+
+  private final InsertionSequenceGenerator insertions;
+  private final ZipfianSequenceGenerator distance;
+
+  public LatestSequenceGenerator(final InsertionSequenceGenerator insertions, final long window, final double theta) {
+    this.insertions = insertions;
+    this.distance = new ZipfianSequenceGenerator(0, window - 1, theta);
+  }
+
+  @Override
+  public long next() {
+    long last = insertions.last();
+    long inserted = last - insertions.getMin() + 1;
+    if (inserted <= 0) {
+      return insertions.getMin();
+    }
+    return last - (distance.nextOffset() % inserted);
+  }
+
+  @Override
+  public String getDescription() {
+    return "Latest sequence, distance to the last insertion : " + distance.getDescription();
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.generator.sequence;
+
+import io.rainfall.SequenceGenerator;
+
+/**
+ * Zipfian sequence in [min, max] where the popular values are scattered over the range instead of being the
+ * lowest ones : the zipfian offset is hashed (FNV-1a) before being mapped back into the range.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class ScrambledZipfianSequenceGenerator implements SequenceGenerator {
+
+  private static final long FNV_OFFSET_BASIS_64 = 0xCBF29CE484222325L;
+  private static final long FNV_PRIME_64 = 1099511628211L;
+
+  private final long min;
+  private final ZipfianSequenceGenerator zipfian;
+
+  public ScrambledZipfianSequenceGenerator(final long min, final long max, final double theta) {
+    this.min = min;
+    this.zipfian = new ZipfianSequenceGenerator(min, max, theta);
+  }
+
+  static long fnvHash64(long value) {
+    long hash = FNV_OFFSET_BASIS_64;
+    for (int i = 0; i < 8; i++) {
+      hash ^= value & 0xFF;
+      hash *= FNV_PRIME_64;
+      value >>>= 8;
+    }
+    return hash;
+  }
+
+  @Override
+  public long next() {
+    long hash = fnvHash64(zipfian.nextOffset());
+    long offset = hash % zipfian.getItems();
+    return min + (offset < 0 ? offset + zipfian.getItems() : offset);
+  }
+
+  @Override
+  public String getDescription() {
+    return "Scrambled " + zipfian.getDescription();
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.generator.sequence;
+
+/**
+ * Helper methods to instantiate the skewed {@link io.rainfall.SequenceGenerator} objects (YCSB-style key
+ * popularity distributions).
+ *
+ * @author Aurelien Broszniowski
+ */
+public class SkewedSequencesGenerator {
+
+  public static ZipfianSequenceGenerator zipfian(final long min, final long max) {
+    return new ZipfianSequenceGenerator(min, max, ZipfianSequenceGenerator.DEFAULT_THETA);
+  }
+
+  public static ZipfianSequenceGenerator zipfian(final long min, final long max, final double theta) {
+    return new ZipfianSequenceGenerator(min, max, theta);
+  }
+
+  public static ScrambledZipfianSequenceGenerator scrambledZipfian(final long min, final long max) {
+    return new ScrambledZipfianSequenceGenerator(min, max, ZipfianSequenceGenerator.DEFAULT_THETA);
+  }
+
+  public static ScrambledZipfianSequenceGenerator scrambledZipfian(final long min, final long max, final double theta) {
+    return new ScrambledZipfianSequenceGenerator(min, max, theta);
+  }
+
+  public static HotspotSequenceGenerator hotspot(final long min, final long max, final double hotSetFraction, final double hotOperationsFraction) {
+    return new HotspotSequenceGenerator(min, max, hotSetFraction, hotOperationsFraction);
+  }
+
+  public static InsertionSequenceGenerator insertions(final long min) {
+    return new InsertionSequenceGenerator(min);
+  }
+
+  public static LatestSequenceGenerator latest(final InsertionSequenceGenerator insertions, final long window) {
+    return new LatestSequenceGenerator(insertions, window, ZipfianSequenceGenerator.DEFAULT_THETA);
+  }
+
+  public static LatestSequenceGenerator latest(final InsertionSequenceGenerator insertions, final long window, final double theta) {
+    return new LatestSequenceGenerator(insertions, window, theta);
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.generator.sequence;
+
+/**
+ * Unsynchronized xorshift random, one instance per thread through {@link #current()}.
+ *
+ * @author Aurelien Broszniowski
+ */
+final class XorShiftRandom {
+
+  private static final ThreadLocal<XorShiftRandom> RANDOMS = new ThreadLocal<XorShiftRandom>() {
+    @Override
+    protected XorShiftRandom initialValue() {
+      return new XorShiftRandom(System.nanoTime() ^ Thread.currentThread().getId() * 0x9E3779B97F4A7C15L);
+    }
+  };
+
+  private long state;
+
+  private XorShiftRandom(final long seed) {
+    this.state = (seed == 0) ? 0x9E3779B97F4A7C15L : seed;
+  }
+
+  static XorShiftRandom current() {
+    return RANDOMS.get();
+  }
+
+  long nextLong() {
+    long x = state;
+    x ^= x << 13;
+    x ^= x >>> 7;
+    x ^= x << 17;
+    state = x;
+    return x;
+  }
+
+  /**
+   * @return a uniform double in [0, 1[
+   */
+  double nextDouble() {
+    return (nextLong() >>> 11) * 0x1.0p-53;
+  }
+
+  /**
+   * @return a uniform long in [0, bound[
+   */
+  long nextLong(final long bound) {
+    return (long)(nextDouble() * bound);
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.generator.sequence;
+
+import io.rainfall.SequenceGenerator;
+
+/**
+ * Zipfian sequence in [min, max], the lowest values being the most popular ones (YCSB algorithm, from
+ * "Quickly Generating Billion-Record Synthetic Databases", Gray et al).
+ * <p>
+ * The zeta constants are computed once at construction, {@link #next()} is lock-free and allocation-free.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class ZipfianSequenceGenerator implements SequenceGenerator {
+
+  public static final double DEFAULT_THETA = 0.99;
+
+  private final long min;
+  private final long items;
+  private final double theta;
+  private final double zetan;
+  private final double alpha;
+  private final double eta;
+  private final double halfPowTheta;
+
+  public ZipfianSequenceGenerator(final long min, final long max, final double theta) {
+    if (max < min) {
+      throw new IllegalArgumentException("max must be greater than or equal to min");
+    }
+    if (theta <= 0 || theta >= 1) {
+      throw new IllegalArgumentException("theta must be in ]0, 1[");
+    }
+    this.min = min;
+    this.items = max - min + 1;
+    this.theta = theta;
+    this.zetan = zeta(items, theta);
+    this.alpha = 1.0 / (1.0 - theta);
+    this.eta = (1 - Math.pow(2.0 / items, 1 - theta)) / (1 - zeta(2, theta) / zetan);
+    this.halfPowTheta = Math.pow(0.5, theta);
+  }
+
+  static double zeta(final long n, final double theta) {
+    double sum = 0;
+    for (long i = 1; i <= n; i++) {
+      sum += 1 / Math.pow(i, theta);
+    }
+    return sum;
+  }
+
+  /**
+   * @return a zipfian offset in [0, items[
+   */
+  long nextOffset() {
+    double u = XorShiftRandom.current().nextDouble();
+    double uz = u * zetan;
+    if (uz < 1.0) {
+      return 0;
+    }
+    if (uz < 1.0 + halfPowTheta) {
+      return Math.min(1, items - 1);
+    }
+    long offset = (long)(items * Math.pow(eta * u - eta + 1, alpha));
+    return offset >= items ? items - 1 : offset;
+  }
+
+  @Override
+  public long next() {
+    return min + nextOffset();
+  }
+
+  long getItems() {
+    return items;
+  }
+
+  @Override
+  public String getDescription() {
+    return "Zipfian sequence in [" + min + ", " + (min + items - 1) + "] (theta = " + theta + ")";
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.operation;
+
+import io.rainfall.ObjectGenerator;
+import io.rainfall.SequenceGenerator;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reusable batch of distinct keys (and values) for the bulk operations.
+ * <p>
+ * The batch is planned before the measured call : one sequence value is drawn per entry, so a batch of size n
+ * holds n distinct keys. Collections are pre-sized and cleared between invocations, a batch is meant to be
+ * owned by a single thread, see {@link PerThread}.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class BulkBatch<K, V> {
+
+  /**
+   * Upper bound of draws per requested entry, in case the sequence keeps returning already planned keys
+   * (e.g. a key range smaller than the batch size).
+   */
+  private static final int MAX_DRAWS_PER_ENTRY = 8;
+
+  private final int capacity;
+  private final Set<K> keys;
+  private final Map<K, V> entries;
+  private Set<K>[] keyParts;
+  private Map<K, V>[] entryParts;
+
+  public BulkBatch(final int capacity) {
+    this.capacity = capacity;
+    this.keys = new HashSet<K>(tableSize(capacity));
+    this.entries = new HashMap<K, V>(tableSize(capacity));
+  }
+
+  /**
+   * Plans a batch of keys
+   *
+   * @return the number of distinct keys in the batch
+   */
+  public int planKeys(final SequenceGenerator sequenceGenerator, final ObjectGenerator<K> keyGenerator, final int size) {
+    keys.clear();
+    int draws = size * MAX_DRAWS_PER_ENTRY;
+    while (keys.size() < size && draws-- > 0) {
+      keys.add(keyGenerator.generate(sequenceGenerator.next()));
+    }
+    return keys.size();
+  }
+
+  /**
+   * Plans a batch of entries
+   *
+   * @return the number of distinct entries in the batch
+   */
+  public int planEntries(final SequenceGenerator sequenceGenerator, final ObjectGenerator<K> keyGenerator,
+                         final ObjectGenerator<V> valueGenerator, final int size) {
+    entries.clear();
+    int draws = size * MAX_DRAWS_PER_ENTRY;
+    while (entries.size() < size && draws-- > 0) {
+      long next = sequenceGenerator.next();
+      K k = keyGenerator.generate(next);
+      if (!entries.containsKey(k)) {
+        entries.put(k, valueGenerator.generate(next));
+      }
+    }
+    return entries.size();
+  }
+
+  public Set<K> getKeys() {
+    return keys;
+  }
+
+  public Map<K, V> getEntries() {
+    return entries;
+  }
+
+  /**
+   * @return n empty sets, reused between invocations, e.g. to split the keys of the batch per cache
+   */
+  @SuppressWarnings("unchecked")
+  public Set<K>[] keyParts(final int n) {
+    if (keyParts == null || keyParts.length < n) {
+      keyParts = new Set[n];
+      for (int i = 0; i < n; i++) {
+        keyParts[i] = new HashSet<K>(tableSize(capacity));
+      }
+    }
+    for (Set<K> part : keyParts) {
+      part.clear();
+    }
+    return keyParts;
+  }
+
+  /**
+   * @return n empty maps, reused between invocations, e.g. to split the entries of the batch per cache
+   */
+  @SuppressWarnings("unchecked")
+  public Map<K, V>[] entryParts(final int n) {
+    if (entryParts == null || entryParts.length < n) {
+      entryParts = new Map[n];
+      for (int i = 0; i < n; i++) {
+        entryParts[i] = new HashMap<K, V>(tableSize(capacity));
+      }
+    }
+    for (Map<K, V> part : entryParts) {
+      part.clear();
+    }
+    return entryParts;
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  private static int tableSize(final int capacity) {
+    return (int)(capacity / 0.75f) + 1;
+  }
+
+  /**
+   * One {@link BulkBatch} per thread, re-created only when the batch size grows.
+   */
+  public static class PerThread<K, V> extends ThreadLocal<BulkBatch<K, V>> {
+
+    public BulkBatch<K, V> get(final int size) {
+      BulkBatch<K, V> batch = get();
+      if (batch == null || batch.getCapacity() < size) {
+        batch = new BulkBatch<K, V>(size);
+        set(batch);
+      }
+      return batch;
+    }
+  }
+}
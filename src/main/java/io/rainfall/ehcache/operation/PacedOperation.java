@@ -0,0 +1,62 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.operation;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.Operation;
+import io.rainfall.TestException;
+import io.rainfall.statistics.StatisticsHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Paces any Ehcache 2 or Ehcache 3 {@link Operation} with a {@link TokenBucket} : the operation is executed
+ * once per token, the calling thread parks until a token is available.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class PacedOperation implements Operation {
+
+  private final TokenBucket tokenBucket;
+  private final Operation operation;
+
+  public PacedOperation(final TokenBucket tokenBucket, final Operation operation) {
+    this.tokenBucket = tokenBucket;
+    this.operation = operation;
+  }
+
+  @Override
+  public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
+      Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+    tokenBucket.acquire();
+    operation.exec(statisticsHolder, configurations, assertions);
+  }
+
+  public TokenBucket getTokenBucket() {
+    return tokenBucket;
+  }
+
+  @Override
+  public List<String> getDescription() {
+    List<String> desc = new ArrayList<String>(operation.getDescription());
+    desc.add(tokenBucket.getDescription());
+    return desc;
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.operation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Token bucket pacing callers at a configured rate.
+ * <p>
+ * Tokens are handed out as time slots : each caller reserves the next free slot with a CAS, then parks until
+ * that slot is reached, so arrivals are spread evenly and waiting threads don't burn CPU. Slot {@code n} starts at
+ * {@code origin + n * 1e9 / rate} ns, the fractional interval keeping high rates exact. Up to {@code burst}
+ * tokens accumulate while the bucket is not used.
+ * A bucket can be shared by several operations, e.g. all the operations hitting the same cache.
+ * <p>
+ * The achieved rate is logged against the target rate every reporting period.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class TokenBucket {
+
+  private static final Logger log = LoggerFactory.getLogger(TokenBucket.class);
+
+  private static final long REPORTING_PERIOD_IN_NS = TimeUnit.SECONDS.toNanos(10);
+
+  private final String name;
+  private final long ratePerSecond;
+  private final double intervalInNs;
+  private final long burst;
+  private final long originInNs = System.nanoTime();
+
+  private final AtomicLong nextFreeSlot = new AtomicLong();
+  private final AtomicLong acquired = new AtomicLong();
+  private final AtomicLong periodStart = new AtomicLong(Long.MIN_VALUE);
+  private volatile long periodAcquired;
+  private volatile long firstAcquisition = Long.MIN_VALUE;
+
+  public TokenBucket(final String name, final long ratePerSecond, final int burst) {
+    if (ratePerSecond <= 0) {
+      throw new IllegalArgumentException("Rate must be strictly positive");
+    }
+    if (burst <= 0) {
+      throw new IllegalArgumentException("Burst must be strictly positive");
+    }
+    this.name = name;
+    this.ratePerSecond = ratePerSecond;
+    this.intervalInNs = (double)TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+    this.burst = burst;
+  }
+
+  public static TokenBucket tokenBucket(final String name, final long ratePerSecond) {
+    return new TokenBucket(name, ratePerSecond, 1);
+  }
+
+  /**
+   * Takes a token, parking the calling thread until it is available.
+   */
+  public void acquire() {
+    long now = System.nanoTime();
+    long current = (long)((now - originInNs) / intervalInNs);
+    long n;
+    while (true) {
+      long next = nextFreeSlot.get();
+      n = Math.max(next, current - (burst - 1));
+      if (nextFreeSlot.compareAndSet(next, n + 1)) {
+        break;
+      }
+    }
+    long slot = originInNs + (long)(n * intervalInNs);
+    long wait = slot - now;
+    while (wait > 0) {
+      LockSupport.parkNanos(wait);
+      wait = slot - System.nanoTime();
+    }
+
+    long count = acquired.incrementAndGet();
+    if (firstAcquisition == Long.MIN_VALUE) {
+      firstAcquisition = slot;
+    }
+    reportIfDue(count);
+  }
+
+  private void reportIfDue(final long count) {
+    long now = System.nanoTime();
+    long start = periodStart.get();
+    if (start == Long.MIN_VALUE) {
+      if (periodStart.compareAndSet(start, now)) {
+        periodAcquired = count;
+      }
+    } else if (now - start >= REPORTING_PERIOD_IN_NS && periodStart.compareAndSet(start, now)) {
+      long periodCount = count - periodAcquired;
+      periodAcquired = count;
+      log.info("{} : target {} ops/s, achieved {} ops/s", name, ratePerSecond, rate(periodCount, now - start));
+    }
+  }
+
+  private static long rate(final long count, final long elapsedInNs) {
+    return elapsedInNs <= 0 ? 0 : (long)(count * (double)TimeUnit.SECONDS.toNanos(1) / elapsedInNs);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public long getTargetRate() {
+    return ratePerSecond;
+  }
+
+  /**
+   * @return the average number of tokens handed out per second since the first one
+   */
+  public long getAchievedRate() {
+    long first = firstAcquisition;
+    return first == Long.MIN_VALUE ? 0 : rate(acquired.get(), System.nanoTime() - first);
+  }
+
+  public String getDescription() {
+    return "paced at " + ratePerSecond + " ops/s (" + name + ")";
+  }
+
+  @Override
+  public String toString() {
+    return name + " : target " + ratePerSecond + " ops/s, achieved " + getAchievedRate() + " ops/s";
+  }
+}
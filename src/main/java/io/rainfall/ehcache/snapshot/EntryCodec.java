@@ -0,0 +1,122 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.snapshot;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Compact encoding of the keys and values of a snapshot : byte[], String, Long and Integer are written as is,
+ * anything else with Java serialization.
+ * <pre>
+ * tag (byte), length (int), bytes
+ * </pre>
+ *
+ * @author Aurelien Broszniowski
+ */
+final class EntryCodec {
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  static final byte NULL = 0;
+  static final byte BYTES = 1;
+  static final byte STRING = 2;
+  static final byte LONG = 3;
+  static final byte INTEGER = 4;
+  static final byte SERIALIZED = 5;
+
+  static final int HEADER_SIZE = 1 + 4;
+
+  private EntryCodec() {
+  }
+
+  static byte tag(final Object o) {
+    if (o == null) {
+      return NULL;
+    } else if (o instanceof byte[]) {
+      return BYTES;
+    } else if (o instanceof String) {
+      return STRING;
+    } else if (o instanceof Long) {
+      return LONG;
+    } else if (o instanceof Integer) {
+      return INTEGER;
+    }
+    return SERIALIZED;
+  }
+
+  static byte[] bytes(final byte tag, final Object o) throws IOException {
+    switch (tag) {
+      case NULL:
+        return new byte[0];
+      case BYTES:
+        return (byte[])o;
+      case STRING:
+        return ((String)o).getBytes(UTF8);
+      case LONG:
+        return ByteBuffer.allocate(8).putLong((Long)o).array();
+      case INTEGER:
+        return ByteBuffer.allocate(4).putInt((Integer)o).array();
+      default:
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(o);
+        out.close();
+        return bytes.toByteArray();
+    }
+  }
+
+  static void write(final ByteBuffer buffer, final byte tag, final byte[] bytes) {
+    buffer.put(tag).putInt(bytes.length).put(bytes);
+  }
+
+  static Object read(final ByteBuffer buffer) throws IOException {
+    byte tag = buffer.get();
+    int length = buffer.getInt();
+    switch (tag) {
+      case NULL:
+        return null;
+      case LONG:
+        return buffer.getLong();
+      case INTEGER:
+        return buffer.getInt();
+      default:
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        if (tag == BYTES) {
+          return bytes;
+        } else if (tag == STRING) {
+          return new String(bytes, UTF8);
+        } else if (tag == SERIALIZED) {
+          ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes));
+          try {
+            return in.readObject();
+          } catch (ClassNotFoundException e) {
+            throw new IOException("Can not restore an entry of unknown class", e);
+          } finally {
+            in.close();
+          }
+        }
+        throw new IOException("Unknown snapshot entry tag " + tag);
+    }
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.snapshot;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.rainfall.ehcache.snapshot.SnapshotWriter.CHUNK_HEADER_SIZE;
+import static io.rainfall.ehcache.snapshot.SnapshotWriter.HEADER_SIZE;
+import static io.rainfall.ehcache.snapshot.SnapshotWriter.MAGIC;
+import static io.rainfall.ehcache.snapshot.SnapshotWriter.VERSION;
+
+/**
+ * Restores a snapshot file written by a {@link SnapshotWriter}, in parallel : the threads claim the chunks one
+ * after the other, memory-map them and hand their decoded entries to the {@link Sink} as one batch, so only one
+ * chunk per thread is on heap at a time.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class SnapshotReader implements Closeable {
+
+  /**
+   * Receives the restored entries, called concurrently by the restoring threads.
+   */
+  public interface Sink {
+
+    void putAll(Map<Object, Object> entries);
+  }
+
+  private final File file;
+  private final RandomAccessFile raf;
+  private final FileChannel channel;
+  private final List<long[]> chunks = new ArrayList<long[]>();
+
+  public SnapshotReader(final File file) throws IOException {
+    this.file = file;
+    this.raf = new RandomAccessFile(file, "r");
+    this.channel = raf.getChannel();
+    try {
+      index();
+    } catch (IOException e) {
+      raf.close();
+      throw e;
+    }
+  }
+
+  private void index() throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    readFully(header, 0);
+    if (header.getInt(0) != MAGIC) {
+      throw new IOException(file + " is not a cache snapshot");
+    }
+    if (header.getInt(4) != VERSION) {
+      throw new IOException("Unsupported snapshot version " + header.getInt(4) + " in " + file);
+    }
+    long size = channel.size();
+    long position = HEADER_SIZE;
+    while (position + CHUNK_HEADER_SIZE <= size) {
+      header.clear();
+      readFully(header, position);
+      int count = header.getInt(0);
+      int length = header.getInt(4);
+      if (position + CHUNK_HEADER_SIZE + length > size) {
+        throw new IOException("Truncated snapshot " + file);
+      }
+      chunks.add(new long[] { position + CHUNK_HEADER_SIZE, length, count });
+      position += CHUNK_HEADER_SIZE + length;
+    }
+  }
+
+  private void readFully(final ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position);
+      if (read < 0) {
+        throw new IOException("Unexpected end of snapshot " + file);
+      }
+      position += read;
+    }
+  }
+
+  /**
+   * @return the number of entries restored
+   */
+  public long restore(final int nbThreads, final Sink sink) throws IOException {
+    ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+    final AtomicInteger nextChunk = new AtomicInteger();
+    final AtomicLong restored = new AtomicLong();
+    try {
+      List<Future<Void>> futures = new ArrayList<Future<Void>>();
+      for (int i = 0; i < nbThreads; i++) {
+        futures.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            int index;
+            while ((index = nextChunk.getAndIncrement()) < chunks.size()) {
+              long[] chunk = chunks.get(index);
+              MappedByteBuffer payload = channel.map(FileChannel.MapMode.READ_ONLY, chunk[0], chunk[1]);
+              int count = (int)chunk[2];
+              Map<Object, Object> entries = new HashMap<Object, Object>((count * 4) / 3 + 1);
+              for (int i = 0; i < count; i++) {
+                Object key = EntryCodec.read(payload);
+                entries.put(key, EntryCodec.read(payload));
+              }
+              sink.putAll(entries);
+              restored.addAndGet(count);
+            }
+            return null;
+          }
+        }));
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while restoring " + file);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException)e.getCause();
+      }
+      throw new IOException("Can not restore " + file, e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+    return restored.get();
+  }
+
+  public File getFile() {
+    return file;
+  }
+
+  @Override
+  public void close() throws IOException {
+    raf.close();
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.snapshot;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Streams the entries of a cache to a snapshot file, through a direct buffer written to a file channel.
+ * <p>
+ * The file is made of a header (magic, version) followed by chunks : entry count (int), payload length (int),
+ * payload. Chunks are the unit of the parallel restore, see {@link SnapshotReader}.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class SnapshotWriter implements Closeable {
+
+  static final int MAGIC = 0x52465348;
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 8;
+  static final int CHUNK_HEADER_SIZE = 8;
+  public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+
+  private final File file;
+  private final FileOutputStream out;
+  private final FileChannel channel;
+  private final ByteBuffer chunk;
+  private final ByteBuffer chunkHeader = ByteBuffer.allocate(CHUNK_HEADER_SIZE);
+  private int chunkEntries;
+  private long entries;
+
+  public SnapshotWriter(final File file) throws IOException {
+    this(file, DEFAULT_CHUNK_SIZE);
+  }
+
+  public SnapshotWriter(final File file, final int chunkSize) throws IOException {
+    this.file = file;
+    this.out = new FileOutputStream(file);
+    this.channel = out.getChannel();
+    this.chunk = ByteBuffer.allocateDirect(chunkSize);
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    header.putInt(MAGIC).putInt(VERSION).flip();
+    writeFully(header);
+  }
+
+  public void append(final Object key, final Object value) throws IOException {
+    byte keyTag = EntryCodec.tag(key);
+    byte valueTag = EntryCodec.tag(value);
+    byte[] keyBytes = EntryCodec.bytes(keyTag, key);
+    byte[] valueBytes = EntryCodec.bytes(valueTag, value);
+    int size = EntryCodec.HEADER_SIZE * 2 + keyBytes.length + valueBytes.length;
+
+    if (size > chunk.remaining()) {
+      flushChunk();
+    }
+    if (size > chunk.capacity()) {
+      ByteBuffer oversized = ByteBuffer.allocate(size);
+      EntryCodec.write(oversized, keyTag, keyBytes);
+      EntryCodec.write(oversized, valueTag, valueBytes);
+      oversized.flip();
+      writeChunk(oversized, 1);
+    } else {
+      EntryCodec.write(chunk, keyTag, keyBytes);
+      EntryCodec.write(chunk, valueTag, valueBytes);
+      chunkEntries++;
+    }
+    entries++;
+  }
+
+  private void flushChunk() throws IOException {
+    if (chunkEntries > 0) {
+      chunk.flip();
+      writeChunk(chunk, chunkEntries);
+    }
+    chunk.clear();
+    chunkEntries = 0;
+  }
+
+  private void writeChunk(final ByteBuffer payload, final int count) throws IOException {
+    chunkHeader.clear();
+    chunkHeader.putInt(count).putInt(payload.remaining()).flip();
+    writeFully(chunkHeader);
+    writeFully(payload);
+  }
+
+  private void writeFully(final ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  /**
+   * @return the snapshot file of a cache in the directory
+   */
+  public static File fileFor(final File directory, final String cacheName) {
+    return new File(directory, cacheName.replaceAll("[^A-Za-z0-9._-]", "_") + ".snapshot");
+  }
+
+  public File getFile() {
+    return file;
+  }
+
+  public long getEntries() {
+    return entries;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      flushChunk();
+      channel.force(false);
+    } finally {
+      out.close();
+    }
+  }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.statistics;
+
+import io.rainfall.ehcache.trace.AccessType;
+
+/**
+ * Receives every single-key cache access measured by the Ehcache 2 and Ehcache 3 operations, in addition to the
+ * Rainfall statistics, but the {@link io.rainfall.ehcache.trace.TraceRecorder}s, which only receive the first
+ * access of each operation. Implementations registered as configurations of the run are picked up by the
+ * operations, see {@link AccessRecorders#resolve(java.util.Map)}.
+ * <p>
+ * Called on the measuring threads, implementations must be thread safe and must not block.
+ *
+ * @author Aurelien Broszniowski
+ */
+public interface AccessRecorder {
+
+  /**
+   * @param cacheName the name the access is recorded under in the statistics
+   * @param value the value put or read, may be null
+   * @param startInNs the {@link System#nanoTime()} at the start of the access
+   */
+  void record(String cacheName, AccessType accessType, long sequence, Object value, long startInNs,
+              long latencyInNs, EhcacheResult result);
+}
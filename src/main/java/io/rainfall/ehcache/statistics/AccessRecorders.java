@@ -0,0 +1,88 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.statistics;
+
+import io.rainfall.Configuration;
+import io.rainfall.ehcache.trace.AccessType;
+import io.rainfall.ehcache.trace.TraceRecorder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves the {@link AccessRecorder}s registered as configurations of a run.
+ *
+ * @author Aurelien Broszniowski
+ */
+public final class AccessRecorders {
+
+  private AccessRecorders() {
+  }
+
+  /**
+   * @return the access recorder of the run, combining all the configured ones, or null if there is none
+   */
+  public static AccessRecorder resolve(final Map<Class<? extends Configuration>, Configuration> configurations) {
+    return resolve(configurations, true);
+  }
+
+  /**
+   * @return the access recorder of the accesses to the caches after the first one of an operation, combining the
+   * configured ones but the {@link TraceRecorder}s, which record once per operation, or null if there is none
+   */
+  public static AccessRecorder resolveFollowing(final Map<Class<? extends Configuration>, Configuration> configurations) {
+    return resolve(configurations, false);
+  }
+
+  private static AccessRecorder resolve(final Map<Class<? extends Configuration>, Configuration> configurations,
+                                        final boolean traces) {
+    List<AccessRecorder> recorders = null;
+    for (Configuration configuration : configurations.values()) {
+      if (configuration instanceof AccessRecorder && (traces || !(configuration instanceof TraceRecorder))) {
+        if (recorders == null) {
+          recorders = new ArrayList<AccessRecorder>();
+        }
+        recorders.add((AccessRecorder)configuration);
+      }
+    }
+    if (recorders == null) {
+      return null;
+    }
+    if (recorders.size() == 1) {
+      return recorders.get(0);
+    }
+    return new CompositeAccessRecorder(recorders.toArray(new AccessRecorder[recorders.size()]));
+  }
+
+  static class CompositeAccessRecorder implements AccessRecorder {
+
+    private final AccessRecorder[] recorders;
+
+    CompositeAccessRecorder(final AccessRecorder[] recorders) {
+      this.recorders = recorders;
+    }
+
+    @Override
+    public void record(final String cacheName, final AccessType accessType, final long sequence, final Object value,
+                       final long startInNs, final long latencyInNs, final EhcacheResult result) {
+      for (AccessRecorder recorder : recorders) {
+        recorder.record(cacheName, accessType, sequence, value, startInNs, latencyInNs, result);
+      }
+    }
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.statistics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Values of the statistics of a cache at a point in time.
+ * <p>
+ * Counters are monotonic (hits, evictions...) and reported as per-interval deltas, gauges (size, occupied
+ * memory...) are reported as is.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class CacheStatisticsSample {
+
+  private final long timestampInMs;
+  private final Map<String, Long> values = new LinkedHashMap<String, Long>();
+  private final Map<String, Boolean> counters = new LinkedHashMap<String, Boolean>();
+
+  public CacheStatisticsSample(final long timestampInMs) {
+    this.timestampInMs = timestampInMs;
+  }
+
+  public CacheStatisticsSample counter(final String name, final long value) {
+    values.put(name, value);
+    counters.put(name, Boolean.TRUE);
+    return this;
+  }
+
+  public CacheStatisticsSample gauge(final String name, final long value) {
+    values.put(name, value);
+    counters.put(name, Boolean.FALSE);
+    return this;
+  }
+
+  public long getTimestampInMs() {
+    return timestampInMs;
+  }
+
+  public Map<String, Long> getValues() {
+    return values;
+  }
+
+  public boolean isCounter(final String name) {
+    return Boolean.TRUE.equals(counters.get(name));
+  }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.statistics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples the statistics reported by the caches themselves at a fixed interval during a run, and reports them
+ * as time series next to the Rainfall latency reports.
+ * <p>
+ * Counters are reported as deltas over each interval, gauges as sampled. Statistics which stay at 0 during the
+ * whole run are left out of the reports.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class CacheStatisticsSampler {
+
+  private static final Logger log = LoggerFactory.getLogger(CacheStatisticsSampler.class);
+
+  private final List<? extends CacheStatisticsSource> sources;
+  private final long periodInMs;
+  private final Map<String, List<CacheStatisticsSample>> series = new LinkedHashMap<String, List<CacheStatisticsSample>>();
+  private ScheduledExecutorService scheduler;
+  private long startInMs;
+
+  public CacheStatisticsSampler(final List<? extends CacheStatisticsSource> sources, final long period, final TimeUnit unit) {
+    if (period <= 0) {
+      throw new IllegalArgumentException("Sampling period must be strictly positive");
+    }
+    this.sources = sources;
+    this.periodInMs = unit.toMillis(period);
+    for (CacheStatisticsSource source : sources) {
+      series.put(source.getCacheName(), new ArrayList<CacheStatisticsSample>());
+    }
+  }
+
+  public static CacheStatisticsSampler cacheStatistics(final List<? extends CacheStatisticsSource> sources,
+                                                       final long period, final TimeUnit unit) {
+    return new CacheStatisticsSampler(sources, period, unit);
+  }
+
+  public synchronized CacheStatisticsSampler start() {
+    if (scheduler != null) {
+      throw new IllegalStateException("Cache statistics sampler already started");
+    }
+    startInMs = System.currentTimeMillis();
+    scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(final Runnable r) {
+        Thread thread = new Thread(r, "Cache statistics sampler");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    scheduler.scheduleAtFixedRate(new Runnable() {
+      @Override
+      public void run() {
+        sample();
+      }
+    }, 0, periodInMs, TimeUnit.MILLISECONDS);
+    return this;
+  }
+
+  /**
+   * Stops the sampling, after taking a last sample. Does nothing if the sampling is not running.
+   */
+  public void stop() {
+    ScheduledExecutorService current;
+    synchronized (this) {
+      current = scheduler;
+      scheduler = null;
+    }
+    if (current == null) {
+      return;
+    }
+    current.shutdown();
+    try {
+      current.awaitTermination(periodInMs * 2, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    sample();
+  }
+
+  private void sample() {
+    long now = System.currentTimeMillis();
+    for (CacheStatisticsSource source : sources) {
+      CacheStatisticsSample sample = new CacheStatisticsSample(now);
+      try {
+        source.sample(sample);
+      } catch (RuntimeException e) {
+        log.warn("Can not sample the statistics of cache {}", source.getCacheName(), e);
+        continue;
+      }
+      synchronized (series) {
+        series.get(source.getCacheName()).add(sample);
+      }
+    }
+  }
+
+  /**
+   * Writes the text and html reports in the directory.
+   */
+  public void report(final File directory) throws FileNotFoundException {
+    if (!directory.exists() && !directory.mkdirs()) {
+      throw new FileNotFoundException("Can not create directory " + directory);
+    }
+    PrintStream text = new PrintStream(new File(directory, "cache-statistics.txt"));
+    try {
+      writeText(text);
+    } finally {
+      text.close();
+    }
+    PrintStream html = new PrintStream(new File(directory, "cache-statistics.html"));
+    try {
+      writeHtml(html);
+    } finally {
+      html.close();
+    }
+  }
+
+  public void writeText(final PrintStream out) {
+    synchronized (series) {
+      for (Map.Entry<String, List<CacheStatisticsSample>> entry : series.entrySet()) {
+        List<String> columns = columns(entry.getValue());
+        out.println("Cache statistics of " + entry.getKey() + " (counters per " + periodInMs + "ms interval)");
+        StringBuilder header = new StringBuilder(String.format("%10s", "time(s)"));
+        for (String column : columns) {
+          header.append(String.format(" %" + Math.max(12, column.length()) + "s", column));
+        }
+        out.println(header);
+        CacheStatisticsSample previous = null;
+        for (CacheStatisticsSample sample : entry.getValue()) {
+          StringBuilder line = new StringBuilder(String.format("%10.1f", (sample.getTimestampInMs() - startInMs) / 1000.0));
+          for (String column : columns) {
+            line.append(String.format(" %" + Math.max(12, column.length()) + "d", value(previous, sample, column)));
+          }
+          out.println(line);
+          previous = sample;
+        }
+        out.println();
+      }
+    }
+  }
+
+  public void writeHtml(final PrintStream out) {
+    out.println("<html><head><title>Cache statistics</title>");
+    out.println("<style>table { border-collapse: collapse; } td, th { border: 1px solid #ccc; padding: 2px 6px; text-align: right; }</style>");
+    out.println("</head><body>");
+    synchronized (series) {
+      for (Map.Entry<String, List<CacheStatisticsSample>> entry : series.entrySet()) {
+        List<String> columns = columns(entry.getValue());
+        out.println("<h2>Cache statistics of " + escape(entry.getKey()) + "</h2>");
+        out.println("<p>Counters per " + periodInMs + "ms interval, gauges as sampled</p>");
+        out.print("<table><tr><th>time (s)</th>");
+        for (String column : columns) {
+          out.print("<th>" + escape(column) + "</th>");
+        }
+        out.println("</tr>");
+        CacheStatisticsSample previous = null;
+        for (CacheStatisticsSample sample : entry.getValue()) {
+          out.print(String.format("<tr><td>%.1f</td>", (sample.getTimestampInMs() - startInMs) / 1000.0));
+          for (String column : columns) {
+            out.print("<td>" + value(previous, sample, column) + "</td>");
+          }
+          out.println("</tr>");
+          previous = sample;
+        }
+        out.println("</table>");
+      }
+    }
+    out.println("</body></html>");
+  }
+
+  private static List<String> columns(final List<CacheStatisticsSample> samples) {
+    Set<String> columns = new LinkedHashSet<String>();
+    for (CacheStatisticsSample sample : samples) {
+      for (Map.Entry<String, Long> value : sample.getValues().entrySet()) {
+        if (value.getValue() != 0) {
+          columns.add(value.getKey());
+        }
+      }
+    }
+    return new ArrayList<String>(columns);
+  }
+
+  private static long value(final CacheStatisticsSample previous, final CacheStatisticsSample sample, final String column) {
+    Long value = sample.getValues().get(column);
+    if (value == null) {
+      return 0;
+    }
+    if (sample.isCounter(column) && previous != null) {
+      Long previousValue = previous.getValues().get(column);
+      return previousValue == null ? value : value - previousValue;
+    }
+    return value;
+  }
+
+  private static String escape(final String s) {
+    return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+  }
+
+  /**
+   * @return the samples of a cache, in sampling order
+   */
+  public List<CacheStatisticsSample> getSamples(final String cacheName) {
+    synchronized (series) {
+      List<CacheStatisticsSample> samples = series.get(cacheName);
+      return samples == null ? new ArrayList<CacheStatisticsSample>() : new ArrayList<CacheStatisticsSample>(samples);
+    }
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.statistics;
+
+import io.rainfall.Configuration;
+import io.rainfall.ehcache.execution.ArrivalRate;
+import io.rainfall.ehcache.trace.AccessType;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reports the latencies of the single-key accesses per cache and per {@link EhcacheResult}, both as measured and
+ * corrected for coordinated omission, for runs executed at an {@link ArrivalRate}.
+ * <p>
+ * Registered as a configuration of the run, it adds to each access the lateness of the scenario iteration it is
+ * part of, i.e. how late the iteration started after its intended start time because of the previous stalled
+ * ones. Outside of an {@link ArrivalRate} execution, the iterations are never late and both latencies are equal.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class CorrectedLatencies extends Configuration implements AccessRecorder {
+
+  private final LatencyRecorders uncorrected = new LatencyRecorders();
+  private final LatencyRecorders corrected = new LatencyRecorders();
+  private final Map<String, Histogram[]> totals = new TreeMap<String, Histogram[]>();
+
+  public static CorrectedLatencies correctedLatencies() {
+    return new CorrectedLatencies();
+  }
+
+  @Override
+  public void record(final String cacheName, final AccessType accessType, final long sequence, final Object value,
+                     final long startInNs, final long latencyInNs, final EhcacheResult result) {
+    uncorrected.record(cacheName, result, latencyInNs);
+    corrected.record(cacheName, result, latencyInNs + ArrivalRate.latenessOfCurrentThreadInNs());
+  }
+
+  /**
+   * Writes the text and html reports in the directory.
+   */
+  public void report(final File directory) throws FileNotFoundException {
+    if (!directory.exists() && !directory.mkdirs()) {
+      throw new FileNotFoundException("Can not create directory " + directory);
+    }
+    PrintStream text = new PrintStream(new File(directory, "corrected-latencies.txt"));
+    try {
+      writeText(text);
+    } finally {
+      text.close();
+    }
+    PrintStream html = new PrintStream(new File(directory, "corrected-latencies.html"));
+    try {
+      writeHtml(html);
+    } finally {
+      html.close();
+    }
+  }
+
+  public synchronized void writeText(final PrintStream out) {
+    accumulate();
+    out.println("Latencies uncorrected / corrected for coordinated omission (in us)");
+    out.println(String.format("%-30s %10s %10s %10s %10s %10s %10s %10s %10s %10s", "cache / result", "count",
+        "mean", "99%", "99.9%", "max", "cor.mean", "cor.99%", "cor.99.9%", "cor.max"));
+    for (Map.Entry<String, Histogram[]> entry : totals.entrySet()) {
+      Histogram measured = entry.getValue()[0];
+      Histogram correct = entry.getValue()[1];
+      out.println(String.format("%-30s %10d %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f", entry.getKey(),
+          measured.getTotalCount(), micros(measured.getMean()), micros(measured.getValueAtPercentile(99.0)),
+          micros(measured.getValueAtPercentile(99.9)), micros(measured.getMaxValue()), micros(correct.getMean()),
+          micros(correct.getValueAtPercentile(99.0)), micros(correct.getValueAtPercentile(99.9)),
+          micros(correct.getMaxValue())));
+    }
+  }
+
+  public synchronized void writeHtml(final PrintStream out) {
+    accumulate();
+    out.println("<html><head><title>Corrected latencies</title>");
+    out.println("<style>table { border-collapse: collapse; } td, th { border: 1px solid #ccc; padding: 2px 6px; text-align: right; }</style>");
+    out.println("</head><body>");
+    out.println("<h2>Latencies uncorrected / corrected for coordinated omission</h2>");
+    out.println("<p>Latencies in us</p>");
+    out.println("<table><tr><th>cache / result</th><th>count</th><th>mean</th><th>99%</th><th>99.9%</th><th>max</th>"
+                + "<th>corrected mean</th><th>corrected 99%</th><th>corrected 99.9%</th><th>corrected max</th></tr>");
+    for (Map.Entry<String, Histogram[]> entry : totals.entrySet()) {
+      Histogram measured = entry.getValue()[0];
+      Histogram correct = entry.getValue()[1];
+      out.println(String.format("<tr><td>%s</td><td>%d</td><td>%.1f</td><td>%.1f</td><td>%.1f</td><td>%.1f</td>"
+                                + "<td>%.1f</td><td>%.1f</td><td>%.1f</td><td>%.1f</td></tr>", escape(entry.getKey()),
+          measured.getTotalCount(), micros(measured.getMean()), micros(measured.getValueAtPercentile(99.0)),
+          micros(measured.getValueAtPercentile(99.9)), micros(measured.getMaxValue()), micros(correct.getMean()),
+          micros(correct.getValueAtPercentile(99.0)), micros(correct.getValueAtPercentile(99.9)),
+          micros(correct.getMaxValue())));
+    }
+    out.println("</table>");
+    out.println("</body></html>");
+  }
+
+  /**
+   * @return a copy of the total histograms of a cache and result, uncorrected then corrected, or null if none
+   * was recorded
+   */
+  public synchronized Histogram[] getHistograms(final String cacheName, final EhcacheResult result) {
+    accumulate();
+    Histogram[] histograms = totals.get(cacheName + " / " + result);
+    return histograms == null ? null : new Histogram[] { histograms[0].copy(), histograms[1].copy() };
+  }
+
+  /**
+   * Swaps out the latencies recorded since the previous call into the totals, keyed by "cache / RESULT".
+   */
+  private void accumulate() {
+    accumulate(uncorrected, 0);
+    accumulate(corrected, 1);
+  }
+
+  private void accumulate(final LatencyRecorders recorders, final int index) {
+    recorders.intervalHistograms(new LatencyRecorders.Visitor() {
+      @Override
+      public void visit(final String cacheName, final EhcacheResult result, final Histogram intervalHistogram) {
+        String key = cacheName + " / " + result;
+        Histogram[] histograms = totals.get(key);
+        if (histograms == null) {
+          histograms = new Histogram[] { new Histogram(3), new Histogram(3) };
+          totals.put(key, histograms);
+        }
+        histograms[index].add(intervalHistogram);
+      }
+    });
+  }
+
+  private static double micros(final double nanos) {
+    return nanos / 1000.0;
+  }
+
+  private static String escape(final String s) {
+    return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+  }
+
+  @Override
+  public List<String> getDescription() {
+    List<String> desc = new ArrayList<String>();
+    desc.add("Reporting the latencies corrected for coordinated omission");
+    return desc;
+  }
+}
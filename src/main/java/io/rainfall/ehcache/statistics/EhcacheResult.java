@@ -5,5 +5,7 @@ package io.rainfall.ehcache.statistics;
  */
 public enum EhcacheResult {
   PUT, GET, MISS, REMOVE, REMOVEVALUE, EXCEPTION, PUTALL, GETALL, REMOVEALL, PUTIFABSENT, REPLACE, REPLACEVALUE,
-  REMOVEVALUE_MISS, REPLACE_MISS, PUTIFABSENT_MISS, REPLACEVALUE_MISS
+  REMOVEVALUE_MISS, REPLACE_MISS, PUTIFABSENT_MISS, REPLACEVALUE_MISS,
+  PUTALL_ENTRY, GETALL_ENTRY, REMOVEALL_ENTRY,
+  EXPIRED, SCAN, SCAN_ENTRY
 }
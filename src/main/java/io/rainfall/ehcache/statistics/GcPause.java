@@ -0,0 +1,72 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.statistics;
+
+/**
+ * A garbage collection pause, as notified by a garbage collector MXBean.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class GcPause {
+
+  private final String collector;
+  private final String action;
+  private final long startInMs;
+  private final long durationInMs;
+
+  public GcPause(final String collector, final String action, final long startInMs, final long durationInMs) {
+    this.collector = collector;
+    this.action = action;
+    this.startInMs = startInMs;
+    this.durationInMs = durationInMs;
+  }
+
+  public String getCollector() {
+    return collector;
+  }
+
+  public String getAction() {
+    return action;
+  }
+
+  /**
+   * @return the start of the pause, in milliseconds since the epoch
+   */
+  public long getStartInMs() {
+    return startInMs;
+  }
+
+  public long getEndInMs() {
+    return startInMs + durationInMs;
+  }
+
+  public long getDurationInMs() {
+    return durationInMs;
+  }
+
+  /**
+   * @return the time of the pause spent between the two timestamps, in milliseconds
+   */
+  public long overlap(final long fromInMs, final long toInMs) {
+    return Math.max(0, Math.min(toInMs, getEndInMs()) - Math.max(fromInMs, startInMs));
+  }
+
+  @Override
+  public String toString() {
+    return collector + " (" + action + ") " + durationInMs + "ms";
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.statistics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.MBeanNotificationInfo;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationFilter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the garbage collection pauses of the JVM from the notifications of the garbage collector MXBeans.
+ * <p>
+ * The notifications are parsed from their open data, so that no com.sun.management class is needed. The cycles
+ * of the concurrent collectors (e.g. ConcurrentMarkSweep) are not pauses and are left out. Only the collectors
+ * declaring the GC notification type are listened to. Until a first notification is received, e.g. on a JVM whose
+ * collectors do not send them, {@link #isNotifying()} returns false and {@link #getCollectionTimeInMs()} can be
+ * polled instead.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class GcPauseMonitor implements NotificationListener {
+
+  private static final Logger log = LoggerFactory.getLogger(GcPauseMonitor.class);
+
+  static final String GC_NOTIFICATION = "com.sun.management.gc.notification";
+
+  private final long jvmStartInMs = ManagementFactory.getRuntimeMXBean().getStartTime();
+  private final List<GcPause> pauses = new ArrayList<GcPause>();
+  private final List<NotificationEmitter> emitters = new ArrayList<NotificationEmitter>();
+  private volatile boolean notified;
+
+  public synchronized void start() {
+    if (!emitters.isEmpty()) {
+      throw new IllegalStateException("GC pause monitor already started");
+    }
+    notified = false;
+    NotificationFilter filter = new NotificationFilter() {
+      @Override
+      public boolean isNotificationEnabled(final Notification notification) {
+        return GC_NOTIFICATION.equals(notification.getType());
+      }
+    };
+    for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+      if (bean instanceof NotificationEmitter && isNotifyingGc((NotificationEmitter)bean)) {
+        NotificationEmitter emitter = (NotificationEmitter)bean;
+        emitter.addNotificationListener(this, filter, null);
+        emitters.add(emitter);
+      }
+    }
+    if (emitters.isEmpty()) {
+      log.warn("The garbage collectors do not notify their collections, the GC pauses are not collected");
+    }
+  }
+
+  public synchronized void stop() {
+    for (NotificationEmitter emitter : emitters) {
+      try {
+        emitter.removeNotificationListener(this);
+      } catch (ListenerNotFoundException e) {
+        // already removed
+      }
+    }
+    emitters.clear();
+  }
+
+  /**
+   * @return true once the collectors have notified a collection
+   */
+  public boolean isNotifying() {
+    return notified;
+  }
+
+  static boolean isNotifyingGc(final NotificationEmitter emitter) {
+    for (MBeanNotificationInfo info : emitter.getNotificationInfo()) {
+      for (String type : info.getNotifTypes()) {
+        if (GC_NOTIFICATION.equals(type)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public void handleNotification(final Notification notification, final Object handback) {
+    if (!(notification.getUserData() instanceof CompositeData)) {
+      return;
+    }
+    notified = true;
+    CompositeData data = (CompositeData)notification.getUserData();
+    String collector = String.valueOf(data.get("gcName"));
+    if (collector.contains("Concurrent")) {
+      return;
+    }
+    CompositeData info = (CompositeData)data.get("gcInfo");
+    long startInMs = jvmStartInMs + ((Number)info.get("startTime")).longValue();
+    long durationInMs = ((Number)info.get("duration")).longValue();
+    GcPause pause = new GcPause(collector, String.valueOf(data.get("gcAction")), startInMs, durationInMs);
+    synchronized (pauses) {
+      pauses.add(pause);
+    }
+  }
+
+  /**
+   * @return the pauses overlapping the two timestamps, in milliseconds since the epoch
+   */
+  public List<GcPause> getPauses(final long fromInMs, final long toInMs) {
+    List<GcPause> overlapping = new ArrayList<GcPause>();
+    synchronized (pauses) {
+      for (GcPause pause : pauses) {
+        if (pause.overlap(fromInMs, toInMs) > 0) {
+          overlapping.add(pause);
+        }
+      }
+    }
+    return overlapping;
+  }
+
+  public List<GcPause> getPauses() {
+    synchronized (pauses) {
+      return new ArrayList<GcPause>(pauses);
+    }
+  }
+
+  /**
+   * @return the accumulated collection time of all the garbage collectors, in milliseconds
+   */
+  public long getCollectionTimeInMs() {
+    long time = 0;
+    for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+      time += Math.max(0, bean.getCollectionTime());
+    }
+    return time;
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.statistics;
+
+import io.rainfall.Configuration;
+import io.rainfall.ehcache.trace.AccessType;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exports the latencies of the cache accesses of a run in the HdrHistogram compressed interval log format, for
+ * offline aggregation and comparison of runs with the HdrHistogram tools.
+ * <p>
+ * Registered as a configuration of the run, it records every single-key access in an HdrHistogram
+ * {@link org.HdrHistogram.Recorder} per cache and {@link EhcacheResult}, shared by all the threads. A background
+ * thread writes the interval histograms to the log at each interval, each one tagged "cache/RESULT", so the log
+ * can be split or merged per tag, and the logs of several runs merged together. Latencies are in nanoseconds.
+ * {@link #close()} must be called once the run is over.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class HistogramLogExporter extends Configuration implements AccessRecorder, Closeable {
+
+  private static final Logger log = LoggerFactory.getLogger(HistogramLogExporter.class);
+
+  private final File file;
+  private final long periodInMs;
+  private final LatencyRecorders recorders = new LatencyRecorders();
+  private final HistogramLogWriter writer;
+  private final ScheduledExecutorService scheduler;
+  private long lastIntervalInMs;
+  private volatile boolean closed = false;
+
+  public HistogramLogExporter(final File file, final long period, final TimeUnit unit) throws FileNotFoundException {
+    if (period <= 0) {
+      throw new IllegalArgumentException("The interval must be positive");
+    }
+    this.file = file;
+    this.periodInMs = unit.toMillis(period);
+    this.writer = new HistogramLogWriter(file);
+    this.lastIntervalInMs = System.currentTimeMillis();
+    writer.outputLogFormatVersion();
+    writer.outputStartTime(lastIntervalInMs);
+    writer.setBaseTime(lastIntervalInMs);
+    writer.outputBaseTime(lastIntervalInMs);
+    writer.outputLegend();
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(final Runnable r) {
+        Thread thread = new Thread(r, "HistogramLogExporter");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    this.scheduler.scheduleAtFixedRate(new Runnable() {
+      @Override
+      public void run() {
+        writeIntervals();
+      }
+    }, periodInMs, periodInMs, TimeUnit.MILLISECONDS);
+  }
+
+  public static HistogramLogExporter histogramLog(final File file) throws FileNotFoundException {
+    return new HistogramLogExporter(file, 1, TimeUnit.SECONDS);
+  }
+
+  public static HistogramLogExporter histogramLog(final File file, final long period, final TimeUnit unit)
+      throws FileNotFoundException {
+    return new HistogramLogExporter(file, period, unit);
+  }
+
+  @Override
+  public void record(final String cacheName, final AccessType accessType, final long sequence, final Object value,
+                     final long startInNs, final long latencyInNs, final EhcacheResult result) {
+    if (closed) {
+      return;
+    }
+    recorders.record(cacheName, result, latencyInNs);
+  }
+
+  private void writeIntervals() {
+    final long start = lastIntervalInMs;
+    final long end = System.currentTimeMillis();
+    try {
+      recorders.intervalHistograms(new LatencyRecorders.Visitor() {
+        @Override
+        public void visit(final String cacheName, final EhcacheResult result, final Histogram intervalHistogram) {
+          intervalHistogram.setStartTimeStamp(start);
+          intervalHistogram.setEndTimeStamp(end);
+          intervalHistogram.setTag(tag(cacheName, result));
+          writer.outputIntervalHistogram(intervalHistogram);
+        }
+      });
+    } catch (RuntimeException e) {
+      log.error("Can not write the interval histograms to {}", file, e);
+    }
+    lastIntervalInMs = end;
+  }
+
+  /**
+   * @return the tag of the histograms of a cache and result, the log format does not allow commas nor spaces
+   */
+  static String tag(final String cacheName, final EhcacheResult result) {
+    return cacheName.replaceAll("[,\\s]", "_") + "/" + result.name();
+  }
+
+  public File getFile() {
+    return file;
+  }
+
+  /**
+   * Writes the last, shorter, interval and closes the log. The recording threads must be done.
+   */
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    scheduler.shutdown();
+    try {
+      if (!scheduler.awaitTermination(periodInMs + 1000, TimeUnit.MILLISECONDS)) {
+        log.warn("Histogram log exporter did not stop in time");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while closing the histogram log exporter");
+    }
+    try {
+      writeIntervals();
+    } finally {
+      writer.close();
+    }
+  }
+
+  @Override
+  public List<String> getDescription() {
+    List<String> desc = new ArrayList<String>();
+    desc.add("HdrHistogram interval log of the cache accesses to " + file + " (" + periodInMs + "ms intervals)");
+    return desc;
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.statistics;
+
+/**
+ * A reporting interval in which the tail latency of a cache and {@link EhcacheResult} exceeded the threshold of
+ * the {@link LatencyOutlierCorrelation}, with the garbage collection pause time overlapping it.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class LatencyOutlier {
+
+  private final String cacheName;
+  private final EhcacheResult result;
+  private final long startInMs;
+  private final long endInMs;
+  private final long count;
+  private final long tailLatencyInNs;
+  private final long maxLatencyInNs;
+  private final long gcPauseInMs;
+  private final boolean explainedByGc;
+
+  public LatencyOutlier(final String cacheName, final EhcacheResult result, final long startInMs, final long endInMs,
+                        final long count, final long tailLatencyInNs, final long maxLatencyInNs,
+                        final long gcPauseInMs, final boolean explainedByGc) {
+    this.cacheName = cacheName;
+    this.result = result;
+    this.startInMs = startInMs;
+    this.endInMs = endInMs;
+    this.count = count;
+    this.tailLatencyInNs = tailLatencyInNs;
+    this.maxLatencyInNs = maxLatencyInNs;
+    this.gcPauseInMs = gcPauseInMs;
+    this.explainedByGc = explainedByGc;
+  }
+
+  public String getCacheName() {
+    return cacheName;
+  }
+
+  public EhcacheResult getResult() {
+    return result;
+  }
+
+  public long getStartInMs() {
+    return startInMs;
+  }
+
+  public long getEndInMs() {
+    return endInMs;
+  }
+
+  /**
+   * @return the number of accesses of the interval
+   */
+  public long getCount() {
+    return count;
+  }
+
+  public long getTailLatencyInNs() {
+    return tailLatencyInNs;
+  }
+
+  public long getMaxLatencyInNs() {
+    return maxLatencyInNs;
+  }
+
+  /**
+   * @return the garbage collection pause time overlapping the interval, in milliseconds
+   */
+  public long getGcPauseInMs() {
+    return gcPauseInMs;
+  }
+
+  public boolean isExplainedByGc() {
+    return explainedByGc;
+  }
+}
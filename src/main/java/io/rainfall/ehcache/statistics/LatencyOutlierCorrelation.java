@@ -0,0 +1,324 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.statistics;
+
+import io.rainfall.Configuration;
+import io.rainfall.ehcache.trace.AccessType;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Correlates the latency outliers of the caches with the garbage collection pauses of the JVM.
+ * <p>
+ * Registered as a configuration of the run, it records the latency of every single-key access per cache and
+ * {@link EhcacheResult}. At each interval, the intervals whose tail latency (99.9th percentile by default)
+ * exceeded the threshold are flagged as outliers, and overlaid with the GC pauses notified by the garbage
+ * collector MXBeans during the interval, or during the max latency preceding it, since a stalled access is
+ * recorded when it completes. An outlier is explained by GC when the overlapping pause time is at least half
+ * of its tail latency, otherwise it is caused by the cache itself.
+ * <p>
+ * When the JVM does not notify its collections, the collection time polled over the interval is used instead.
+ * {@link #start()} must be called before the run and {@link #stop()} after it.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class LatencyOutlierCorrelation extends Configuration implements AccessRecorder {
+
+  private static final Logger log = LoggerFactory.getLogger(LatencyOutlierCorrelation.class);
+
+  private static final EhcacheResult[] RESULTS = LatencyRecorders.RESULTS;
+  private static final double GC_SHARE = 0.5;
+
+  private final long thresholdInNs;
+  private double percentile = 99.9;
+  private long periodInMs = 1000;
+
+  private final LatencyRecorders recorders = new LatencyRecorders();
+  private final Map<String, long[]> intervals = new TreeMap<String, long[]>();
+  private final List<LatencyOutlier> outliers = new ArrayList<LatencyOutlier>();
+  private final GcPauseMonitor gcPauseMonitor = new GcPauseMonitor();
+
+  private ScheduledExecutorService scheduler;
+  private volatile long startInMs;
+  private volatile long lastSampleInMs;
+  private long lastCollectionTimeInMs;
+
+  public LatencyOutlierCorrelation(final long threshold, final TimeUnit unit) {
+    if (threshold <= 0) {
+      throw new IllegalArgumentException("The latency threshold must be positive");
+    }
+    this.thresholdInNs = unit.toNanos(threshold);
+  }
+
+  public static LatencyOutlierCorrelation latencyOutliers(final long threshold, final TimeUnit unit) {
+    return new LatencyOutlierCorrelation(threshold, unit);
+  }
+
+  /**
+   * @param percentile the percentile of the latency compared to the threshold, 99.9 by default
+   */
+  public LatencyOutlierCorrelation percentile(final double percentile) {
+    if (percentile <= 0 || percentile > 100) {
+      throw new IllegalArgumentException("The percentile must be in ]0, 100]");
+    }
+    this.percentile = percentile;
+    return this;
+  }
+
+  /**
+   * @param period the length of the reporting intervals, 1 second by default
+   */
+  public LatencyOutlierCorrelation interval(final long period, final TimeUnit unit) {
+    if (period <= 0) {
+      throw new IllegalArgumentException("The interval must be positive");
+    }
+    this.periodInMs = unit.toMillis(period);
+    return this;
+  }
+
+  @Override
+  public void record(final String cacheName, final AccessType accessType, final long sequence, final Object value,
+                     final long startInNs, final long latencyInNs, final EhcacheResult result) {
+    recorders.record(cacheName, result, latencyInNs);
+  }
+
+  public synchronized LatencyOutlierCorrelation start() {
+    if (scheduler != null) {
+      throw new IllegalStateException("Latency outlier correlation already started");
+    }
+    gcPauseMonitor.start();
+    startInMs = System.currentTimeMillis();
+    lastSampleInMs = startInMs;
+    lastCollectionTimeInMs = gcPauseMonitor.getCollectionTimeInMs();
+    scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(final Runnable r) {
+        Thread thread = new Thread(r, "LatencyOutlierCorrelation");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    scheduler.scheduleAtFixedRate(new Runnable() {
+      @Override
+      public void run() {
+        sample();
+      }
+    }, periodInMs, periodInMs, TimeUnit.MILLISECONDS);
+    return this;
+  }
+
+  /**
+   * Stops the sampling, the accesses recorded since the last interval are flagged as a last, shorter, interval.
+   */
+  public synchronized void stop() {
+    if (scheduler == null) {
+      return;
+    }
+    scheduler.shutdown();
+    try {
+      if (!scheduler.awaitTermination(periodInMs + 1000, TimeUnit.MILLISECONDS)) {
+        log.warn("Latency outlier correlation did not stop in time");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    sample();
+    gcPauseMonitor.stop();
+    scheduler = null;
+  }
+
+  private void sample() {
+    final long now = System.currentTimeMillis();
+    long collectionTimeInMs = gcPauseMonitor.getCollectionTimeInMs();
+    final boolean notifying = gcPauseMonitor.isNotifying();
+    final long polledGcPauseInMs = collectionTimeInMs - lastCollectionTimeInMs;
+    recorders.intervalHistograms(new LatencyRecorders.Visitor() {
+      @Override
+      public void visit(final String cacheName, final EhcacheResult result, final Histogram histogram) {
+        long tail = histogram.getValueAtPercentile(percentile);
+        long max = histogram.getMaxValue();
+        synchronized (outliers) {
+          long[] counts = intervals.get(cacheName);
+          if (counts == null) {
+            counts = new long[RESULTS.length];
+            intervals.put(cacheName, counts);
+          }
+          counts[result.ordinal()]++;
+          if (tail > thresholdInNs) {
+            long gcPauseInMs = notifying
+                ? gcPauseTime(lastSampleInMs - TimeUnit.NANOSECONDS.toMillis(max), now)
+                : polledGcPauseInMs;
+            boolean explained = TimeUnit.MILLISECONDS.toNanos(gcPauseInMs) >= tail * GC_SHARE;
+            outliers.add(new LatencyOutlier(cacheName, result, lastSampleInMs, now, histogram.getTotalCount(),
+                tail, max, gcPauseInMs, explained));
+          }
+        }
+      }
+    });
+    lastSampleInMs = now;
+    lastCollectionTimeInMs = collectionTimeInMs;
+  }
+
+  private long gcPauseTime(final long fromInMs, final long toInMs) {
+    long time = 0;
+    for (GcPause pause : gcPauseMonitor.getPauses(fromInMs, toInMs)) {
+      time += pause.overlap(fromInMs, toInMs);
+    }
+    return time;
+  }
+
+  public List<LatencyOutlier> getOutliers() {
+    synchronized (outliers) {
+      return new ArrayList<LatencyOutlier>(outliers);
+    }
+  }
+
+  public List<GcPause> getGcPauses() {
+    return gcPauseMonitor.getPauses();
+  }
+
+  /**
+   * Writes the text and html reports in the directory.
+   */
+  public void report(final File directory) throws FileNotFoundException {
+    if (!directory.exists() && !directory.mkdirs()) {
+      throw new FileNotFoundException("Can not create directory " + directory);
+    }
+    PrintStream text = new PrintStream(new File(directory, "latency-outliers.txt"));
+    try {
+      writeText(text);
+    } finally {
+      text.close();
+    }
+    PrintStream html = new PrintStream(new File(directory, "latency-outliers.html"));
+    try {
+      writeHtml(html);
+    } finally {
+      html.close();
+    }
+  }
+
+  public void writeText(final PrintStream out) {
+    out.println(String.format("Latency outliers (p%s above %.3fms per %dms interval)", percentile, thresholdInNs / 1000000.0, periodInMs));
+    out.println(String.format("%-20s %-18s %10s %10s %10s %10s", "cache", "result", "intervals", "outliers", "gc(%)", "cache(%)"));
+    for (Summary summary : summaries()) {
+      out.println(String.format("%-20s %-18s %10d %10d %10.1f %10.1f", summary.cacheName, summary.result,
+          summary.intervals, summary.outliers, summary.gcShare(), summary.cacheShare()));
+    }
+    out.println();
+    out.println(String.format("%-20s %-18s %10s %10s %12s %12s %10s %s", "cache", "result", "time(s)", "count", "tail(ms)", "max(ms)", "gc(ms)", "cause"));
+    for (LatencyOutlier outlier : getOutliers()) {
+      out.println(String.format("%-20s %-18s %10.1f %10d %12.3f %12.3f %10d %s", outlier.getCacheName(), outlier.getResult(),
+          (outlier.getStartInMs() - startInMs) / 1000.0, outlier.getCount(), outlier.getTailLatencyInNs() / 1000000.0,
+          outlier.getMaxLatencyInNs() / 1000000.0, outlier.getGcPauseInMs(), outlier.isExplainedByGc() ? "gc" : "cache"));
+    }
+  }
+
+  public void writeHtml(final PrintStream out) {
+    out.println("<html><head><title>Latency outliers</title>");
+    out.println("<style>table { border-collapse: collapse; } td, th { border: 1px solid #ccc; padding: 2px 6px; text-align: right; }</style>");
+    out.println("</head><body>");
+    out.println(String.format("<h2>Latency outliers (p%s above %.3fms per %dms interval)</h2>", percentile, thresholdInNs / 1000000.0, periodInMs));
+    out.println("<table><tr><th>cache</th><th>result</th><th>intervals</th><th>outliers</th><th>gc (%)</th><th>cache (%)</th></tr>");
+    for (Summary summary : summaries()) {
+      out.println(String.format("<tr><td>%s</td><td>%s</td><td>%d</td><td>%d</td><td>%.1f</td><td>%.1f</td></tr>",
+          escape(summary.cacheName), summary.result, summary.intervals, summary.outliers, summary.gcShare(), summary.cacheShare()));
+    }
+    out.println("</table>");
+    out.println("<h2>Outlier intervals</h2>");
+    out.println("<table><tr><th>cache</th><th>result</th><th>time (s)</th><th>count</th><th>tail (ms)</th><th>max (ms)</th><th>gc (ms)</th><th>cause</th></tr>");
+    for (LatencyOutlier outlier : getOutliers()) {
+      out.println(String.format("<tr><td>%s</td><td>%s</td><td>%.1f</td><td>%d</td><td>%.3f</td><td>%.3f</td><td>%d</td><td>%s</td></tr>",
+          escape(outlier.getCacheName()), outlier.getResult(), (outlier.getStartInMs() - startInMs) / 1000.0,
+          outlier.getCount(), outlier.getTailLatencyInNs() / 1000000.0, outlier.getMaxLatencyInNs() / 1000000.0,
+          outlier.getGcPauseInMs(), outlier.isExplainedByGc() ? "gc" : "cache"));
+    }
+    out.println("</table>");
+    out.println("</body></html>");
+  }
+
+  private List<Summary> summaries() {
+    List<Summary> summaries = new ArrayList<Summary>();
+    synchronized (outliers) {
+      for (Map.Entry<String, long[]> entry : intervals.entrySet()) {
+        for (int i = 0; i < RESULTS.length; i++) {
+          if (entry.getValue()[i] > 0) {
+            summaries.add(new Summary(entry.getKey(), RESULTS[i], entry.getValue()[i]));
+          }
+        }
+      }
+      for (LatencyOutlier outlier : outliers) {
+        for (Summary summary : summaries) {
+          if (summary.cacheName.equals(outlier.getCacheName()) && summary.result == outlier.getResult()) {
+            summary.outliers++;
+            if (outlier.isExplainedByGc()) {
+              summary.explainedByGc++;
+            }
+          }
+        }
+      }
+    }
+    return summaries;
+  }
+
+  private static String escape(final String s) {
+    return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+  }
+
+  private static class Summary {
+    private final String cacheName;
+    private final EhcacheResult result;
+    private final long intervals;
+    private long outliers;
+    private long explainedByGc;
+
+    private Summary(final String cacheName, final EhcacheResult result, final long intervals) {
+      this.cacheName = cacheName;
+      this.result = result;
+      this.intervals = intervals;
+    }
+
+    private double gcShare() {
+      return outliers == 0 ? 0 : 100.0 * explainedByGc / outliers;
+    }
+
+    private double cacheShare() {
+      return outliers == 0 ? 0 : 100.0 * (outliers - explainedByGc) / outliers;
+    }
+  }
+
+  @Override
+  public List<String> getDescription() {
+    List<String> desc = new ArrayList<String>();
+    desc.add(String.format("Latency outliers : p%s above %.3fms per %dms interval, correlated with GC pauses",
+        percentile, thresholdInNs / 1000000.0, periodInMs));
+    return desc;
+  }
+}
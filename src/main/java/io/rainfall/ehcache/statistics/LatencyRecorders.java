@@ -0,0 +1,79 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.statistics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * HdrHistogram {@link Recorder}s of the access latencies, per cache and per {@link EhcacheResult}. The accesses
+ * are recorded wait-free by the measuring threads, the interval histograms are swapped out by a single
+ * background thread, which recycles them.
+ *
+ * @author Aurelien Broszniowski
+ */
+final class LatencyRecorders {
+
+  static final EhcacheResult[] RESULTS = EhcacheResult.values();
+
+  private final ConcurrentMap<String, Recorder[]> recorders = new ConcurrentHashMap<String, Recorder[]>();
+  private final Map<String, Histogram[]> recycled = new HashMap<String, Histogram[]>();
+
+  interface Visitor {
+    void visit(String cacheName, EhcacheResult result, Histogram intervalHistogram);
+  }
+
+  void record(final String cacheName, final EhcacheResult result, final long latencyInNs) {
+    Recorder[] cacheRecorders = recorders.get(cacheName);
+    if (cacheRecorders == null) {
+      cacheRecorders = new Recorder[RESULTS.length];
+      for (int i = 0; i < cacheRecorders.length; i++) {
+        cacheRecorders[i] = new Recorder(3);
+      }
+      Recorder[] existing = recorders.putIfAbsent(cacheName, cacheRecorders);
+      if (existing != null) {
+        cacheRecorders = existing;
+      }
+    }
+    cacheRecorders[result.ordinal()].recordValue(latencyInNs);
+  }
+
+  /**
+   * Swaps out the interval histograms and visits the ones which recorded accesses. Must be called by a single
+   * thread, the histograms are reused at the next interval.
+   */
+  void intervalHistograms(final Visitor visitor) {
+    for (Map.Entry<String, Recorder[]> entry : recorders.entrySet()) {
+      Histogram[] histograms = recycled.get(entry.getKey());
+      if (histograms == null) {
+        histograms = new Histogram[RESULTS.length];
+        recycled.put(entry.getKey(), histograms);
+      }
+      for (int i = 0; i < RESULTS.length; i++) {
+        histograms[i] = entry.getValue()[i].getIntervalHistogram(histograms[i]);
+        if (histograms[i].getTotalCount() > 0) {
+          visitor.visit(entry.getKey(), RESULTS[i], histograms[i]);
+        }
+      }
+    }
+  }
+}
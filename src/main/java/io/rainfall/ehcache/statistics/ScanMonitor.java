@@ -0,0 +1,197 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.statistics;
+
+import io.rainfall.Configuration;
+import io.rainfall.ehcache.trace.AccessType;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shows how the cache scans affect the concurrent point accesses, and how fast the caches are scanned.
+ * <p>
+ * Registered as a configuration of the run, it is told by the scan operations when they start and end, and
+ * records the latency of every single-key access per cache and {@link EhcacheResult}, apart for the accesses
+ * which overlapped a scan of any cache : the caches of a run share the heap, the offheap and the CPUs, so a scan
+ * of one cache can slow down the accesses to the others.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class ScanMonitor extends Configuration implements AccessRecorder {
+
+  private final LatencyRecorders outsideScans = new LatencyRecorders();
+  private final LatencyRecorders duringScans = new LatencyRecorders();
+  private final Map<String, Histogram[]> totals = new TreeMap<String, Histogram[]>();
+
+  private final AtomicInteger activeScans = new AtomicInteger();
+  private volatile boolean scanEnded;
+  private volatile long lastScanEndInNs;
+  private final AtomicLong scans = new AtomicLong();
+  private final AtomicLong scannedEntries = new AtomicLong();
+  private final AtomicLong scanTimeInNs = new AtomicLong();
+
+  public static ScanMonitor scanMonitor() {
+    return new ScanMonitor();
+  }
+
+  /**
+   * Called by the scan operations before they start iterating.
+   */
+  public void scanStarted() {
+    activeScans.incrementAndGet();
+  }
+
+  /**
+   * Called by the scan operations once they stopped iterating, successfully or not.
+   */
+  public void scanEnded(final long entries, final long durationInNs) {
+    lastScanEndInNs = System.nanoTime();
+    scanEnded = true;
+    activeScans.decrementAndGet();
+    scans.incrementAndGet();
+    scannedEntries.addAndGet(entries);
+    scanTimeInNs.addAndGet(durationInNs);
+  }
+
+  @Override
+  public void record(final String cacheName, final AccessType accessType, final long sequence, final Object value,
+                     final long startInNs, final long latencyInNs, final EhcacheResult result) {
+    if (activeScans.get() > 0 || (scanEnded && lastScanEndInNs - startInNs >= 0)) {
+      duringScans.record(cacheName, result, latencyInNs);
+    } else {
+      outsideScans.record(cacheName, result, latencyInNs);
+    }
+  }
+
+  /**
+   * @return the entries scanned per second of scan, over all the scans so far
+   */
+  public double getScanThroughput() {
+    long timeInNs = scanTimeInNs.get();
+    return timeInNs == 0 ? 0.0 : scannedEntries.get() * 1000000000.0 / timeInNs;
+  }
+
+  /**
+   * Writes the text and html reports in the directory.
+   */
+  public void report(final File directory) throws FileNotFoundException {
+    if (!directory.exists() && !directory.mkdirs()) {
+      throw new FileNotFoundException("Can not create directory " + directory);
+    }
+    PrintStream text = new PrintStream(new File(directory, "scan-interference.txt"));
+    try {
+      writeText(text);
+    } finally {
+      text.close();
+    }
+    PrintStream html = new PrintStream(new File(directory, "scan-interference.html"));
+    try {
+      writeHtml(html);
+    } finally {
+      html.close();
+    }
+  }
+
+  public synchronized void writeText(final PrintStream out) {
+    accumulate();
+    out.println(String.format("Scans : %d scans, %d entries, %.0f entries/s", scans.get(), scannedEntries.get(),
+        getScanThroughput()));
+    out.println("Point accesses outside / during scans (latencies in us)");
+    out.println(String.format("%-30s %10s %10s %10s %10s %10s %10s %10s %10s", "cache / result", "count", "mean",
+        "99%", "99.9%", "scan.count", "scan.mean", "scan.99%", "scan.99.9%"));
+    for (Map.Entry<String, Histogram[]> entry : totals.entrySet()) {
+      Histogram outside = entry.getValue()[0];
+      Histogram during = entry.getValue()[1];
+      out.println(String.format("%-30s %10d %10.1f %10.1f %10.1f %10d %10.1f %10.1f %10.1f", entry.getKey(),
+          outside.getTotalCount(), micros(outside.getMean()), micros(outside.getValueAtPercentile(99.0)),
+          micros(outside.getValueAtPercentile(99.9)), during.getTotalCount(), micros(during.getMean()),
+          micros(during.getValueAtPercentile(99.0)), micros(during.getValueAtPercentile(99.9))));
+    }
+  }
+
+  public synchronized void writeHtml(final PrintStream out) {
+    accumulate();
+    out.println("<html><head><title>Scan interference</title>");
+    out.println("<style>table { border-collapse: collapse; } td, th { border: 1px solid #ccc; padding: 2px 6px; text-align: right; }</style>");
+    out.println("</head><body>");
+    out.println("<h2>Scan interference</h2>");
+    out.println(String.format("<p>%d scans, %d entries, %.0f entries/s</p>", scans.get(), scannedEntries.get(),
+        getScanThroughput()));
+    out.println("<p>Point accesses outside / during scans, latencies in us</p>");
+    out.println("<table><tr><th>cache / result</th><th>count</th><th>mean</th><th>99%</th><th>99.9%</th>"
+                + "<th>count during scans</th><th>mean during scans</th><th>99% during scans</th>"
+                + "<th>99.9% during scans</th></tr>");
+    for (Map.Entry<String, Histogram[]> entry : totals.entrySet()) {
+      Histogram outside = entry.getValue()[0];
+      Histogram during = entry.getValue()[1];
+      out.println(String.format("<tr><td>%s</td><td>%d</td><td>%.1f</td><td>%.1f</td><td>%.1f</td><td>%d</td>"
+                                + "<td>%.1f</td><td>%.1f</td><td>%.1f</td></tr>", escape(entry.getKey()),
+          outside.getTotalCount(), micros(outside.getMean()), micros(outside.getValueAtPercentile(99.0)),
+          micros(outside.getValueAtPercentile(99.9)), during.getTotalCount(), micros(during.getMean()),
+          micros(during.getValueAtPercentile(99.0)), micros(during.getValueAtPercentile(99.9))));
+    }
+    out.println("</table>");
+    out.println("</body></html>");
+  }
+
+  /**
+   * Swaps out the latencies recorded since the previous call into the totals, keyed by "cache / RESULT".
+   */
+  private void accumulate() {
+    accumulate(outsideScans, 0);
+    accumulate(duringScans, 1);
+  }
+
+  private void accumulate(final LatencyRecorders recorders, final int index) {
+    recorders.intervalHistograms(new LatencyRecorders.Visitor() {
+      @Override
+      public void visit(final String cacheName, final EhcacheResult result, final Histogram intervalHistogram) {
+        String key = cacheName + " / " + result;
+        Histogram[] histograms = totals.get(key);
+        if (histograms == null) {
+          histograms = new Histogram[] { new Histogram(3), new Histogram(3) };
+          totals.put(key, histograms);
+        }
+        histograms[index].add(intervalHistogram);
+      }
+    });
+  }
+
+  private static double micros(final double nanos) {
+    return nanos / 1000.0;
+  }
+
+  private static String escape(final String s) {
+    return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+  }
+
+  @Override
+  public List<String> getDescription() {
+    List<String> desc = new ArrayList<String>();
+    desc.add("Monitoring the point accesses during the cache scans");
+    return desc;
+  }
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.trace;
+
+/**
+ * Type of cache access of a trace record.
+ *
+ * @author Aurelien Broszniowski
+ */
+public enum AccessType {
+  GET, PUT, PUT_IF_ABSENT, REMOVE, REMOVE_FOR_KEY_AND_VALUE, REPLACE, REPLACE_FOR_KEY_AND_VALUE, GETALL, PUTALL,
+  REMOVEALL, OTHER
+}
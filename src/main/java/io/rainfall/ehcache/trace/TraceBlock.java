@@ -0,0 +1,108 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.trace;
+
+import io.rainfall.ehcache.statistics.EhcacheResult;
+
+import java.nio.ByteBuffer;
+
+import static io.rainfall.ehcache.trace.TraceFormat.MAX_RECORD_SIZE;
+import static io.rainfall.ehcache.trace.TraceFormat.accessTypeCode;
+import static io.rainfall.ehcache.trace.TraceFormat.outcomeCode;
+import static io.rainfall.ehcache.trace.TraceFormat.putVarLong;
+import static io.rainfall.ehcache.trace.TraceFormat.zigzag;
+
+/**
+ * Block of delta-encoded records of one partition, filled by a single thread then handed to a {@link TraceWriter}.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class TraceBlock {
+
+  public static final int DEFAULT_SIZE = 64 * 1024;
+
+  private int partition;
+  private final ByteBuffer payload;
+  private int recordCount;
+  private long lastSequence;
+  private long lastTimestamp;
+
+  public TraceBlock(final int partition) {
+    this(partition, DEFAULT_SIZE);
+  }
+
+  public TraceBlock(final int partition, final int size) {
+    if (size < MAX_RECORD_SIZE) {
+      throw new IllegalArgumentException("Block size must be at least " + MAX_RECORD_SIZE + " bytes");
+    }
+    this.partition = partition;
+    this.payload = ByteBuffer.allocate(size);
+  }
+
+  /**
+   * Appends a record, the timestamps of a partition must be increasing.
+   *
+   * @return false if the block is full, the record is then not appended
+   */
+  public boolean add(final AccessType accessType, final long sequence, final int valueSize, final long timestampInNs,
+                     final EhcacheResult outcome, final long latencyInNs) {
+    if (isFull()) {
+      return false;
+    }
+    payload.put((byte)accessTypeCode(accessType));
+    putVarLong(payload, zigzag(sequence - lastSequence));
+    putVarLong(payload, valueSize);
+    putVarLong(payload, Math.max(0, timestampInNs - lastTimestamp));
+    payload.put((byte)outcomeCode(outcome));
+    putVarLong(payload, Math.max(0, latencyInNs));
+    lastSequence = sequence;
+    lastTimestamp = Math.max(lastTimestamp, timestampInNs);
+    recordCount++;
+    return true;
+  }
+
+  public boolean isFull() {
+    return payload.remaining() < MAX_RECORD_SIZE;
+  }
+
+  public boolean isEmpty() {
+    return recordCount == 0;
+  }
+
+  public int getPartition() {
+    return partition;
+  }
+
+  public int getRecordCount() {
+    return recordCount;
+  }
+
+  void setPartition(final int partition) {
+    this.partition = partition;
+  }
+
+  ByteBuffer getPayload() {
+    return payload;
+  }
+
+  public void clear() {
+    payload.clear();
+    recordCount = 0;
+    lastSequence = 0;
+    lastTimestamp = 0;
+  }
+}
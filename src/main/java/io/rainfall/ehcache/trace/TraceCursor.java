@@ -0,0 +1,129 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.trace;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static io.rainfall.ehcache.trace.TraceFormat.accessType;
+import static io.rainfall.ehcache.trace.TraceFormat.getVarLong;
+import static io.rainfall.ehcache.trace.TraceFormat.outcome;
+import static io.rainfall.ehcache.trace.TraceFormat.unzigzag;
+
+/**
+ * Single-threaded cursor over blocks of a trace file, grouped in runs : the blocks of one partition, in order.
+ * The records of the runs are merged in timestamp order, and decoded in place into the {@link TraceRecord} passed
+ * to {@link #next(TraceRecord)}. The blocks are sliced out of the windows mapped by the {@link TraceReader}.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class TraceCursor {
+
+  private final Run[] runs;
+  private final int blockCount;
+
+  TraceCursor(final TraceReader reader, final long[][] offsets, final int[][] lengths) {
+    this.runs = new Run[offsets.length];
+    int count = 0;
+    for (int i = 0; i < runs.length; i++) {
+      runs[i] = new Run(reader, offsets[i], lengths[i]);
+      count += offsets[i].length;
+    }
+    this.blockCount = count;
+  }
+
+  /**
+   * Decodes the next record, the earliest of the next records of the runs, into the given one.
+   *
+   * @return false when all the blocks of the cursor have been read
+   */
+  public boolean next(final TraceRecord record) throws IOException {
+    if (runs.length == 1) {
+      return runs[0].next(record);
+    }
+    Run earliest = null;
+    for (Run run : runs) {
+      if (run.peek() && (earliest == null || run.peeked.getTimestampInNs() < earliest.peeked.getTimestampInNs())) {
+        earliest = run;
+      }
+    }
+    if (earliest == null) {
+      return false;
+    }
+    earliest.take(record);
+    return true;
+  }
+
+  public int getBlockCount() {
+    return blockCount;
+  }
+
+  private static final class Run {
+
+    private final TraceReader reader;
+    private final long[] offsets;
+    private final int[] lengths;
+    private final TraceRecord peeked = new TraceRecord();
+    private boolean hasPeeked;
+    private int nextBlock;
+    private ByteBuffer block;
+    private long sequence;
+    private long timestamp;
+
+    private Run(final TraceReader reader, final long[] offsets, final int[] lengths) {
+      this.reader = reader;
+      this.offsets = offsets;
+      this.lengths = lengths;
+    }
+
+    private boolean peek() throws IOException {
+      if (!hasPeeked) {
+        hasPeeked = next(peeked);
+      }
+      return hasPeeked;
+    }
+
+    private void take(final TraceRecord record) {
+      record.set(peeked.getAccessType(), peeked.getSequence(), peeked.getValueSize(), peeked.getTimestampInNs(),
+          peeked.getOutcome(), peeked.getLatencyInNs());
+      hasPeeked = false;
+    }
+
+    private boolean next(final TraceRecord record) throws IOException {
+      while (block == null || !block.hasRemaining()) {
+        if (nextBlock == offsets.length) {
+          block = null;
+          return false;
+        }
+        block = reader.block(offsets[nextBlock], lengths[nextBlock]);
+        nextBlock++;
+        sequence = 0;
+        timestamp = 0;
+      }
+
+      int accessType = block.get() & 0xFF;
+      sequence += unzigzag(getVarLong(block));
+      int valueSize = (int)getVarLong(block);
+      timestamp += getVarLong(block);
+      int outcome = block.get() & 0xFF;
+      long latency = getVarLong(block);
+
+      record.set(accessType(accessType), sequence, valueSize, timestamp, outcome(outcome), latency);
+      return true;
+    }
+  }
+}
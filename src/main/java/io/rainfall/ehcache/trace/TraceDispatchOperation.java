@@ -0,0 +1,69 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.trace;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.Operation;
+import io.rainfall.TestException;
+import io.rainfall.statistics.StatisticsHolder;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Executes, for each replayed trace record, the operation registered for its {@link AccessType}. Records of an
+ * access type without operation are skipped.
+ * <p>
+ * The registered operations are the usual ones, using a {@link TraceSequenceGenerator} (and optionally a
+ * {@link TraceValueGenerator}) so that they operate on the keys of the trace.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class TraceDispatchOperation implements Operation {
+
+  private final Map<AccessType, Operation> operations = new EnumMap<AccessType, Operation>(AccessType.class);
+
+  public TraceDispatchOperation on(final AccessType accessType, final Operation operation) {
+    if (operations.containsKey(accessType)) {
+      throw new IllegalStateException("Operation already chosen for " + accessType);
+    }
+    operations.put(accessType, operation);
+    return this;
+  }
+
+  @Override
+  public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>, Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+    Operation operation = operations.get(TraceRecord.current().getAccessType());
+    if (operation != null) {
+      operation.exec(statisticsHolder, configurations, assertions);
+    }
+  }
+
+  @Override
+  public List<String> getDescription() {
+    List<String> desc = new ArrayList<String>();
+    desc.add("Trace replay of :");
+    for (Map.Entry<AccessType, Operation> entry : operations.entrySet()) {
+      desc.add(entry.getKey() + " :");
+      desc.addAll(entry.getValue().getDescription());
+    }
+    return desc;
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.trace;
+
+import io.rainfall.ehcache.statistics.EhcacheResult;
+
+import java.nio.ByteBuffer;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
+import static io.rainfall.ehcache.statistics.EhcacheResult.EXPIRED;
+import static io.rainfall.ehcache.statistics.EhcacheResult.GET;
+import static io.rainfall.ehcache.statistics.EhcacheResult.GETALL;
+import static io.rainfall.ehcache.statistics.EhcacheResult.GETALL_ENTRY;
+import static io.rainfall.ehcache.statistics.EhcacheResult.MISS;
+import static io.rainfall.ehcache.statistics.EhcacheResult.PUT;
+import static io.rainfall.ehcache.statistics.EhcacheResult.PUTALL;
+import static io.rainfall.ehcache.statistics.EhcacheResult.PUTALL_ENTRY;
+import static io.rainfall.ehcache.statistics.EhcacheResult.PUTIFABSENT;
+import static io.rainfall.ehcache.statistics.EhcacheResult.PUTIFABSENT_MISS;
+import static io.rainfall.ehcache.statistics.EhcacheResult.REMOVE;
+import static io.rainfall.ehcache.statistics.EhcacheResult.REMOVEALL;
+import static io.rainfall.ehcache.statistics.EhcacheResult.REMOVEALL_ENTRY;
+import static io.rainfall.ehcache.statistics.EhcacheResult.REMOVEVALUE;
+import static io.rainfall.ehcache.statistics.EhcacheResult.REMOVEVALUE_MISS;
+import static io.rainfall.ehcache.statistics.EhcacheResult.REPLACE;
+import static io.rainfall.ehcache.statistics.EhcacheResult.REPLACEVALUE;
+import static io.rainfall.ehcache.statistics.EhcacheResult.REPLACEVALUE_MISS;
+import static io.rainfall.ehcache.statistics.EhcacheResult.REPLACE_MISS;
+import static io.rainfall.ehcache.statistics.EhcacheResult.SCAN;
+import static io.rainfall.ehcache.statistics.EhcacheResult.SCAN_ENTRY;
+
+/**
+ * Binary layout of a trace file :
+ * <pre>
+ * header : magic (int), version (int)
+ * blocks : partition (int), record count (int), payload length (int), payload
+ * </pre>
+ * A partition is the unit of ordering : the records of a partition (typically one recording thread) are replayed
+ * in order by a single thread. Within a block, each record is encoded as :
+ * <pre>
+ * access type (byte, see {@link #accessTypeCode(AccessType)}), sequence delta (zigzag varlong), value size (varint),
+ * timestamp delta (varlong),
+ * outcome (byte, see {@link #outcomeCode(EhcacheResult)}, 0 if unknown), latency (varlong)
+ * </pre>
+ * Deltas are relative to the previous record of the block, the first record of a block being relative to 0, so
+ * that the timestamps (in ns since the beginning of the trace) are absolute at each block boundary.
+ *
+ * @author Aurelien Broszniowski
+ */
+final class TraceFormat {
+
+  static final int MAGIC = 0x52465452;
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 8;
+  static final int BLOCK_HEADER_SIZE = 12;
+  static final int MAX_RECORD_SIZE = 1 + 10 + 5 + 10 + 1 + 10;
+
+  /**
+   * The access types by their code in the file : as for the outcomes, new access types must be appended, never
+   * inserted nor reordered, whatever their order in {@link AccessType}.
+   */
+  private static final AccessType[] ACCESS_TYPES = {
+      AccessType.GET, AccessType.PUT, AccessType.PUT_IF_ABSENT, AccessType.REMOVE, AccessType.REMOVE_FOR_KEY_AND_VALUE,
+      AccessType.REPLACE, AccessType.REPLACE_FOR_KEY_AND_VALUE, AccessType.GETALL, AccessType.PUTALL,
+      AccessType.REMOVEALL, AccessType.OTHER
+  };
+  private static final int[] ACCESS_TYPE_CODES = new int[AccessType.values().length];
+
+  /**
+   * The outcomes by their code in the file : the codes are part of the format, so new results must be appended,
+   * never inserted nor reordered, whatever their order in {@link EhcacheResult}.
+   */
+  private static final EhcacheResult[] OUTCOMES = {
+      null, PUT, GET, MISS, REMOVE, REMOVEVALUE, EXCEPTION, PUTALL, GETALL, REMOVEALL, PUTIFABSENT, REPLACE,
+      REPLACEVALUE, REMOVEVALUE_MISS, REPLACE_MISS, PUTIFABSENT_MISS, REPLACEVALUE_MISS, PUTALL_ENTRY, GETALL_ENTRY,
+      REMOVEALL_ENTRY, EXPIRED, SCAN, SCAN_ENTRY
+  };
+  private static final int[] CODES = new int[EhcacheResult.values().length];
+
+  static {
+    for (int code = 1; code < OUTCOMES.length; code++) {
+      CODES[OUTCOMES[code].ordinal()] = code;
+    }
+    for (int code = 0; code < ACCESS_TYPES.length; code++) {
+      ACCESS_TYPE_CODES[ACCESS_TYPES[code].ordinal()] = code;
+    }
+  }
+
+  private TraceFormat() {
+  }
+
+  /**
+   * @return the code of an access type in the file
+   */
+  static int accessTypeCode(final AccessType accessType) {
+    return ACCESS_TYPE_CODES[accessType.ordinal()];
+  }
+
+  /**
+   * @return the access type of a code in the file, {@link AccessType#OTHER} if the code is unknown
+   */
+  static AccessType accessType(final int code) {
+    return code < ACCESS_TYPES.length ? ACCESS_TYPES[code] : AccessType.OTHER;
+  }
+
+  /**
+   * @return the code of an outcome in the file, 0 if the outcome is null or has no code
+   */
+  static int outcomeCode(final EhcacheResult outcome) {
+    return outcome == null ? 0 : CODES[outcome.ordinal()];
+  }
+
+  /**
+   * @return the outcome of a code in the file, null if the code is 0 or unknown
+   */
+  static EhcacheResult outcome(final int code) {
+    return code < OUTCOMES.length ? OUTCOMES[code] : null;
+  }
+
+  static void putVarLong(final ByteBuffer buffer, long value) {
+    while ((value & ~0x7FL) != 0) {
+      buffer.put((byte)((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    buffer.put((byte)value);
+  }
+
+  static long getVarLong(final ByteBuffer buffer) {
+    long value = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = buffer.get();
+      value |= (long)(b & 0x7F) << shift;
+      shift += 7;
+    } while (b < 0);
+    return value;
+  }
+
+  static long zigzag(final long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  static long unzigzag(final long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+}
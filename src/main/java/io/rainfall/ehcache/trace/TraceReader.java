@@ -0,0 +1,238 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.trace;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static io.rainfall.ehcache.trace.TraceFormat.BLOCK_HEADER_SIZE;
+import static io.rainfall.ehcache.trace.TraceFormat.HEADER_SIZE;
+import static io.rainfall.ehcache.trace.TraceFormat.MAGIC;
+import static io.rainfall.ehcache.trace.TraceFormat.VERSION;
+
+/**
+ * Index of the blocks of a trace file, handing out a {@link TraceCursor} per replaying thread.
+ * <p>
+ * Only the block headers are read when opening the trace. The payloads are memory-mapped by windows of 1GB,
+ * mapped once when first reached and shared by the cursors, which slice their blocks out of them : the trace can
+ * be much larger than the heap without creating a mapping per block.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class TraceReader implements Closeable {
+
+  static final long WINDOW_SIZE = 1L << 30;
+
+  private final File file;
+  private final RandomAccessFile raf;
+  private final FileChannel channel;
+  private int blockCount;
+  private long[] offsets = new long[64];
+  private int[] lengths = new int[64];
+  private int[] partitions = new int[64];
+  private int maxLength;
+  private long recordCount;
+  private long size;
+  private MappedByteBuffer[] windows;
+
+  public TraceReader(final File file) throws IOException {
+    this.file = file;
+    this.raf = new RandomAccessFile(file, "r");
+    this.channel = raf.getChannel();
+    try {
+      index();
+    } catch (IOException e) {
+      raf.close();
+      throw e;
+    } catch (RuntimeException e) {
+      raf.close();
+      throw e;
+    }
+  }
+
+  private void index() throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(Math.max(HEADER_SIZE, BLOCK_HEADER_SIZE));
+    header.limit(HEADER_SIZE);
+    readFully(header, 0);
+    if (header.getInt(0) != MAGIC) {
+      throw new IOException(file + " is not a trace file");
+    }
+    if (header.getInt(4) != VERSION) {
+      throw new IOException("Unsupported trace version " + header.getInt(4) + " in " + file);
+    }
+
+    size = channel.size();
+    long position = HEADER_SIZE;
+    while (position + BLOCK_HEADER_SIZE <= size) {
+      header.clear();
+      header.limit(BLOCK_HEADER_SIZE);
+      readFully(header, position);
+      int length = header.getInt(8);
+      if (position + BLOCK_HEADER_SIZE + length > size) {
+        break; // truncated last block, e.g. recording interrupted
+      }
+      if (blockCount == offsets.length) {
+        offsets = Arrays.copyOf(offsets, blockCount * 2);
+        lengths = Arrays.copyOf(lengths, blockCount * 2);
+        partitions = Arrays.copyOf(partitions, blockCount * 2);
+      }
+      partitions[blockCount] = header.getInt(0);
+      recordCount += header.getInt(4);
+      offsets[blockCount] = position + BLOCK_HEADER_SIZE;
+      lengths[blockCount] = length;
+      maxLength = Math.max(maxLength, length);
+      blockCount++;
+      position += BLOCK_HEADER_SIZE + length;
+    }
+    windows = new MappedByteBuffer[(int)(size / WINDOW_SIZE) + 1];
+  }
+
+  private void readFully(final ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position);
+      if (read < 0) {
+        throw new IOException("Unexpected end of trace file " + file);
+      }
+      position += read;
+    }
+  }
+
+  /**
+   * Cursor over the partitions assigned to a thread : partition p goes to thread (p modulo nbThreads), so that
+   * the records of a partition are replayed in order. A trace with fewer partitions than threads leaves threads idle.
+   */
+  public TraceCursor cursor(final int threadNb, final int nbThreads) {
+    return cursor(threadNb, nbThreads, false);
+  }
+
+  /**
+   * Cursor over the blocks assigned to a thread, merging the records of its partitions in timestamp order.
+   *
+   * @param splitPartitions false to assign whole partitions to the threads (partition p to thread p modulo
+   *                        nbThreads), so that the records of a partition are replayed in order by a single thread;
+   *                        true to spread the blocks of every partition over all the threads, each block being a
+   *                        time window of its partition, for a replay paced by the recorded timestamps
+   */
+  public TraceCursor cursor(final int threadNb, final int nbThreads, final boolean splitPartitions) {
+    if (threadNb < 0 || threadNb >= nbThreads) {
+      throw new IllegalArgumentException("Thread number must be in [0, " + nbThreads + "[");
+    }
+    Map<Integer, Run> runs = new LinkedHashMap<Integer, Run>();
+    Map<Integer, int[]> blocksSeen = new LinkedHashMap<Integer, int[]>();
+    for (int i = 0; i < blockCount; i++) {
+      int partition = partitions[i] & Integer.MAX_VALUE;
+      int assigned;
+      if (splitPartitions) {
+        int[] seen = blocksSeen.get(partition);
+        if (seen == null) {
+          seen = new int[1];
+          blocksSeen.put(partition, seen);
+        }
+        assigned = (int)((seen[0]++ + (long)partition) % nbThreads);
+      } else {
+        assigned = partition % nbThreads;
+      }
+      if (assigned == threadNb) {
+        Run run = runs.get(partition);
+        if (run == null) {
+          run = new Run();
+          runs.put(partition, run);
+        }
+        run.add(offsets[i], lengths[i]);
+      }
+    }
+    long[][] runOffsets = new long[runs.size()][];
+    int[][] runLengths = new int[runs.size()][];
+    int i = 0;
+    for (Run run : runs.values()) {
+      runOffsets[i] = Arrays.copyOf(run.offsets, run.count);
+      runLengths[i] = Arrays.copyOf(run.lengths, run.count);
+      i++;
+    }
+    return new TraceCursor(this, runOffsets, runLengths);
+  }
+
+  /**
+   * @return the payload of a block, sliced out of the window it lies in
+   */
+  ByteBuffer block(final long offset, final int length) throws IOException {
+    int index = (int)(offset / WINDOW_SIZE);
+    ByteBuffer window = window(index).duplicate();
+    int position = (int)(offset - index * WINDOW_SIZE);
+    window.limit(position + length);
+    window.position(position);
+    return window.slice();
+  }
+
+  /**
+   * Maps a window once : it starts on a multiple of the window size, and extends by the longest block, so that
+   * every block starting in it lies in it entirely.
+   */
+  private synchronized MappedByteBuffer window(final int index) throws IOException {
+    MappedByteBuffer window = windows[index];
+    if (window == null) {
+      long start = index * WINDOW_SIZE;
+      window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_SIZE + maxLength, size - start));
+      windows[index] = window;
+    }
+    return window;
+  }
+
+  private static final class Run {
+    private long[] offsets = new long[16];
+    private int[] lengths = new int[16];
+    private int count;
+
+    private void add(final long offset, final int length) {
+      if (count == offsets.length) {
+        offsets = Arrays.copyOf(offsets, count * 2);
+        lengths = Arrays.copyOf(lengths, count * 2);
+      }
+      offsets[count] = offset;
+      lengths[count] = length;
+      count++;
+    }
+  }
+
+  public File getFile() {
+    return file;
+  }
+
+  public long getRecordCount() {
+    return recordCount;
+  }
+
+  public int getBlockCount() {
+    return blockCount;
+  }
+
+  @Override
+  public void close() throws IOException {
+    synchronized (this) {
+      Arrays.fill(windows, null);
+    }
+    raf.close();
+  }
+}
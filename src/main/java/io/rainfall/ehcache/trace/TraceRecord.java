@@ -0,0 +1,93 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.trace;
+
+import io.rainfall.ehcache.statistics.EhcacheResult;
+
+/**
+ * Mutable trace record, decoded in place by a {@link TraceCursor} so that the replay doesn't allocate.
+ * <p>
+ * During a replay, {@link #current()} is the record being replayed by the calling thread.
+ *
+ * @author Aurelien Broszniowski
+ */
+public final class TraceRecord {
+
+  private static final ThreadLocal<TraceRecord> CURRENT = new ThreadLocal<TraceRecord>() {
+    @Override
+    protected TraceRecord initialValue() {
+      return new TraceRecord();
+    }
+  };
+
+  private AccessType accessType;
+  private long sequence;
+  private int valueSize;
+  private long timestampInNs;
+  private EhcacheResult outcome;
+  private long latencyInNs;
+
+  public static TraceRecord current() {
+    return CURRENT.get();
+  }
+
+  void set(final AccessType accessType, final long sequence, final int valueSize, final long timestampInNs,
+           final EhcacheResult outcome, final long latencyInNs) {
+    this.accessType = accessType;
+    this.sequence = sequence;
+    this.valueSize = valueSize;
+    this.timestampInNs = timestampInNs;
+    this.outcome = outcome;
+    this.latencyInNs = latencyInNs;
+  }
+
+  public AccessType getAccessType() {
+    return accessType;
+  }
+
+  public long getSequence() {
+    return sequence;
+  }
+
+  public int getValueSize() {
+    return valueSize;
+  }
+
+  /**
+   * @return the time of the access, in ns since the beginning of the trace
+   */
+  public long getTimestampInNs() {
+    return timestampInNs;
+  }
+
+  /**
+   * @return the recorded outcome, or null if the trace doesn't have it
+   */
+  public EhcacheResult getOutcome() {
+    return outcome;
+  }
+
+  public long getLatencyInNs() {
+    return latencyInNs;
+  }
+
+  @Override
+  public String toString() {
+    return accessType + "(" + sequence + ") size=" + valueSize + " at=" + timestampInNs + "ns outcome=" + outcome
+           + " latency=" + latencyInNs + "ns";
+  }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.trace;
+
+import io.rainfall.Configuration;
+import io.rainfall.ehcache.statistics.AccessRecorder;
+import io.rainfall.ehcache.statistics.EhcacheResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Opt-in recorder of the cache accesses of a run, into a trace file that can be replayed with
+ * {@link io.rainfall.ehcache.execution.TraceReplay}.
+ * <p>
+ * Registered as a configuration of the run, it is picked up by the Ehcache 2 and Ehcache 3 operations, which
+ * record one access per operation : when an operation accesses all the caches, only the access to the first one
+ * is recorded, so that replayed through the same caches, each operation accesses them all once again. Each thread
+ * appends its accesses to its own {@link TraceBlock} (one partition per thread), full blocks are handed to a
+ * background thread writing them to the file, so the recording threads never wait on I/O. If the writer falls
+ * behind by more than the maximum number of pending blocks, the records are dropped and counted instead.
+ * <p>
+ * Timestamps are taken from the start times of the operations ({@link System#nanoTime()} based), relative to
+ * the creation of the recorder. {@link #close()} must be called once the run is over.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class TraceRecorder extends Configuration implements AccessRecorder, Closeable {
+
+  private static final Logger log = LoggerFactory.getLogger(TraceRecorder.class);
+
+  public static final int DEFAULT_MAX_PENDING_BLOCKS = 1024;
+
+  private final TraceWriter writer;
+  private final int blockSize;
+  private final int maxPendingBlocks;
+  private final long originInNs = System.nanoTime();
+
+  private final AtomicInteger partitions = new AtomicInteger();
+  private final List<TraceBlock> threadBlocks = Collections.synchronizedList(new ArrayList<TraceBlock>());
+  private final ThreadLocal<TraceBlock[]> currentBlock = new ThreadLocal<TraceBlock[]>() {
+    @Override
+    protected TraceBlock[] initialValue() {
+      return new TraceBlock[] { register(new TraceBlock(partitions.getAndIncrement(), blockSize)) };
+    }
+  };
+  private final ConcurrentLinkedQueue<TraceBlock> fullBlocks = new ConcurrentLinkedQueue<TraceBlock>();
+  private final ConcurrentLinkedQueue<TraceBlock> spareBlocks = new ConcurrentLinkedQueue<TraceBlock>();
+  private final AtomicInteger pendingBlocks = new AtomicInteger();
+  private final AtomicLong droppedRecords = new AtomicLong();
+
+  private final Thread flusher;
+  private volatile boolean closed = false;
+  private volatile IOException failure;
+
+  public TraceRecorder(final File file) throws IOException {
+    this(file, TraceBlock.DEFAULT_SIZE, DEFAULT_MAX_PENDING_BLOCKS);
+  }
+
+  public TraceRecorder(final File file, final int blockSize, final int maxPendingBlocks) throws IOException {
+    this.writer = new TraceWriter(file);
+    this.blockSize = blockSize;
+    this.maxPendingBlocks = maxPendingBlocks;
+    this.flusher = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        flush();
+      }
+    }, "TraceRecorder flusher");
+    this.flusher.setDaemon(true);
+    this.flusher.start();
+  }
+
+  public static TraceRecorder recordTo(final File file) throws IOException {
+    return new TraceRecorder(file);
+  }
+
+  private TraceBlock register(final TraceBlock block) {
+    threadBlocks.add(block);
+    return block;
+  }
+
+  @Override
+  public void record(final String cacheName, final AccessType accessType, final long sequence, final Object value,
+                     final long startInNs, final long latencyInNs, final EhcacheResult outcome) {
+    record(accessType, sequence, value, startInNs, latencyInNs, outcome);
+  }
+
+  /**
+   * Records a cache access of the calling thread.
+   *
+   * @param value the value put or read, used for its size when it is a byte[], may be null
+   */
+  public void record(final AccessType accessType, final long sequence, final Object value, final long startInNs,
+                     final long latencyInNs, final EhcacheResult outcome) {
+    if (closed) {
+      return;
+    }
+    TraceBlock[] holder = currentBlock.get();
+    TraceBlock block = holder[0];
+    int valueSize = sizeOf(value);
+    long timestamp = startInNs - originInNs;
+    if (!block.add(accessType, sequence, valueSize, timestamp, outcome, latencyInNs)) {
+      if (pendingBlocks.get() >= maxPendingBlocks) {
+        droppedRecords.incrementAndGet();
+        return;
+      }
+      TraceBlock next = spareBlocks.poll();
+      if (next == null) {
+        next = new TraceBlock(block.getPartition(), blockSize);
+      } else {
+        next.setPartition(block.getPartition());
+      }
+      threadBlocks.remove(block);
+      register(next);
+      pendingBlocks.incrementAndGet();
+      fullBlocks.offer(block);
+      holder[0] = next;
+      next.add(accessType, sequence, valueSize, timestamp, outcome, latencyInNs);
+    }
+  }
+
+  static int sizeOf(final Object value) {
+    if (value instanceof byte[]) {
+      return ((byte[])value).length;
+    }
+    return 0;
+  }
+
+  private void flush() {
+    while (true) {
+      TraceBlock block = fullBlocks.poll();
+      if (block == null) {
+        if (closed) {
+          return;
+        }
+        LockSupport.parkNanos(1000000L);
+        continue;
+      }
+      write(block);
+      block.clear();
+      pendingBlocks.decrementAndGet();
+      spareBlocks.offer(block);
+    }
+  }
+
+  private void write(final TraceBlock block) {
+    try {
+      if (failure == null) {
+        writer.write(block);
+      }
+    } catch (IOException e) {
+      failure = e;
+      log.error("Trace recording to {} failed, the remaining records are dropped", writer.getFile(), e);
+    }
+  }
+
+  public long getDroppedRecords() {
+    return droppedRecords.get();
+  }
+
+  /**
+   * Writes the full blocks left by the writing thread and the partially filled blocks of every thread, then closes
+   * the file.
+   * The recording threads must be done.
+   */
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    try {
+      flusher.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while closing the trace recorder");
+    }
+    try {
+      // blocks handed over after the last poll of the flusher
+      TraceBlock pending;
+      while ((pending = fullBlocks.poll()) != null) {
+        write(pending);
+      }
+      synchronized (threadBlocks) {
+        for (TraceBlock block : threadBlocks) {
+          write(block);
+        }
+      }
+    } finally {
+      writer.close();
+    }
+    if (failure != null) {
+      throw failure;
+    }
+    log.info("Recorded {} accesses of {} threads to {} ({} dropped)", writer.getRecordCount(), partitions.get(),
+        writer.getFile(), droppedRecords.get());
+  }
+
+  @Override
+  public List<String> getDescription() {
+    List<String> desc = new ArrayList<String>();
+    desc.add("Recording of the cache accesses to " + writer.getFile());
+    return desc;
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.trace;
+
+import io.rainfall.SequenceGenerator;
+
+/**
+ * Sequence of the trace being replayed : returns the sequence value of the record the calling thread is replaying.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class TraceSequenceGenerator implements SequenceGenerator {
+
+  @Override
+  public long next() {
+    return TraceRecord.current().getSequence();
+  }
+
+  @Override
+  public String getDescription() {
+    return "Sequence replayed from trace";
+  }
+}
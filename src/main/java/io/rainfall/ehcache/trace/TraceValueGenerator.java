@@ -0,0 +1,47 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.trace;
+
+import io.rainfall.ObjectGenerator;
+
+/**
+ * Generates byte[] values of the size recorded in the trace record being replayed by the calling thread.
+ * <p>
+ * The arrays of a given size are shared by all the calls of a thread, the content is not meaningful.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class TraceValueGenerator implements ObjectGenerator<byte[]> {
+
+  private static final ThreadLocal<byte[]> LAST = new ThreadLocal<byte[]>();
+
+  @Override
+  public byte[] generate(final Long seed) {
+    int size = TraceRecord.current().getValueSize();
+    byte[] value = LAST.get();
+    if (value == null || value.length != size) {
+      value = new byte[size];
+      LAST.set(value);
+    }
+    return value;
+  }
+
+  @Override
+  public String getDescription() {
+    return "byte[] of the size replayed from trace";
+  }
+}
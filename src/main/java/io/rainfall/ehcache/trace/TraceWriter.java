@@ -0,0 +1,90 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.trace;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static io.rainfall.ehcache.trace.TraceFormat.BLOCK_HEADER_SIZE;
+import static io.rainfall.ehcache.trace.TraceFormat.HEADER_SIZE;
+import static io.rainfall.ehcache.trace.TraceFormat.MAGIC;
+import static io.rainfall.ehcache.trace.TraceFormat.VERSION;
+
+/**
+ * Writes {@link TraceBlock}s to a trace file, e.g. to convert production access logs into a replayable trace.
+ * <p>
+ * Not thread-safe : blocks are filled by their own thread, and written by a single one.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class TraceWriter implements Closeable {
+
+  private final File file;
+  private final FileOutputStream out;
+  private final FileChannel channel;
+  private final ByteBuffer blockHeader = ByteBuffer.allocate(BLOCK_HEADER_SIZE);
+  private long recordCount;
+
+  public TraceWriter(final File file) throws IOException {
+    this.file = file;
+    this.out = new FileOutputStream(file);
+    this.channel = out.getChannel();
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    header.putInt(MAGIC).putInt(VERSION).flip();
+    writeFully(header);
+  }
+
+  /**
+   * Writes the block if it is not empty, then clears it so that it can be refilled.
+   */
+  public void write(final TraceBlock block) throws IOException {
+    if (!block.isEmpty()) {
+      ByteBuffer payload = block.getPayload();
+      payload.flip();
+      blockHeader.clear();
+      blockHeader.putInt(block.getPartition()).putInt(block.getRecordCount()).putInt(payload.remaining()).flip();
+      writeFully(blockHeader);
+      writeFully(payload);
+      recordCount += block.getRecordCount();
+    }
+    block.clear();
+  }
+
+  private void writeFully(final ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  public File getFile() {
+    return file;
+  }
+
+  public long getRecordCount() {
+    return recordCount;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.force(false);
+    out.close();
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.trace;
+
+/**
+ * Helper methods to replay a trace through the existing operations.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class Traces {
+
+  public static TraceSequenceGenerator traceSequence() {
+    return new TraceSequenceGenerator();
+  }
+
+  public static TraceValueGenerator traceValues() {
+    return new TraceValueGenerator();
+  }
+
+  public static TraceDispatchOperation dispatch() {
+    return new TraceDispatchOperation();
+  }
+}
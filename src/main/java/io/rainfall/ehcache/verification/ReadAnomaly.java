@@ -0,0 +1,37 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.verification;
+
+/**
+ * Anomaly of a value read from a cache, detected by {@link VerifiedValueFormat}.
+ *
+ * @author Aurelien Broszniowski
+ */
+public enum ReadAnomaly {
+  /**
+   * The value is not in the verified format, fails its checksum, or belongs to another key.
+   */
+  CORRUPTED,
+  /**
+   * The header and the trailer of the value come from two different writes.
+   */
+  TORN,
+  /**
+   * The value is older than a version whose write completed before the read started.
+   */
+  STALE
+}
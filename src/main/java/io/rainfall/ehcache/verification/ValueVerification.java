@@ -0,0 +1,86 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.verification;
+
+import io.rainfall.Configuration;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Verifies inline the values read by the Ehcache 3 operations, counting the corrupted, torn and stale reads per
+ * cache, without issuing any extra cache call.
+ * <p>
+ * Registered as a configuration of the run, with the values generated by {@link VerifiedValueGenerator} : the
+ * writes commit the version of their value once completed, unless they overlapped another write of the same key,
+ * and get, getAll, replace and putIfAbsent verify the values they get back. Ehcache 3 remove returns no value, so
+ * there is nothing to verify there. The key space is the range of the key sequences, so that each key tracks its
+ * own committed version.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class ValueVerification extends Configuration {
+
+  private final int keySpace;
+  private final Map<String, VerifiedCache> caches = new LinkedHashMap<String, VerifiedCache>();
+
+  public ValueVerification(final int keySpace) {
+    if (keySpace <= 0) {
+      throw new IllegalArgumentException("The key space must be positive");
+    }
+    this.keySpace = keySpace;
+  }
+
+  public static ValueVerification valueVerification(final int keySpace) {
+    return new ValueVerification(keySpace);
+  }
+
+  /**
+   * @return the verification state of the cache, created once per cache name
+   */
+  public synchronized VerifiedCache verifiedCache(final String cacheName) {
+    VerifiedCache cache = caches.get(cacheName);
+    if (cache == null) {
+      cache = new VerifiedCache(cacheName, keySpace);
+      caches.put(cacheName, cache);
+    }
+    return cache;
+  }
+
+  public synchronized List<VerifiedCache> getVerifiedCaches() {
+    return new ArrayList<VerifiedCache>(caches.values());
+  }
+
+  public void writeText(final PrintStream out) {
+    out.println("Value verification");
+    out.println(String.format("%-20s %12s %12s %12s", "cache", "corrupted", "torn", "stale"));
+    for (VerifiedCache cache : getVerifiedCaches()) {
+      out.println(String.format("%-20s %12d %12d %12d", cache.getCacheName(), cache.getCount(ReadAnomaly.CORRUPTED),
+          cache.getCount(ReadAnomaly.TORN), cache.getCount(ReadAnomaly.STALE)));
+    }
+  }
+
+  @Override
+  public List<String> getDescription() {
+    List<String> desc = new ArrayList<String>();
+    desc.add("Inline verification of the values read, over a key space of " + keySpace);
+    return desc;
+  }
+}
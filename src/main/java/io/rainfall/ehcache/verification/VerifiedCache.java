@@ -0,0 +1,214 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.verification;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Verification state of a cache : the last committed version of each key, the writes in flight on each key, and
+ * the count of each {@link ReadAnomaly}.
+ * <p>
+ * A read is stale when it returns a version older than the one committed before the read started. The versions are
+ * taken when the values are generated, so two overlapping writes of a key may reach the cache in any order : only a
+ * write which overlapped no other write of its key commits its version, the overlapping ones can only lower it. A
+ * read overlapping a write of its key is not checked for staleness. So the operations call
+ * {@link #readStarted(long)} before the cache call and verify the value returned after it, and surround their cache
+ * writes with {@link #writeStarted(Object)} and {@link #writeEnded(Object, boolean)} or {@link #writeFailed(Object)}.
+ * The versions and writes are tracked by key sequence modulo the key space of the {@link ValueVerification}.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class VerifiedCache {
+
+  private static final Logger log = LoggerFactory.getLogger(VerifiedCache.class);
+  private static final int MAX_LOGGED = 10;
+  private static final int LOCK_STRIPES = 256;
+
+  // state of the writes of a key : writes in flight (low 16 bits), overlapping writes flag, then a generation
+  // incremented by each write started
+  private static final long IN_FLIGHT_MASK = 0xFFFFL;
+  private static final long OVERLAPPED = 1L << 16;
+  private static final long GENERATION = 1L << 17;
+  private static final long NOT_CHECKED = -1L;
+
+  private final String cacheName;
+  private final AtomicLongArray committed;
+  private final AtomicLongArray writes;
+  private final Object[] locks = new Object[LOCK_STRIPES];
+  private final AtomicLong[] anomalies = new AtomicLong[ReadAnomaly.values().length];
+  private final AtomicLong logged = new AtomicLong();
+
+  VerifiedCache(final String cacheName, final int keySpace) {
+    this.cacheName = cacheName;
+    this.committed = new AtomicLongArray(keySpace);
+    this.writes = new AtomicLongArray(keySpace);
+    for (int i = 0; i < locks.length; i++) {
+      locks[i] = new Object();
+    }
+    for (int i = 0; i < anomalies.length; i++) {
+      anomalies[i] = new AtomicLong();
+    }
+  }
+
+  public String getCacheName() {
+    return cacheName;
+  }
+
+  private int index(final long key) {
+    int index = (int)(key % committed.length());
+    return index < 0 ? index + committed.length() : index;
+  }
+
+  /**
+   * @return the stamp of a read of the key, to be passed to {@link #verify(long, Object, long)}
+   */
+  public long readStarted(final long key) {
+    long state = writes.get(index(key));
+    return (state & IN_FLIGHT_MASK) == 0 ? state : NOT_CHECKED;
+  }
+
+  /**
+   * Registers a write of a value, before the cache call.
+   */
+  public void writeStarted(final Object value) {
+    if (!VerifiedValueFormat.isVerified(value)) {
+      return;
+    }
+    int index = index(VerifiedValueFormat.keyOf((byte[])value));
+    synchronized (locks[index % LOCK_STRIPES]) {
+      long state = writes.get(index);
+      long next = state + GENERATION + 1;
+      if ((state & IN_FLIGHT_MASK) != 0) {
+        next |= OVERLAPPED;
+      }
+      writes.set(index, next);
+    }
+  }
+
+  /**
+   * Registers the end of a write of a value, after the cache call, committing its version if it was written.
+   *
+   * @param written true if the value is in the cache, false if the call did not write it (e.g. replace of an absent
+   *                key)
+   */
+  public void writeEnded(final Object value, final boolean written) {
+    writeEnded(value, written, false);
+  }
+
+  /**
+   * Registers the end of a write of a value whose cache call failed : the value may or may not be in the cache,
+   * so its version can only lower the committed one.
+   */
+  public void writeFailed(final Object value) {
+    writeEnded(value, true, true);
+  }
+
+  private void writeEnded(final Object value, final boolean written, final boolean uncertain) {
+    if (!VerifiedValueFormat.isVerified(value)) {
+      return;
+    }
+    byte[] bytes = (byte[])value;
+    int index = index(VerifiedValueFormat.keyOf(bytes));
+    long version = VerifiedValueFormat.versionOf(bytes);
+    synchronized (locks[index % LOCK_STRIPES]) {
+      long state = writes.get(index);
+      if (written) {
+        if ((state & OVERLAPPED) == 0 && !uncertain) {
+          committed.set(index, version);
+        } else if (version < committed.get(index)) {
+          committed.set(index, version);
+        }
+      }
+      long next = state - 1;
+      if ((next & IN_FLIGHT_MASK) == 0) {
+        next &= ~OVERLAPPED;
+      }
+      writes.set(index, next);
+    }
+  }
+
+  /**
+   * Verifies a value read for a key.
+   *
+   * @param stamp the stamp returned by {@link #readStarted(long)} before the read started
+   * @return the anomaly of the value, or null if it is correct
+   */
+  public ReadAnomaly verify(final long key, final Object value, final long stamp) {
+    return verify(key, value, stamp, stamp);
+  }
+
+  /**
+   * Verifies the previous value returned by a write of a key, e.g. replace or putIfAbsent : the write of the caller
+   * must have been started after {@link #readStarted(long)}, and not be ended yet.
+   *
+   * @param stamp the stamp returned by {@link #readStarted(long)} before the write started
+   * @return the anomaly of the value, or null if it is correct
+   */
+  public ReadAnomaly verifyPrevious(final long key, final Object value, final long stamp) {
+    return verify(key, value, stamp, stamp == NOT_CHECKED ? NOT_CHECKED : stamp + GENERATION + 1);
+  }
+
+  private ReadAnomaly verify(final long key, final Object value, final long stamp, final long expectedState) {
+    ReadAnomaly anomaly = VerifiedValueFormat.check(value);
+    if (anomaly == null) {
+      byte[] bytes = (byte[])value;
+      int index = index(key);
+      // the committed version is read before the state, so that it is the one of the read start if no write
+      // started in between
+      long committedVersion = committed.get(index);
+      if (VerifiedValueFormat.keyOf(bytes) != key) {
+        anomaly = ReadAnomaly.CORRUPTED;
+      } else if (stamp != NOT_CHECKED && writes.get(index) == expectedState
+                 && VerifiedValueFormat.versionOf(bytes) < committedVersion) {
+        anomaly = ReadAnomaly.STALE;
+      }
+    }
+    if (anomaly != null) {
+      count(anomaly, key);
+    }
+    return anomaly;
+  }
+
+  /**
+   * Verifies a value read without knowing its key sequence, e.g. by a bulk operation : only its format, trailer
+   * and checksum are checked.
+   *
+   * @return the anomaly of the value, or null if it is intact
+   */
+  public ReadAnomaly verify(final Object value) {
+    ReadAnomaly anomaly = VerifiedValueFormat.check(value);
+    if (anomaly != null) {
+      count(anomaly, -1);
+    }
+    return anomaly;
+  }
+
+  private void count(final ReadAnomaly anomaly, final long key) {
+    anomalies[anomaly.ordinal()].incrementAndGet();
+    if (logged.incrementAndGet() <= MAX_LOGGED) {
+      log.warn("{} read in cache {} for key sequence {}", anomaly, cacheName, key);
+    }
+  }
+
+  public long getCount(final ReadAnomaly anomaly) {
+    return anomalies[anomaly.ordinal()].get();
+  }
+}
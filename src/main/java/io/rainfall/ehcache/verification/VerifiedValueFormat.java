@@ -0,0 +1,136 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.verification;
+
+import java.util.zip.Adler32;
+
+/**
+ * Self-verifying byte[] value format : the value carries the sequence of its key, a version and a checksum, so
+ * that a read can be verified inline, without another cache call nor a reference copy of the value.
+ * <pre>
+ * magic (4) | key (8) | version (8) | checksum (4) | payload | version (8)
+ * </pre>
+ * The checksum covers the key, the version and the payload. The version is repeated in the trailer, so that a
+ * value assembled from two writes is detected as torn.
+ *
+ * @author Aurelien Broszniowski
+ */
+public final class VerifiedValueFormat {
+
+  public static final int MAGIC = 0x52464c56;
+  static final int KEY_OFFSET = 4;
+  static final int VERSION_OFFSET = 12;
+  static final int CHECKSUM_OFFSET = 20;
+  static final int HEADER_SIZE = 24;
+  static final int TRAILER_SIZE = 8;
+  public static final int MIN_LENGTH = HEADER_SIZE + TRAILER_SIZE;
+
+  private static final ThreadLocal<Adler32> CHECKSUMS = new ThreadLocal<Adler32>() {
+    @Override
+    protected Adler32 initialValue() {
+      return new Adler32();
+    }
+  };
+
+  private VerifiedValueFormat() {
+  }
+
+  public static byte[] encode(final long key, final long version, final int length) {
+    if (length < MIN_LENGTH) {
+      throw new IllegalArgumentException("A verified value is at least " + MIN_LENGTH + " bytes long");
+    }
+    byte[] value = new byte[length];
+    putInt(value, 0, MAGIC);
+    putLong(value, KEY_OFFSET, key);
+    putLong(value, VERSION_OFFSET, version);
+    long seed = key * 0x9E3779B97F4A7C15L ^ version;
+    for (int i = HEADER_SIZE; i < length - TRAILER_SIZE; i++) {
+      seed = seed * 6364136223846793005L + 1442695040888963407L;
+      value[i] = (byte)(seed >>> 56);
+    }
+    putLong(value, length - TRAILER_SIZE, version);
+    putInt(value, CHECKSUM_OFFSET, checksum(value));
+    return value;
+  }
+
+  /**
+   * @return true if the value is a byte[] long enough to carry the format and starting with its magic
+   */
+  public static boolean isVerified(final Object value) {
+    if (!(value instanceof byte[])) {
+      return false;
+    }
+    byte[] bytes = (byte[])value;
+    return bytes.length >= MIN_LENGTH && getInt(bytes, 0) == MAGIC;
+  }
+
+  public static long keyOf(final byte[] value) {
+    return getLong(value, KEY_OFFSET);
+  }
+
+  public static long versionOf(final byte[] value) {
+    return getLong(value, VERSION_OFFSET);
+  }
+
+  /**
+   * Checks the format, the trailer and the checksum of a value.
+   *
+   * @return the anomaly of the value, or null if it is intact
+   */
+  public static ReadAnomaly check(final Object value) {
+    if (!isVerified(value)) {
+      return ReadAnomaly.CORRUPTED;
+    }
+    byte[] bytes = (byte[])value;
+    if (getLong(bytes, bytes.length - TRAILER_SIZE) != versionOf(bytes)) {
+      return ReadAnomaly.TORN;
+    }
+    if (getInt(bytes, CHECKSUM_OFFSET) != checksum(bytes)) {
+      return ReadAnomaly.CORRUPTED;
+    }
+    return null;
+  }
+
+  private static int checksum(final byte[] value) {
+    Adler32 adler32 = CHECKSUMS.get();
+    adler32.reset();
+    adler32.update(value, KEY_OFFSET, CHECKSUM_OFFSET - KEY_OFFSET);
+    adler32.update(value, HEADER_SIZE, value.length - TRAILER_SIZE - HEADER_SIZE);
+    return (int)adler32.getValue();
+  }
+
+  private static void putInt(final byte[] bytes, final int offset, final int value) {
+    bytes[offset] = (byte)(value >>> 24);
+    bytes[offset + 1] = (byte)(value >>> 16);
+    bytes[offset + 2] = (byte)(value >>> 8);
+    bytes[offset + 3] = (byte)value;
+  }
+
+  private static int getInt(final byte[] bytes, final int offset) {
+    return ((bytes[offset] & 0xff) << 24) | ((bytes[offset + 1] & 0xff) << 16)
+           | ((bytes[offset + 2] & 0xff) << 8) | (bytes[offset + 3] & 0xff);
+  }
+
+  private static void putLong(final byte[] bytes, final int offset, final long value) {
+    putInt(bytes, offset, (int)(value >>> 32));
+    putInt(bytes, offset + 4, (int)value);
+  }
+
+  private static long getLong(final byte[] bytes, final int offset) {
+    return ((long)getInt(bytes, offset) << 32) | (getInt(bytes, offset + 4) & 0xffffffffL);
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.verification;
+
+import io.rainfall.ObjectGenerator;
+
+/**
+ * Generates byte[] values in the {@link VerifiedValueFormat}, for the seed as key sequence. The version of a
+ * value is the {@link System#nanoTime()} at its generation, so versions increase without any shared counter.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class VerifiedValueGenerator implements ObjectGenerator<byte[]> {
+
+  private final int length;
+
+  public VerifiedValueGenerator(final int length) {
+    if (length < VerifiedValueFormat.MIN_LENGTH) {
+      throw new IllegalArgumentException("A verified value is at least " + VerifiedValueFormat.MIN_LENGTH + " bytes long");
+    }
+    this.length = length;
+  }
+
+  public static VerifiedValueGenerator verifiedValues(final int length) {
+    return new VerifiedValueGenerator(length);
+  }
+
+  @Override
+  public byte[] generate(final Long seed) {
+    return VerifiedValueFormat.encode(seed, System.nanoTime(), length);
+  }
+
+  @Override
+  public String getDescription() {
+    return "Verified byte[] (length = " + length + ")";
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache2;
+
+import io.rainfall.Configuration;
+import io.rainfall.ehcache.expiry.Expiration;
+import io.rainfall.ehcache.expiry.ExpiringCache;
+import io.rainfall.ehcache.statistics.AccessRecorder;
+import io.rainfall.ehcache.statistics.AccessRecorders;
+import io.rainfall.ehcache.statistics.ScanMonitor;
+import net.sf.ehcache.Ehcache;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of the bind phase of an Ehcache 2 operation : the caches, their names, the access recorder, the scan monitor
+ * and the expiry states, resolved once per run, so that the measured loop does neither map lookups nor allocations.
+ *
+ * @author Aurelien Broszniowski
+ */
+public final class CacheBinding {
+
+  private final Map<Class<? extends Configuration>, Configuration> configurations;
+  private final Ehcache[] caches;
+  private final String[] names;
+  private final int bulkBatchSize;
+  private final AccessRecorder recorder;
+  private final AccessRecorder followingRecorder;
+  private final ScanMonitor scanMonitor;
+  private final Expiration expiration;
+  private final ExpiringCache[] expiringCaches;
+
+  private CacheBinding(final Map<Class<? extends Configuration>, Configuration> configurations,
+                       final Ehcache[] caches, final String[] names) {
+    this.configurations = configurations;
+    this.caches = caches;
+    this.names = names;
+    CacheConfig<?, ?> cacheConfig = (CacheConfig<?, ?>)configurations.get(CacheConfig.class);
+    this.bulkBatchSize = (cacheConfig == null) ? CacheConfig.DEFAULT_BULK_BATCH_SIZE : cacheConfig.getBulkBatchSize();
+    this.recorder = AccessRecorders.resolve(configurations);
+    this.followingRecorder = AccessRecorders.resolveFollowing(configurations);
+    this.scanMonitor = (ScanMonitor)configurations.get(ScanMonitor.class);
+    this.expiration = (Expiration)configurations.get(Expiration.class);
+    if (expiration == null) {
+      this.expiringCaches = null;
+    } else {
+      this.expiringCaches = new ExpiringCache[caches.length];
+      for (int i = 0; i < caches.length; i++) {
+        expiringCaches[i] = expiration.expiringCache(names[i]);
+      }
+    }
+  }
+
+  /**
+   * Binds to the caches of the {@link CacheConfig} of the run.
+   */
+  public static CacheBinding bind(final Map<Class<? extends Configuration>, Configuration> configurations) {
+    CacheConfig<?, ?> cacheConfig = (CacheConfig<?, ?>)configurations.get(CacheConfig.class);
+    if (cacheConfig == null) {
+      throw new IllegalStateException("No CacheConfig found, configure the caches using CacheConfig.cacheConfig()");
+    }
+    List<Ehcache> cacheList = cacheConfig.getCaches();
+    Ehcache[] caches = cacheList.toArray(new Ehcache[cacheList.size()]);
+    String[] names = new String[caches.length];
+    for (int i = 0; i < caches.length; i++) {
+      names[i] = cacheConfig.getCacheName(caches[i]);
+    }
+    return new CacheBinding(configurations, caches, names);
+  }
+
+  /**
+   * Binds to the caches of the definitions, the {@link CacheConfig} of the run is not used.
+   */
+  public static CacheBinding bind(final Map<Class<? extends Configuration>, Configuration> configurations,
+                                  final CacheDefinition... definitions) {
+    Ehcache[] caches = new Ehcache[definitions.length];
+    String[] names = new String[definitions.length];
+    for (int i = 0; i < definitions.length; i++) {
+      caches[i] = definitions[i].getCache();
+      names[i] = definitions[i].getName();
+    }
+    return new CacheBinding(configurations, caches, names);
+  }
+
+  /**
+   * @return true if this binding was resolved against this configurations map
+   */
+  public boolean isBoundTo(final Map<Class<? extends Configuration>, Configuration> configurations) {
+    return this.configurations == configurations;
+  }
+
+  public Ehcache[] getCaches() {
+    return caches;
+  }
+
+  /**
+   * @return the name of the cache, indexed as {@link #getCaches()}
+   */
+  public String getName(final int index) {
+    return names[index];
+  }
+
+  /**
+   * @return the scan monitor of the run, or null if none is configured
+   */
+  public ScanMonitor getScanMonitor() {
+    return scanMonitor;
+  }
+
+  public int getBulkBatchSize() {
+    return bulkBatchSize;
+  }
+
+  /**
+   * @return the recorder of the access to the cache, indexed as {@link #getCaches()}, or null if no
+   * {@link AccessRecorder} is configured for the run : every operation accesses all the caches, so only the access
+   * to the first one is traced, a replay accessing them all again once
+   */
+  public AccessRecorder getRecorder(final int index) {
+    return index == 0 ? recorder : followingRecorder;
+  }
+
+  /**
+   * @return the expiration of the run, or null if none is configured
+   */
+  public Expiration getExpiration() {
+    return expiration;
+  }
+
+  /**
+   * @return the expiry state of the cache, indexed as {@link #getCaches()}, or null if no {@link Expiration} is
+   * configured
+   */
+  public ExpiringCache getExpiringCache(final int index) {
+    return expiringCaches == null ? null : expiringCaches[index];
+  }
+}
@@ -31,8 +31,11 @@ import java.util.Map;
 
 public class CacheConfig<K, V> extends Configuration {
 
+  public static final int DEFAULT_BULK_BATCH_SIZE = 10;     // Default nb of objects used for bulk operations
+
   private List<Ehcache> caches = new ArrayList<Ehcache>();
   private Map<Ehcache, String> cacheNames = new HashMap<Ehcache, String>();
+  private int bulkBatchSize = DEFAULT_BULK_BATCH_SIZE;
 
   public static <K, V> CacheConfig<K, V> cacheConfig() {
     return new CacheConfig<K, V>();
@@ -64,12 +67,22 @@ public class CacheConfig<K, V> extends Configuration {
     return this;
   }
 
+  public CacheConfig<K, V> bulkBatchSize(final int bulkBatchSize) {
+    this.bulkBatchSize = bulkBatchSize;
+    return this;
+  }
+
+  public int getBulkBatchSize() {
+    return bulkBatchSize;
+  }
+
   public String getCacheName(Ehcache cache) {
     return cacheNames.get(cache);
   }
 
   @Override
   public List<String> getDescription() {
-    return Arrays.asList("Using " + caches.size() + " cache" + (caches.size() > 1 ? "s" : ""));
+    return Arrays.asList("Using " + caches.size() + " cache" + (caches.size() > 1 ? "s" : ""),
+        "Size of batch operations : " + bulkBatchSize);
   }
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache2;
+
+import io.rainfall.ehcache.snapshot.SnapshotReader;
+import io.rainfall.ehcache.snapshot.SnapshotWriter;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.Element;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dumps the contents of the Ehcache 2 caches of a {@link CacheConfig} to snapshot files, one per cache, and
+ * restores them in a later run, to skip the warmup.
+ * <p>
+ * The dump walks the keys of the cache with {@link Ehcache#getQuiet(Object)} so that the statistics are not
+ * affected (the key list itself is on heap), the restore puts the entries back with
+ * {@link Ehcache#putAll(java.util.Collection)}, in parallel.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class CacheSnapshots {
+
+  private static final Logger log = LoggerFactory.getLogger(CacheSnapshots.class);
+
+  /**
+   * @return the number of entries dumped, all caches included
+   */
+  public static <K, V> long dump(final CacheConfig<K, V> cacheConfig, final File directory) throws IOException {
+    if (!directory.exists() && !directory.mkdirs()) {
+      throw new IOException("Can not create directory " + directory);
+    }
+    long total = 0;
+    for (Ehcache cache : cacheConfig.getCaches()) {
+      String name = cacheConfig.getCacheName(cache);
+      long start = System.nanoTime();
+      SnapshotWriter writer = new SnapshotWriter(SnapshotWriter.fileFor(directory, name));
+      try {
+        for (Object key : cache.getKeys()) {
+          Element element = cache.getQuiet(key);
+          if (element != null) {
+            writer.append(element.getObjectKey(), element.getObjectValue());
+          }
+        }
+      } finally {
+        writer.close();
+      }
+      log.info("Dumped {} entries of cache {} in {}ms", writer.getEntries(), name, (System.nanoTime() - start) / 1000000);
+      total += writer.getEntries();
+    }
+    return total;
+  }
+
+  /**
+   * @return the number of entries restored, all caches included
+   */
+  public static <K, V> long restore(final CacheConfig<K, V> cacheConfig, final File directory, final int nbThreads) throws IOException {
+    long total = 0;
+    for (final Ehcache cache : cacheConfig.getCaches()) {
+      String name = cacheConfig.getCacheName(cache);
+      long start = System.nanoTime();
+      SnapshotReader reader = new SnapshotReader(SnapshotWriter.fileFor(directory, name));
+      long restored;
+      try {
+        restored = reader.restore(nbThreads, new SnapshotReader.Sink() {
+          @Override
+          public void putAll(final Map<Object, Object> entries) {
+            List<Element> elements = new ArrayList<Element>(entries.size());
+            for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+              elements.add(new Element(entry.getKey(), entry.getValue()));
+            }
+            cache.putAll(elements);
+          }
+        });
+      } finally {
+        reader.close();
+      }
+      log.info("Restored {} entries of cache {} in {}ms", restored, name, (System.nanoTime() - start) / 1000000);
+      total += restored;
+    }
+    return total;
+  }
+}
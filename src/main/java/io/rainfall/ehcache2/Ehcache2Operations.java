@@ -17,11 +17,21 @@
 package io.rainfall.ehcache2;
 
 import io.rainfall.ObjectGenerator;
+import io.rainfall.Operation;
 import io.rainfall.SequenceGenerator;
+import io.rainfall.ehcache.operation.PacedOperation;
+import io.rainfall.ehcache.operation.TokenBucket;
+import io.rainfall.ehcache2.operation.GetAllOperation;
 import io.rainfall.ehcache2.operation.GetOperation;
+import io.rainfall.ehcache2.operation.PutAllOperation;
 import io.rainfall.ehcache2.operation.PutIfAbsentOperation;
 import io.rainfall.ehcache2.operation.PutOperation;
+import io.rainfall.ehcache2.operation.RemoveAllOperation;
+import io.rainfall.ehcache2.operation.RemoveForKeyAndValueOperation;
 import io.rainfall.ehcache2.operation.RemoveOperation;
+import io.rainfall.ehcache2.operation.ReplaceForKeyAndValueOperation;
+import io.rainfall.ehcache2.operation.ReplaceOperation;
+import io.rainfall.ehcache2.operation.ScanOperation;
 
 /**
  * Contains the helper methods to instantiate the Ehcache {@link io.rainfall.Operation} objects.
@@ -52,5 +62,51 @@ public class Ehcache2Operations {
     return new PutIfAbsentOperation<K, V>();
   }
 
+  public static <K, V> PutAllOperation<K, V> putAll(Class<K> keyClass, Class<V> valueClass) {
+    return new PutAllOperation<K, V>();
+  }
+
+  public static <K, V> GetAllOperation<K, V> getAll(Class<K> keyClass, Class<V> valueClass) {
+    return new GetAllOperation<K, V>();
+  }
+
+  public static <K, V> RemoveAllOperation<K, V> removeAll(Class<K> keyClass, Class<V> valueClass) {
+    return new RemoveAllOperation<K, V>();
+  }
+
+  public static <K, V> ReplaceOperation<K, V> replace(Class<K> keyClass, Class<V> valueClass) {
+    return new ReplaceOperation<K, V>();
+  }
+
+  public static <K, V> ReplaceForKeyAndValueOperation<K, V> replaceForKeyAndValue(Class<K> keyClass, Class<V> valueClass) {
+    return new ReplaceForKeyAndValueOperation<K, V>();
+  }
+
+  public static <K, V> RemoveForKeyAndValueOperation<K, V> removeForKeyAndValue(Class<K> keyClass, Class<V> valueClass) {
+    return new RemoveForKeyAndValueOperation<K, V>();
+  }
+
+  /**
+   * Iterates over the whole caches, or up to a number of entries with {@link ScanOperation#limit(long)}, reporting
+   * the per-entry latency as SCAN_ENTRY. The entries scanned per second are reported by a
+   * {@link io.rainfall.ehcache.statistics.ScanMonitor}.
+   */
+  public static <K, V> ScanOperation<K, V> scan(Class<K> keyClass, Class<V> valueClass) {
+    return new ScanOperation<K, V>();
+  }
+
+  /**
+   * Paces an operation at a rate, using its own {@link TokenBucket}.
+   */
+  public static Operation paced(final long operationsPerSecond, final Operation operation) {
+    return new PacedOperation(TokenBucket.tokenBucket(operation.getClass().getSimpleName(), operationsPerSecond), operation);
+  }
+
+  /**
+   * Paces an operation with a {@link TokenBucket} that can be shared by several operations, e.g. per cache.
+   */
+  public static Operation paced(final TokenBucket tokenBucket, final Operation operation) {
+    return new PacedOperation(tokenBucket, operation);
+  }
 
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache2.execution;
+
+import io.rainfall.Configuration;
+import io.rainfall.ObjectGenerator;
+import io.rainfall.ehcache.execution.AbstractBulkPreload;
+import io.rainfall.ehcache2.CacheConfig;
+import io.rainfall.statistics.StatisticsHolder;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.Element;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
+import static io.rainfall.ehcache.statistics.EhcacheResult.PUTALL;
+
+/**
+ * Preloads the Ehcache 2 caches of the {@link CacheConfig} with {@link Ehcache#putAll(java.util.Collection)} batches.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class BulkPreload<K, V> extends AbstractBulkPreload {
+
+  private final ObjectGenerator<K> keyGenerator;
+  private final ObjectGenerator<V> valueGenerator;
+
+  public BulkPreload(final ObjectGenerator<K> keyGenerator, final ObjectGenerator<V> valueGenerator,
+                     final long min, final long max) {
+    super(min, max);
+    this.keyGenerator = keyGenerator;
+    this.valueGenerator = valueGenerator;
+  }
+
+  public static <K, V> BulkPreload<K, V> preload(final ObjectGenerator<K> keyGenerator,
+                                                 final ObjectGenerator<V> valueGenerator, final long min, final long max) {
+    return new BulkPreload<K, V>(keyGenerator, valueGenerator, min, max);
+  }
+
+  @Override
+  protected Loader loader(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>, Configuration> configurations) {
+    final CacheConfig<?, ?> cacheConfig = (CacheConfig<?, ?>)configurations.get(CacheConfig.class);
+    if (cacheConfig == null) {
+      throw new IllegalStateException("No CacheConfig found, configure the caches using CacheConfig.cacheConfig()");
+    }
+    final List<Element> batch = new ArrayList<Element>(batchSize);
+
+    return new Loader() {
+      @Override
+      public long load(final long from, final long to) {
+        batch.clear();
+        for (long i = from; i < to; i++) {
+          batch.add(new Element(keyGenerator.generate(i), valueGenerator.generate(i)));
+        }
+        long count = 0;
+        for (Ehcache cache : cacheConfig.getCaches()) {
+          long start = statisticsHolder.getTimeInNs();
+          try {
+            cache.putAll(batch);
+            long end = statisticsHolder.getTimeInNs();
+            statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), PUTALL);
+            count += batch.size();
+          } catch (Exception e) {
+            long end = statisticsHolder.getTimeInNs();
+            statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), EXCEPTION);
+          }
+        }
+        return count;
+      }
+    };
+  }
+
+  @Override
+  public String getDescription() {
+    return super.getDescription() + " of " + keyGenerator.getDescription() + " keys and "
+           + valueGenerator.getDescription() + " values";
+  }
+}
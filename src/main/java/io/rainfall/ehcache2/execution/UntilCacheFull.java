@@ -16,88 +16,101 @@
 
 package io.rainfall.ehcache2.execution;
 
-import io.rainfall.AssertionEvaluator;
 import io.rainfall.Configuration;
-import io.rainfall.Execution;
-import io.rainfall.Scenario;
-import io.rainfall.TestException;
-import io.rainfall.WeightedOperation;
-import io.rainfall.configuration.ConcurrencyConfig;
+import io.rainfall.ehcache.execution.AbstractUntilCacheFull;
+import io.rainfall.ehcache.execution.CacheFullMonitor;
 import io.rainfall.ehcache2.CacheConfig;
-import io.rainfall.statistics.StatisticsHolder;
-import io.rainfall.utils.RangeMap;
 import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.Element;
+import net.sf.ehcache.event.CacheEventListenerAdapter;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-
-import static java.util.concurrent.TimeUnit.SECONDS;
+import java.util.concurrent.TimeUnit;
 
 /**
+ * Executes the scenario until the Ehcache 2 caches are full.
+ * <p>
+ * A cache is full as soon as it evicts an element (eviction listener), or when its size didn't change between
+ * two samples taken by a background thread, for caches which never evict (e.g. unbounded disk).
+ *
  * @author Aurelien Broszniowski
  */
-public class UntilCacheFull extends Execution {
-  @Override
-  public <E extends Enum<E>> void execute(final StatisticsHolder<E> statisticsHolder, final Scenario scenario, final Map<Class<? extends Configuration>, Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+public class UntilCacheFull extends AbstractUntilCacheFull {
 
-    ConcurrencyConfig concurrencyConfig = (ConcurrencyConfig)configurations.get(ConcurrencyConfig.class);
-    int nbThreads = concurrencyConfig.getThreadsCount();
-    ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+  private final long samplingPeriodInMs;
+  private final Map<Ehcache, EvictionListener> listeners = new HashMap<Ehcache, EvictionListener>();
 
-    CacheConfig cachesConfig = (CacheConfig)configurations.get(CacheConfig.class);
-    final List<Ehcache> caches = cachesConfig.getCaches();
-    final Map<String, Integer> sizes = new HashMap<String, Integer>();
+  public UntilCacheFull() {
+    this(1, TimeUnit.SECONDS);
+  }
+
+  public UntilCacheFull(final long samplingPeriod, final TimeUnit unit) {
+    this.samplingPeriodInMs = unit.toMillis(samplingPeriod);
+  }
+
+  @Override
+  protected CacheFullMonitor monitor(final Map<Class<? extends Configuration>, Configuration> configurations) {
+    CacheConfig<?, ?> cacheConfig = (CacheConfig<?, ?>)configurations.get(CacheConfig.class);
+    final List<Ehcache> caches = cacheConfig.getCaches();
+    List<String> names = new ArrayList<String>();
     for (Ehcache cache : caches) {
-      sizes.put(cache.getName(), Integer.MIN_VALUE);
+      names.add(cache.getName());
+    }
+    final CacheFullMonitor monitor = new CacheFullMonitor(names);
+
+    synchronized (listeners) {
+      for (Ehcache cache : caches) {
+        EvictionListener listener = new EvictionListener(monitor);
+        cache.getCacheEventNotificationService().registerListener(listener);
+        listeners.put(cache, listener);
+      }
     }
 
-    for (int threadNb = 0; threadNb < nbThreads; threadNb++) {
-      executor.submit(new Callable() {
-
-        @Override
-        public Object call() throws Exception {
-          List<RangeMap<WeightedOperation>> operations = scenario.getOperations();
-          while (!cachesAreFull(sizes, caches)) {
-            for (RangeMap<WeightedOperation> operation : operations) {
-              operation.get(weightRnd.nextFloat(operation.getHigherBound()))
-                  .getOperation().exec(statisticsHolder, configurations, assertions);
-            }
+    final Map<String, Long> sizes = new HashMap<String, Long>();
+    monitor.sampleEvery(samplingPeriodInMs, TimeUnit.MILLISECONDS, new Runnable() {
+      @Override
+      public void run() {
+        for (Ehcache cache : caches) {
+          long size = cache.getStatistics().getSize();
+          Long previous = sizes.put(cache.getName(), size);
+          if (previous != null && previous == size && size > 0) {
+            monitor.cacheFull(cache.getName());
           }
-          return null;
         }
-      });
-    }
-    //TODO : it is submitted enough but not everything has finished to run when threads are done -> how to solve Coordinated Omission ?
-
-    executor.shutdown();
-    try {
-      long timeoutInSeconds = ((ConcurrencyConfig)configurations.get(ConcurrencyConfig.class)).getTimeoutInSeconds();
-      boolean success = executor.awaitTermination(timeoutInSeconds, SECONDS);
-      if (!success) {
-        throw new TestException("Execution of Scenario timed out after " + timeoutInSeconds + " seconds.");
       }
-    } catch (InterruptedException e) {
-      throw new TestException("Execution of Scenario didn't stop correctly.", e);
+    });
+    return monitor;
+  }
+
+  @Override
+  protected void release(final CacheFullMonitor monitor) {
+    synchronized (listeners) {
+      for (Map.Entry<Ehcache, EvictionListener> entry : listeners.entrySet()) {
+        entry.getKey().getCacheEventNotificationService().unregisterListener(entry.getValue());
+      }
+      listeners.clear();
     }
   }
 
   @Override
   public String getDescription() {
-    return "Execution : until caches are full";
+    return "Execution : until caches are full (eviction or size stable over " + samplingPeriodInMs + "ms)";
   }
 
+  private static class EvictionListener extends CacheEventListenerAdapter {
 
-  private boolean cachesAreFull(final Map<String, Integer> sizes, final List<Ehcache> caches) {
-    boolean allCachesAreFull = true;
-    for (Ehcache cache : caches) {
-      allCachesAreFull &= (cache.getStatistics().getSize() == sizes.get(cache.getName()));
-      sizes.put(cache.getName(), cache.getSize());
+    private final CacheFullMonitor monitor;
+
+    private EvictionListener(final CacheFullMonitor monitor) {
+      this.monitor = monitor;
+    }
+
+    @Override
+    public void notifyElementEvicted(final Ehcache cache, final Element element) {
+      monitor.cacheFull(cache.getName());
     }
-    return allCachesAreFull;
   }
 }
-
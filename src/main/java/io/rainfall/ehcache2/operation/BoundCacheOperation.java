@@ -0,0 +1,45 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache2.operation;
+
+import io.rainfall.Configuration;
+import io.rainfall.EhcacheOperation;
+import io.rainfall.ehcache2.CacheBinding;
+
+import java.util.Map;
+
+/**
+ * Ehcache 2 operation resolving the {@link io.rainfall.ehcache2.CacheConfig} once per run.
+ * <p>
+ * The binding is kept as long as the operation is executed with the same configurations map, it is only resolved
+ * again when the operation is reused by another run.
+ *
+ * @author Aurelien Broszniowski
+ */
+public abstract class BoundCacheOperation<K, V> extends EhcacheOperation<K, V> {
+
+  private volatile CacheBinding binding;
+
+  protected CacheBinding bind(final Map<Class<? extends Configuration>, Configuration> configurations) {
+    CacheBinding current = this.binding;
+    if (current == null || !current.isBoundTo(configurations)) {
+      current = CacheBinding.bind(configurations);
+      this.binding = current;
+    }
+    return current;
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache2.operation;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.TestException;
+import io.rainfall.ehcache.operation.BulkBatch;
+import io.rainfall.ehcache.statistics.EhcacheResult;
+import io.rainfall.ehcache2.CacheBinding;
+import io.rainfall.statistics.StatisticsHolder;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.Element;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
+import static io.rainfall.ehcache.statistics.EhcacheResult.GETALL;
+import static io.rainfall.ehcache.statistics.EhcacheResult.GETALL_ENTRY;
+import static io.rainfall.ehcache.statistics.EhcacheResult.MISS;
+
+/**
+ * Execute and measure a Ehcache getAll operation
+ *
+ * @author Aurelien Broszniowski
+ */
+public class GetAllOperation<K, V> extends BoundCacheOperation<K, V> {
+
+  private final BulkBatch.PerThread<K, V> batches = new BulkBatch.PerThread<K, V>();
+
+  @Override
+  public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
+      Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+
+    CacheBinding binding = bind(configurations);
+    int bulkBatchSize = binding.getBulkBatchSize();
+    BulkBatch<K, V> batch = batches.get(bulkBatchSize);
+    int size = batch.planKeys(sequenceGenerator, keyGenerator, bulkBatchSize);
+    Set<K> set = batch.getKeys();
+
+    Ehcache[] caches = binding.getCaches();
+    for (int i = 0; i < caches.length; i++) {
+      final Ehcache cache = caches[i];
+      final String name = binding.getName(i);
+      Map<Object, Element> all;
+      long start = statisticsHolder.getTimeInNs();
+      try {
+        all = cache.getAll(set);
+        long end = statisticsHolder.getTimeInNs();
+        EhcacheResult result = GETALL;
+        for (Element element : all.values()) {
+          if (element == null) {
+            result = MISS;
+            break;
+          }
+        }
+        statisticsHolder.record(name, (end - start), result);
+        recordEntries(statisticsHolder, name, (end - start), size, GETALL_ENTRY);
+      } catch (Exception e) {
+        long end = statisticsHolder.getTimeInNs();
+        statisticsHolder.record(name, (end - start), EXCEPTION);
+      }
+    }
+  }
+
+  @Override
+  public List<String> getDescription() {
+    List<String> desc = new ArrayList<String>();
+    desc.add("getAll(Collection<" + keyGenerator.getDescription() + "> keys)");
+    desc.add(sequenceGenerator.getDescription());
+    return desc;
+  }
+}
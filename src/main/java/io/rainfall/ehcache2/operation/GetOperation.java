@@ -18,9 +18,12 @@ package io.rainfall.ehcache2.operation;
 
 import io.rainfall.AssertionEvaluator;
 import io.rainfall.Configuration;
-import io.rainfall.EhcacheOperation;
 import io.rainfall.TestException;
-import io.rainfall.ehcache2.CacheConfig;
+import io.rainfall.ehcache.expiry.Expiration;
+import io.rainfall.ehcache.expiry.ExpiringCache;
+import io.rainfall.ehcache.statistics.AccessRecorder;
+import io.rainfall.ehcache.trace.AccessType;
+import io.rainfall.ehcache2.CacheBinding;
 import io.rainfall.statistics.StatisticsHolder;
 import net.sf.ehcache.Ehcache;
 import net.sf.ehcache.Element;
@@ -30,39 +33,54 @@ import java.util.List;
 import java.util.Map;
 
 import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
+import static io.rainfall.ehcache.statistics.EhcacheResult.EXPIRED;
 import static io.rainfall.ehcache.statistics.EhcacheResult.GET;
 import static io.rainfall.ehcache.statistics.EhcacheResult.MISS;
 
 /**
  * Execute and measure a Ehcache get operation
+ * <p>
+ * When an {@link Expiration} is configured, the misses on expired elements are recorded as
+ * {@link io.rainfall.ehcache.statistics.EhcacheResult#EXPIRED}.
  *
  * @author Aurelien Broszniowski
  */
-public class GetOperation<K, V> extends EhcacheOperation<K, V> {
+public class GetOperation<K, V> extends BoundCacheOperation<K, V> {
 
   @Override
   public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
       Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
 
-    CacheConfig<K, V> cacheConfig = (CacheConfig<K, V>)configurations.get(CacheConfig.class);
+    CacheBinding binding = bind(configurations);
     final long next = this.sequenceGenerator.next();
-    List<Ehcache> caches = cacheConfig.getCaches();
-    for (final Ehcache cache : caches) {
+    Ehcache[] caches = binding.getCaches();
+    for (int i = 0; i < caches.length; i++) {
+      final Ehcache cache = caches[i];
+      final String name = binding.getName(i);
+      AccessRecorder recorder = binding.getRecorder(i);
       Element value;
       Object k = keyGenerator.generate(next);
+      ExpiringCache expiringCache = binding.getExpiringCache(i);
 
       long start = statisticsHolder.getTimeInNs();
       try {
         value = cache.get(k);
         long end = statisticsHolder.getTimeInNs();
         if (value == null) {
-          statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), MISS);
+          if (expiringCache != null && expiringCache.missed(next)) {
+            record(statisticsHolder, recorder, name, AccessType.GET, next, null, start, end, EXPIRED);
+          } else {
+            record(statisticsHolder, recorder, name, AccessType.GET, next, null, start, end, MISS);
+          }
         } else {
-          statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), GET);
+          record(statisticsHolder, recorder, name, AccessType.GET, next, value.getObjectValue(), start, end, GET);
+          if (expiringCache != null) {
+            expiringCache.accessed(next);
+          }
         }
       } catch (Exception e) {
         long end = statisticsHolder.getTimeInNs();
-        statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), EXCEPTION);
+        record(statisticsHolder, recorder, name, AccessType.GET, next, null, start, end, EXCEPTION);
       }
     }
   }
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache2.operation;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.TestException;
+import io.rainfall.ehcache.operation.BulkBatch;
+import io.rainfall.ehcache2.CacheBinding;
+import io.rainfall.statistics.StatisticsHolder;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.Element;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
+import static io.rainfall.ehcache.statistics.EhcacheResult.PUTALL;
+import static io.rainfall.ehcache.statistics.EhcacheResult.PUTALL_ENTRY;
+
+/**
+ * Execute and measure a Ehcache putAll operation
+ *
+ * @author Aurelien Broszniowski
+ */
+public class PutAllOperation<K, V> extends BoundCacheOperation<K, V> {
+
+  private final BulkBatch.PerThread<K, V> batches = new BulkBatch.PerThread<K, V>();
+  private final ThreadLocal<List<Element>> elements = new ThreadLocal<List<Element>>();
+
+  @Override
+  public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
+      Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+
+    CacheBinding binding = bind(configurations);
+    int bulkBatchSize = binding.getBulkBatchSize();
+    BulkBatch<K, V> batch = batches.get(bulkBatchSize);
+    int size = batch.planEntries(sequenceGenerator, keyGenerator, valueGenerator, bulkBatchSize);
+
+    List<Element> list = elements.get();
+    if (list == null) {
+      list = new ArrayList<Element>(bulkBatchSize);
+      elements.set(list);
+    }
+    list.clear();
+    for (Map.Entry<K, V> entry : batch.getEntries().entrySet()) {
+      list.add(new Element(entry.getKey(), entry.getValue()));
+    }
+
+    Ehcache[] caches = binding.getCaches();
+    for (int i = 0; i < caches.length; i++) {
+      final Ehcache cache = caches[i];
+      final String name = binding.getName(i);
+      long start = statisticsHolder.getTimeInNs();
+      try {
+        cache.putAll(list);
+        long end = statisticsHolder.getTimeInNs();
+        statisticsHolder.record(name, (end - start), PUTALL);
+        recordEntries(statisticsHolder, name, (end - start), size, PUTALL_ENTRY);
+      } catch (Exception e) {
+        long end = statisticsHolder.getTimeInNs();
+        statisticsHolder.record(name, (end - start), EXCEPTION);
+      }
+    }
+  }
+
+  @Override
+  public List<String> getDescription() {
+    List<String> desc = new ArrayList<String>();
+    desc.add("putAll(Collection<Element(" + keyGenerator.getDescription() + " key, "
+             + valueGenerator.getDescription() + " value)> elements)");
+    desc.add(sequenceGenerator.getDescription());
+    return desc;
+  }
+}
@@ -18,9 +18,10 @@ package io.rainfall.ehcache2.operation;
 
 import io.rainfall.AssertionEvaluator;
 import io.rainfall.Configuration;
-import io.rainfall.EhcacheOperation;
 import io.rainfall.TestException;
-import io.rainfall.ehcache2.CacheConfig;
+import io.rainfall.ehcache.statistics.AccessRecorder;
+import io.rainfall.ehcache.trace.AccessType;
+import io.rainfall.ehcache2.CacheBinding;
 import io.rainfall.statistics.StatisticsHolder;
 import net.sf.ehcache.Ehcache;
 import net.sf.ehcache.Element;
@@ -38,16 +39,19 @@ import static io.rainfall.ehcache.statistics.EhcacheResult.PUTIFABSENT_MISS;
  *
  * @author Aurelien Broszniowski
  */
-public class PutIfAbsentOperation<K, V> extends EhcacheOperation<K, V> {
+public class PutIfAbsentOperation<K, V> extends BoundCacheOperation<K, V> {
 
   @Override
   public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
       Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
 
-    CacheConfig<K, V> cacheConfig = (CacheConfig<K, V>)configurations.get(CacheConfig.class);
+    CacheBinding binding = bind(configurations);
     final long next = this.sequenceGenerator.next();
-    List<Ehcache> caches = cacheConfig.getCaches();
-    for (final Ehcache cache : caches) {
+    Ehcache[] caches = binding.getCaches();
+    for (int i = 0; i < caches.length; i++) {
+      final Ehcache cache = caches[i];
+      final String name = binding.getName(i);
+      AccessRecorder recorder = binding.getRecorder(i);
       Object v;
       Object k = keyGenerator.generate(next);
       Object v1 = valueGenerator.generate(next);
@@ -58,13 +62,13 @@ public class PutIfAbsentOperation<K, V> extends EhcacheOperation<K, V> {
         v = cache.putIfAbsent(element);
         long end = statisticsHolder.getTimeInNs();
         if (v != null) {
-          statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), PUTIFABSENT_MISS);
+          record(statisticsHolder, recorder, name, AccessType.PUT_IF_ABSENT, next, v1, start, end, PUTIFABSENT_MISS);
         } else {
-          statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), PUTIFABSENT);
+          record(statisticsHolder, recorder, name, AccessType.PUT_IF_ABSENT, next, v1, start, end, PUTIFABSENT);
         }
       } catch (Exception e) {
         long end = statisticsHolder.getTimeInNs();
-        statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), EXCEPTION);
+        record(statisticsHolder, recorder, name, AccessType.PUT_IF_ABSENT, next, v1, start, end, EXCEPTION);
       }
     }
   }
@@ -22,6 +22,12 @@ import io.rainfall.ObjectGenerator;
 import io.rainfall.Operation;
 import io.rainfall.SequenceGenerator;
 import io.rainfall.TestException;
+import io.rainfall.ehcache.expiry.Expiration;
+import io.rainfall.ehcache.expiry.ExpiringCache;
+import io.rainfall.ehcache.expiry.ExpiryMode;
+import io.rainfall.ehcache.statistics.AccessRecorder;
+import io.rainfall.ehcache.trace.AccessType;
+import io.rainfall.ehcache2.CacheBinding;
 import io.rainfall.ehcache2.CacheDefinition;
 import io.rainfall.statistics.StatisticsHolder;
 import net.sf.ehcache.Ehcache;
@@ -36,6 +42,9 @@ import static io.rainfall.ehcache.statistics.EhcacheResult.PUT;
 
 /**
  * Execute and measure a Ehcache put operation
+ * <p>
+ * When an {@link Expiration} is configured, each element is written with its own time to live or time to idle,
+ * rounded up to the second as Ehcache 2 expects it.
  *
  * @author Aurelien Broszniowski
  */
@@ -45,6 +54,7 @@ public class PutOperation<K, V> implements Operation {
   protected final ObjectGenerator<V> valueGenerator;
   protected final SequenceGenerator sequenceGenerator;
   protected final CacheDefinition[] caches;
+  private volatile CacheBinding binding;
 
   public PutOperation(final ObjectGenerator<K> keyGenerator, final ObjectGenerator<V> valueGenerator,
                       final SequenceGenerator sequenceGenerator, final CacheDefinition cache) {
@@ -63,26 +73,61 @@ public class PutOperation<K, V> implements Operation {
   public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
       Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
 
+    CacheBinding binding = bind(configurations);
+    Expiration expiration = binding.getExpiration();
     final long next = this.sequenceGenerator.next();
-    for (final CacheDefinition cacheDefinition : caches) {
-      Ehcache cache = cacheDefinition.getCache();
+    Ehcache[] caches = binding.getCaches();
+    for (int i = 0; i < caches.length; i++) {
+      Ehcache cache = caches[i];
+      String name = binding.getName(i);
+      AccessRecorder recorder = binding.getRecorder(i);
       Object k = keyGenerator.generate(next);
       Object v = valueGenerator.generate(next);
 
       Element element = new Element(k, v);
+      ExpiringCache expiringCache = null;
+      long durationInMs = 0;
+      if (expiration != null) {
+        expiringCache = binding.getExpiringCache(i);
+        int durationInSeconds = (int)((expiration.nextInMs() + 999) / 1000);
+        if (expiration.getMode() == ExpiryMode.TIME_TO_LIVE) {
+          element.setTimeToLive(durationInSeconds);
+        } else {
+          element.setTimeToIdle(durationInSeconds);
+        }
+        durationInMs = durationInSeconds * 1000L;
+      }
       long start = statisticsHolder.getTimeInNs();
       try {
         cache.put(element);
         long end = statisticsHolder.getTimeInNs();
-        statisticsHolder.record(cacheDefinition.getName(), (end - start), PUT);
+        statisticsHolder.record(name, (end - start), PUT);
+        if (recorder != null) {
+          recorder.record(name, AccessType.PUT, next, v, start, (end - start), PUT);
+        }
+        if (expiringCache != null) {
+          expiringCache.written(next, durationInMs);
+        }
       } catch (Exception e) {
         e.printStackTrace();
         long end = statisticsHolder.getTimeInNs();
-        statisticsHolder.record(cacheDefinition.getName(), (end - start), EXCEPTION);
+        statisticsHolder.record(name, (end - start), EXCEPTION);
+        if (recorder != null) {
+          recorder.record(name, AccessType.PUT, next, v, start, (end - start), EXCEPTION);
+        }
       }
     }
   }
 
+  private CacheBinding bind(final Map<Class<? extends Configuration>, Configuration> configurations) {
+    CacheBinding current = this.binding;
+    if (current == null || !current.isBoundTo(configurations)) {
+      current = CacheBinding.bind(configurations, caches);
+      this.binding = current;
+    }
+    return current;
+  }
+
   @Override
   public List<String> getDescription() {
     List<String> desc = new ArrayList<String>();
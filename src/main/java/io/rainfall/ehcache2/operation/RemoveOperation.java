@@ -18,9 +18,11 @@ package io.rainfall.ehcache2.operation;
 
 import io.rainfall.AssertionEvaluator;
 import io.rainfall.Configuration;
-import io.rainfall.EhcacheOperation;
 import io.rainfall.TestException;
-import io.rainfall.ehcache2.CacheConfig;
+import io.rainfall.ehcache.expiry.ExpiringCache;
+import io.rainfall.ehcache.statistics.AccessRecorder;
+import io.rainfall.ehcache.trace.AccessType;
+import io.rainfall.ehcache2.CacheBinding;
 import io.rainfall.statistics.StatisticsHolder;
 import net.sf.ehcache.Ehcache;
 
@@ -37,16 +39,19 @@ import static io.rainfall.ehcache.statistics.EhcacheResult.REMOVE;
  *
  * @author Aurelien Broszniowski
  */
-public class RemoveOperation<K, V> extends EhcacheOperation<K, V> {
+public class RemoveOperation<K, V> extends BoundCacheOperation<K, V> {
 
   @Override
   public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
       Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
 
-    CacheConfig<K, V> cacheConfig = (CacheConfig<K, V>)configurations.get(CacheConfig.class);
+    CacheBinding binding = bind(configurations);
     final long next = this.sequenceGenerator.next();
-    List<Ehcache> caches = cacheConfig.getCaches();
-    for (final Ehcache cache : caches) {
+    Ehcache[] caches = binding.getCaches();
+    for (int i = 0; i < caches.length; i++) {
+      final Ehcache cache = caches[i];
+      final String name = binding.getName(i);
+      AccessRecorder recorder = binding.getRecorder(i);
       boolean removed;
       Object k = keyGenerator.generate(next);
 
@@ -54,14 +59,18 @@ public class RemoveOperation<K, V> extends EhcacheOperation<K, V> {
       try {
         removed = cache.remove(k);
         long end = statisticsHolder.getTimeInNs();
+        ExpiringCache expiringCache = binding.getExpiringCache(i);
+        if (expiringCache != null) {
+          expiringCache.removed(next);
+        }
         if (removed) {
-          statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), REMOVE);
+          record(statisticsHolder, recorder, name, AccessType.REMOVE, next, null, start, end, REMOVE);
         } else {
-          statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), MISS);
+          record(statisticsHolder, recorder, name, AccessType.REMOVE, next, null, start, end, MISS);
         }
       } catch (Exception e) {
         long end = statisticsHolder.getTimeInNs();
-        statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), EXCEPTION);
+        record(statisticsHolder, recorder, name, AccessType.REMOVE, next, null, start, end, EXCEPTION);
       }
     }
   }
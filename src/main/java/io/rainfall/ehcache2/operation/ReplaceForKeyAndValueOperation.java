@@ -0,0 +1,91 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache2.operation;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.TestException;
+import io.rainfall.ehcache.statistics.AccessRecorder;
+import io.rainfall.ehcache.trace.AccessType;
+import io.rainfall.ehcache2.CacheBinding;
+import io.rainfall.statistics.StatisticsHolder;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.Element;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
+import static io.rainfall.ehcache.statistics.EhcacheResult.REPLACEVALUE;
+import static io.rainfall.ehcache.statistics.EhcacheResult.REPLACEVALUE_MISS;
+
+/**
+ * Execute and measure a Ehcache replace(Element old, Element element) operation
+ * <p>
+ * The expected old value is the one the put operations write for the key, the new value the one of the next
+ * sequence. Ehcache 2 compares the values with the ElementValueComparator of the cache, equals based by default, so
+ * with byte[] values the replace only succeeds with a comparator comparing their contents.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class ReplaceForKeyAndValueOperation<K, V> extends BoundCacheOperation<K, V> {
+
+  @Override
+  public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
+      Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+
+    CacheBinding binding = bind(configurations);
+    final long next = this.sequenceGenerator.next();
+    Ehcache[] caches = binding.getCaches();
+    for (int i = 0; i < caches.length; i++) {
+      final Ehcache cache = caches[i];
+      final String name = binding.getName(i);
+      AccessRecorder recorder = binding.getRecorder(i);
+      boolean replaced;
+      Object k = keyGenerator.generate(next);
+      Object v = valueGenerator.generate(next + 1);
+
+      Element old = new Element(k, valueGenerator.generate(next));
+      Element element = new Element(k, v);
+      long start = statisticsHolder.getTimeInNs();
+      try {
+        replaced = cache.replace(old, element);
+        long end = statisticsHolder.getTimeInNs();
+        if (!replaced) {
+          record(statisticsHolder, recorder, name, AccessType.REPLACE_FOR_KEY_AND_VALUE, next, v, start, end, REPLACEVALUE_MISS);
+        } else {
+          record(statisticsHolder, recorder, name, AccessType.REPLACE_FOR_KEY_AND_VALUE, next, v, start, end, REPLACEVALUE);
+        }
+      } catch (Exception e) {
+        long end = statisticsHolder.getTimeInNs();
+        record(statisticsHolder, recorder, name, AccessType.REPLACE_FOR_KEY_AND_VALUE, next, v, start, end, EXCEPTION);
+      }
+    }
+  }
+
+  @Override
+  public List<String> getDescription() {
+    List<String> desc = new ArrayList<String>();
+    desc.add("replace(Element(" + keyGenerator.getDescription() + " key, " + valueGenerator.getDescription()
+             + " oldValue), Element(" + keyGenerator.getDescription() + " key, " + valueGenerator.getDescription()
+             + " newValue))");
+    desc.add("oldValue generated from the sequence of the key, newValue from the next one (values compared with equals)");
+    desc.add(sequenceGenerator.getDescription());
+    return desc;
+  }
+}
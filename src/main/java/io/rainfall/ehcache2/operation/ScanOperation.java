@@ -0,0 +1,105 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache2.operation;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.TestException;
+import io.rainfall.ehcache.statistics.ScanMonitor;
+import io.rainfall.ehcache2.CacheBinding;
+import io.rainfall.statistics.StatisticsHolder;
+import net.sf.ehcache.Ehcache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
+import static io.rainfall.ehcache.statistics.EhcacheResult.SCAN;
+import static io.rainfall.ehcache.statistics.EhcacheResult.SCAN_ENTRY;
+
+/**
+ * Execute and measure a Ehcache scan : gets the keys of each cache, then gets the elements, all of them or up to
+ * a number of entries.
+ * <p>
+ * The scan is recorded once as {@link io.rainfall.ehcache.statistics.EhcacheResult#SCAN}, and once as
+ * {@link io.rainfall.ehcache.statistics.EhcacheResult#SCAN_ENTRY} with its latency amortized over its entries, so
+ * that SCAN_ENTRY gives the per-entry latency, its throughput being in scans per second. A {@link ScanMonitor}
+ * configured for the run reports the entries scanned per second, and how the concurrent point accesses are affected.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class ScanOperation<K, V> extends BoundCacheOperation<K, V> {
+
+  private long limit = Long.MAX_VALUE;
+
+  /**
+   * Stops each scan after a number of entries, the whole cache is scanned by default.
+   */
+  public ScanOperation<K, V> limit(final long limit) {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("The scan limit must be positive");
+    }
+    this.limit = limit;
+    return this;
+  }
+
+  @Override
+  public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
+      Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+
+    CacheBinding binding = bind(configurations);
+    ScanMonitor scanMonitor = binding.getScanMonitor();
+    Ehcache[] caches = binding.getCaches();
+    for (int c = 0; c < caches.length; c++) {
+      final Ehcache cache = caches[c];
+      final String name = binding.getName(c);
+      long entries = 0;
+      if (scanMonitor != null) {
+        scanMonitor.scanStarted();
+      }
+      long start = statisticsHolder.getTimeInNs();
+      try {
+        List<?> keys = cache.getKeys();
+        for (int i = 0; entries < limit && i < keys.size(); i++) {
+          if (cache.get(keys.get(i)) != null) {
+            entries++;
+          }
+        }
+        long end = statisticsHolder.getTimeInNs();
+        statisticsHolder.record(name, (end - start), SCAN);
+        recordEntries(statisticsHolder, name, (end - start), entries, SCAN_ENTRY);
+        if (scanMonitor != null) {
+          scanMonitor.scanEnded(entries, (end - start));
+        }
+      } catch (Exception e) {
+        long end = statisticsHolder.getTimeInNs();
+        statisticsHolder.record(name, (end - start), EXCEPTION);
+        if (scanMonitor != null) {
+          scanMonitor.scanEnded(entries, (end - start));
+        }
+      }
+    }
+  }
+
+  @Override
+  public List<String> getDescription() {
+    List<String> desc = new ArrayList<String>();
+    desc.add("getKeys() then get(key)" + (limit == Long.MAX_VALUE ? " over the whole cache" : " over " + limit + " entries"));
+    return desc;
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache2.statistics;
+
+import io.rainfall.ehcache.statistics.CacheStatisticsSample;
+import io.rainfall.ehcache.statistics.CacheStatisticsSource;
+import io.rainfall.ehcache2.CacheConfig;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.statistics.StatisticsGateway;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Samples the statistics of an Ehcache 2 cache through its {@link StatisticsGateway}.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class GatewayStatisticsSource implements CacheStatisticsSource {
+
+  private final String cacheName;
+  private final Ehcache cache;
+
+  public GatewayStatisticsSource(final String cacheName, final Ehcache cache) {
+    this.cacheName = cacheName;
+    this.cache = cache;
+  }
+
+  public static <K, V> List<GatewayStatisticsSource> gatewayStatistics(final CacheConfig<K, V> cacheConfig) {
+    List<GatewayStatisticsSource> sources = new ArrayList<GatewayStatisticsSource>();
+    for (Ehcache cache : cacheConfig.getCaches()) {
+      sources.add(new GatewayStatisticsSource(cacheConfig.getCacheName(cache), cache));
+    }
+    return sources;
+  }
+
+  @Override
+  public String getCacheName() {
+    return cacheName;
+  }
+
+  @Override
+  public void sample(final CacheStatisticsSample sample) {
+    StatisticsGateway statistics = cache.getStatistics();
+    sample.counter("hit", statistics.cacheHitCount())
+        .counter("miss", statistics.cacheMissCount())
+        .counter("put", statistics.cachePutCount())
+        .counter("remove", statistics.cacheRemoveCount())
+        .counter("eviction", statistics.cacheEvictedCount())
+        .counter("expiration", statistics.cacheExpiredCount())
+        .counter("heap.hit", statistics.localHeapHitCount())
+        .counter("heap.miss", statistics.localHeapMissCount())
+        .counter("offheap.hit", statistics.localOffHeapHitCount())
+        .counter("offheap.miss", statistics.localOffHeapMissCount())
+        .counter("disk.hit", statistics.localDiskHitCount())
+        .counter("disk.miss", statistics.localDiskMissCount())
+        .gauge("size", statistics.getSize())
+        .gauge("heap.size", statistics.getLocalHeapSize())
+        .gauge("heap.bytes", statistics.getLocalHeapSizeInBytes())
+        .gauge("offheap.size", statistics.getLocalOffHeapSize())
+        .gauge("offheap.bytes", statistics.getLocalOffHeapSizeInBytes())
+        .gauge("disk.size", statistics.getLocalDiskSize())
+        .gauge("disk.bytes", statistics.getLocalDiskSizeInBytes());
+  }
+}
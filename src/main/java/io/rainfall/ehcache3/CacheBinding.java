@@ -0,0 +1,220 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3;
+
+import io.rainfall.Configuration;
+import io.rainfall.ehcache.expiry.Expiration;
+import io.rainfall.ehcache.expiry.ExpiringCache;
+import io.rainfall.ehcache.statistics.AccessRecorder;
+import io.rainfall.ehcache.statistics.AccessRecorders;
+import io.rainfall.ehcache.statistics.ScanMonitor;
+import io.rainfall.ehcache.verification.ValueVerification;
+import io.rainfall.ehcache.verification.VerifiedCache;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Result of the bind phase of an operation : everything the operation needs from the configurations, resolved
+ * once, so that the measured loop does neither map lookups nor allocations.
+ *
+ * @author Aurelien Broszniowski
+ */
+public final class CacheBinding<K, V> {
+
+  private final Map<Class<? extends Configuration>, Configuration> configurations;
+  private final CacheConfig<K, V> cacheConfig;
+  private final CacheSlot<K, V>[] slots;
+  private final CacheSlot<K, V>[][] singletons;
+  private final CacheSelection cacheSelection;
+  private final int bulkBatchSize;
+  private final AccessRecorder recorder;
+  private final AccessRecorder followingRecorder;
+  private final ScanMonitor scanMonitor;
+  private final VerifiedCache[] verifiedCaches;
+  private final ExpiringCache[] expiringCaches;
+
+  /**
+   * Binds to the caches of the {@link CacheConfig} of the run.
+   */
+  @SuppressWarnings("unchecked")
+  public CacheBinding(final Map<Class<? extends Configuration>, Configuration> configurations) {
+    this(configurations, (CacheConfig<K, V>)configurations.get(CacheConfig.class), null);
+  }
+
+  private CacheBinding(final Map<Class<? extends Configuration>, Configuration> configurations,
+                       final CacheConfig<K, V> cacheConfig, final CacheDefinition<K, V>[] definitions) {
+    this.configurations = configurations;
+    this.cacheConfig = cacheConfig;
+    if (definitions == null) {
+      if (cacheConfig == null) {
+        throw new IllegalStateException("No CacheConfig found, configure the caches using CacheConfig.cacheConfig()");
+      }
+      this.slots = cacheConfig.bind();
+    } else {
+      this.slots = (cacheConfig == null) ? CacheSlot.slots(definitions) : cacheConfig.bind(definitions);
+    }
+    this.singletons = CacheSlot.singletons(slots);
+    if (cacheConfig == null || (definitions != null && definitions.length != cacheConfig.getCaches().size())) {
+      this.cacheSelection = CacheSelection.all();
+    } else {
+      this.cacheSelection = cacheConfig.getCacheSelection();
+    }
+    if (slots.length > 0) {
+      cacheSelection.validate(slots.length);
+    }
+    this.bulkBatchSize = (cacheConfig == null) ? CacheConfig.DEFAULT_BULK_BATCH_SIZE : cacheConfig.getBulkBatchSize();
+    this.recorder = AccessRecorders.resolve(configurations);
+    this.followingRecorder = AccessRecorders.resolveFollowing(configurations);
+    this.scanMonitor = (ScanMonitor)configurations.get(ScanMonitor.class);
+    this.verifiedCaches = verifiedCaches((ValueVerification)configurations.get(ValueVerification.class), slots);
+    this.expiringCaches = expiringCaches((Expiration)configurations.get(Expiration.class), slots);
+  }
+
+  /**
+   * Binds to the caches of the definitions, the {@link CacheConfig} of the run, if any, giving their tier
+   * attributions. Its cache selection is only applied when there are as many definitions as configured caches,
+   * otherwise every operation accesses all the definitions, so that a selection sized for the configured caches
+   * never fails on the definitions of an operation.
+   */
+  @SuppressWarnings("unchecked")
+  public static <K, V> CacheBinding<K, V> bind(final Map<Class<? extends Configuration>, Configuration> configurations,
+                                               final CacheDefinition<K, V>... definitions) {
+    return new CacheBinding<K, V>(configurations, (CacheConfig<K, V>)configurations.get(CacheConfig.class),
+        definitions);
+  }
+
+  /**
+   * @return true if this binding was resolved against this configurations map
+   */
+  public boolean isBoundTo(final Map<Class<? extends Configuration>, Configuration> configurations) {
+    return this.configurations == configurations;
+  }
+
+  /**
+   * @return the {@link CacheConfig} of the run, null if the binding is over cache definitions and there is none
+   */
+  public CacheConfig<K, V> getCacheConfig() {
+    return cacheConfig;
+  }
+
+  public CacheSlot<K, V>[] getSlots() {
+    return slots;
+  }
+
+  /**
+   * @param key the key accessed, or the keys of a bulk operation which is not {@link #isSplitByKey() split by key}
+   * @return the slots the {@link CacheSelection} selects for the key
+   */
+  public CacheSlot<K, V>[] select(final Object key) {
+    if (slots.length == 0) {
+      return slots;
+    }
+    int index = cacheSelection.select(key, slots.length);
+    return index == CacheSelection.ALL ? slots : singletons[index];
+  }
+
+  /**
+   * @return true if the {@link CacheSelection} routes each key to its own cache, so that the bulk operations must
+   * split their batches per cache, with {@link #split(Set, Set[])} or {@link #split(Map, Map[])}
+   */
+  public boolean isSplitByKey() {
+    return slots.length > 1 && cacheSelection.isKeyRouted();
+  }
+
+  /**
+   * Splits the keys of a batch per cache, the parts being indexed as the slots.
+   */
+  public <T> void split(final Set<T> keys, final Set<T>[] parts) {
+    for (T key : keys) {
+      parts[cacheSelection.select(key, slots.length)].add(key);
+    }
+  }
+
+  /**
+   * Splits the entries of a batch per cache, the parts being indexed as the slots.
+   */
+  public <T, U> void split(final Map<T, U> entries, final Map<T, U>[] parts) {
+    for (Map.Entry<T, U> entry : entries.entrySet()) {
+      parts[cacheSelection.select(entry.getKey(), slots.length)].put(entry.getKey(), entry.getValue());
+    }
+  }
+
+  /**
+   * @return the scan monitor of the run, or null if none is configured
+   */
+  public ScanMonitor getScanMonitor() {
+    return scanMonitor;
+  }
+
+  public int getBulkBatchSize() {
+    return bulkBatchSize;
+  }
+
+  /**
+   * @return the recorder of the access to the cache of the slot, or null if no {@link AccessRecorder} is configured
+   * for the run : when an operation accesses all the caches, only the access to the first one is traced, so that a
+   * replay through the same selection accesses them all again once
+   */
+  public AccessRecorder getRecorder(final CacheSlot<K, V> slot) {
+    return (slot.getIndex() == 0 || !(cacheSelection instanceof CacheSelection.All)) ? recorder : followingRecorder;
+  }
+
+  /**
+   * @return the verification state of the cache of the slot, or null if the values are not verified
+   */
+  public VerifiedCache getVerifiedCache(final CacheSlot<K, V> slot) {
+    return verifiedCaches == null ? null : verifiedCaches[slot.getIndex()];
+  }
+
+  /**
+   * @return the verification states of the caches of the slots, indexed as the slots, or null if the values are
+   * not verified
+   */
+  public static VerifiedCache[] verifiedCaches(final ValueVerification valueVerification, final CacheSlot<?, ?>[] slots) {
+    if (valueVerification == null) {
+      return null;
+    }
+    VerifiedCache[] verifiedCaches = new VerifiedCache[slots.length];
+    for (int i = 0; i < slots.length; i++) {
+      verifiedCaches[i] = valueVerification.verifiedCache(slots[i].getName());
+    }
+    return verifiedCaches;
+  }
+
+  /**
+   * @return the expiry state of the cache of the slot, or null if no {@link Expiration} is configured
+   */
+  public ExpiringCache getExpiringCache(final CacheSlot<K, V> slot) {
+    return expiringCaches == null ? null : expiringCaches[slot.getIndex()];
+  }
+
+  /**
+   * @return the expiry states of the caches of the slots, indexed as the slots, or null if no {@link Expiration}
+   * is configured
+   */
+  public static ExpiringCache[] expiringCaches(final Expiration expiration, final CacheSlot<?, ?>[] slots) {
+    if (expiration == null) {
+      return null;
+    }
+    ExpiringCache[] expiringCaches = new ExpiringCache[slots.length];
+    for (int i = 0; i < slots.length; i++) {
+      expiringCaches[i] = expiration.expiringCache(slots[i].getName());
+    }
+    return expiringCaches;
+  }
+}
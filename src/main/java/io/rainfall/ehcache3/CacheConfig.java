@@ -17,6 +17,7 @@
 package io.rainfall.ehcache3;
 
 import io.rainfall.Configuration;
+import io.rainfall.ehcache3.statistics.TierAttribution;
 import org.ehcache.Cache;
 import org.ehcache.config.CacheRuntimeConfiguration;
 import org.ehcache.core.HumanReadable;
@@ -32,9 +33,14 @@ import java.util.Map;
 
 public class CacheConfig<K, V> extends Configuration {
 
+  public static final int DEFAULT_BULK_BATCH_SIZE = 10;     // Default nb of objects used for bulk operations
+
   private List<Cache<K, V>> caches = new ArrayList<Cache<K, V>>();
   private Map<Cache<K, V>, String> cacheNames = new HashMap<Cache<K, V>, String>();
-  private int bulkBatchSize = 10;     // Default nb of objects used for bulk operations
+  private int bulkBatchSize = DEFAULT_BULK_BATCH_SIZE;
+  private boolean tierAttribution = false;
+  private CacheSelection cacheSelection = CacheSelection.all();
+  private final Map<Cache<K, V>, TierAttribution> tierAttributions = new HashMap<Cache<K, V>, TierAttribution>();
 
   public static <K, V> CacheConfig<K, V> cacheConfig(Class<K> keyClass, final Class<V> valueClass) {
     return new CacheConfig<K, V>();
@@ -75,10 +81,82 @@ public class CacheConfig<K, V> extends Configuration {
     return bulkBatchSize;
   }
 
+  /**
+   * Attributes the get and put accesses to the tier which served them, reporting them under "cache@tier" too.
+   */
+  public CacheConfig<K, V> tierAttribution() {
+    this.tierAttribution = true;
+    return this;
+  }
+
+  public boolean isTierAttribution() {
+    return tierAttribution;
+  }
+
+  /**
+   * @return the tier attribution of the cache, created once per cache, or null if the accesses are not attributed
+   */
+  public synchronized TierAttribution getTierAttribution(final Cache<K, V> cache) {
+    if (!tierAttribution) {
+      return null;
+    }
+    TierAttribution attribution = tierAttributions.get(cache);
+    if (attribution == null) {
+      String name = cacheNames.containsKey(cache) ? cacheNames.get(cache) : cache.toString();
+      attribution = new TierAttribution(name, cache);
+      tierAttributions.put(cache, attribution);
+    }
+    return attribution;
+  }
+
+  /**
+   * Selects the cache(s) each operation accesses, all of them by default. An operation built over its own cache
+   * definitions only applies the selection when they are as many as the configured caches, and accesses all of
+   * them otherwise.
+   */
+  public CacheConfig<K, V> selection(final CacheSelection cacheSelection) {
+    this.cacheSelection = cacheSelection;
+    return this;
+  }
+
+  public CacheSelection getCacheSelection() {
+    return cacheSelection;
+  }
+
   public String getCacheName(final Cache<K, V> cache) {
     return cacheNames.get(cache);
   }
 
+  /**
+   * Resolves the configured caches into slots, in configuration order.
+   *
+   * @return a new array of {@link CacheSlot}, one per cache
+   */
+  @SuppressWarnings("unchecked")
+  public CacheSlot<K, V>[] bind() {
+    CacheSlot<K, V>[] slots = new CacheSlot[caches.size()];
+    for (int i = 0; i < slots.length; i++) {
+      Cache<K, V> cache = caches.get(i);
+      slots[i] = new CacheSlot<K, V>(i, cacheNames.get(cache), cache, getTierAttribution(cache));
+    }
+    return slots;
+  }
+
+  /**
+   * Resolves cache definitions into slots, in definition order, with the tier attributions of this configuration.
+   *
+   * @return a new array of {@link CacheSlot}, one per definition
+   */
+  @SuppressWarnings("unchecked")
+  public CacheSlot<K, V>[] bind(final CacheDefinition<K, V>... definitions) {
+    CacheSlot<K, V>[] slots = new CacheSlot[definitions.length];
+    for (int i = 0; i < slots.length; i++) {
+      Cache<K, V> cache = definitions[i].getCache();
+      slots[i] = new CacheSlot<K, V>(i, definitions[i].getName(), cache, getTierAttribution(cache));
+    }
+    return slots;
+  }
+
   @Override
   public List<String> getDescription() {
     List<String> desc = new ArrayList<String>();
@@ -90,6 +168,10 @@ public class CacheConfig<K, V> extends Configuration {
       }
     }
     desc.add("Size of batch operations : " + bulkBatchSize);
+    desc.add(cacheSelection.getDescription());
+    if (tierAttribution) {
+      desc.add("Accesses attributed to the tier which served them");
+    }
     return desc;
   }
 }
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Selects the cache of the {@link CacheConfig} an operation accesses.
+ * <p>
+ * By default, every operation accesses all the configured caches in turn. The other selections access a single
+ * cache per operation, so that a key space can be spread across many caches, the load on each cache scaling with
+ * the number of threads. When the selection routes each key to its own cache (see {@link #isKeyRouted()}), the
+ * bulk operations split their batch per cache, otherwise they access the cache selected for the whole batch.
+ *
+ * @author Aurelien Broszniowski
+ */
+public abstract class CacheSelection {
+
+  /**
+   * Returned by {@link #select(Object, int)} when all the caches are accessed.
+   */
+  public static final int ALL = -1;
+
+  /**
+   * Every operation accesses all the caches, in configuration order.
+   */
+  public static CacheSelection all() {
+    return new All();
+  }
+
+  /**
+   * Every operation accesses the cache selected by the hash of its key, so a key is always in the same cache.
+   */
+  public static CacheSelection hashOfKey() {
+    return new HashOfKey();
+  }
+
+  /**
+   * Every operation accesses a cache selected at random, with a probability proportional to its weight.
+   *
+   * @param weights one weight per cache, in configuration order
+   */
+  public static CacheSelection weightedRandom(final double... weights) {
+    return new WeightedRandom(weights);
+  }
+
+  /**
+   * The operations access the caches one after the other.
+   */
+  public static CacheSelection roundRobin() {
+    return new RoundRobin();
+  }
+
+  /**
+   * @param key the key accessed, or the keys of a bulk operation when the selection is not key routed
+   * @param nbCaches the number of caches, at least 1
+   * @return the index of the cache to access, or {@link #ALL}
+   */
+  public abstract int select(Object key, int nbCaches);
+
+  /**
+   * @return true if the cache is selected by the key alone, so that a key is always in the same cache
+   */
+  public boolean isKeyRouted() {
+    return false;
+  }
+
+  /**
+   * Checks the selection can be applied to that number of caches.
+   */
+  public void validate(final int nbCaches) {
+  }
+
+  public abstract String getDescription();
+
+  static int spread(final int hashCode) {
+    int h = hashCode ^ (hashCode >>> 16);
+    return h & 0x7fffffff;
+  }
+
+  static class All extends CacheSelection {
+
+    @Override
+    public int select(final Object key, final int nbCaches) {
+      return ALL;
+    }
+
+    @Override
+    public String getDescription() {
+      return "Every operation accesses all the caches";
+    }
+  }
+
+  static class HashOfKey extends CacheSelection {
+
+    @Override
+    public boolean isKeyRouted() {
+      return true;
+    }
+
+    @Override
+    public int select(final Object key, final int nbCaches) {
+      return key == null ? 0 : spread(key.hashCode()) % nbCaches;
+    }
+
+    @Override
+    public String getDescription() {
+      return "Every operation accesses the cache selected by the hash of its key";
+    }
+  }
+
+  static class WeightedRandom extends CacheSelection {
+
+    private final double[] weights;
+    private final double[] cumulated;
+    private final ThreadLocal<Random> random = new ThreadLocal<Random>() {
+      @Override
+      protected Random initialValue() {
+        return new Random();
+      }
+    };
+
+    WeightedRandom(final double[] weights) {
+      if (weights.length == 0) {
+        throw new IllegalArgumentException("At least one weight must be given");
+      }
+      this.weights = weights.clone();
+      this.cumulated = new double[weights.length];
+      double total = 0;
+      for (int i = 0; i < weights.length; i++) {
+        if (weights[i] < 0) {
+          throw new IllegalArgumentException("The weights can not be negative");
+        }
+        total += weights[i];
+        cumulated[i] = total;
+      }
+      if (total <= 0) {
+        throw new IllegalArgumentException("The sum of the weights must be positive");
+      }
+    }
+
+    @Override
+    public void validate(final int nbCaches) {
+      if (nbCaches != weights.length) {
+        throw new IllegalStateException("The weighted random selection has " + weights.length
+                                        + " weights for " + nbCaches + " caches");
+      }
+    }
+
+    @Override
+    public int select(final Object key, final int nbCaches) {
+      double draw = random.get().nextDouble() * cumulated[cumulated.length - 1];
+      for (int i = 0; i < cumulated.length - 1; i++) {
+        if (draw < cumulated[i]) {
+          return i;
+        }
+      }
+      return cumulated.length - 1;
+    }
+
+    @Override
+    public String getDescription() {
+      return "Every operation accesses a cache selected at random, with the weights " + Arrays.toString(weights);
+    }
+  }
+
+  static class RoundRobin extends CacheSelection {
+
+    private final AtomicLong counter = new AtomicLong();
+
+    @Override
+    public int select(final Object key, final int nbCaches) {
+      return (int)(counter.getAndIncrement() % nbCaches);
+    }
+
+    @Override
+    public String getDescription() {
+      return "The operations access the caches in round robin";
+    }
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3;
+
+import io.rainfall.ehcache3.statistics.TierAttribution;
+import org.ehcache.Cache;
+
+/**
+ * A cache resolved once for the measured loop : the cache itself, the name its statistics are recorded under,
+ * its index in the {@link CacheConfig}, and its {@link TierAttribution} when the accesses are attributed to tiers.
+ *
+ * @author Aurelien Broszniowski
+ */
+public final class CacheSlot<K, V> {
+
+  private final int index;
+  private final String name;
+  private final Cache<K, V> cache;
+  private final TierAttribution tierAttribution;
+
+  public CacheSlot(final int index, final String name, final Cache<K, V> cache) {
+    this(index, name, cache, null);
+  }
+
+  public CacheSlot(final int index, final String name, final Cache<K, V> cache, final TierAttribution tierAttribution) {
+    this.index = index;
+    this.name = name;
+    this.cache = cache;
+    this.tierAttribution = tierAttribution;
+  }
+
+  public int getIndex() {
+    return index;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public Cache<K, V> getCache() {
+    return cache;
+  }
+
+  /**
+   * @return the tier attribution of the cache, or null if the accesses are not attributed to tiers
+   */
+  public TierAttribution getTierAttribution() {
+    return tierAttribution;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <K, V> CacheSlot<K, V>[] slots(final CacheDefinition<K, V>... cacheDefinitions) {
+    CacheSlot<K, V>[] slots = new CacheSlot[cacheDefinitions.length];
+    for (int i = 0; i < cacheDefinitions.length; i++) {
+      slots[i] = new CacheSlot<K, V>(i, cacheDefinitions[i].getName(), cacheDefinitions[i].getCache());
+    }
+    return slots;
+  }
+
+  /**
+   * @return one single-slot array per slot, so that selecting a single cache does not allocate
+   */
+  @SuppressWarnings("unchecked")
+  public static <K, V> CacheSlot<K, V>[][] singletons(final CacheSlot<K, V>[] slots) {
+    CacheSlot<K, V>[][] singletons = new CacheSlot[slots.length][];
+    for (int i = 0; i < slots.length; i++) {
+      singletons[i] = new CacheSlot[] { slots[i] };
+    }
+    return singletons;
+  }
+}
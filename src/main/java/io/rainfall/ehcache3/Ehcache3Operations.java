@@ -19,18 +19,25 @@ package io.rainfall.ehcache3;
 import io.rainfall.ObjectGenerator;
 import io.rainfall.Operation;
 import io.rainfall.SequenceGenerator;
+import io.rainfall.ehcache.operation.PacedOperation;
+import io.rainfall.ehcache.operation.TokenBucket;
 import io.rainfall.ehcache3.operation.GetAllOperation;
 import io.rainfall.ehcache3.operation.GetOperation;
 import io.rainfall.ehcache3.operation.PutAllOperation;
 import io.rainfall.ehcache3.operation.PutIfAbsentOperation;
 import io.rainfall.ehcache3.operation.PutOperation;
+import io.rainfall.ehcache3.operation.ReadThroughAllOperation;
+import io.rainfall.ehcache3.operation.ReadThroughOperation;
 import io.rainfall.ehcache3.operation.RemoveAllOperation;
 import io.rainfall.ehcache3.operation.RemoveForKeyAndValueOperation;
 import io.rainfall.ehcache3.operation.RemoveOperation;
 import io.rainfall.ehcache3.operation.ReplaceForKeyAndValueOperation;
 import io.rainfall.ehcache3.operation.ReplaceOperation;
+import io.rainfall.ehcache3.operation.ScanOperation;
 import io.rainfall.ehcache3.operation.TpsLimitGetOperation;
 import io.rainfall.ehcache3.operation.TpsLimitPutOperation;
+import io.rainfall.ehcache3.operation.WriteThroughAllOperation;
+import io.rainfall.ehcache3.operation.WriteThroughOperation;
 
 /**
  * Contains the helper methods to instantiate the Ehcache {@link io.rainfall.Operation} objects.
@@ -94,4 +101,49 @@ public class Ehcache3Operations {
     return new RemoveForKeyAndValueOperation<K, V>();
   }
 
+  /**
+   * Get on a cache with a loader, the gets which loaded are recorded under "cache@loader".
+   */
+  public static <K, V> ReadThroughOperation<K, V> readThrough(Class<K> keyClass, Class<V> valueClass) {
+    return new ReadThroughOperation<K, V>();
+  }
+
+  /**
+   * Put on a cache with a writer, the puts which wrote are recorded under "cache@writer".
+   */
+  public static <K, V> WriteThroughOperation<K, V> writeThrough(Class<K> keyClass, Class<V> valueClass) {
+    return new WriteThroughOperation<K, V>();
+  }
+
+  public static <K, V> ReadThroughAllOperation<K, V> readThroughAll(Class<K> keyClass, Class<V> valueClass) {
+    return new ReadThroughAllOperation<K, V>();
+  }
+
+  public static <K, V> WriteThroughAllOperation<K, V> writeThroughAll(Class<K> keyClass, Class<V> valueClass) {
+    return new WriteThroughAllOperation<K, V>();
+  }
+
+  /**
+   * Iterates over the whole caches, or up to a number of entries with {@link ScanOperation#limit(long)}, reporting
+   * the per-entry latency as SCAN_ENTRY. The entries scanned per second are reported by a
+   * {@link io.rainfall.ehcache.statistics.ScanMonitor}.
+   */
+  public static <K, V> ScanOperation<K, V> scan(Class<K> keyClass, Class<V> valueClass) {
+    return new ScanOperation<K, V>();
+  }
+
+  /**
+   * Paces an operation at a rate, using its own {@link TokenBucket}.
+   */
+  public static Operation paced(final long operationsPerSecond, final Operation operation) {
+    return new PacedOperation(TokenBucket.tokenBucket(operation.getClass().getSimpleName(), operationsPerSecond), operation);
+  }
+
+  /**
+   * Paces an operation with a {@link TokenBucket} that can be shared by several operations, e.g. per cache.
+   */
+  public static Operation paced(final TokenBucket tokenBucket, final Operation operation) {
+    return new PacedOperation(tokenBucket, operation);
+  }
+
 }
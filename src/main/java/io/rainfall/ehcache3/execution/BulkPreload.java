@@ -0,0 +1,94 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.execution;
+
+import io.rainfall.Configuration;
+import io.rainfall.ObjectGenerator;
+import io.rainfall.ehcache.execution.AbstractBulkPreload;
+import io.rainfall.ehcache3.CacheConfig;
+import io.rainfall.ehcache3.CacheSlot;
+import io.rainfall.statistics.StatisticsHolder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
+import static io.rainfall.ehcache.statistics.EhcacheResult.PUTALL;
+
+/**
+ * Preloads the Ehcache 3 caches of the {@link CacheConfig} with {@link org.ehcache.Cache#putAll(Map)} batches.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class BulkPreload<K, V> extends AbstractBulkPreload {
+
+  private final ObjectGenerator<K> keyGenerator;
+  private final ObjectGenerator<V> valueGenerator;
+
+  public BulkPreload(final ObjectGenerator<K> keyGenerator, final ObjectGenerator<V> valueGenerator,
+                     final long min, final long max) {
+    super(min, max);
+    this.keyGenerator = keyGenerator;
+    this.valueGenerator = valueGenerator;
+  }
+
+  public static <K, V> BulkPreload<K, V> preload(final ObjectGenerator<K> keyGenerator,
+                                                 final ObjectGenerator<V> valueGenerator, final long min, final long max) {
+    return new BulkPreload<K, V>(keyGenerator, valueGenerator, min, max);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  protected Loader loader(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>, Configuration> configurations) {
+    CacheConfig<K, V> cacheConfig = (CacheConfig<K, V>)configurations.get(CacheConfig.class);
+    if (cacheConfig == null) {
+      throw new IllegalStateException("No CacheConfig found, configure the caches using CacheConfig.cacheConfig()");
+    }
+    final CacheSlot<K, V>[] slots = cacheConfig.bind();
+    final Map<K, V> batch = new HashMap<K, V>((batchSize * 4) / 3 + 1);
+
+    return new Loader() {
+      @Override
+      public long load(final long from, final long to) {
+        batch.clear();
+        for (long i = from; i < to; i++) {
+          batch.put(keyGenerator.generate(i), valueGenerator.generate(i));
+        }
+        long count = 0;
+        for (CacheSlot<K, V> slot : slots) {
+          long start = statisticsHolder.getTimeInNs();
+          try {
+            slot.getCache().putAll(batch);
+            long end = statisticsHolder.getTimeInNs();
+            statisticsHolder.record(slot.getName(), (end - start), PUTALL);
+            count += batch.size();
+          } catch (Exception e) {
+            long end = statisticsHolder.getTimeInNs();
+            statisticsHolder.record(slot.getName(), (end - start), EXCEPTION);
+          }
+        }
+        return count;
+      }
+    };
+  }
+
+  @Override
+  public String getDescription() {
+    return super.getDescription() + " of " + keyGenerator.getDescription() + " keys and "
+           + valueGenerator.getDescription() + " values";
+  }
+}
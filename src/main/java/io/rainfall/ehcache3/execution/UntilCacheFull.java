@@ -0,0 +1,129 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.execution;
+
+import io.rainfall.Configuration;
+import io.rainfall.ehcache.execution.AbstractUntilCacheFull;
+import io.rainfall.ehcache.execution.CacheFullMonitor;
+import io.rainfall.ehcache3.CacheConfig;
+import io.rainfall.ehcache3.statistics.TierStatisticsSource;
+import org.ehcache.Cache;
+import org.ehcache.event.CacheEvent;
+import org.ehcache.event.CacheEventListener;
+import org.ehcache.event.EventFiring;
+import org.ehcache.event.EventOrdering;
+import org.ehcache.event.EventType;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes the scenario until the Ehcache 3 caches are full.
+ * <p>
+ * A cache is full as soon as it evicts a mapping (asynchronous, unordered eviction listener), or when its mapping
+ * count didn't change between two samples taken by a background thread, for caches which never evict (e.g. a heap
+ * tier sized larger than the key space). Caches whose tiers expose no "mappings" statistic can only be found full
+ * by eviction.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class UntilCacheFull extends AbstractUntilCacheFull {
+
+  private final long samplingPeriodInMs;
+  private final Map<Cache<?, ?>, EvictionListener> listeners = new HashMap<Cache<?, ?>, EvictionListener>();
+
+  public UntilCacheFull() {
+    this(1, TimeUnit.SECONDS);
+  }
+
+  public UntilCacheFull(final long samplingPeriod, final TimeUnit unit) {
+    this.samplingPeriodInMs = unit.toMillis(samplingPeriod);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  protected CacheFullMonitor monitor(final Map<Class<? extends Configuration>, Configuration> configurations) {
+    final CacheConfig<Object, Object> cacheConfig = (CacheConfig<Object, Object>)configurations.get(CacheConfig.class);
+    List<String> names = new ArrayList<String>();
+    for (Cache<Object, Object> cache : cacheConfig.getCaches()) {
+      names.add(cacheConfig.getCacheName(cache));
+    }
+    final CacheFullMonitor monitor = new CacheFullMonitor(names);
+
+    synchronized (listeners) {
+      for (Cache<Object, Object> cache : cacheConfig.getCaches()) {
+        EvictionListener listener = new EvictionListener(monitor, cacheConfig.getCacheName(cache));
+        cache.getRuntimeConfiguration().registerCacheEventListener(listener, EventOrdering.UNORDERED,
+            EventFiring.ASYNCHRONOUS, EnumSet.of(EventType.EVICTED));
+        listeners.put(cache, listener);
+      }
+    }
+
+    final Map<String, Long> sizes = new HashMap<String, Long>();
+    monitor.sampleEvery(samplingPeriodInMs, TimeUnit.MILLISECONDS, new Runnable() {
+      @Override
+      public void run() {
+        for (Cache<Object, Object> cache : cacheConfig.getCaches()) {
+          String name = cacheConfig.getCacheName(cache);
+          long size = TierStatisticsSource.mappingCount(cache);
+          Long previous = sizes.put(name, size);
+          if (previous != null && previous == size && size > 0) {
+            monitor.cacheFull(name);
+          }
+        }
+      }
+    });
+    return monitor;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  protected void release(final CacheFullMonitor monitor) {
+    synchronized (listeners) {
+      for (Map.Entry<Cache<?, ?>, EvictionListener> entry : listeners.entrySet()) {
+        ((Cache<Object, Object>)entry.getKey()).getRuntimeConfiguration().deregisterCacheEventListener(entry.getValue());
+      }
+      listeners.clear();
+    }
+  }
+
+  @Override
+  public String getDescription() {
+    return "Execution : until caches are full (eviction or size stable over " + samplingPeriodInMs + "ms)";
+  }
+
+  @SuppressWarnings("rawtypes")
+  private static class EvictionListener implements CacheEventListener {
+
+    private final CacheFullMonitor monitor;
+    private final String cacheName;
+
+    private EvictionListener(final CacheFullMonitor monitor, final String cacheName) {
+      this.monitor = monitor;
+      this.cacheName = cacheName;
+    }
+
+    @Override
+    public void onEvent(final CacheEvent event) {
+      monitor.cacheFull(cacheName);
+    }
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.expiry;
+
+import io.rainfall.ehcache.expiry.Expiration;
+import io.rainfall.ehcache.expiry.ExpiryMode;
+import org.ehcache.ValueSupplier;
+import org.ehcache.expiry.Duration;
+import org.ehcache.expiry.Expiry;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ehcache 3 expiry giving each entry its own duration, drawn from the {@link Expiration} of the run.
+ * <p>
+ * Ehcache computes the expiry on the thread doing the access, so the duration drawn is kept per thread, and taken
+ * back by the operation with {@link #takeLastInMs()} to track the expiration time of its key. In time to idle mode,
+ * a hit keeps the duration the entry was written with, given by the operation with {@link #accessing(long)} ; a
+ * new duration is only drawn for the entries whose duration is unknown.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class DistributedExpiry implements Expiry<Object, Object> {
+
+  private static final long NONE = -1L;
+
+  private static final ThreadLocal<long[]> last = new ThreadLocal<long[]>() {
+    @Override
+    protected long[] initialValue() {
+      return new long[] { NONE, NONE };
+    }
+  };
+  private static final int DRAWN = 0;
+  private static final int ACCESSED = 1;
+
+  private final Expiration expiration;
+
+  public DistributedExpiry(final Expiration expiration) {
+    this.expiration = expiration;
+  }
+
+  public static DistributedExpiry distributedExpiry(final Expiration expiration) {
+    return new DistributedExpiry(expiration);
+  }
+
+  /**
+   * Gives the expiry duration of the key the calling thread is about to read, reused by the expiry of a hit in time
+   * to idle mode, until the next call to {@link #takeLastInMs()}.
+   *
+   * @param durationInMs the duration the entry was written with, in milliseconds, or 0 if it is unknown
+   */
+  public static void accessing(final long durationInMs) {
+    last.get()[ACCESSED] = durationInMs;
+  }
+
+  /**
+   * @return the duration given by the last expiry computed on the calling thread since the previous call, in
+   * milliseconds, or -1 if there was none
+   */
+  public static long takeLastInMs() {
+    long[] current = last.get();
+    long durationInMs = current[DRAWN];
+    current[DRAWN] = NONE;
+    current[ACCESSED] = NONE;
+    return durationInMs;
+  }
+
+  private Duration next() {
+    return duration(expiration.nextInMs());
+  }
+
+  private static Duration duration(final long durationInMs) {
+    last.get()[DRAWN] = durationInMs;
+    return new Duration(durationInMs, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public Duration getExpiryForCreation(final Object key, final Object value) {
+    return next();
+  }
+
+  @Override
+  public Duration getExpiryForAccess(final Object key, final ValueSupplier<?> value) {
+    if (expiration.getMode() != ExpiryMode.TIME_TO_IDLE) {
+      return null;
+    }
+    long durationInMs = last.get()[ACCESSED];
+    return durationInMs > 0 ? duration(durationInMs) : next();
+  }
+
+  @Override
+  public Duration getExpiryForUpdate(final Object key, final ValueSupplier<?> oldValue, final Object newValue) {
+    return next();
+  }
+}
@@ -0,0 +1,329 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.loaderwriter;
+
+import io.rainfall.ObjectGenerator;
+import io.rainfall.ehcache.verification.VerifiedValueFormat;
+import org.ehcache.spi.loaderwriter.CacheLoaderWriter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-process stand-in for the database behind a read-through / write-through Ehcache 3 cache, to be configured
+ * on the cache with {@code CacheConfigurationBuilder.withLoaderWriter(store)}.
+ * <p>
+ * Every call, single or bulk, waits for a permit when the concurrency is limited, then takes a time drawn from
+ * the {@link StoreLatency}, and fails with a {@link SimulatedStoreException} at the failure rate. A key loads the
+ * value generated for it, the seed being the key itself for numeric keys and its hash code otherwise, or null when
+ * the store has no value generator. The written values are not kept, unless a bounded number of them is
+ * {@link #retain(int) retained} : a retained key loads its last written value until it is deleted.
+ * <p>
+ * The loads and writes of the calling thread are counted, so that the read-through and write-through operations
+ * can tell the accesses served by the store from the cache hits. The writes are also counted per call, to give the
+ * batch sizes of a write-behind cache, and when the values are generated by
+ * {@link io.rainfall.ehcache.verification.VerifiedValueGenerator}, whose version is their generation time, the lag
+ * between the generation of a value and its write is measured.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class SimulatedStore<K, V> implements CacheLoaderWriter<K, V> {
+
+  private static final ThreadLocal<long[]> THREAD_CALLS = new ThreadLocal<long[]>() {
+    @Override
+    protected long[] initialValue() {
+      return new long[2];
+    }
+  };
+  private static final int LOADS = 0;
+  private static final int WRITES = 1;
+
+  private final ObjectGenerator<V> valueGenerator;
+  private final ConcurrentMap<K, V> entries = new ConcurrentHashMap<K, V>();
+  private final AtomicInteger retained = new AtomicInteger();
+  private int maxRetained = 0;
+  private StoreLatency latency = StoreLatency.fixed(0, TimeUnit.NANOSECONDS);
+  private double failureRate = 0;
+  private Semaphore permits;
+  private int concurrency;
+  private final ThreadLocal<Random> random = new ThreadLocal<Random>() {
+    @Override
+    protected Random initialValue() {
+      return new Random();
+    }
+  };
+
+  private final AtomicLong loads = new AtomicLong();
+  private final AtomicLong writes = new AtomicLong();
+  private final AtomicLong deletes = new AtomicLong();
+  private final AtomicLong failures = new AtomicLong();
+  private final AtomicLong waitTimeInNs = new AtomicLong();
+  private final AtomicLong writeCalls = new AtomicLong();
+  private final AtomicLong lagCount = new AtomicLong();
+  private final AtomicLong lagSumInNs = new AtomicLong();
+  private final AtomicLong maxLagInNs = new AtomicLong();
+
+  public SimulatedStore(final ObjectGenerator<V> valueGenerator) {
+    this.valueGenerator = valueGenerator;
+  }
+
+  public static <K, V> SimulatedStore<K, V> simulatedStore(final ObjectGenerator<V> valueGenerator) {
+    return new SimulatedStore<K, V>(valueGenerator);
+  }
+
+  public SimulatedStore<K, V> latency(final StoreLatency latency) {
+    this.latency = latency;
+    return this;
+  }
+
+  /**
+   * @param failureRate the probability of a call to fail, between 0 and 1
+   */
+  public SimulatedStore<K, V> failureRate(final double failureRate) {
+    if (failureRate < 0 || failureRate > 1) {
+      throw new IllegalArgumentException("The failure rate must be between 0 and 1");
+    }
+    this.failureRate = failureRate;
+    return this;
+  }
+
+  /**
+   * @param concurrency the maximum number of calls served at the same time, the others wait in line
+   */
+  public SimulatedStore<K, V> concurrency(final int concurrency) {
+    if (concurrency <= 0) {
+      throw new IllegalArgumentException("The concurrency must be positive");
+    }
+    this.concurrency = concurrency;
+    this.permits = new Semaphore(concurrency, true);
+    return this;
+  }
+
+  /**
+   * @param maxEntries the maximum number of written entries kept in memory, the keys written once the store holds
+   *                   that many entries are not retained and load their generated value
+   */
+  public SimulatedStore<K, V> retain(final int maxEntries) {
+    if (maxEntries < 0) {
+      throw new IllegalArgumentException("The number of retained entries can not be negative");
+    }
+    this.maxRetained = maxEntries;
+    return this;
+  }
+
+  @Override
+  public V load(final K key) throws Exception {
+    THREAD_CALLS.get()[LOADS]++;
+    call();
+    loads.incrementAndGet();
+    return valueOf(key);
+  }
+
+  @Override
+  public Map<K, V> loadAll(final Iterable<? extends K> keys) throws Exception {
+    THREAD_CALLS.get()[LOADS]++;
+    call();
+    Map<K, V> loaded = new HashMap<K, V>();
+    for (K key : keys) {
+      loads.incrementAndGet();
+      loaded.put(key, valueOf(key));
+    }
+    return loaded;
+  }
+
+  @Override
+  public void write(final K key, final V value) throws Exception {
+    THREAD_CALLS.get()[WRITES]++;
+    call();
+    writeCalls.incrementAndGet();
+    written(key, value);
+  }
+
+  @Override
+  public void writeAll(final Iterable<? extends Map.Entry<? extends K, ? extends V>> entries) throws Exception {
+    THREAD_CALLS.get()[WRITES]++;
+    call();
+    writeCalls.incrementAndGet();
+    for (Map.Entry<? extends K, ? extends V> entry : entries) {
+      written(entry.getKey(), entry.getValue());
+    }
+  }
+
+  private void written(final K key, final V value) {
+    writes.incrementAndGet();
+    retain(key, value);
+    if (VerifiedValueFormat.isVerified(value)) {
+      long lag = System.nanoTime() - VerifiedValueFormat.versionOf((byte[])value);
+      lagCount.incrementAndGet();
+      lagSumInNs.addAndGet(lag);
+      long max;
+      do {
+        max = maxLagInNs.get();
+      } while (lag > max && !maxLagInNs.compareAndSet(max, lag));
+    }
+  }
+
+  @Override
+  public void delete(final K key) throws Exception {
+    call();
+    deletes.incrementAndGet();
+    release(key);
+  }
+
+  @Override
+  public void deleteAll(final Iterable<? extends K> keys) throws Exception {
+    call();
+    for (K key : keys) {
+      deletes.incrementAndGet();
+      release(key);
+    }
+  }
+
+  private void retain(final K key, final V value) {
+    if (maxRetained == 0 || entries.replace(key, value) != null) {
+      return;
+    }
+    if (retained.incrementAndGet() > maxRetained) {
+      retained.decrementAndGet();
+    } else if (entries.putIfAbsent(key, value) != null) {
+      retained.decrementAndGet();
+      entries.put(key, value);
+    }
+  }
+
+  private void release(final K key) {
+    if (entries.remove(key) != null) {
+      retained.decrementAndGet();
+    }
+  }
+
+  private V valueOf(final K key) {
+    V value = entries.get(key);
+    if (value == null && valueGenerator != null) {
+      long seed = (key instanceof Number) ? ((Number)key).longValue() : key.hashCode();
+      value = valueGenerator.generate(seed);
+    }
+    return value;
+  }
+
+  private void call() throws SimulatedStoreException, InterruptedException {
+    Semaphore semaphore = this.permits;
+    if (semaphore != null) {
+      long start = System.nanoTime();
+      semaphore.acquire();
+      waitTimeInNs.addAndGet(System.nanoTime() - start);
+    }
+    try {
+      long latencyInNs = latency.nextInNs();
+      if (latencyInNs > 0) {
+        long end = System.nanoTime() + latencyInNs;
+        long remaining = latencyInNs;
+        while (remaining > 0) {
+          LockSupport.parkNanos(remaining);
+          remaining = end - System.nanoTime();
+        }
+      }
+      if (failureRate > 0 && random.get().nextDouble() < failureRate) {
+        failures.incrementAndGet();
+        throw new SimulatedStoreException("Simulated store failure");
+      }
+    } finally {
+      if (semaphore != null) {
+        semaphore.release();
+      }
+    }
+  }
+
+  /**
+   * @return the number of load calls, single or bulk, made by the calling thread to any simulated store
+   */
+  public static long loadsOfCurrentThread() {
+    return THREAD_CALLS.get()[LOADS];
+  }
+
+  /**
+   * @return the number of write calls, single or bulk, made by the calling thread to any simulated store
+   */
+  public static long writesOfCurrentThread() {
+    return THREAD_CALLS.get()[WRITES];
+  }
+
+  public long getLoads() {
+    return loads.get();
+  }
+
+  public long getWrites() {
+    return writes.get();
+  }
+
+  public long getDeletes() {
+    return deletes.get();
+  }
+
+  public long getFailures() {
+    return failures.get();
+  }
+
+  /**
+   * @return the number of write calls, single or bulk, the number of entries written being {@link #getWrites()}
+   */
+  public long getWriteCalls() {
+    return writeCalls.get();
+  }
+
+  /**
+   * @return the number of written values whose lag was measured
+   */
+  public long getLagCount() {
+    return lagCount.get();
+  }
+
+  /**
+   * @return the accumulated lag of the written values, in nanoseconds
+   */
+  public long getLagSumInNs() {
+    return lagSumInNs.get();
+  }
+
+  /**
+   * @return the max lag of the values written since the last call, in nanoseconds
+   */
+  public long getAndResetMaxLagInNs() {
+    return maxLagInNs.getAndSet(0);
+  }
+
+  /**
+   * @return the accumulated time the calls waited for a permit, in nanoseconds
+   */
+  public long getWaitTimeInNs() {
+    return waitTimeInNs.get();
+  }
+
+  public String getDescription() {
+    return "Simulated store : " + latency.getDescription() + ", failure rate " + failureRate
+           + (permits == null ? "" : ", concurrency " + concurrency)
+           + (maxRetained == 0 ? "" : ", retaining up to " + maxRetained + " entries");
+  }
+}
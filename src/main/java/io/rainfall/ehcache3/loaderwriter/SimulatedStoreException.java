@@ -0,0 +1,29 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.loaderwriter;
+
+/**
+ * Failure of a {@link SimulatedStore} call, thrown at the configured failure rate.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class SimulatedStoreException extends Exception {
+
+  public SimulatedStoreException(final String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.loaderwriter;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution of the calls to a {@link SimulatedStore}.
+ *
+ * @author Aurelien Broszniowski
+ */
+public abstract class StoreLatency {
+
+  private final ThreadLocal<Random> random = new ThreadLocal<Random>() {
+    @Override
+    protected Random initialValue() {
+      return new Random();
+    }
+  };
+
+  /**
+   * Every call takes the same time.
+   */
+  public static StoreLatency fixed(final long latency, final TimeUnit unit) {
+    final long latencyInNs = unit.toNanos(latency);
+    return new StoreLatency() {
+      @Override
+      public long nextInNs() {
+        return latencyInNs;
+      }
+
+      @Override
+      public String getDescription() {
+        return "fixed latency of " + latencyInNs + "ns";
+      }
+    };
+  }
+
+  /**
+   * The call times are uniformly distributed between min and max.
+   */
+  public static StoreLatency uniform(final long min, final long max, final TimeUnit unit) {
+    if (min < 0 || max < min) {
+      throw new IllegalArgumentException("The latency range must be positive, min <= max");
+    }
+    final long minInNs = unit.toNanos(min);
+    final long rangeInNs = unit.toNanos(max) - minInNs;
+    return new StoreLatency() {
+      @Override
+      public long nextInNs() {
+        return minInNs + (long)(random().nextDouble() * rangeInNs);
+      }
+
+      @Override
+      public String getDescription() {
+        return "uniform latency between " + minInNs + "ns and " + (minInNs + rangeInNs) + "ns";
+      }
+    };
+  }
+
+  /**
+   * The call times are exponentially distributed around the mean, which gives the long tail of a loaded database.
+   */
+  public static StoreLatency exponential(final long mean, final TimeUnit unit) {
+    final long meanInNs = unit.toNanos(mean);
+    return new StoreLatency() {
+      @Override
+      public long nextInNs() {
+        return (long)(-meanInNs * Math.log(1.0 - random().nextDouble()));
+      }
+
+      @Override
+      public String getDescription() {
+        return "exponential latency of mean " + meanInNs + "ns";
+      }
+    };
+  }
+
+  protected Random random() {
+    return random.get();
+  }
+
+  public abstract long nextInNs();
+
+  public abstract String getDescription();
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.loaderwriter;
+
+import io.rainfall.Configuration;
+import io.rainfall.ehcache.statistics.AccessRecorder;
+import io.rainfall.ehcache.statistics.CacheStatisticsSample;
+import io.rainfall.ehcache.statistics.CacheStatisticsSource;
+import io.rainfall.ehcache.statistics.EhcacheResult;
+import io.rainfall.ehcache.trace.AccessType;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monitors write-behind caches backed by {@link SimulatedStore}s, while the puts of the run
+ * ({@link io.rainfall.ehcache3.operation.PutOperation} or
+ * {@link io.rainfall.ehcache3.operation.WriteThroughOperation}) load them.
+ * <p>
+ * Registered as a configuration of the run, it counts the puts accepted by each cache, and compares them with
+ * the entries the writer received. Its {@link #statisticsSources()} are sampled over time by a
+ * {@link io.rainfall.ehcache.statistics.CacheStatisticsSampler}, reporting per interval :
+ * <ul>
+ * <li>puts, written, batches : the puts accepted, the entries written and the write calls of the writer</li>
+ * <li>batch.size : the average number of entries per write call</li>
+ * <li>backlog : the puts not written yet, i.e. the depth of the write-behind queue plus the puts coalesced</li>
+ * <li>lag.avg.us, lag.max.us : the time between the generation of a value and its write, for values generated
+ * by {@link io.rainfall.ehcache.verification.VerifiedValueGenerator}</li>
+ * </ul>
+ * Ehcache 3 does not expose the depth of its write-behind queue, hence the backlog seen from the writer : once
+ * the cache is closed and its queue drained, the remaining backlog is what was coalesced.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class WriteBehindMonitor extends Configuration implements AccessRecorder {
+
+  private final Map<String, MonitoredCache> caches = new ConcurrentHashMap<String, MonitoredCache>();
+  private final List<MonitoredCache> ordered = new ArrayList<MonitoredCache>();
+
+  public static WriteBehindMonitor writeBehind() {
+    return new WriteBehindMonitor();
+  }
+
+  /**
+   * Monitors a cache, by the name it is configured with in the {@link io.rainfall.ehcache3.CacheConfig}, and the
+   * store configured as its writer.
+   */
+  public synchronized WriteBehindMonitor cache(final String cacheName, final SimulatedStore<?, ?> store) {
+    MonitoredCache cache = new MonitoredCache(cacheName, store);
+    caches.put(cacheName, cache);
+    ordered.add(cache);
+    return this;
+  }
+
+  @Override
+  public void record(final String cacheName, final AccessType accessType, final long sequence, final Object value,
+                     final long startInNs, final long latencyInNs, final EhcacheResult result) {
+    if (result != EhcacheResult.PUT) {
+      return;
+    }
+    MonitoredCache cache = caches.get(cacheName);
+    if (cache == null && cacheName.endsWith("@writer")) {
+      cache = caches.get(cacheName.substring(0, cacheName.length() - "@writer".length()));
+    }
+    if (cache != null) {
+      cache.puts.incrementAndGet();
+    }
+  }
+
+  public synchronized List<CacheStatisticsSource> statisticsSources() {
+    return new ArrayList<CacheStatisticsSource>(ordered);
+  }
+
+  /**
+   * Writes the totals of each cache, to be called once the caches are closed and their queues drained.
+   */
+  public synchronized void writeSummary(final PrintStream out) {
+    out.println("Write-behind");
+    out.println(String.format("%-20s %12s %12s %12s %12s %12s %12s", "cache", "puts", "written", "batches",
+        "batch.size", "coalesced(%)", "lag.avg(us)"));
+    for (MonitoredCache cache : ordered) {
+      long puts = cache.puts.get();
+      long written = cache.store.getWrites();
+      long batches = cache.store.getWriteCalls();
+      long lagCount = cache.store.getLagCount();
+      out.println(String.format("%-20s %12d %12d %12d %12.1f %12.1f %12d", cache.cacheName, puts, written, batches,
+          batches == 0 ? 0.0 : (double)written / batches, puts == 0 ? 0.0 : 100.0 * Math.max(0, puts - written) / puts,
+          lagCount == 0 ? 0 : cache.store.getLagSumInNs() / lagCount / 1000));
+    }
+  }
+
+  @Override
+  public List<String> getDescription() {
+    List<String> desc = new ArrayList<String>();
+    desc.add("Monitoring the write-behind of " + ordered.size() + " cache" + (ordered.size() > 1 ? "s" : ""));
+    return desc;
+  }
+
+  private static class MonitoredCache implements CacheStatisticsSource {
+
+    private final String cacheName;
+    private final SimulatedStore<?, ?> store;
+    private final AtomicLong puts = new AtomicLong();
+    private long lastWrites;
+    private long lastWriteCalls;
+    private long lastLagCount;
+    private long lastLagSumInNs;
+
+    private MonitoredCache(final String cacheName, final SimulatedStore<?, ?> store) {
+      this.cacheName = cacheName;
+      this.store = store;
+    }
+
+    @Override
+    public String getCacheName() {
+      return cacheName;
+    }
+
+    @Override
+    public synchronized void sample(final CacheStatisticsSample sample) {
+      long writes = store.getWrites();
+      long writeCalls = store.getWriteCalls();
+      long lagCount = store.getLagCount();
+      long lagSumInNs = store.getLagSumInNs();
+      long accepted = puts.get();
+
+      sample.counter("puts", accepted);
+      sample.counter("written", writes);
+      sample.counter("batches", writeCalls);
+      sample.gauge("backlog", Math.max(0, accepted - writes));
+      long calls = writeCalls - lastWriteCalls;
+      sample.gauge("batch.size", calls == 0 ? 0 : (writes - lastWrites) / calls);
+      long lags = lagCount - lastLagCount;
+      sample.gauge("lag.avg.us", lags == 0 ? 0 : (lagSumInNs - lastLagSumInNs) / lags / 1000);
+      sample.gauge("lag.max.us", store.getAndResetMaxLagInNs() / 1000);
+
+      lastWrites = writes;
+      lastWriteCalls = writeCalls;
+      lastLagCount = lagCount;
+      lastLagSumInNs = lagSumInNs;
+    }
+  }
+}
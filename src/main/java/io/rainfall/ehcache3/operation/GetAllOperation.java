@@ -18,61 +18,87 @@ package io.rainfall.ehcache3.operation;
 
 import io.rainfall.AssertionEvaluator;
 import io.rainfall.Configuration;
-import io.rainfall.EhcacheOperation;
 import io.rainfall.TestException;
+import io.rainfall.ehcache.operation.BulkBatch;
 import io.rainfall.ehcache.statistics.EhcacheResult;
-import io.rainfall.ehcache3.CacheConfig;
+import io.rainfall.ehcache.verification.VerifiedCache;
+import io.rainfall.ehcache3.CacheBinding;
+import io.rainfall.ehcache3.CacheSlot;
 import io.rainfall.statistics.StatisticsHolder;
 import org.ehcache.Cache;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.WeakHashMap;
 
 import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
 import static io.rainfall.ehcache.statistics.EhcacheResult.GETALL;
+import static io.rainfall.ehcache.statistics.EhcacheResult.GETALL_ENTRY;
 import static io.rainfall.ehcache.statistics.EhcacheResult.MISS;
 
 /**
  * @author Aurelien Broszniowski
  */
-public class GetAllOperation<K, V> extends EhcacheOperation<K, V> {
+public class GetAllOperation<K, V> extends BoundCacheOperation<K, V> {
+
+  private final BulkBatch.PerThread<K, V> batches = new BulkBatch.PerThread<K, V>();
 
   @Override
   public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
       Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
 
-    CacheConfig<K, V> cacheConfig = (CacheConfig<K, V>)configurations.get(CacheConfig.class);
-    int bulkBatchSize = cacheConfig.getBulkBatchSize();
-    final long next = this.sequenceGenerator.next();
-    Set<K> set = Collections.newSetFromMap(new WeakHashMap<K, Boolean>());
-    for (int i = 0; i < bulkBatchSize; i++) {
-      set.add(keyGenerator.generate(next));
+    CacheBinding<K, V> binding = bind(configurations);
+    int bulkBatchSize = binding.getBulkBatchSize();
+    BulkBatch<K, V> batch = batches.get(bulkBatchSize);
+    batch.planKeys(sequenceGenerator, keyGenerator, bulkBatchSize);
+    Set<K> set = batch.getKeys();
+
+    if (binding.isSplitByKey()) {
+      CacheSlot<K, V>[] slots = binding.getSlots();
+      Set<K>[] parts = batch.keyParts(slots.length);
+      binding.split(set, parts);
+      for (int i = 0; i < slots.length; i++) {
+        if (!parts[i].isEmpty()) {
+          getAll(statisticsHolder, binding, slots[i], parts[i]);
+        }
+      }
+    } else {
+      for (final CacheSlot<K, V> slot : binding.select(set)) {
+        getAll(statisticsHolder, binding, slot, set);
+      }
     }
+  }
 
-    List<Cache<K, V>> caches = cacheConfig.getCaches();
-    for (final Cache<K, V> cache : caches) {
-      Map<K, V> all;
-      long start = statisticsHolder.getTimeInNs();
-      try {
-        all = cache.getAll(set);
-        long end = statisticsHolder.getTimeInNs();
-        EhcacheResult result = GETALL;
+  private void getAll(final StatisticsHolder statisticsHolder, final CacheBinding<K, V> binding,
+                      final CacheSlot<K, V> slot, final Set<K> set) {
+    Cache<K, V> cache = slot.getCache();
+    Map<K, V> all;
+    long start = statisticsHolder.getTimeInNs();
+    try {
+      all = cache.getAll(set);
+      long end = statisticsHolder.getTimeInNs();
+      EhcacheResult result = GETALL;
+      for (V v : all.values()) {
+        if (v == null) {
+          result = MISS;
+          break;
+        }
+      }
+      statisticsHolder.record(slot.getName(), (end - start), result);
+      recordEntries(statisticsHolder, slot.getName(), (end - start), set.size(), GETALL_ENTRY);
+      VerifiedCache verifiedCache = binding.getVerifiedCache(slot);
+      if (verifiedCache != null) {
         for (V v : all.values()) {
-          if (v == null) {
-            result = MISS;
-            break;
+          if (v != null) {
+            verifiedCache.verify(v);
           }
         }
-        statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), result);
-
-      } catch (Exception e) {
-        long end = statisticsHolder.getTimeInNs();
-        statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), EXCEPTION);
       }
+
+    } catch (Exception e) {
+      long end = statisticsHolder.getTimeInNs();
+      statisticsHolder.record(slot.getName(), (end - start), EXCEPTION);
     }
   }
 
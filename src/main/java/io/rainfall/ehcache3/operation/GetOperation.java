@@ -18,9 +18,15 @@ package io.rainfall.ehcache3.operation;
 
 import io.rainfall.AssertionEvaluator;
 import io.rainfall.Configuration;
-import io.rainfall.EhcacheOperation;
 import io.rainfall.TestException;
-import io.rainfall.ehcache3.CacheConfig;
+import io.rainfall.ehcache.expiry.ExpiringCache;
+import io.rainfall.ehcache.statistics.AccessRecorder;
+import io.rainfall.ehcache.trace.AccessType;
+import io.rainfall.ehcache.verification.VerifiedCache;
+import io.rainfall.ehcache3.CacheBinding;
+import io.rainfall.ehcache3.CacheSlot;
+import io.rainfall.ehcache3.expiry.DistributedExpiry;
+import io.rainfall.ehcache3.statistics.TierAttribution;
 import io.rainfall.statistics.StatisticsHolder;
 import org.ehcache.Cache;
 
@@ -29,37 +35,78 @@ import java.util.List;
 import java.util.Map;
 
 import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
+import static io.rainfall.ehcache.statistics.EhcacheResult.EXPIRED;
 import static io.rainfall.ehcache.statistics.EhcacheResult.GET;
 import static io.rainfall.ehcache.statistics.EhcacheResult.MISS;
 
 /**
+ * Execute and measure a Ehcache get operation.
+ * <p>
+ * When an {@link io.rainfall.ehcache.expiry.Expiration} is configured, the misses on expired entries are recorded
+ * as {@link io.rainfall.ehcache.statistics.EhcacheResult#EXPIRED}, and with tier attribution, under the tier which
+ * expired the entry, which measures the cost of the expiry check and of the expired entry cleanup per tier.
+ *
  * @author Aurelien Broszniowski
  */
-public class GetOperation<K, V> extends EhcacheOperation<K, V> {
+public class GetOperation<K, V> extends BoundCacheOperation<K, V> {
 
   @Override
   public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
       Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
 
-    CacheConfig<K, V> cacheConfig = (CacheConfig<K, V>)configurations.get(CacheConfig.class);
+    CacheBinding<K, V> binding = bind(configurations);
     final long next = sequenceGenerator.next();
-    List<Cache<K, V>> caches = cacheConfig.getCaches();
-    for (final Cache<K, V> cache : caches) {
-      K k = keyGenerator.generate(next);
+    K k = keyGenerator.generate(next);
+    for (final CacheSlot<K, V> slot : binding.select(k)) {
+      Cache<K, V> cache = slot.getCache();
+      AccessRecorder recorder = binding.getRecorder(slot);
       V value;
+      VerifiedCache verifiedCache = binding.getVerifiedCache(slot);
+      long stamp = (verifiedCache == null) ? 0 : verifiedCache.readStarted(next);
+      ExpiringCache expiringCache = binding.getExpiringCache(slot);
+      if (expiringCache != null) {
+        DistributedExpiry.takeLastInMs();
+        DistributedExpiry.accessing(expiringCache.getDurationInMs(next));
+      }
+      TierAttribution tierAttribution = slot.getTierAttribution();
+      if (tierAttribution != null) {
+        tierAttribution.begin();
+      }
 
       long start = statisticsHolder.getTimeInNs();
       try {
         value = cache.get(k);
         long end = statisticsHolder.getTimeInNs();
+        long durationInMs = (expiringCache == null) ? -1 : DistributedExpiry.takeLastInMs();
+        String tier = (tierAttribution == null) ? null : tierAttribution.servedRead();
         if (value == null) {
-          statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), MISS);
+          if (expiringCache != null && expiringCache.missed(next)) {
+            record(statisticsHolder, recorder, slot.getName(), AccessType.GET, next, null, start, end, EXPIRED);
+            String expiredTier = (tierAttribution == null) ? null : tierAttribution.expiredRead();
+            if (expiredTier != null) {
+              statisticsHolder.record(expiredTier, (end - start), EXPIRED);
+            }
+          } else {
+            record(statisticsHolder, recorder, slot.getName(), AccessType.GET, next, null, start, end, MISS);
+          }
         } else {
-          statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), GET);
+          record(statisticsHolder, recorder, slot.getName(), AccessType.GET, next, value, start, end, GET);
+          if (verifiedCache != null) {
+            verifiedCache.verify(next, value, stamp);
+          }
+          if (tier != null) {
+            statisticsHolder.record(tier, (end - start), GET);
+          }
+          if (durationInMs >= 0) {
+            expiringCache.accessed(next, durationInMs);
+          }
         }
       } catch (Exception e) {
         long end = statisticsHolder.getTimeInNs();
-        statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), EXCEPTION);
+        if (expiringCache != null) {
+          DistributedExpiry.takeLastInMs();
+        }
+        record(statisticsHolder, recorder, slot.getName(), AccessType.GET, next, null, start, end, EXCEPTION);
       }
     }
   }
@@ -2,47 +2,83 @@ package io.rainfall.ehcache3.operation;
 
 import io.rainfall.AssertionEvaluator;
 import io.rainfall.Configuration;
-import io.rainfall.EhcacheOperation;
 import io.rainfall.TestException;
-import io.rainfall.ehcache3.CacheConfig;
+import io.rainfall.ehcache.operation.BulkBatch;
+import io.rainfall.ehcache.verification.VerifiedCache;
+import io.rainfall.ehcache3.CacheBinding;
+import io.rainfall.ehcache3.CacheSlot;
 import io.rainfall.statistics.StatisticsHolder;
 import org.ehcache.Cache;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.WeakHashMap;
 
 import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
 import static io.rainfall.ehcache.statistics.EhcacheResult.PUTALL;
+import static io.rainfall.ehcache.statistics.EhcacheResult.PUTALL_ENTRY;
 
 /**
  * @author Aurelien Broszniowski
  */
-public class PutAllOperation<K, V> extends EhcacheOperation<K, V> {
+public class PutAllOperation<K, V> extends BoundCacheOperation<K, V> {
+
+  private final BulkBatch.PerThread<K, V> batches = new BulkBatch.PerThread<K, V>();
 
   @Override
   public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
       Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
 
-    CacheConfig<K, V> cacheConfig = (CacheConfig<K, V>)configurations.get(CacheConfig.class);
-    int bulkBatchSize = cacheConfig.getBulkBatchSize();
-    final long next = this.sequenceGenerator.next();
-    Map<K, V> maps = new WeakHashMap<K, V>();
-    for (int i = 0; i < bulkBatchSize; i++) {
-      maps.put(keyGenerator.generate(next), valueGenerator.generate(next));
+    CacheBinding<K, V> binding = bind(configurations);
+    int bulkBatchSize = binding.getBulkBatchSize();
+    BulkBatch<K, V> batch = batches.get(bulkBatchSize);
+    batch.planEntries(sequenceGenerator, keyGenerator, valueGenerator, bulkBatchSize);
+    Map<K, V> maps = batch.getEntries();
+
+    if (binding.isSplitByKey()) {
+      CacheSlot<K, V>[] slots = binding.getSlots();
+      Map<K, V>[] parts = batch.entryParts(slots.length);
+      binding.split(maps, parts);
+      for (int i = 0; i < slots.length; i++) {
+        if (!parts[i].isEmpty()) {
+          putAll(statisticsHolder, binding, slots[i], parts[i]);
+        }
+      }
+    } else {
+      for (final CacheSlot<K, V> slot : binding.select(maps.keySet())) {
+        putAll(statisticsHolder, binding, slot, maps);
+      }
     }
+  }
 
-    List<Cache<K, V>> caches = cacheConfig.getCaches();
-    for (final Cache<K, V> cache : caches) {
-      long start = statisticsHolder.getTimeInNs();
-      try {
-        cache.putAll(maps);
-        long end = statisticsHolder.getTimeInNs();
-        statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), PUTALL);
-      } catch (Exception e) {
-        long end = statisticsHolder.getTimeInNs();
-        statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), EXCEPTION);
+  private void putAll(final StatisticsHolder statisticsHolder, final CacheBinding<K, V> binding,
+                      final CacheSlot<K, V> slot, final Map<K, V> maps) {
+    Cache<K, V> cache = slot.getCache();
+    VerifiedCache verifiedCache = binding.getVerifiedCache(slot);
+    if (verifiedCache != null) {
+      for (V v : maps.values()) {
+        verifiedCache.writeStarted(v);
+      }
+    }
+    long start = statisticsHolder.getTimeInNs();
+    boolean failed = true;
+    try {
+      cache.putAll(maps);
+      long end = statisticsHolder.getTimeInNs();
+      failed = false;
+      statisticsHolder.record(slot.getName(), (end - start), PUTALL);
+      recordEntries(statisticsHolder, slot.getName(), (end - start), maps.size(), PUTALL_ENTRY);
+    } catch (Exception e) {
+      long end = statisticsHolder.getTimeInNs();
+      statisticsHolder.record(slot.getName(), (end - start), EXCEPTION);
+    }
+    if (verifiedCache != null) {
+      for (V v : maps.values()) {
+        if (failed) {
+          verifiedCache.writeFailed(v);
+        } else {
+          verifiedCache.writeEnded(v, true);
+        }
       }
     }
   }
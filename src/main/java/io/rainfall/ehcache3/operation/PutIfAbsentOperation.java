@@ -18,9 +18,12 @@ package io.rainfall.ehcache3.operation;
 
 import io.rainfall.AssertionEvaluator;
 import io.rainfall.Configuration;
-import io.rainfall.EhcacheOperation;
 import io.rainfall.TestException;
-import io.rainfall.ehcache3.CacheConfig;
+import io.rainfall.ehcache.statistics.AccessRecorder;
+import io.rainfall.ehcache.trace.AccessType;
+import io.rainfall.ehcache.verification.VerifiedCache;
+import io.rainfall.ehcache3.CacheBinding;
+import io.rainfall.ehcache3.CacheSlot;
 import io.rainfall.statistics.StatisticsHolder;
 import org.ehcache.Cache;
 
@@ -35,32 +38,48 @@ import static io.rainfall.ehcache.statistics.EhcacheResult.PUTIFABSENT_MISS;
 /**
  * @author Aurelien Broszniowski
  */
-public class PutIfAbsentOperation<K, V> extends EhcacheOperation<K, V> {
+public class PutIfAbsentOperation<K, V> extends BoundCacheOperation<K, V> {
 
   @Override
   public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
       Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
 
-    CacheConfig<K, V> cacheConfig = (CacheConfig<K, V>)configurations.get(CacheConfig.class);
+    CacheBinding<K, V> binding = bind(configurations);
     final long next = this.sequenceGenerator.next();
-    List<Cache<K, V>> caches = cacheConfig.getCaches();
-    for (final Cache<K, V> cache : caches) {
+    K k = keyGenerator.generate(next);
+    for (final CacheSlot<K, V> slot : binding.select(k)) {
+      Cache<K, V> cache = slot.getCache();
+      AccessRecorder recorder = binding.getRecorder(slot);
       V v;
-      K k = keyGenerator.generate(next);
       V v1 = valueGenerator.generate(next);
+      VerifiedCache verifiedCache = binding.getVerifiedCache(slot);
+      long stamp = 0;
+      if (verifiedCache != null) {
+        stamp = verifiedCache.readStarted(next);
+        verifiedCache.writeStarted(v1);
+      }
 
       long start = statisticsHolder.getTimeInNs();
       try {
         v = cache.putIfAbsent(k, v1);
         long end = statisticsHolder.getTimeInNs();
         if (v != null) {
-          statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), PUTIFABSENT_MISS);
+          record(statisticsHolder, recorder, slot.getName(), AccessType.PUT_IF_ABSENT, next, v1, start, end, PUTIFABSENT_MISS);
+          if (verifiedCache != null) {
+            verifiedCache.verifyPrevious(next, v, stamp);
+          }
         } else {
-          statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), PUTIFABSENT);
+          record(statisticsHolder, recorder, slot.getName(), AccessType.PUT_IF_ABSENT, next, v1, start, end, PUTIFABSENT);
+        }
+        if (verifiedCache != null) {
+          verifiedCache.writeEnded(v1, v == null);
         }
       } catch (Exception e) {
         long end = statisticsHolder.getTimeInNs();
-        statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), EXCEPTION);
+        record(statisticsHolder, recorder, slot.getName(), AccessType.PUT_IF_ABSENT, next, v1, start, end, EXCEPTION);
+        if (verifiedCache != null) {
+          verifiedCache.writeFailed(v1);
+        }
       }
     }
   }
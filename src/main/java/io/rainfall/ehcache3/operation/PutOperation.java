@@ -6,7 +6,15 @@ import io.rainfall.ObjectGenerator;
 import io.rainfall.Operation;
 import io.rainfall.SequenceGenerator;
 import io.rainfall.TestException;
+import io.rainfall.ehcache.expiry.ExpiringCache;
+import io.rainfall.ehcache.statistics.AccessRecorder;
+import io.rainfall.ehcache.trace.AccessType;
+import io.rainfall.ehcache.verification.VerifiedCache;
+import io.rainfall.ehcache3.CacheBinding;
 import io.rainfall.ehcache3.CacheDefinition;
+import io.rainfall.ehcache3.CacheSlot;
+import io.rainfall.ehcache3.expiry.DistributedExpiry;
+import io.rainfall.ehcache3.statistics.TierAttribution;
 import io.rainfall.statistics.StatisticsHolder;
 import org.ehcache.Cache;
 
@@ -27,6 +35,7 @@ public class PutOperation<K, V> implements Operation {
   protected final ObjectGenerator<V> valueGenerator;
   protected final SequenceGenerator sequenceGenerator;
   protected final CacheDefinition<K, V>[] caches;
+  private volatile CacheBinding<K, V> binding;
 
   public PutOperation(final ObjectGenerator<K> keyGenerator, final ObjectGenerator<V> valueGenerator,
                       final SequenceGenerator sequenceGenerator, final CacheDefinition<K, V> cache) {
@@ -43,23 +52,72 @@ public class PutOperation<K, V> implements Operation {
 
   @Override
   public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>, Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+    CacheBinding<K, V> binding = bind(configurations);
     final long next = this.sequenceGenerator.next();
-    for (final CacheDefinition<K, V> cacheDefinition : caches) {
-      Cache<K, V> cache = cacheDefinition.getCache();
-      K k = keyGenerator.generate(next);
+    K k = keyGenerator.generate(next);
+    for (final CacheSlot<K, V> slot : binding.select(k)) {
+      Cache<K, V> cache = slot.getCache();
+      AccessRecorder recorder = binding.getRecorder(slot);
       V v = valueGenerator.generate(next);
+      VerifiedCache verifiedCache = binding.getVerifiedCache(slot);
+      ExpiringCache expiringCache = binding.getExpiringCache(slot);
+      if (expiringCache != null) {
+        DistributedExpiry.takeLastInMs();
+      }
+      TierAttribution tierAttribution = slot.getTierAttribution();
+      if (tierAttribution != null) {
+        tierAttribution.begin();
+      }
+      if (verifiedCache != null) {
+        verifiedCache.writeStarted(v);
+      }
       long start = statisticsHolder.getTimeInNs();
       try {
         cache.put(k, v);
         long end = statisticsHolder.getTimeInNs();
-        statisticsHolder.record(cacheDefinition.getName(), (end - start), PUT);
+        statisticsHolder.record(slot.getName(), (end - start), PUT);
+        String tier = (tierAttribution == null) ? null : tierAttribution.servedWrite();
+        if (tier != null) {
+          statisticsHolder.record(tier, (end - start), PUT);
+        }
+        if (recorder != null) {
+          recorder.record(slot.getName(), AccessType.PUT, next, v, start, (end - start), PUT);
+        }
+        if (verifiedCache != null) {
+          verifiedCache.writeEnded(v, true);
+        }
+        if (expiringCache != null) {
+          long durationInMs = DistributedExpiry.takeLastInMs();
+          if (durationInMs >= 0) {
+            expiringCache.written(next, durationInMs);
+          }
+        }
       } catch (Exception e) {
         long end = statisticsHolder.getTimeInNs();
-        statisticsHolder.record(cacheDefinition.getName(), (end - start), EXCEPTION);
+        statisticsHolder.record(slot.getName(), (end - start), EXCEPTION);
+        if (recorder != null) {
+          recorder.record(slot.getName(), AccessType.PUT, next, v, start, (end - start), EXCEPTION);
+        }
+        if (verifiedCache != null) {
+          verifiedCache.writeFailed(v);
+        }
       }
     }
   }
 
+  /**
+   * Binds to the caches of the operation once per run, the {@link io.rainfall.ehcache3.CacheConfig} of the run
+   * giving their tier attributions and the cache selection.
+   */
+  protected CacheBinding<K, V> bind(final Map<Class<? extends Configuration>, Configuration> configurations) {
+    CacheBinding<K, V> current = this.binding;
+    if (current == null || !current.isBoundTo(configurations)) {
+      current = CacheBinding.bind(configurations, caches);
+      this.binding = current;
+    }
+    return current;
+  }
+
   @Override
   public List<String> getDescription() {
     List<String> desc = new ArrayList<String>();
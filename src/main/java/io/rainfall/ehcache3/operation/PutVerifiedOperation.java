@@ -5,8 +5,11 @@ import io.rainfall.Configuration;
 import io.rainfall.ObjectGenerator;
 import io.rainfall.SequenceGenerator;
 import io.rainfall.TestException;
-import io.rainfall.ehcache3.CacheConfig;
+import io.rainfall.ehcache.statistics.AccessRecorder;
+import io.rainfall.ehcache.trace.AccessType;
+import io.rainfall.ehcache3.CacheBinding;
 import io.rainfall.ehcache3.CacheDefinition;
+import io.rainfall.ehcache3.CacheSlot;
 import io.rainfall.statistics.StatisticsHolder;
 import org.ehcache.Cache;
 import org.slf4j.Logger;
@@ -35,27 +38,34 @@ public class PutVerifiedOperation<K, V> extends PutOperation<K, V> {
   public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
       Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
 
-    CacheConfig<K, V> cacheConfig = (CacheConfig<K, V>)configurations.get(CacheConfig.class);
+    CacheBinding<K, V> binding = bind(configurations);
     final long next = this.sequenceGenerator.next();
-    List<Cache<K, V>> caches = cacheConfig.getCaches();
-    for (final Cache<K, V> cache : caches) {
-      K k = keyGenerator.generate(next);
+    K k = keyGenerator.generate(next);
+    for (final CacheSlot<K, V> slot : binding.select(k)) {
+      Cache<K, V> cache = slot.getCache();
+      AccessRecorder recorder = binding.getRecorder(slot);
       V v = valueGenerator.generate(next);
 
       long start = statisticsHolder.getTimeInNs();
       try {
         cache.put(k, v);
         long end = statisticsHolder.getTimeInNs();
-        statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), PUT);
+        statisticsHolder.record(slot.getName(), (end - start), PUT);
+        if (recorder != null) {
+          recorder.record(slot.getName(), AccessType.PUT, next, v, start, (end - start), PUT);
+        }
       } catch (Exception e) {
         long end = statisticsHolder.getTimeInNs();
-        statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), EXCEPTION);
+        statisticsHolder.record(slot.getName(), (end - start), EXCEPTION);
+        if (recorder != null) {
+          recorder.record(slot.getName(), AccessType.PUT, next, v, start, (end - start), EXCEPTION);
+        }
       }
 
       V v1 = cache.get(k);
       if (v != null && !v.equals(v1)) {
         log.error("incorrect value found in cache for the key {} : {}", k, v);
-        statisticsHolder.increaseAssertionsErrorsCount(cacheConfig.getCacheName(cache));
+        statisticsHolder.increaseAssertionsErrorsCount(slot.getName());
       }
     }
   }
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.operation;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.TestException;
+import io.rainfall.ehcache.operation.BulkBatch;
+import io.rainfall.ehcache3.CacheBinding;
+import io.rainfall.ehcache3.CacheSlot;
+import io.rainfall.ehcache3.loaderwriter.SimulatedStore;
+import io.rainfall.statistics.StatisticsHolder;
+import org.ehcache.Cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
+import static io.rainfall.ehcache.statistics.EhcacheResult.GETALL;
+import static io.rainfall.ehcache.statistics.EhcacheResult.GETALL_ENTRY;
+
+/**
+ * GetAll on a read-through cache backed by a {@link SimulatedStore} : the batches which triggered a bulk load
+ * are recorded under "cache@loader", the ones fully served by the cache under the cache name.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class ReadThroughAllOperation<K, V> extends BoundCacheOperation<K, V> {
+
+  private final BulkBatch.PerThread<K, V> batches = new BulkBatch.PerThread<K, V>();
+
+  @Override
+  public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
+      Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+
+    CacheBinding<K, V> binding = bind(configurations);
+    int bulkBatchSize = binding.getBulkBatchSize();
+    BulkBatch<K, V> batch = batches.get(bulkBatchSize);
+    batch.planKeys(sequenceGenerator, keyGenerator, bulkBatchSize);
+    Set<K> set = batch.getKeys();
+
+    if (binding.isSplitByKey()) {
+      CacheSlot<K, V>[] slots = binding.getSlots();
+      Set<K>[] parts = batch.keyParts(slots.length);
+      binding.split(set, parts);
+      for (int i = 0; i < slots.length; i++) {
+        if (!parts[i].isEmpty()) {
+          getAll(statisticsHolder, slots[i], parts[i]);
+        }
+      }
+    } else {
+      for (final CacheSlot<K, V> slot : binding.select(set)) {
+        getAll(statisticsHolder, slot, set);
+      }
+    }
+  }
+
+  private void getAll(final StatisticsHolder statisticsHolder, final CacheSlot<K, V> slot, final Set<K> set) {
+    Cache<K, V> cache = slot.getCache();
+    long loads = SimulatedStore.loadsOfCurrentThread();
+    long start = statisticsHolder.getTimeInNs();
+    try {
+      cache.getAll(set);
+      long end = statisticsHolder.getTimeInNs();
+      String name = ReadThroughOperation.path(slot, loads);
+      statisticsHolder.record(name, (end - start), GETALL);
+      recordEntries(statisticsHolder, name, (end - start), set.size(), GETALL_ENTRY);
+    } catch (Exception e) {
+      long end = statisticsHolder.getTimeInNs();
+      statisticsHolder.record(ReadThroughOperation.path(slot, loads), (end - start), EXCEPTION);
+    }
+  }
+
+  @Override
+  public List<String> getDescription() {
+    List<String> desc = new ArrayList<String>();
+    desc.add("getAll(Set<? extends " + keyGenerator.getDescription() + "> keys) through the cache loader");
+    desc.add(sequenceGenerator.getDescription());
+    return desc;
+  }
+}
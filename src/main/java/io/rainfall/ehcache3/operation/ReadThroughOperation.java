@@ -0,0 +1,84 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.operation;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.TestException;
+import io.rainfall.ehcache.statistics.AccessRecorder;
+import io.rainfall.ehcache.trace.AccessType;
+import io.rainfall.ehcache3.CacheBinding;
+import io.rainfall.ehcache3.CacheSlot;
+import io.rainfall.ehcache3.loaderwriter.SimulatedStore;
+import io.rainfall.statistics.StatisticsHolder;
+import org.ehcache.Cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
+import static io.rainfall.ehcache.statistics.EhcacheResult.GET;
+import static io.rainfall.ehcache.statistics.EhcacheResult.MISS;
+
+/**
+ * Get on a read-through cache backed by a {@link SimulatedStore} : the gets served by the cache are recorded
+ * under the cache name, the ones which triggered a load under "cache@loader", so the cost of the misses is
+ * measured apart from the hit path.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class ReadThroughOperation<K, V> extends BoundCacheOperation<K, V> {
+
+  @Override
+  public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
+      Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+
+    CacheBinding<K, V> binding = bind(configurations);
+    final long next = sequenceGenerator.next();
+    K k = keyGenerator.generate(next);
+    for (final CacheSlot<K, V> slot : binding.select(k)) {
+      Cache<K, V> cache = slot.getCache();
+      AccessRecorder recorder = binding.getRecorder(slot);
+      V value;
+      long loads = SimulatedStore.loadsOfCurrentThread();
+
+      long start = statisticsHolder.getTimeInNs();
+      try {
+        value = cache.get(k);
+        long end = statisticsHolder.getTimeInNs();
+        String name = path(slot, loads);
+        record(statisticsHolder, recorder, name, AccessType.GET, next, value, start, end, value == null ? MISS : GET);
+      } catch (Exception e) {
+        long end = statisticsHolder.getTimeInNs();
+        record(statisticsHolder, recorder, path(slot, loads), AccessType.GET, next, null, start, end, EXCEPTION);
+      }
+    }
+  }
+
+  static String path(final CacheSlot<?, ?> slot, final long loads) {
+    return SimulatedStore.loadsOfCurrentThread() == loads ? slot.getName() : slot.getName() + "@loader";
+  }
+
+  @Override
+  public List<String> getDescription() {
+    List<String> desc = new ArrayList<String>();
+    desc.add("get(" + keyGenerator.getDescription() + " key) through the cache loader");
+    desc.add(sequenceGenerator.getDescription());
+    return desc;
+  }
+}
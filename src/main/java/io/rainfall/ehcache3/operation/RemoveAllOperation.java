@@ -18,52 +18,68 @@ package io.rainfall.ehcache3.operation;
 
 import io.rainfall.AssertionEvaluator;
 import io.rainfall.Configuration;
-import io.rainfall.EhcacheOperation;
 import io.rainfall.TestException;
-import io.rainfall.ehcache3.CacheConfig;
+import io.rainfall.ehcache.operation.BulkBatch;
+import io.rainfall.ehcache3.CacheBinding;
+import io.rainfall.ehcache3.CacheSlot;
 import io.rainfall.statistics.StatisticsHolder;
 import org.ehcache.Cache;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.WeakHashMap;
 
 import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
 import static io.rainfall.ehcache.statistics.EhcacheResult.REMOVEALL;
+import static io.rainfall.ehcache.statistics.EhcacheResult.REMOVEALL_ENTRY;
 
 /**
  * @author Aurelien Broszniowski
  */
-public class RemoveAllOperation<K, V> extends EhcacheOperation<K, V> {
+public class RemoveAllOperation<K, V> extends BoundCacheOperation<K, V> {
+
+  private final BulkBatch.PerThread<K, V> batches = new BulkBatch.PerThread<K, V>();
 
   @Override
   public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
       Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
 
-    CacheConfig<K, V> cacheConfig = (CacheConfig<K, V>)configurations.get(CacheConfig.class);
-    int bulkBatchSize = cacheConfig.getBulkBatchSize();
-    final long next = this.sequenceGenerator.next();
-    Set<K> set = Collections.newSetFromMap(new WeakHashMap<K, Boolean>());
-    for (int i = 0; i < bulkBatchSize; i++) {
-      set.add(keyGenerator.generate(next));
-    }
-    List<Cache<K, V>> caches = cacheConfig.getCaches();
-    for (final Cache<K, V> cache : caches) {
-      long start = statisticsHolder.getTimeInNs();
-      try {
-        cache.removeAll(set);
-        long end = statisticsHolder.getTimeInNs();
-        statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), REMOVEALL);
-      } catch (Exception e) {
-        long end = statisticsHolder.getTimeInNs();
-        statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), EXCEPTION);
+    CacheBinding<K, V> binding = bind(configurations);
+    int bulkBatchSize = binding.getBulkBatchSize();
+    BulkBatch<K, V> batch = batches.get(bulkBatchSize);
+    batch.planKeys(sequenceGenerator, keyGenerator, bulkBatchSize);
+    Set<K> set = batch.getKeys();
+    if (binding.isSplitByKey()) {
+      CacheSlot<K, V>[] slots = binding.getSlots();
+      Set<K>[] parts = batch.keyParts(slots.length);
+      binding.split(set, parts);
+      for (int i = 0; i < slots.length; i++) {
+        if (!parts[i].isEmpty()) {
+          removeAll(statisticsHolder, slots[i], parts[i]);
+        }
+      }
+    } else {
+      for (final CacheSlot<K, V> slot : binding.select(set)) {
+        removeAll(statisticsHolder, slot, set);
       }
     }
   }
 
+  private void removeAll(final StatisticsHolder statisticsHolder, final CacheSlot<K, V> slot, final Set<K> set) {
+    Cache<K, V> cache = slot.getCache();
+    long start = statisticsHolder.getTimeInNs();
+    try {
+      cache.removeAll(set);
+      long end = statisticsHolder.getTimeInNs();
+      statisticsHolder.record(slot.getName(), (end - start), REMOVEALL);
+      recordEntries(statisticsHolder, slot.getName(), (end - start), set.size(), REMOVEALL_ENTRY);
+    } catch (Exception e) {
+      long end = statisticsHolder.getTimeInNs();
+      statisticsHolder.record(slot.getName(), (end - start), EXCEPTION);
+    }
+  }
+
   @Override
   public List<String> getDescription() {
     List<String> desc = new ArrayList<String>();
@@ -18,9 +18,11 @@ package io.rainfall.ehcache3.operation;
 
 import io.rainfall.AssertionEvaluator;
 import io.rainfall.Configuration;
-import io.rainfall.EhcacheOperation;
 import io.rainfall.TestException;
-import io.rainfall.ehcache3.CacheConfig;
+import io.rainfall.ehcache.statistics.AccessRecorder;
+import io.rainfall.ehcache.trace.AccessType;
+import io.rainfall.ehcache3.CacheBinding;
+import io.rainfall.ehcache3.CacheSlot;
 import io.rainfall.statistics.StatisticsHolder;
 import org.ehcache.Cache;
 
@@ -35,18 +37,19 @@ import static io.rainfall.ehcache.statistics.EhcacheResult.REMOVEVALUE_MISS;
 /**
  * @author Aurelien Broszniowski
  */
-public class RemoveForKeyAndValueOperation<K, V> extends EhcacheOperation<K, V> {
+public class RemoveForKeyAndValueOperation<K, V> extends BoundCacheOperation<K, V> {
 
   @Override
   public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
       Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
 
-    CacheConfig<K, V> cacheConfig = (CacheConfig<K, V>)configurations.get(CacheConfig.class);
+    CacheBinding<K, V> binding = bind(configurations);
     final long next = this.sequenceGenerator.next();
-    List<Cache<K, V>> caches = cacheConfig.getCaches();
-    for (final Cache<K, V> cache : caches) {
+    K k = keyGenerator.generate(next);
+    for (final CacheSlot<K, V> slot : binding.select(k)) {
+      Cache<K, V> cache = slot.getCache();
+      AccessRecorder recorder = binding.getRecorder(slot);
       boolean removed;
-      K k = keyGenerator.generate(next);
       V v = valueGenerator.generate(next);
 
       long start = statisticsHolder.getTimeInNs();
@@ -54,13 +57,13 @@ public class RemoveForKeyAndValueOperation<K, V> extends EhcacheOperation<K, V>
         removed = cache.remove(k, v);
         long end = statisticsHolder.getTimeInNs();
         if (!removed) {
-          statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), REMOVEVALUE_MISS);
+          record(statisticsHolder, recorder, slot.getName(), AccessType.REMOVE_FOR_KEY_AND_VALUE, next, v, start, end, REMOVEVALUE_MISS);
         } else {
-          statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), REMOVEVALUE);
+          record(statisticsHolder, recorder, slot.getName(), AccessType.REMOVE_FOR_KEY_AND_VALUE, next, v, start, end, REMOVEVALUE);
         }
       } catch (Exception e) {
         long end = statisticsHolder.getTimeInNs();
-        statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), EXCEPTION);
+        record(statisticsHolder, recorder, slot.getName(), AccessType.REMOVE_FOR_KEY_AND_VALUE, next, v, start, end, EXCEPTION);
       }
     }
   }
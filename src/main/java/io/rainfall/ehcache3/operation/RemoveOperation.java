@@ -18,9 +18,12 @@ package io.rainfall.ehcache3.operation;
 
 import io.rainfall.AssertionEvaluator;
 import io.rainfall.Configuration;
-import io.rainfall.EhcacheOperation;
 import io.rainfall.TestException;
-import io.rainfall.ehcache3.CacheConfig;
+import io.rainfall.ehcache.expiry.ExpiringCache;
+import io.rainfall.ehcache.statistics.AccessRecorder;
+import io.rainfall.ehcache.trace.AccessType;
+import io.rainfall.ehcache3.CacheBinding;
+import io.rainfall.ehcache3.CacheSlot;
 import io.rainfall.statistics.StatisticsHolder;
 import org.ehcache.Cache;
 
@@ -34,27 +37,32 @@ import static io.rainfall.ehcache.statistics.EhcacheResult.REMOVE;
 /**
  * @author Aurelien Broszniowski
  */
-public class RemoveOperation<K, V> extends EhcacheOperation<K, V> {
+public class RemoveOperation<K, V> extends BoundCacheOperation<K, V> {
 
   @Override
   public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
       Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
 
-    CacheConfig<K, V> cacheConfig = (CacheConfig<K, V>)configurations.get(CacheConfig.class);
+    CacheBinding<K, V> binding = bind(configurations);
     final long next = this.sequenceGenerator.next();
-    List<Cache<K, V>> caches = cacheConfig.getCaches();
-    for (final Cache<K, V> cache : caches) {
+    K k = keyGenerator.generate(next);
+    for (final CacheSlot<K, V> slot : binding.select(k)) {
+      Cache<K, V> cache = slot.getCache();
+      AccessRecorder recorder = binding.getRecorder(slot);
       boolean removed;
-      K k = keyGenerator.generate(next);
+      ExpiringCache expiringCache = binding.getExpiringCache(slot);
 
       long start = statisticsHolder.getTimeInNs();
       try {
         cache.remove(k);
         long end = statisticsHolder.getTimeInNs();
-        statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), REMOVE);
+        record(statisticsHolder, recorder, slot.getName(), AccessType.REMOVE, next, null, start, end, REMOVE);
+        if (expiringCache != null) {
+          expiringCache.removed(next);
+        }
       } catch (Exception e) {
         long end = statisticsHolder.getTimeInNs();
-        statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), EXCEPTION);
+        record(statisticsHolder, recorder, slot.getName(), AccessType.REMOVE, next, null, start, end, EXCEPTION);
       }
     }
   }
@@ -18,9 +18,11 @@ package io.rainfall.ehcache3.operation;
 
 import io.rainfall.AssertionEvaluator;
 import io.rainfall.Configuration;
-import io.rainfall.EhcacheOperation;
 import io.rainfall.TestException;
-import io.rainfall.ehcache3.CacheConfig;
+import io.rainfall.ehcache.statistics.AccessRecorder;
+import io.rainfall.ehcache.trace.AccessType;
+import io.rainfall.ehcache3.CacheBinding;
+import io.rainfall.ehcache3.CacheSlot;
 import io.rainfall.statistics.StatisticsHolder;
 import org.ehcache.Cache;
 
@@ -35,18 +37,19 @@ import static io.rainfall.ehcache.statistics.EhcacheResult.REPLACEVALUE_MISS;
 /**
  * @author Aurelien Broszniowski
  */
-public class ReplaceForKeyAndValueOperation<K, V> extends EhcacheOperation<K, V> {
+public class ReplaceForKeyAndValueOperation<K, V> extends BoundCacheOperation<K, V> {
 
   @Override
   public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
       Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
 
-    CacheConfig<K, V> cacheConfig = (CacheConfig<K, V>)configurations.get(CacheConfig.class);
+    CacheBinding<K, V> binding = bind(configurations);
     final long next = this.sequenceGenerator.next();
-    List<Cache<K, V>> caches = cacheConfig.getCaches();
-    for (final Cache<K, V> cache : caches) {
+    K k = keyGenerator.generate(next);
+    for (final CacheSlot<K, V> slot : binding.select(k)) {
+      Cache<K, V> cache = slot.getCache();
+      AccessRecorder recorder = binding.getRecorder(slot);
       boolean replaced;
-      K k = keyGenerator.generate(next);
       V v = valueGenerator.generate(next + 1);
 
       long start = statisticsHolder.getTimeInNs();
@@ -54,13 +57,13 @@ public class ReplaceForKeyAndValueOperation<K, V> extends EhcacheOperation<K, V>
         replaced = cache.replace(k, v, v);
         long end = statisticsHolder.getTimeInNs();
         if (!replaced) {
-          statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), REPLACEVALUE_MISS);
+          record(statisticsHolder, recorder, slot.getName(), AccessType.REPLACE_FOR_KEY_AND_VALUE, next, v, start, end, REPLACEVALUE_MISS);
         } else {
-          statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), REPLACEVALUE);
+          record(statisticsHolder, recorder, slot.getName(), AccessType.REPLACE_FOR_KEY_AND_VALUE, next, v, start, end, REPLACEVALUE);
         }
       } catch (Exception e) {
         long end = statisticsHolder.getTimeInNs();
-        statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), EXCEPTION);
+        record(statisticsHolder, recorder, slot.getName(), AccessType.REPLACE_FOR_KEY_AND_VALUE, next, v, start, end, EXCEPTION);
       }
     }
   }
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.operation;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.TestException;
+import io.rainfall.ehcache.statistics.ScanMonitor;
+import io.rainfall.ehcache3.CacheBinding;
+import io.rainfall.ehcache3.CacheSlot;
+import io.rainfall.statistics.StatisticsHolder;
+import org.ehcache.Cache;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
+import static io.rainfall.ehcache.statistics.EhcacheResult.SCAN;
+import static io.rainfall.ehcache.statistics.EhcacheResult.SCAN_ENTRY;
+
+/**
+ * Iterates over each cache, whole or up to a number of entries, reading every value.
+ * <p>
+ * The scan is recorded once as {@link io.rainfall.ehcache.statistics.EhcacheResult#SCAN}, and once as
+ * {@link io.rainfall.ehcache.statistics.EhcacheResult#SCAN_ENTRY} with its latency amortized over its entries, so
+ * that SCAN_ENTRY gives the per-entry latency, its throughput being in scans per second. A {@link ScanMonitor}
+ * configured for the run reports the entries scanned per second, and how the concurrent point accesses are affected.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class ScanOperation<K, V> extends BoundCacheOperation<K, V> {
+
+  private long limit = Long.MAX_VALUE;
+
+  /**
+   * Stops each scan after a number of entries, the whole cache is scanned by default.
+   */
+  public ScanOperation<K, V> limit(final long limit) {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("The scan limit must be positive");
+    }
+    this.limit = limit;
+    return this;
+  }
+
+  @Override
+  public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
+      Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+
+    CacheBinding<K, V> binding = bind(configurations);
+    ScanMonitor scanMonitor = binding.getScanMonitor();
+    for (final CacheSlot<K, V> slot : binding.getSlots()) {
+      Cache<K, V> cache = slot.getCache();
+      long entries = 0;
+      if (scanMonitor != null) {
+        scanMonitor.scanStarted();
+      }
+      long start = statisticsHolder.getTimeInNs();
+      try {
+        Iterator<Cache.Entry<K, V>> iterator = cache.iterator();
+        while (entries < limit && iterator.hasNext()) {
+          if (iterator.next().getValue() != null) {
+            entries++;
+          }
+        }
+        long end = statisticsHolder.getTimeInNs();
+        statisticsHolder.record(slot.getName(), (end - start), SCAN);
+        recordEntries(statisticsHolder, slot.getName(), (end - start), entries, SCAN_ENTRY);
+        if (scanMonitor != null) {
+          scanMonitor.scanEnded(entries, (end - start));
+        }
+      } catch (Exception e) {
+        long end = statisticsHolder.getTimeInNs();
+        statisticsHolder.record(slot.getName(), (end - start), EXCEPTION);
+        if (scanMonitor != null) {
+          scanMonitor.scanEnded(entries, (end - start));
+        }
+      }
+    }
+  }
+
+  @Override
+  public List<String> getDescription() {
+    List<String> desc = new ArrayList<String>();
+    desc.add("iterator()" + (limit == Long.MAX_VALUE ? " over the whole cache" : " over " + limit + " entries"));
+    return desc;
+  }
+}
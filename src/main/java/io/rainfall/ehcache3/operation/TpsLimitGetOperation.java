@@ -19,58 +19,33 @@ package io.rainfall.ehcache3.operation;
 import io.rainfall.AssertionEvaluator;
 import io.rainfall.Configuration;
 import io.rainfall.TestException;
-import io.rainfall.ehcache.statistics.EhcacheResult;
-import io.rainfall.ehcache3.CacheConfig;
+import io.rainfall.ehcache.operation.TokenBucket;
 import io.rainfall.statistics.StatisticsHolder;
-import org.ehcache.Cache;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
-import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
-import static io.rainfall.ehcache.statistics.EhcacheResult.GET;
-import static io.rainfall.ehcache.statistics.EhcacheResult.MISS;
-
 /**
  * @author Aurelien Broszniowski
  */
 public class TpsLimitGetOperation<K, V> extends GetOperation<K, V> {
 
-  private final long tpsLimit;
+  private final TokenBucket tokenBucket;
 
   public TpsLimitGetOperation(final long tpsLimit) {
-    this.tpsLimit = tpsLimit;
+    this.tokenBucket = TokenBucket.tokenBucket("get", tpsLimit);
   }
 
   @Override
   public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
       Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+    tokenBucket.acquire();
+    super.exec(statisticsHolder, configurations, assertions);
+  }
 
-    CacheConfig<K, V> cacheConfig = (CacheConfig<K, V>)configurations.get(CacheConfig.class);
-    final long next = this.sequenceGenerator.next();
-    List<Cache<K, V>> caches = cacheConfig.getCaches();
-    long currentTps = statisticsHolder.getCurrentTps(EhcacheResult.GET);
-    if (currentTps < this.tpsLimit) {
-      for (final Cache<K, V> cache : caches) {
-        K k = keyGenerator.generate(next);
-        V value;
-
-        long start = statisticsHolder.getTimeInNs();
-        try {
-          value = cache.get(k);
-          long end = statisticsHolder.getTimeInNs();
-          if (value == null) {
-            statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), MISS);
-          } else {
-            statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), GET);
-          }
-        } catch (Exception e) {
-          long end = statisticsHolder.getTimeInNs();
-          statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), EXCEPTION);
-        }
-      }
-    }
+  public TokenBucket getTokenBucket() {
+    return tokenBucket;
   }
 
   @Override
@@ -78,6 +53,7 @@ public class TpsLimitGetOperation<K, V> extends GetOperation<K, V> {
     List<String> desc = new ArrayList<String>();
     desc.add("THROTTLED get(" + keyGenerator.getDescription() + " key)");
     desc.add(sequenceGenerator.getDescription());
+    desc.add(tokenBucket.getDescription());
     return desc;
   }
 }
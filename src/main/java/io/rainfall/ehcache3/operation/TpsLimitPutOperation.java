@@ -21,56 +21,36 @@ import io.rainfall.Configuration;
 import io.rainfall.ObjectGenerator;
 import io.rainfall.SequenceGenerator;
 import io.rainfall.TestException;
-import io.rainfall.ehcache.statistics.EhcacheResult;
-import io.rainfall.ehcache3.CacheConfig;
+import io.rainfall.ehcache.operation.TokenBucket;
 import io.rainfall.ehcache3.CacheDefinition;
 import io.rainfall.statistics.StatisticsHolder;
-import org.ehcache.Cache;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
-import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
-import static io.rainfall.ehcache.statistics.EhcacheResult.PUT;
-
 /**
  * @author Aurelien Broszniowski
  */
 public class TpsLimitPutOperation<K, V> extends PutOperation<K, V> {
 
-  private final long tpsLimit;
+  private final TokenBucket tokenBucket;
 
   public TpsLimitPutOperation(final ObjectGenerator<K> keyGenerator, final ObjectGenerator<V> valueGenerator,
                               final SequenceGenerator sequenceGenerator, final long tpsLimit, final CacheDefinition<K, V>... caches) {
     super(keyGenerator, valueGenerator, sequenceGenerator, caches);
-    this.tpsLimit = tpsLimit;
+    this.tokenBucket = TokenBucket.tokenBucket("put", tpsLimit);
   }
 
   @Override
   public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
       Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+    tokenBucket.acquire();
+    super.exec(statisticsHolder, configurations, assertions);
+  }
 
-    CacheConfig<K, V> cacheConfig = (CacheConfig<K, V>)configurations.get(CacheConfig.class);
-    final long next = this.sequenceGenerator.next();
-    List<Cache<K, V>> caches = cacheConfig.getCaches();
-    long currentTps = statisticsHolder.getCurrentTps(EhcacheResult.PUT);
-    if (currentTps < this.tpsLimit) {
-      for (final Cache<K, V> cache : caches) {
-        K k = keyGenerator.generate(next);
-        V v = valueGenerator.generate(next);
-
-        long start = statisticsHolder.getTimeInNs();
-        try {
-          cache.put(k, v);
-          long end = statisticsHolder.getTimeInNs();
-          statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), PUT);
-        } catch (Exception e) {
-          long end = statisticsHolder.getTimeInNs();
-          statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), EXCEPTION);
-        }
-      }
-    }
+  public TokenBucket getTokenBucket() {
+    return tokenBucket;
   }
 
   @Override
@@ -78,6 +58,7 @@ public class TpsLimitPutOperation<K, V> extends PutOperation<K, V> {
     List<String> desc = new ArrayList<String>();
     desc.add("THROTTLED put(" + keyGenerator.getDescription() + " key, " + valueGenerator.getDescription() + " value)");
     desc.add(sequenceGenerator.getDescription());
+    desc.add(tokenBucket.getDescription());
     return desc;
   }
 }
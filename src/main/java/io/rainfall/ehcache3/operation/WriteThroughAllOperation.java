@@ -0,0 +1,97 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.operation;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.TestException;
+import io.rainfall.ehcache.operation.BulkBatch;
+import io.rainfall.ehcache3.CacheBinding;
+import io.rainfall.ehcache3.CacheSlot;
+import io.rainfall.ehcache3.loaderwriter.SimulatedStore;
+import io.rainfall.statistics.StatisticsHolder;
+import org.ehcache.Cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
+import static io.rainfall.ehcache.statistics.EhcacheResult.PUTALL;
+import static io.rainfall.ehcache.statistics.EhcacheResult.PUTALL_ENTRY;
+
+/**
+ * PutAll on a write-through cache backed by a {@link SimulatedStore} : the batches which called the writer are
+ * recorded under "cache@writer", the others under the cache name.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class WriteThroughAllOperation<K, V> extends BoundCacheOperation<K, V> {
+
+  private final BulkBatch.PerThread<K, V> batches = new BulkBatch.PerThread<K, V>();
+
+  @Override
+  public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
+      Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+
+    CacheBinding<K, V> binding = bind(configurations);
+    int bulkBatchSize = binding.getBulkBatchSize();
+    BulkBatch<K, V> batch = batches.get(bulkBatchSize);
+    batch.planEntries(sequenceGenerator, keyGenerator, valueGenerator, bulkBatchSize);
+    Map<K, V> entries = batch.getEntries();
+
+    if (binding.isSplitByKey()) {
+      CacheSlot<K, V>[] slots = binding.getSlots();
+      Map<K, V>[] parts = batch.entryParts(slots.length);
+      binding.split(entries, parts);
+      for (int i = 0; i < slots.length; i++) {
+        if (!parts[i].isEmpty()) {
+          putAll(statisticsHolder, slots[i], parts[i]);
+        }
+      }
+    } else {
+      for (final CacheSlot<K, V> slot : binding.select(entries.keySet())) {
+        putAll(statisticsHolder, slot, entries);
+      }
+    }
+  }
+
+  private void putAll(final StatisticsHolder statisticsHolder, final CacheSlot<K, V> slot, final Map<K, V> entries) {
+    Cache<K, V> cache = slot.getCache();
+    long writes = SimulatedStore.writesOfCurrentThread();
+    long start = statisticsHolder.getTimeInNs();
+    try {
+      cache.putAll(entries);
+      long end = statisticsHolder.getTimeInNs();
+      String name = WriteThroughOperation.path(slot, writes);
+      statisticsHolder.record(name, (end - start), PUTALL);
+      recordEntries(statisticsHolder, name, (end - start), entries.size(), PUTALL_ENTRY);
+    } catch (Exception e) {
+      long end = statisticsHolder.getTimeInNs();
+      statisticsHolder.record(WriteThroughOperation.path(slot, writes), (end - start), EXCEPTION);
+    }
+  }
+
+  @Override
+  public List<String> getDescription() {
+    List<String> desc = new ArrayList<String>();
+    desc.add("putAll(Map<? extends " + keyGenerator.getDescription() + ", ? extends "
+             + valueGenerator.getDescription() + "> entries) through the cache writer");
+    desc.add(sequenceGenerator.getDescription());
+    return desc;
+  }
+}
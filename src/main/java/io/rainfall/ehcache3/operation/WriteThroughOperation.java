@@ -0,0 +1,82 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.operation;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.TestException;
+import io.rainfall.ehcache.statistics.AccessRecorder;
+import io.rainfall.ehcache.trace.AccessType;
+import io.rainfall.ehcache3.CacheBinding;
+import io.rainfall.ehcache3.CacheSlot;
+import io.rainfall.ehcache3.loaderwriter.SimulatedStore;
+import io.rainfall.statistics.StatisticsHolder;
+import org.ehcache.Cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
+import static io.rainfall.ehcache.statistics.EhcacheResult.PUT;
+
+/**
+ * Put on a write-through cache backed by a {@link SimulatedStore} : the puts which called the writer are
+ * recorded under "cache@writer", the others (e.g. queued by a write-behind cache) under the cache name.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class WriteThroughOperation<K, V> extends BoundCacheOperation<K, V> {
+
+  @Override
+  public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
+      Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+
+    CacheBinding<K, V> binding = bind(configurations);
+    final long next = sequenceGenerator.next();
+    K k = keyGenerator.generate(next);
+    for (final CacheSlot<K, V> slot : binding.select(k)) {
+      Cache<K, V> cache = slot.getCache();
+      AccessRecorder recorder = binding.getRecorder(slot);
+      V v = valueGenerator.generate(next);
+      long writes = SimulatedStore.writesOfCurrentThread();
+
+      long start = statisticsHolder.getTimeInNs();
+      try {
+        cache.put(k, v);
+        long end = statisticsHolder.getTimeInNs();
+        record(statisticsHolder, recorder, path(slot, writes), AccessType.PUT, next, v, start, end, PUT);
+      } catch (Exception e) {
+        long end = statisticsHolder.getTimeInNs();
+        record(statisticsHolder, recorder, path(slot, writes), AccessType.PUT, next, v, start, end, EXCEPTION);
+      }
+    }
+  }
+
+  static String path(final CacheSlot<?, ?> slot, final long writes) {
+    return SimulatedStore.writesOfCurrentThread() == writes ? slot.getName() : slot.getName() + "@writer";
+  }
+
+  @Override
+  public List<String> getDescription() {
+    List<String> desc = new ArrayList<String>();
+    desc.add("put(" + keyGenerator.getDescription() + " key, " + valueGenerator.getDescription()
+             + " value) through the cache writer");
+    desc.add(sequenceGenerator.getDescription());
+    return desc;
+  }
+}
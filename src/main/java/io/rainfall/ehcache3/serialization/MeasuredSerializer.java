@@ -0,0 +1,90 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.serialization;
+
+import org.ehcache.spi.serialization.Serializer;
+import org.ehcache.spi.serialization.SerializerException;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Wraps the {@link Serializer} of an Ehcache 3 cache to measure the time spent serializing and deserializing, and
+ * the size of the serialized forms.
+ * <p>
+ * Offheap and disk tiers serialize on the thread doing the access, so the cost of each call is added to the
+ * calling thread, and attributed to the access it is part of by a {@link SerializerMonitor}. Configure it with
+ * {@code CacheConfigurationBuilder.withValueSerializer()} or {@code withKeySerializer()}, around the serializer
+ * under test. Each call is timed with two {@link System#nanoTime()}.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class MeasuredSerializer<T> implements Serializer<T> {
+
+  private final Serializer<T> delegate;
+
+  public MeasuredSerializer(final Serializer<T> delegate) {
+    if (delegate == null) {
+      throw new IllegalArgumentException("The measured serializer can not be null");
+    }
+    this.delegate = delegate;
+  }
+
+  public static <T> MeasuredSerializer<T> measured(final Serializer<T> delegate) {
+    return new MeasuredSerializer<T>(delegate);
+  }
+
+  public Serializer<T> getDelegate() {
+    return delegate;
+  }
+
+  @Override
+  public ByteBuffer serialize(final T object) throws SerializerException {
+    long start = System.nanoTime();
+    ByteBuffer binary = delegate.serialize(object);
+    long end = System.nanoTime();
+    SerializationCost.current().serialized(start, end, binary.remaining());
+    return binary;
+  }
+
+  @Override
+  public T read(final ByteBuffer binary) throws ClassNotFoundException, SerializerException {
+    int bytes = binary.remaining();
+    long start = System.nanoTime();
+    T object = delegate.read(binary);
+    long end = System.nanoTime();
+    SerializationCost.current().deserialized(start, end, bytes);
+    return object;
+  }
+
+  /**
+   * The comparison reads the binary form, so its cost is counted as a deserialization.
+   */
+  @Override
+  public boolean equals(final T object, final ByteBuffer binary) throws ClassNotFoundException, SerializerException {
+    int bytes = binary.remaining();
+    long start = System.nanoTime();
+    boolean equals = delegate.equals(object, binary);
+    long end = System.nanoTime();
+    SerializationCost.current().deserialized(start, end, bytes);
+    return equals;
+  }
+
+  @Override
+  public String toString() {
+    return "measured " + delegate.getClass().getSimpleName();
+  }
+}
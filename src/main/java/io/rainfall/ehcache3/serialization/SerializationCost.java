@@ -0,0 +1,70 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.serialization;
+
+/**
+ * Serialization work done by the calling thread through {@link MeasuredSerializer}s, since it was last drained.
+ * Only ever touched by its own thread.
+ *
+ * @author Aurelien Broszniowski
+ */
+final class SerializationCost {
+
+  private static final ThreadLocal<SerializationCost> current = new ThreadLocal<SerializationCost>() {
+    @Override
+    protected SerializationCost initialValue() {
+      return new SerializationCost();
+    }
+  };
+
+  long firstCallInNs;
+  long serializeTimeInNs;
+  long deserializeTimeInNs;
+  long serializedBytes;
+  long deserializedBytes;
+  int calls;
+
+  static SerializationCost current() {
+    return current.get();
+  }
+
+  void serialized(final long startInNs, final long endInNs, final int bytes) {
+    call(startInNs);
+    serializeTimeInNs += endInNs - startInNs;
+    serializedBytes += bytes;
+  }
+
+  void deserialized(final long startInNs, final long endInNs, final int bytes) {
+    call(startInNs);
+    deserializeTimeInNs += endInNs - startInNs;
+    deserializedBytes += bytes;
+  }
+
+  private void call(final long startInNs) {
+    if (calls++ == 0) {
+      firstCallInNs = startInNs;
+    }
+  }
+
+  void reset() {
+    calls = 0;
+    serializeTimeInNs = 0;
+    deserializeTimeInNs = 0;
+    serializedBytes = 0;
+    deserializedBytes = 0;
+  }
+}
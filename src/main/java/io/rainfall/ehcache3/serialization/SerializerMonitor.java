@@ -0,0 +1,242 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.serialization;
+
+import io.rainfall.Configuration;
+import io.rainfall.ehcache.statistics.AccessRecorder;
+import io.rainfall.ehcache.statistics.EhcacheResult;
+import io.rainfall.ehcache.trace.AccessType;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reports the serialization cost of the accesses next to their end-to-end latency, per cache and per
+ * {@link EhcacheResult} : the serialize time, the deserialize time and the serialized size, for the caches built
+ * with {@link MeasuredSerializer}s.
+ * <p>
+ * Registered as a configuration of the run, it is called after each single-key access on the measuring thread,
+ * and takes the serialization work that thread did through the measured serializers during the access. Work done
+ * before the access started, e.g. by a bulk operation, can not be told apart, so such an access is dropped from
+ * the report and counted as discarded.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class SerializerMonitor extends Configuration implements AccessRecorder {
+
+  private static final EhcacheResult[] RESULTS = EhcacheResult.values();
+
+  private final ConcurrentMap<String, Costs[]> caches = new ConcurrentHashMap<String, Costs[]>();
+  private final AtomicLong discarded = new AtomicLong();
+
+  public static SerializerMonitor serializerMonitor() {
+    return new SerializerMonitor();
+  }
+
+  @Override
+  public void record(final String cacheName, final AccessType accessType, final long sequence, final Object value,
+                     final long startInNs, final long latencyInNs, final EhcacheResult result) {
+    SerializationCost cost = SerializationCost.current();
+    if (cost.calls > 0 && cost.firstCallInNs < startInNs) {
+      cost.reset();
+      discarded.incrementAndGet();
+      return;
+    }
+    costs(cacheName)[result.ordinal()].record(latencyInNs, cost);
+    cost.reset();
+  }
+
+  private Costs[] costs(final String cacheName) {
+    Costs[] cacheCosts = caches.get(cacheName);
+    if (cacheCosts == null) {
+      cacheCosts = new Costs[RESULTS.length];
+      for (int i = 0; i < cacheCosts.length; i++) {
+        cacheCosts[i] = new Costs();
+      }
+      Costs[] existing = caches.putIfAbsent(cacheName, cacheCosts);
+      if (existing != null) {
+        cacheCosts = existing;
+      }
+    }
+    return cacheCosts;
+  }
+
+  /**
+   * Writes the text and html reports in the directory.
+   */
+  public void report(final File directory) throws FileNotFoundException {
+    if (!directory.exists() && !directory.mkdirs()) {
+      throw new FileNotFoundException("Can not create directory " + directory);
+    }
+    PrintStream text = new PrintStream(new File(directory, "serializer-cost.txt"));
+    try {
+      writeText(text);
+    } finally {
+      text.close();
+    }
+    PrintStream html = new PrintStream(new File(directory, "serializer-cost.html"));
+    try {
+      writeHtml(html);
+    } finally {
+      html.close();
+    }
+  }
+
+  public synchronized void writeText(final PrintStream out) {
+    out.println("Serializer cost (times in us, sizes in bytes, per access)");
+    out.println(String.format("%-20s %-18s %10s %10s %10s %10s %10s %10s %10s %10s %10s %8s", "cache", "result",
+        "count", "lat.mean", "lat.99%", "ser.mean", "ser.99%", "deser.mean", "deser.99%", "ser.bytes", "deser.bytes",
+        "share(%)"));
+    for (Row row : rows()) {
+      out.println(String.format("%-20s %-18s %10d %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f %10.0f %10.0f %8.1f",
+          row.cacheName, row.result, row.latency.getTotalCount(), micros(row.latency.getMean()),
+          micros(row.latency.getValueAtPercentile(99.0)), micros(row.serialize.getMean()),
+          micros(row.serialize.getValueAtPercentile(99.0)), micros(row.deserialize.getMean()),
+          micros(row.deserialize.getValueAtPercentile(99.0)), row.serializedBytes.getMean(),
+          row.deserializedBytes.getMean(), row.share()));
+    }
+    out.println("Accesses discarded : " + discarded.get());
+  }
+
+  public synchronized void writeHtml(final PrintStream out) {
+    out.println("<html><head><title>Serializer cost</title>");
+    out.println("<style>table { border-collapse: collapse; } td, th { border: 1px solid #ccc; padding: 2px 6px; text-align: right; }</style>");
+    out.println("</head><body>");
+    out.println("<h2>Serializer cost</h2>");
+    out.println("<p>Times in us, sizes in bytes, per access. " + discarded.get() + " accesses discarded.</p>");
+    out.println("<table><tr><th>cache</th><th>result</th><th>count</th><th>latency mean</th><th>latency 99%</th>"
+                + "<th>serialize mean</th><th>serialize 99%</th><th>deserialize mean</th><th>deserialize 99%</th>"
+                + "<th>serialized bytes</th><th>deserialized bytes</th><th>share of latency (%)</th></tr>");
+    for (Row row : rows()) {
+      out.println(String.format("<tr><td>%s</td><td>%s</td><td>%d</td><td>%.1f</td><td>%.1f</td><td>%.1f</td>"
+                                + "<td>%.1f</td><td>%.1f</td><td>%.1f</td><td>%.0f</td><td>%.0f</td><td>%.1f</td></tr>",
+          escape(row.cacheName), row.result, row.latency.getTotalCount(), micros(row.latency.getMean()),
+          micros(row.latency.getValueAtPercentile(99.0)), micros(row.serialize.getMean()),
+          micros(row.serialize.getValueAtPercentile(99.0)), micros(row.deserialize.getMean()),
+          micros(row.deserialize.getValueAtPercentile(99.0)), row.serializedBytes.getMean(),
+          row.deserializedBytes.getMean(), row.share()));
+    }
+    out.println("</table>");
+    out.println("</body></html>");
+  }
+
+  /**
+   * Swaps out the costs recorded since the previous call into the totals, and lists the totals which recorded
+   * accesses, ordered by cache name.
+   */
+  private List<Row> rows() {
+    Map<String, Costs[]> sorted = new TreeMap<String, Costs[]>(caches);
+    List<Row> rows = new ArrayList<Row>();
+    for (Map.Entry<String, Costs[]> entry : sorted.entrySet()) {
+      for (int i = 0; i < RESULTS.length; i++) {
+        Costs costs = entry.getValue()[i];
+        costs.accumulate();
+        if (costs.totals[0].getTotalCount() > 0) {
+          rows.add(new Row(entry.getKey(), RESULTS[i], costs.totals));
+        }
+      }
+    }
+    return rows;
+  }
+
+  private static double micros(final double nanos) {
+    return nanos / 1000.0;
+  }
+
+  private static String escape(final String s) {
+    return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+  }
+
+  @Override
+  public List<String> getDescription() {
+    List<String> desc = new ArrayList<String>();
+    desc.add("Measuring the serializer cost of the accesses");
+    return desc;
+  }
+
+  /**
+   * Recorders of the latency, serialize time, deserialize time, serialized and deserialized sizes, in this order,
+   * and their totals.
+   */
+  private static final class Costs {
+
+    private final Recorder[] recorders = new Recorder[5];
+    private final Histogram[] intervals = new Histogram[5];
+    private final Histogram[] totals = new Histogram[5];
+
+    private Costs() {
+      for (int i = 0; i < recorders.length; i++) {
+        recorders[i] = new Recorder(3);
+        totals[i] = new Histogram(3);
+      }
+    }
+
+    private void record(final long latencyInNs, final SerializationCost cost) {
+      recorders[0].recordValue(latencyInNs);
+      recorders[1].recordValue(cost.serializeTimeInNs);
+      recorders[2].recordValue(cost.deserializeTimeInNs);
+      recorders[3].recordValue(cost.serializedBytes);
+      recorders[4].recordValue(cost.deserializedBytes);
+    }
+
+    private void accumulate() {
+      for (int i = 0; i < recorders.length; i++) {
+        intervals[i] = recorders[i].getIntervalHistogram(intervals[i]);
+        totals[i].add(intervals[i]);
+      }
+    }
+  }
+
+  private static final class Row {
+
+    private final String cacheName;
+    private final EhcacheResult result;
+    private final Histogram latency;
+    private final Histogram serialize;
+    private final Histogram deserialize;
+    private final Histogram serializedBytes;
+    private final Histogram deserializedBytes;
+
+    private Row(final String cacheName, final EhcacheResult result, final Histogram[] totals) {
+      this.cacheName = cacheName;
+      this.result = result;
+      this.latency = totals[0];
+      this.serialize = totals[1];
+      this.deserialize = totals[2];
+      this.serializedBytes = totals[3];
+      this.deserializedBytes = totals[4];
+    }
+
+    /**
+     * @return the share of the mean latency spent serializing and deserializing, in percent
+     */
+    private double share() {
+      double latencyMean = latency.getMean();
+      return latencyMean == 0 ? 0.0 : 100.0 * (serialize.getMean() + deserialize.getMean()) / latencyMean;
+    }
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.statistics;
+
+/**
+ * Average retained heap size of an entry of a cache, in bytes, broken down into the key, the value, the mapping
+ * of the heap store (hash map nodes and table) and the Ehcache overhead (value holders, metadata).
+ * <p>
+ * Instances shared by several keys or values (e.g. pooled values) are counted once in the key and value sizes, the
+ * shared bytes are what counting them once per entry would add.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class EntryFootprint {
+
+  private final String cacheName;
+  private final int sampledEntries;
+  private final double keyBytes;
+  private final double valueBytes;
+  private final double mappingBytes;
+  private final double overheadBytes;
+  private final double sharedBytes;
+
+  public EntryFootprint(final String cacheName, final int sampledEntries, final double keyBytes,
+                        final double valueBytes, final double mappingBytes, final double overheadBytes,
+                        final double sharedBytes) {
+    this.cacheName = cacheName;
+    this.sampledEntries = sampledEntries;
+    this.keyBytes = keyBytes;
+    this.valueBytes = valueBytes;
+    this.mappingBytes = mappingBytes;
+    this.overheadBytes = overheadBytes;
+    this.sharedBytes = sharedBytes;
+  }
+
+  public String getCacheName() {
+    return cacheName;
+  }
+
+  public int getSampledEntries() {
+    return sampledEntries;
+  }
+
+  public double getKeyBytes() {
+    return keyBytes;
+  }
+
+  public double getValueBytes() {
+    return valueBytes;
+  }
+
+  public double getMappingBytes() {
+    return mappingBytes;
+  }
+
+  public double getOverheadBytes() {
+    return overheadBytes;
+  }
+
+  public double getSharedBytes() {
+    return sharedBytes;
+  }
+
+  public double getTotalBytes() {
+    return keyBytes + valueBytes + mappingBytes + overheadBytes;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s : %.1f bytes/entry (key %.1f, value %.1f, mapping %.1f, ehcache %.1f, shared %.1f) over %d sampled entries",
+        cacheName, getTotalBytes(), keyBytes, valueBytes, mappingBytes, overheadBytes, sharedBytes, sampledEntries);
+  }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.statistics;
+
+import io.rainfall.ehcache3.CacheConfig;
+import io.rainfall.ehcache3.CacheSlot;
+import org.ehcache.Cache;
+import org.ehcache.CacheManager;
+import org.ehcache.config.ResourceType;
+import org.ehcache.config.units.EntryUnit;
+import org.openjdk.jol.info.GraphLayout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.ehcache.config.builders.CacheConfigurationBuilder.newCacheConfigurationBuilder;
+import static org.ehcache.config.builders.CacheManagerBuilder.newCacheManagerBuilder;
+import static org.ehcache.config.builders.ResourcePoolsBuilder.newResourcePoolsBuilder;
+
+/**
+ * Measures with JOL the retained heap size per entry of the heap-tier caches of a {@link CacheConfig}, to be
+ * reported next to the throughput once the caches are warmed up.
+ * <p>
+ * Only a sample of the entries is measured, so that it stays fast on caches holding millions of entries : the
+ * keys and values are sized by walking their object graphs, and the mapping and Ehcache overhead are sized by
+ * putting the same key and value instances in an empty heap-only probe cache of the same types, and diffing its
+ * object graph, class by class, with the one of the empty probe and the entries.
+ * Instances shared between entries are counted once, and reported apart as shared bytes.
+ * The entries sampled are the first ones iterated, i.e. in the hash order of the heap store.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class MemoryFootprint<K, V> {
+
+  private static final Logger log = LoggerFactory.getLogger(MemoryFootprint.class);
+
+  private final CacheConfig<K, V> cacheConfig;
+  private int sampleSize = 1000;
+  private final List<EntryFootprint> footprints = new ArrayList<EntryFootprint>();
+
+  public MemoryFootprint(final CacheConfig<K, V> cacheConfig) {
+    this.cacheConfig = cacheConfig;
+  }
+
+  public static <K, V> MemoryFootprint<K, V> memoryFootprint(final CacheConfig<K, V> cacheConfig) {
+    return new MemoryFootprint<K, V>(cacheConfig);
+  }
+
+  /**
+   * @param sampleSize maximum number of entries measured per cache, 1000 by default
+   */
+  public MemoryFootprint<K, V> sampleSize(final int sampleSize) {
+    if (sampleSize <= 0) {
+      throw new IllegalArgumentException("The sample size must be positive");
+    }
+    this.sampleSize = sampleSize;
+    return this;
+  }
+
+  /**
+   * Measures the caches which have a heap tier, the others are skipped.
+   */
+  public List<EntryFootprint> measure() {
+    List<EntryFootprint> measured = new ArrayList<EntryFootprint>();
+    for (CacheSlot<K, V> slot : cacheConfig.bind()) {
+      Cache<K, V> cache = slot.getCache();
+      if (!cache.getRuntimeConfiguration().getResourcePools().getResourceTypeSet().contains(ResourceType.Core.HEAP)) {
+        log.info("Cache {} has no heap tier, its memory footprint is not measured", slot.getName());
+        continue;
+      }
+      EntryFootprint footprint = measure(slot.getName(), cache);
+      if (footprint != null) {
+        measured.add(footprint);
+      }
+    }
+    synchronized (footprints) {
+      footprints.clear();
+      footprints.addAll(measured);
+    }
+    return measured;
+  }
+
+  private EntryFootprint measure(final String cacheName, final Cache<K, V> cache) {
+    Map<K, V> sample = new LinkedHashMap<K, V>();
+    for (Cache.Entry<K, V> entry : cache) {
+      sample.put(entry.getKey(), entry.getValue());
+      if (sample.size() == sampleSize) {
+        break;
+      }
+    }
+    if (sample.isEmpty()) {
+      log.info("Cache {} is empty, its memory footprint is not measured", cacheName);
+      return null;
+    }
+
+    int n = sample.size();
+    Object[] keys = sample.keySet().toArray();
+    Object[] keysAndValues = new Object[2 * n];
+    System.arraycopy(keys, 0, keysAndValues, 0, n);
+    System.arraycopy(sample.values().toArray(), 0, keysAndValues, n, n);
+    long perEntryBytes = 0;
+    for (Object o : keysAndValues) {
+      perEntryBytes += GraphLayout.parseInstance(o).totalSize();
+    }
+    // the arrays are passed as the roots themselves, so that they are not part of the graphs
+    long keyBytes = GraphLayout.parseInstance(keys).totalSize();
+    long entryBytes = GraphLayout.parseInstance(keysAndValues).totalSize();
+
+    CacheManager probeManager = newCacheManagerBuilder().build(true);
+    try {
+      Cache<K, V> probe = probeManager.createCache("memory-footprint-probe", newCacheConfigurationBuilder(
+          cache.getRuntimeConfiguration().getKeyType(), cache.getRuntimeConfiguration().getValueType(),
+          newResourcePoolsBuilder().heap(n, EntryUnit.ENTRIES).build()).build());
+      // the empty probe and the entries in a single graph, so that an instance reachable from both is counted once
+      Object[] roots = new Object[keysAndValues.length + 1];
+      roots[0] = probe;
+      System.arraycopy(keysAndValues, 0, roots, 1, keysAndValues.length);
+      GraphLayout empty = GraphLayout.parseInstance(roots);
+      probe.putAll(sample);
+      GraphLayout filled = GraphLayout.parseInstance(probe);
+
+      long mappingBytes = 0;
+      long overheadBytes = 0;
+      Set<Class<?>> classes = new HashSet<Class<?>>(filled.getClasses());
+      classes.addAll(empty.getClasses());
+      for (Class<?> cl : classes) {
+        long bytes = filled.getClassSizes().count(cl) - empty.getClassSizes().count(cl);
+        if (cl.getName().contains("ConcurrentHashMap")) {
+          mappingBytes += bytes;
+        } else {
+          overheadBytes += bytes;
+        }
+      }
+      if (overheadBytes < 0) {
+        log.warn("Cache {} : the probe cache shrank while being filled, the ehcache overhead is underestimated",
+            cacheName);
+      }
+
+      return new EntryFootprint(cacheName, n, (double)keyBytes / n, (double)(entryBytes - keyBytes) / n,
+          (double)mappingBytes / n, (double)overheadBytes / n, (double)(perEntryBytes - entryBytes) / n);
+    } finally {
+      probeManager.close();
+    }
+  }
+
+  /**
+   * @return the footprints of the last measure
+   */
+  public List<EntryFootprint> getFootprints() {
+    synchronized (footprints) {
+      return new ArrayList<EntryFootprint>(footprints);
+    }
+  }
+
+  /**
+   * Writes the text and html reports of the last measure in the directory.
+   */
+  public void report(final File directory) throws FileNotFoundException {
+    if (!directory.exists() && !directory.mkdirs()) {
+      throw new FileNotFoundException("Can not create directory " + directory);
+    }
+    PrintStream text = new PrintStream(new File(directory, "memory-footprint.txt"));
+    try {
+      writeText(text);
+    } finally {
+      text.close();
+    }
+    PrintStream html = new PrintStream(new File(directory, "memory-footprint.html"));
+    try {
+      writeHtml(html);
+    } finally {
+      html.close();
+    }
+  }
+
+  public void writeText(final PrintStream out) {
+    out.println("Memory footprint per entry (bytes)");
+    out.println(String.format("%-20s %10s %10s %10s %10s %10s %10s %10s", "cache", "sampled", "key", "value", "mapping", "ehcache", "total", "shared"));
+    for (EntryFootprint footprint : getFootprints()) {
+      out.println(String.format("%-20s %10d %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f", footprint.getCacheName(),
+          footprint.getSampledEntries(), footprint.getKeyBytes(), footprint.getValueBytes(),
+          footprint.getMappingBytes(), footprint.getOverheadBytes(), footprint.getTotalBytes(),
+          footprint.getSharedBytes()));
+    }
+  }
+
+  public void writeHtml(final PrintStream out) {
+    out.println("<html><head><title>Memory footprint</title>");
+    out.println("<style>table { border-collapse: collapse; } td, th { border: 1px solid #ccc; padding: 2px 6px; text-align: right; }</style>");
+    out.println("</head><body>");
+    out.println("<h2>Memory footprint per entry (bytes)</h2>");
+    out.println("<table><tr><th>cache</th><th>sampled</th><th>key</th><th>value</th><th>mapping</th><th>ehcache</th><th>total</th><th>shared</th></tr>");
+    for (EntryFootprint footprint : getFootprints()) {
+      out.println(String.format("<tr><td>%s</td><td>%d</td><td>%.1f</td><td>%.1f</td><td>%.1f</td><td>%.1f</td><td>%.1f</td><td>%.1f</td></tr>",
+          footprint.getCacheName().replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;"),
+          footprint.getSampledEntries(), footprint.getKeyBytes(), footprint.getValueBytes(),
+          footprint.getMappingBytes(), footprint.getOverheadBytes(), footprint.getTotalBytes(),
+          footprint.getSharedBytes()));
+    }
+    out.println("</table>");
+    out.println("</body></html>");
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.statistics;
+
+import org.terracotta.context.ContextManager;
+import org.terracotta.context.TreeNode;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Walks the statistics an Ehcache 3 cache and its tiers register in the statistics context tree.
+ *
+ * @author Aurelien Broszniowski
+ */
+final class StatisticsTree {
+
+  interface Visitor {
+
+    /**
+     * @param statistic the statistic object, e.g. an {@link org.terracotta.statistics.OperationStatistic}
+     * @param tier      the tags of the statistic, identifying the tier, empty for the cache itself
+     * @param name      the name of the statistic
+     */
+    void visit(Object statistic, String tier, String name);
+  }
+
+  private StatisticsTree() {
+  }
+
+  static void walk(final Object cache, final Visitor visitor) {
+    TreeNode root = ContextManager.nodeFor(cache);
+    if (root != null) {
+      walk(root, visitor, new IdentityHashMap<Object, Boolean>());
+    }
+  }
+
+  private static void walk(final TreeNode node, final Visitor visitor, final Map<Object, Boolean> visited) {
+    Map<String, Object> attributes = node.getContext().attributes();
+    Object statistic = attributes.get("this");
+    if (statistic != null && visited.put(statistic, Boolean.TRUE) == null) {
+      visitor.visit(statistic, tier(attributes.get("tags")), String.valueOf(attributes.get("name")));
+    }
+    for (TreeNode child : node.getChildren()) {
+      walk(child, visitor, visited);
+    }
+  }
+
+  private static String tier(final Object tags) {
+    StringBuilder sb = new StringBuilder();
+    if (tags instanceof Set) {
+      for (Object tag : new TreeSet<Object>((Set<?>)tags)) {
+        if (sb.length() > 0) {
+          sb.append(',');
+        }
+        sb.append(tag);
+      }
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.statistics;
+
+import org.terracotta.statistics.OperationStatistic;
+import org.terracotta.statistics.observer.ChainedOperationObserver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Attributes each access of a tiered Ehcache 3 cache to the tier that served it.
+ * <p>
+ * An observer is chained to every operation statistic of the tiers. The observers are called on the thread doing
+ * the access, each one appending its tier and outcome to a per-thread list when the thread is tracking an access
+ * ({@link #begin()}). A lower tier operation completes before the upper tier operation it is nested in, so the
+ * first tier completing a get with a hit outcome is the one which served the read, and the first tier completing
+ * a put is the one which stored the write. The first tier completing an expiration is the one where an expired
+ * entry was found and evicted by the read.
+ * <p>
+ * The served tier is returned as the statistics name "cache@tier", so that the accesses are reported with their
+ * own latency histogram and count per tier.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class TierAttribution {
+
+  private static final int MAX_EVENTS = 32;
+
+  private final List<Attachment<?>> attachments = new ArrayList<Attachment<?>>();
+  private final List<String> names = new ArrayList<String>();
+  private final List<Boolean> writes = new ArrayList<Boolean>();
+  private final List<Boolean> expirations = new ArrayList<Boolean>();
+  private final ThreadLocal<Events> events = new ThreadLocal<Events>() {
+    @Override
+    protected Events initialValue() {
+      return new Events();
+    }
+  };
+
+  public TierAttribution(final String cacheName, final Object cache) {
+    StatisticsTree.walk(cache, new StatisticsTree.Visitor() {
+      @Override
+      public void visit(final Object statistic, final String tier, final String name) {
+        if (statistic instanceof OperationStatistic && tier.length() > 0) {
+          attach((OperationStatistic<?>)statistic, cacheName + "@" + tier, "put".equals(name), "expiration".equals(name));
+        }
+      }
+    });
+  }
+
+  private <T extends Enum<T>> void attach(final OperationStatistic<T> statistic, final String name, final boolean write,
+                                           final boolean expiration) {
+    Attachment<T> attachment = new Attachment<T>(statistic, names.size());
+    names.add(name);
+    writes.add(write);
+    expirations.add(expiration);
+    attachments.add(attachment);
+    statistic.addDerivedStatistic(attachment);
+  }
+
+  /**
+   * Starts tracking an access of the calling thread.
+   */
+  public void begin() {
+    Events current = events.get();
+    current.count = 0;
+    current.active = true;
+  }
+
+  /**
+   * Stops tracking the read access of the calling thread.
+   *
+   * @return the name of the tier which served the read, or null if no tier had a hit
+   */
+  public String servedRead() {
+    Events current = events.get();
+    current.active = false;
+    for (int i = 0; i < current.count; i++) {
+      if (current.hits[i]) {
+        return names.get(current.statistics[i]);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Stops tracking the write access of the calling thread.
+   *
+   * @return the name of the tier which stored the write, or null if it is unknown
+   */
+  public String servedWrite() {
+    Events current = events.get();
+    current.active = false;
+    for (int i = 0; i < current.count; i++) {
+      if (writes.get(current.statistics[i])) {
+        return names.get(current.statistics[i]);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Tells where the read access of the calling thread found an expired entry, once it is stopped.
+   *
+   * @return the name of the tier which expired the entry, or null if no tier expired an entry
+   */
+  public String expiredRead() {
+    Events current = events.get();
+    for (int i = 0; i < current.count; i++) {
+      if (expirations.get(current.statistics[i])) {
+        return names.get(current.statistics[i]);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return true if at least one tier statistic could be observed
+   */
+  public boolean isAttached() {
+    return !attachments.isEmpty();
+  }
+
+  public void detach() {
+    for (Attachment<?> attachment : attachments) {
+      attachment.detach();
+    }
+    attachments.clear();
+  }
+
+  private static final class Events {
+    private boolean active;
+    private int count;
+    private final int[] statistics = new int[MAX_EVENTS];
+    private final boolean[] hits = new boolean[MAX_EVENTS];
+  }
+
+  private final class Attachment<T extends Enum<T>> implements ChainedOperationObserver<T> {
+
+    private final OperationStatistic<T> statistic;
+    private final int index;
+
+    private Attachment(final OperationStatistic<T> statistic, final int index) {
+      this.statistic = statistic;
+      this.index = index;
+    }
+
+    @Override
+    public void begin(final long time) {
+    }
+
+    @Override
+    public void end(final long time, final T result) {
+      Events current = events.get();
+      if (current.active && current.count < MAX_EVENTS) {
+        current.statistics[current.count] = index;
+        current.hits[current.count] = result.name().startsWith("HIT");
+        current.count++;
+      }
+    }
+
+    @Override
+    public void end(final long time, final T result, final long... parameters) {
+      end(time, result);
+    }
+
+    private void detach() {
+      statistic.removeDerivedStatistic(this);
+    }
+  }
+}
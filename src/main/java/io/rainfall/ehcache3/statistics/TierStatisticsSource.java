@@ -0,0 +1,104 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.statistics;
+
+import io.rainfall.ehcache.statistics.CacheStatisticsSample;
+import io.rainfall.ehcache.statistics.CacheStatisticsSource;
+import io.rainfall.ehcache3.CacheConfig;
+import io.rainfall.ehcache3.CacheSlot;
+import org.ehcache.Cache;
+import org.terracotta.statistics.OperationStatistic;
+import org.terracotta.statistics.ValueStatistic;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Samples the statistics an Ehcache 3 cache and its tiers register in the statistics context tree : outcome
+ * counts of the operation statistics (e.g. "OnHeap:get.hit", "Disk:eviction.success") and values of the value
+ * statistics (e.g. "OffHeap:occupiedMemory"), the tier being given by the tags of the statistic.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class TierStatisticsSource implements CacheStatisticsSource {
+
+  private final String cacheName;
+  private final Cache<?, ?> cache;
+
+  public TierStatisticsSource(final String cacheName, final Cache<?, ?> cache) {
+    this.cacheName = cacheName;
+    this.cache = cache;
+  }
+
+  public static <K, V> List<TierStatisticsSource> tierStatistics(final CacheConfig<K, V> cacheConfig) {
+    List<TierStatisticsSource> sources = new ArrayList<TierStatisticsSource>();
+    for (CacheSlot<K, V> slot : cacheConfig.bind()) {
+      sources.add(new TierStatisticsSource(slot.getName(), slot.getCache()));
+    }
+    return sources;
+  }
+
+  /**
+   * @return the number of mappings held by the cache, i.e. the largest "mappings" value statistic of its tiers
+   * (the authority tier holds them all), or -1 if none of its tiers exposes that statistic
+   */
+  public static long mappingCount(final Cache<?, ?> cache) {
+    final long[] count = { -1L };
+    StatisticsTree.walk(cache, new StatisticsTree.Visitor() {
+      @Override
+      public void visit(final Object statistic, final String tier, final String name) {
+        if ("mappings".equals(name) && statistic instanceof ValueStatistic) {
+          Object value = ((ValueStatistic<?>)statistic).value();
+          if (value instanceof Number) {
+            count[0] = Math.max(count[0], ((Number)value).longValue());
+          }
+        }
+      }
+    });
+    return count[0];
+  }
+
+  @Override
+  public String getCacheName() {
+    return cacheName;
+  }
+
+  @Override
+  public void sample(final CacheStatisticsSample sample) {
+    StatisticsTree.walk(cache, new StatisticsTree.Visitor() {
+      @Override
+      public void visit(final Object statistic, final String tier, final String name) {
+        String fullName = tier.length() == 0 ? name : tier + ":" + name;
+        if (statistic instanceof OperationStatistic) {
+          collectOutcomes((OperationStatistic<?>)statistic, fullName, sample);
+        } else if (statistic instanceof ValueStatistic) {
+          Object value = ((ValueStatistic<?>)statistic).value();
+          if (value instanceof Number) {
+            sample.gauge(fullName, ((Number)value).longValue());
+          }
+        }
+      }
+    });
+  }
+
+  private static <T extends Enum<T>> void collectOutcomes(final OperationStatistic<T> statistic, final String name,
+                                                         final CacheStatisticsSample sample) {
+    for (T outcome : statistic.type().getEnumConstants()) {
+      sample.counter(name + "." + outcome.name().toLowerCase(), statistic.count(outcome));
+    }
+  }
+}
@@ -23,10 +23,22 @@ import io.rainfall.ScenarioRun;
 import io.rainfall.SyntaxException;
 import io.rainfall.configuration.ConcurrencyConfig;
 import io.rainfall.configuration.ReportingConfig;
+import io.rainfall.ehcache.expiry.Expiration;
+import io.rainfall.ehcache.expiry.ExpiryDuration;
+import io.rainfall.ehcache.execution.ArrivalRate;
+import io.rainfall.ehcache.statistics.CacheStatisticsSampler;
+import io.rainfall.ehcache.statistics.CorrectedLatencies;
 import io.rainfall.ehcache.statistics.EhcacheResult;
+import io.rainfall.ehcache.statistics.ScanMonitor;
 import io.rainfall.ehcache3.CacheConfig;
 import io.rainfall.ehcache3.CacheDefinition;
+import io.rainfall.ehcache3.execution.UntilCacheFull;
+import io.rainfall.ehcache3.loaderwriter.SimulatedStore;
+import io.rainfall.ehcache3.loaderwriter.StoreLatency;
+import io.rainfall.ehcache3.loaderwriter.WriteBehindMonitor;
+import io.rainfall.ehcache3.serialization.SerializerMonitor;
 import io.rainfall.ehcache3.operation.PutVerifiedOperation;
+import io.rainfall.ehcache3.statistics.MemoryFootprint;
 import io.rainfall.generator.ByteArrayGenerator;
 import io.rainfall.generator.LongGenerator;
 import io.rainfall.generator.StringGenerator;
@@ -39,32 +51,61 @@ import org.ehcache.Cache;
 import org.ehcache.CacheManager;
 import org.ehcache.config.builders.CacheConfigurationBuilder;
 import org.ehcache.config.builders.CacheManagerBuilder;
+import org.ehcache.config.builders.WriteBehindConfigurationBuilder;
 import org.ehcache.config.units.EntryUnit;
 import org.ehcache.config.units.MemoryUnit;
 import org.ehcache.impl.config.persistence.CacheManagerPersistenceConfiguration;
+import org.ehcache.impl.serialization.ByteArraySerializer;
+import org.ehcache.impl.serialization.PlainJavaSerializer;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
-import org.openjdk.jol.info.GraphLayout;
 
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.util.concurrent.TimeUnit;
 
 import static io.rainfall.Scenario.weighted;
+import static io.rainfall.ehcache.execution.ArrivalRate.arrivalRate;
+import static io.rainfall.ehcache.statistics.CacheStatisticsSampler.cacheStatistics;
+import static io.rainfall.ehcache.statistics.CorrectedLatencies.correctedLatencies;
 import static io.rainfall.configuration.ReportingConfig.gcStatistics;
 import static io.rainfall.configuration.ReportingConfig.html;
 import static io.rainfall.configuration.ReportingConfig.report;
 import static io.rainfall.configuration.ReportingConfig.text;
+import static io.rainfall.ehcache.expiry.Expiration.expiration;
+import static io.rainfall.ehcache.statistics.EhcacheResult.EXPIRED;
 import static io.rainfall.ehcache.statistics.EhcacheResult.GET;
+import static io.rainfall.ehcache.statistics.EhcacheResult.GETALL;
+import static io.rainfall.ehcache.statistics.EhcacheResult.GETALL_ENTRY;
 import static io.rainfall.ehcache.statistics.EhcacheResult.MISS;
 import static io.rainfall.ehcache.statistics.EhcacheResult.PUT;
+import static io.rainfall.ehcache.statistics.EhcacheResult.PUTALL;
+import static io.rainfall.ehcache.statistics.EhcacheResult.PUTALL_ENTRY;
+import static io.rainfall.ehcache.statistics.EhcacheResult.SCAN;
+import static io.rainfall.ehcache.statistics.EhcacheResult.SCAN_ENTRY;
+import static io.rainfall.ehcache.statistics.ScanMonitor.scanMonitor;
 import static io.rainfall.ehcache3.Ehcache3Operations.putIfAbsent;
 import static io.rainfall.ehcache3.CacheConfig.cacheConfig;
 import static io.rainfall.ehcache3.CacheDefinition.cache;
+import static io.rainfall.ehcache3.execution.BulkPreload.preload;
+import static io.rainfall.ehcache3.expiry.DistributedExpiry.distributedExpiry;
+import static io.rainfall.ehcache3.loaderwriter.SimulatedStore.simulatedStore;
+import static io.rainfall.ehcache3.loaderwriter.WriteBehindMonitor.writeBehind;
+import static io.rainfall.ehcache3.serialization.MeasuredSerializer.measured;
+import static io.rainfall.ehcache3.serialization.SerializerMonitor.serializerMonitor;
+import static io.rainfall.ehcache.verification.VerifiedValueGenerator.verifiedValues;
+import static io.rainfall.ehcache3.statistics.MemoryFootprint.memoryFootprint;
+import static io.rainfall.ehcache3.statistics.TierStatisticsSource.tierStatistics;
 import static io.rainfall.ehcache3.Ehcache3Operations.get;
+import static io.rainfall.ehcache3.Ehcache3Operations.getAll;
 import static io.rainfall.ehcache3.Ehcache3Operations.put;
+import static io.rainfall.ehcache3.Ehcache3Operations.putAll;
+import static io.rainfall.ehcache3.Ehcache3Operations.readThrough;
 import static io.rainfall.ehcache3.Ehcache3Operations.remove;
 import static io.rainfall.ehcache3.Ehcache3Operations.removeForKeyAndValue;
+import static io.rainfall.ehcache3.Ehcache3Operations.scan;
+import static io.rainfall.ehcache3.Ehcache3Operations.writeThrough;
 import static io.rainfall.execution.Executions.during;
 import static io.rainfall.execution.Executions.once;
 import static io.rainfall.execution.Executions.times;
@@ -74,7 +115,9 @@ import static io.rainfall.generator.sequence.Distribution.GAUSSIAN;
 import static io.rainfall.unit.Instance.instances;
 import static io.rainfall.unit.TimeDivision.minutes;
 import static io.rainfall.unit.TimeDivision.seconds;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.ehcache.config.builders.CacheManagerBuilder.newCacheManagerBuilder;
 import static org.ehcache.config.builders.ResourcePoolsBuilder.newResourcePoolsBuilder;
 
@@ -375,8 +418,9 @@ public class PerfTest3 {
         .config(cacheConfig);
     run.start();
 
-    GraphLayout graphLayout = GraphLayout.parseInstance(run);
-    System.out.println(graphLayout.totalSize());
+    MemoryFootprint<Long, byte[]> memoryFootprint = memoryFootprint(cacheConfig).sampleSize(10000);
+    memoryFootprint.measure();
+    memoryFootprint.writeText(System.out);
     System.out.println("----------> Done");
 
     cacheManager.close();
@@ -424,6 +468,354 @@ public class PerfTest3 {
     cacheManager.close();
   }
 
+  @Test
+  @Ignore
+  public void testBulk() throws SyntaxException {
+    int nbElements = 250000;
+    CacheConfigurationBuilder<Long, byte[]> builder = CacheConfigurationBuilder.newCacheConfigurationBuilder(Long.class, byte[].class,
+        newResourcePoolsBuilder().heap(nbElements, EntryUnit.ENTRIES).build());
+
+    final CacheManager cacheManager = newCacheManagerBuilder()
+        .withCache("one", builder.build())
+        .build(true);
+
+    final Cache<Long, byte[]> one = cacheManager.getCache("one", Long.class, byte[].class);
+
+    ConcurrencyConfig concurrency = ConcurrencyConfig.concurrencyConfig()
+        .threads(4).timeout(50, MINUTES);
+
+    ObjectGenerator<Long> keyGenerator = new LongGenerator();
+    ObjectGenerator<byte[]> valueGenerator = ByteArrayGenerator.fixedLength(1000);
+
+    EhcacheResult[] resultsReported = new EhcacheResult[] { PUTALL, PUTALL_ENTRY, GETALL, GETALL_ENTRY, MISS };
+
+    Runner.setUp(
+        Scenario.scenario("Test phase").exec(
+            weighted(0.10, putAll(Long.class, byte[].class).using(keyGenerator, valueGenerator)
+                .atRandom(GAUSSIAN, 0, nbElements, nbElements / 10)),
+            weighted(0.90, getAll(Long.class, byte[].class).using(keyGenerator, valueGenerator)
+                .atRandom(GAUSSIAN, 0, nbElements, nbElements / 10))
+        ))
+        .executed(during(1, minutes))
+        .config(concurrency, ReportingConfig.report(EhcacheResult.class, resultsReported).log(text()))
+        .config(cacheConfig(Long.class, byte[].class).cache("one", one).bulkBatchSize(50))
+        .start();
+
+    cacheManager.close();
+  }
+
+  @Test
+  @Ignore
+  public void testUntilCacheFull() throws SyntaxException {
+    int nbElements = 250000;
+    CacheConfigurationBuilder<Long, byte[]> builder = CacheConfigurationBuilder.newCacheConfigurationBuilder(Long.class, byte[].class,
+        newResourcePoolsBuilder().heap(nbElements, EntryUnit.ENTRIES).build());
+
+    final CacheManager cacheManager = newCacheManagerBuilder()
+        .withCache("one", builder.build())
+        .build(true);
+
+    final Cache<Long, byte[]> one = cacheManager.getCache("one", Long.class, byte[].class);
+
+    ConcurrencyConfig concurrency = ConcurrencyConfig.concurrencyConfig()
+        .threads(4).timeout(50, MINUTES);
+
+    ObjectGenerator<Long> keyGenerator = new LongGenerator();
+    ObjectGenerator<byte[]> valueGenerator = ByteArrayGenerator.fixedLength(1000);
+
+    Runner.setUp(
+        Scenario.scenario("Fill phase").exec(
+            put(keyGenerator, valueGenerator, sequentially(), cache("one", one))
+        ))
+        .executed(new UntilCacheFull())
+        .config(concurrency, ReportingConfig.report(EhcacheResult.class, new EhcacheResult[] { PUT }).log(text()))
+        .config(cacheConfig(Long.class, byte[].class).cache("one", one))
+        .start();
+
+    cacheManager.close();
+  }
+
+  @Test
+  @Ignore
+  public void testPreload() throws SyntaxException {
+    int nbElements = 2000000;
+    CacheConfigurationBuilder<Long, byte[]> builder = CacheConfigurationBuilder.newCacheConfigurationBuilder(Long.class, byte[].class,
+        newResourcePoolsBuilder().heap(nbElements, EntryUnit.ENTRIES).build());
+
+    final CacheManager cacheManager = newCacheManagerBuilder()
+        .withCache("one", builder.build())
+        .build(true);
+
+    final Cache<Long, byte[]> one = cacheManager.getCache("one", Long.class, byte[].class);
+
+    ConcurrencyConfig concurrency = ConcurrencyConfig.concurrencyConfig()
+        .threads(8).timeout(50, MINUTES);
+
+    ObjectGenerator<Long> keyGenerator = new LongGenerator();
+    ObjectGenerator<byte[]> valueGenerator = ByteArrayGenerator.fixedLength(1000);
+
+    Runner.setUp(
+        Scenario.scenario("Preload phase").exec(
+            putAll(Long.class, byte[].class).using(keyGenerator, valueGenerator).sequentially()
+        ))
+        .executed(preload(keyGenerator, valueGenerator, 0, nbElements).batchSize(1000))
+        .config(concurrency, ReportingConfig.report(EhcacheResult.class, new EhcacheResult[] { PUTALL }).log(text()))
+        .config(cacheConfig(Long.class, byte[].class).cache("one", one))
+        .start();
+
+    cacheManager.close();
+  }
+
+  @Test
+  @Ignore
+  public void testReadWriteThrough() throws SyntaxException {
+    int nbElements = 100000;
+    SimulatedStore<Long, byte[]> store = simulatedStore(ByteArrayGenerator.fixedLength(1000))
+        .latency(StoreLatency.exponential(2, MILLISECONDS))
+        .failureRate(0.001)
+        .concurrency(16);
+    CacheConfigurationBuilder<Long, byte[]> builder = CacheConfigurationBuilder.newCacheConfigurationBuilder(Long.class, byte[].class,
+        newResourcePoolsBuilder().heap(nbElements / 10, EntryUnit.ENTRIES).build())
+        .withLoaderWriter(store);
+
+    final CacheManager cacheManager = newCacheManagerBuilder()
+        .withCache("one", builder.build())
+        .build(true);
+
+    final Cache<Long, byte[]> one = cacheManager.getCache("one", Long.class, byte[].class);
+
+    ConcurrencyConfig concurrency = ConcurrencyConfig.concurrencyConfig()
+        .threads(32).timeout(50, MINUTES);
+
+    ObjectGenerator<Long> keyGenerator = new LongGenerator();
+    ObjectGenerator<byte[]> valueGenerator = ByteArrayGenerator.fixedLength(1000);
+
+    Runner.setUp(
+        Scenario.scenario("Read/write through").exec(
+            weighted(0.90, readThrough(Long.class, byte[].class).using(keyGenerator, valueGenerator)
+                .atRandom(GAUSSIAN, 0, nbElements, nbElements / 10)),
+            weighted(0.10, writeThrough(Long.class, byte[].class).using(keyGenerator, valueGenerator)
+                .atRandom(GAUSSIAN, 0, nbElements, nbElements / 10))
+        ))
+        .executed(during(1, minutes))
+        .config(concurrency, ReportingConfig.report(EhcacheResult.class, new EhcacheResult[] { GET, MISS, PUT }).log(text()))
+        .config(cacheConfig(Long.class, byte[].class).cache("one", one))
+        .start();
+
+    System.out.println(store.getDescription() + " : " + store.getLoads() + " loads, " + store.getWrites() + " writes, "
+                       + store.getFailures() + " failures, " + store.getWaitTimeInNs() / 1000000 + "ms waiting");
+    cacheManager.close();
+  }
+
+  @Test
+  @Ignore
+  public void testWriteBehind() throws SyntaxException, FileNotFoundException {
+    int nbElements = 100000;
+    SimulatedStore<Long, byte[]> store = simulatedStore(null);
+    store.latency(StoreLatency.uniform(1, 5, MILLISECONDS)).concurrency(4);
+    CacheConfigurationBuilder<Long, byte[]> builder = CacheConfigurationBuilder.newCacheConfigurationBuilder(Long.class, byte[].class,
+        newResourcePoolsBuilder().heap(nbElements, EntryUnit.ENTRIES).build())
+        .withLoaderWriter(store)
+        .add(WriteBehindConfigurationBuilder.newBatchedWriteBehindConfiguration(1, SECONDS, 100)
+            .queueSize(10000).concurrencyLevel(2).enableCoalescing());
+
+    final CacheManager cacheManager = newCacheManagerBuilder()
+        .withCache("one", builder.build())
+        .build(true);
+
+    final Cache<Long, byte[]> one = cacheManager.getCache("one", Long.class, byte[].class);
+
+    ConcurrencyConfig concurrency = ConcurrencyConfig.concurrencyConfig()
+        .threads(4).timeout(50, MINUTES);
+
+    ObjectGenerator<Long> keyGenerator = new LongGenerator();
+    ObjectGenerator<byte[]> valueGenerator = verifiedValues(1000);
+
+    WriteBehindMonitor writeBehind = writeBehind().cache("one", store);
+    CacheStatisticsSampler sampler = cacheStatistics(writeBehind.statisticsSources(), 1, SECONDS).start();
+    Runner.setUp(
+        Scenario.scenario("Write behind").exec(
+            put(keyGenerator, valueGenerator, atRandom(GAUSSIAN, 0, nbElements, nbElements / 10), cache("one", one))
+        ))
+        .executed(during(1, minutes))
+        .config(concurrency, ReportingConfig.report(EhcacheResult.class, new EhcacheResult[] { PUT }).log(text(), html("test-write-behind")))
+        .config(cacheConfig(Long.class, byte[].class).cache("one", one), writeBehind)
+        .start();
+
+    cacheManager.close();
+    sampler.stop();
+    sampler.report(new File("test-write-behind"));
+    writeBehind.writeSummary(System.out);
+  }
+
+  @Test
+  @Ignore
+  public void testExpiry() throws SyntaxException {
+    int nbElements = 100000;
+    Expiration expiration = expiration(nbElements).timeToLive(ExpiryDuration.exponential(10, SECONDS));
+    CacheConfigurationBuilder<Long, byte[]> builder = CacheConfigurationBuilder.newCacheConfigurationBuilder(Long.class, byte[].class,
+        newResourcePoolsBuilder()
+            .heap(nbElements / 10, EntryUnit.ENTRIES)
+            .offheap(100, MemoryUnit.MB)
+            .disk(1, MemoryUnit.GB)
+            .build())
+        .withExpiry(distributedExpiry(expiration));
+
+    final CacheManager cacheManager = newCacheManagerBuilder()
+        .with(new CacheManagerPersistenceConfiguration(new File("/data/PerfTest3")))
+        .withCache("one", builder.build())
+        .build(true);
+
+    final Cache<Long, byte[]> one = cacheManager.getCache("one", Long.class, byte[].class);
+
+    ConcurrencyConfig concurrency = ConcurrencyConfig.concurrencyConfig()
+        .threads(4).timeout(50, MINUTES);
+
+    ObjectGenerator<Long> keyGenerator = new LongGenerator();
+    ObjectGenerator<byte[]> valueGenerator = ByteArrayGenerator.fixedLength(1000);
+
+    Runner.setUp(
+        Scenario.scenario("Expiry").exec(
+            weighted(0.20, put(keyGenerator, valueGenerator, atRandom(GAUSSIAN, 0, nbElements, nbElements / 10), cache("one", one))),
+            weighted(0.80, get(Long.class, byte[].class).using(keyGenerator, valueGenerator)
+                .atRandom(GAUSSIAN, 0, nbElements, nbElements / 10))
+        ))
+        .executed(during(1, minutes))
+        .config(concurrency, ReportingConfig.report(EhcacheResult.class, new EhcacheResult[] { GET, MISS, EXPIRED, PUT })
+            .log(text(), html("test-expiry")))
+        .config(cacheConfig(Long.class, byte[].class).cache("one", one).tierAttribution(), expiration)
+        .start();
+
+    cacheManager.close();
+    expiration.writeText(System.out);
+  }
+
+  @Test
+  @Ignore
+  public void testSerializerCost() throws SyntaxException, FileNotFoundException {
+    int nbElements = 100000;
+    CacheConfigurationBuilder<Long, byte[]> javaBuilder = CacheConfigurationBuilder.newCacheConfigurationBuilder(Long.class, byte[].class,
+        newResourcePoolsBuilder().heap(1000, EntryUnit.ENTRIES).offheap(200, MemoryUnit.MB).build())
+        .withValueSerializer(measured(new PlainJavaSerializer<byte[]>(getClass().getClassLoader())));
+    CacheConfigurationBuilder<Long, byte[]> bytesBuilder = CacheConfigurationBuilder.newCacheConfigurationBuilder(Long.class, byte[].class,
+        newResourcePoolsBuilder().heap(1000, EntryUnit.ENTRIES).offheap(200, MemoryUnit.MB).build())
+        .withValueSerializer(measured(new ByteArraySerializer()));
+
+    final CacheManager cacheManager = newCacheManagerBuilder()
+        .withCache("java", javaBuilder.build())
+        .withCache("bytes", bytesBuilder.build())
+        .build(true);
+
+    final Cache<Long, byte[]> java = cacheManager.getCache("java", Long.class, byte[].class);
+    final Cache<Long, byte[]> bytes = cacheManager.getCache("bytes", Long.class, byte[].class);
+
+    ConcurrencyConfig concurrency = ConcurrencyConfig.concurrencyConfig()
+        .threads(4).timeout(50, MINUTES);
+
+    ObjectGenerator<Long> keyGenerator = new LongGenerator();
+    ObjectGenerator<byte[]> valueGenerator = ByteArrayGenerator.fixedLength(1000);
+
+    SerializerMonitor serializerMonitor = serializerMonitor();
+    Runner.setUp(
+        Scenario.scenario("Serializer cost").exec(
+            weighted(0.20, put(keyGenerator, valueGenerator, atRandom(GAUSSIAN, 0, nbElements, nbElements / 10),
+                cache("java", java), cache("bytes", bytes))),
+            weighted(0.80, get(Long.class, byte[].class).using(keyGenerator, valueGenerator)
+                .atRandom(GAUSSIAN, 0, nbElements, nbElements / 10))
+        ))
+        .executed(during(1, minutes))
+        .config(concurrency, ReportingConfig.report(EhcacheResult.class, new EhcacheResult[] { GET, MISS, PUT })
+            .log(text(), html("test-serializer")))
+        .config(cacheConfig(Long.class, byte[].class).cache("java", java).cache("bytes", bytes), serializerMonitor)
+        .start();
+
+    cacheManager.close();
+    serializerMonitor.report(new File("test-serializer"));
+    serializerMonitor.writeText(System.out);
+  }
+
+  @Test
+  @Ignore
+  public void testScan() throws SyntaxException {
+    int nbElements = 250000;
+    CacheConfigurationBuilder<Long, byte[]> builder = CacheConfigurationBuilder.newCacheConfigurationBuilder(Long.class, byte[].class,
+        newResourcePoolsBuilder().heap(nbElements, EntryUnit.ENTRIES).build());
+
+    final CacheManager cacheManager = newCacheManagerBuilder()
+        .withCache("one", builder.build())
+        .build(true);
+
+    final Cache<Long, byte[]> one = cacheManager.getCache("one", Long.class, byte[].class);
+
+    ConcurrencyConfig concurrency = ConcurrencyConfig.concurrencyConfig()
+        .threads(8).timeout(50, MINUTES);
+
+    ObjectGenerator<Long> keyGenerator = new LongGenerator();
+    ObjectGenerator<byte[]> valueGenerator = ByteArrayGenerator.fixedLength(1000);
+
+    Runner.setUp(
+        Scenario.scenario("Cache warm up phase")
+            .exec(put(keyGenerator, valueGenerator, sequentially(), cache("one", one))))
+        .executed(times(nbElements))
+        .config(concurrency)
+        .config(report(EhcacheResult.class, new EhcacheResult[] { PUT }).log(text()))
+        .start();
+
+    ScanMonitor scanMonitor = scanMonitor();
+    Runner.setUp(
+        Scenario.scenario("Scan").exec(
+            weighted(0.00001, scan(Long.class, byte[].class).limit(nbElements / 2)),
+            weighted(0.89999, get(Long.class, byte[].class).using(keyGenerator, valueGenerator)
+                .atRandom(GAUSSIAN, 0, nbElements, nbElements / 10)),
+            weighted(0.10, put(keyGenerator, valueGenerator, atRandom(GAUSSIAN, 0, nbElements, nbElements / 10), cache("one", one)))
+        ))
+        .executed(during(1, minutes))
+        .config(concurrency, ReportingConfig.report(EhcacheResult.class, new EhcacheResult[] { GET, MISS, PUT, SCAN, SCAN_ENTRY })
+            .log(text()))
+        .config(cacheConfig(Long.class, byte[].class).cache("one", one), scanMonitor)
+        .start();
+
+    cacheManager.close();
+    scanMonitor.writeText(System.out);
+  }
+
+  @Test
+  @Ignore
+  public void testArrivalRate() throws SyntaxException, FileNotFoundException {
+    int nbElements = 250000;
+    CacheConfigurationBuilder<Long, byte[]> builder = CacheConfigurationBuilder.newCacheConfigurationBuilder(Long.class, byte[].class,
+        newResourcePoolsBuilder().heap(nbElements, EntryUnit.ENTRIES).build());
+
+    final CacheManager cacheManager = newCacheManagerBuilder()
+        .withCache("one", builder.build())
+        .build(true);
+
+    final Cache<Long, byte[]> one = cacheManager.getCache("one", Long.class, byte[].class);
+
+    ConcurrencyConfig concurrency = ConcurrencyConfig.concurrencyConfig()
+        .threads(4).timeout(50, MINUTES);
+
+    ObjectGenerator<Long> keyGenerator = new LongGenerator();
+    ObjectGenerator<byte[]> valueGenerator = ByteArrayGenerator.fixedLength(1000);
+
+    ArrivalRate arrivalRate = arrivalRate(100000, 60, SECONDS);
+    CorrectedLatencies correctedLatencies = correctedLatencies();
+    Runner.setUp(
+        Scenario.scenario("Test phase").exec(
+            weighted(0.10, put(keyGenerator, valueGenerator, atRandom(GAUSSIAN, 0, nbElements, nbElements / 10), cache("one", one))),
+            weighted(0.90, get(Long.class, byte[].class).using(keyGenerator, valueGenerator)
+                .atRandom(GAUSSIAN, 0, nbElements, nbElements / 10))
+        ))
+        .executed(arrivalRate)
+        .config(concurrency, ReportingConfig.report(EhcacheResult.class).log(text()))
+        .config(cacheConfig(Long.class, byte[].class).cache("one", one), correctedLatencies)
+        .start();
+
+    cacheManager.close();
+    arrivalRate.report(new File("test-arrival-rate"));
+    correctedLatencies.report(new File("test-arrival-rate"));
+  }
+
   @Test
   @Ignore
   public void testMemory() throws SyntaxException {
@@ -522,7 +914,7 @@ public class PerfTest3 {
           .config(report(EhcacheResult.class, new EhcacheResult[] { PUT, GET, MISS })
               .log(text(), html("test-tier")))
           .config(cacheConfig(String.class, byte[].class)
-              .cache("one", one)
+              .cache("one", one).tierAttribution()
           )
           .start();
       System.out.println("----------> Done");
@@ -677,6 +1069,9 @@ public class PerfTest3 {
         .build(true);
 
     Cache one = cacheManager.getCache("one", String.class, byte[].class);
+    CacheConfig<String, byte[]> cacheConfig = cacheConfig(String.class, byte[].class)
+        .cache("one", one);
+    CacheStatisticsSampler cacheStatistics = cacheStatistics(tierStatistics(cacheConfig), 1, SECONDS).start();
     try {
       Runner.setUp(
           Scenario.scenario("Test reporters")
@@ -687,16 +1082,18 @@ public class PerfTest3 {
           .config(concurrency)
           .config(report(EhcacheResult.class, new EhcacheResult[] { PUT })
               .collect(gcStatistics()).log(html()))
-          .config(cacheConfig(String.class, byte[].class)
-              .cache("one", one)
-          )
+          .config(cacheConfig)
           .start()
       ;
 
-
+      cacheStatistics.stop();
+      cacheStatistics.report(new File("target/rainfall-cache-statistics"));
     } catch (SyntaxException e) {
       e.printStackTrace();
+    } catch (FileNotFoundException e) {
+      e.printStackTrace();
     } finally {
+      cacheStatistics.stop();
       cacheManager.close();
     }
   }
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.generator.sequence;
+
+import org.junit.Test;
+
+import static io.rainfall.ehcache.generator.sequence.ZipfianSequenceGenerator.zeta;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class ZipfianSequenceGeneratorTest {
+
+  private static final int DRAWS = 200000;
+
+  @Test
+  public void testRangeAndRankFrequencies() {
+    long min = 100;
+    int items = 1000;
+    double theta = 0.99;
+    ZipfianSequenceGenerator generator = new ZipfianSequenceGenerator(min, min + items - 1, theta);
+    int[] counts = new int[items];
+    for (int i = 0; i < DRAWS; i++) {
+      long next = generator.next();
+      assertTrue(next >= min && next < min + items);
+      counts[(int)(next - min)]++;
+    }
+    double zetan = zeta(items, theta);
+    assertEquals(1 / zetan, (double)counts[0] / DRAWS, 0.01);
+    assertEquals(1 / Math.pow(2, theta) / zetan, (double)counts[1] / DRAWS, 0.01);
+    assertTrue(counts[0] > counts[1] && counts[1] > counts[9] && counts[9] > counts[items - 1]);
+  }
+
+  @Test
+  public void testSingleItem() {
+    ZipfianSequenceGenerator generator = new ZipfianSequenceGenerator(7, 7, 0.5);
+    for (int i = 0; i < 100; i++) {
+      assertEquals(7, generator.next());
+    }
+  }
+
+  @Test
+  public void testScrambledKeepsThePopularityButNotTheOrder() {
+    long min = -50;
+    int items = 1000;
+    ScrambledZipfianSequenceGenerator generator = new ScrambledZipfianSequenceGenerator(min, min + items - 1, 0.99);
+    int[] counts = new int[items];
+    for (int i = 0; i < DRAWS; i++) {
+      long next = generator.next();
+      assertTrue(next >= min && next < min + items);
+      counts[(int)(next - min)]++;
+    }
+    long hash = ScrambledZipfianSequenceGenerator.fnvHash64(0) % items;
+    int mostPopular = (int)(hash < 0 ? hash + items : hash);
+    for (int i = 0; i < items; i++) {
+      assertTrue(counts[mostPopular] >= counts[i]);
+    }
+    assertEquals(1 / zeta(items, 0.99), (double)counts[mostPopular] / DRAWS, 0.01);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidTheta() {
+    new ZipfianSequenceGenerator(0, 10, 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidRange() {
+    new ZipfianSequenceGenerator(10, 0, 0.5);
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.rainfall.ehcache.operation;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class TokenBucketTest {
+
+  @Test
+  public void testHighRateIsNotExceeded() {
+    long rate = 3000000;
+    int tokens = 600000;
+    TokenBucket bucket = new TokenBucket("test", rate, 1);
+    long start = System.nanoTime();
+    for (int i = 0; i < tokens; i++) {
+      bucket.acquire();
+    }
+    long elapsed = System.nanoTime() - start;
+    // the first token is free, the next ones are one exact interval apart
+    double minimum = (tokens - 2) * (double)TimeUnit.SECONDS.toNanos(1) / rate;
+    assertTrue(elapsed + " ns for " + tokens + " tokens", elapsed >= minimum);
+  }
+
+  @Test
+  public void testBurstIsHandedOutWithoutWaiting() throws InterruptedException {
+    TokenBucket bucket = new TokenBucket("test", 10, 5);
+    Thread.sleep(600);
+    long start = System.nanoTime();
+    for (int i = 0; i < 5; i++) {
+      bucket.acquire();
+    }
+    assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(50));
+  }
+}
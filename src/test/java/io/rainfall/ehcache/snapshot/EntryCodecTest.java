@@ -0,0 +1,88 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.snapshot;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Date;
+
+import static io.rainfall.ehcache.snapshot.EntryCodec.BYTES;
+import static io.rainfall.ehcache.snapshot.EntryCodec.HEADER_SIZE;
+import static io.rainfall.ehcache.snapshot.EntryCodec.INTEGER;
+import static io.rainfall.ehcache.snapshot.EntryCodec.LONG;
+import static io.rainfall.ehcache.snapshot.EntryCodec.NULL;
+import static io.rainfall.ehcache.snapshot.EntryCodec.SERIALIZED;
+import static io.rainfall.ehcache.snapshot.EntryCodec.STRING;
+import static io.rainfall.ehcache.snapshot.EntryCodec.bytes;
+import static io.rainfall.ehcache.snapshot.EntryCodec.read;
+import static io.rainfall.ehcache.snapshot.EntryCodec.tag;
+import static io.rainfall.ehcache.snapshot.EntryCodec.write;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class EntryCodecTest {
+
+  @Test
+  public void testTags() {
+    assertEquals(NULL, tag(null));
+    assertEquals(BYTES, tag(new byte[1]));
+    assertEquals(STRING, tag("key"));
+    assertEquals(LONG, tag(1L));
+    assertEquals(INTEGER, tag(1));
+    assertEquals(SERIALIZED, tag(new Date()));
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    byte[] bytes = { 0, 1, -1, 127, -128 };
+    Date date = new Date(123456789L);
+    Object[] entries = { null, bytes, new byte[0], "", "clé", Long.MIN_VALUE, -1L, Integer.MAX_VALUE, date };
+
+    ByteBuffer buffer = ByteBuffer.allocate(4096);
+    for (Object entry : entries) {
+      byte tag = tag(entry);
+      byte[] encoded = bytes(tag, entry);
+      int position = buffer.position();
+      write(buffer, tag, encoded);
+      assertEquals(HEADER_SIZE + encoded.length, buffer.position() - position);
+    }
+    buffer.flip();
+
+    assertNull(read(buffer));
+    assertArrayEquals(bytes, (byte[])read(buffer));
+    assertArrayEquals(new byte[0], (byte[])read(buffer));
+    for (Object entry : Arrays.asList(entries).subList(3, entries.length)) {
+      assertEquals(entry, read(buffer));
+    }
+    assertFalse(buffer.hasRemaining());
+  }
+
+  @Test(expected = IOException.class)
+  public void testUnknownTag() throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 1);
+    buffer.put((byte)42).putInt(1).put((byte)0).flip();
+    read(buffer);
+  }
+}
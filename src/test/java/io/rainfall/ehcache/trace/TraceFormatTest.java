@@ -0,0 +1,119 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.trace;
+
+import io.rainfall.ehcache.statistics.EhcacheResult;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static io.rainfall.ehcache.trace.TraceFormat.accessType;
+import static io.rainfall.ehcache.trace.TraceFormat.accessTypeCode;
+import static io.rainfall.ehcache.trace.TraceFormat.getVarLong;
+import static io.rainfall.ehcache.trace.TraceFormat.outcome;
+import static io.rainfall.ehcache.trace.TraceFormat.outcomeCode;
+import static io.rainfall.ehcache.trace.TraceFormat.putVarLong;
+import static io.rainfall.ehcache.trace.TraceFormat.unzigzag;
+import static io.rainfall.ehcache.trace.TraceFormat.zigzag;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class TraceFormatTest {
+
+  private static final long[] VALUES = {
+      0, 1, -1, 63, -64, 64, 127, 128, 300, -300, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE,
+      Long.MAX_VALUE - 1, Long.MIN_VALUE + 1
+  };
+
+  @Test
+  public void testVarLongRoundTrip() {
+    ByteBuffer buffer = ByteBuffer.allocate(10 * VALUES.length);
+    for (long value : VALUES) {
+      putVarLong(buffer, value);
+    }
+    buffer.flip();
+    for (long value : VALUES) {
+      assertEquals(value, getVarLong(buffer));
+    }
+    assertFalse(buffer.hasRemaining());
+  }
+
+  @Test
+  public void testVarLongLength() {
+    ByteBuffer buffer = ByteBuffer.allocate(10);
+    putVarLong(buffer, 127);
+    assertEquals(1, buffer.position());
+    buffer.clear();
+    putVarLong(buffer, 128);
+    assertEquals(2, buffer.position());
+    buffer.clear();
+    putVarLong(buffer, -1);
+    assertEquals(10, buffer.position());
+  }
+
+  @Test
+  public void testZigzagRoundTrip() {
+    for (long value : VALUES) {
+      assertEquals(value, unzigzag(zigzag(value)));
+    }
+    assertEquals(0, zigzag(0));
+    assertEquals(1, zigzag(-1));
+    assertEquals(2, zigzag(1));
+    assertEquals(3, zigzag(-2));
+  }
+
+  @Test
+  public void testOutcomeCodesRoundTrip() {
+    for (EhcacheResult result : EhcacheResult.values()) {
+      assertSame(result, outcome(outcomeCode(result)));
+    }
+    assertEquals(0, outcomeCode(null));
+    assertNull(outcome(0));
+    assertNull(outcome(255));
+  }
+
+  @Test
+  public void testOutcomeCodesAreStable() {
+    assertEquals(1, outcomeCode(EhcacheResult.PUT));
+    assertEquals(2, outcomeCode(EhcacheResult.GET));
+    assertEquals(3, outcomeCode(EhcacheResult.MISS));
+    assertEquals(20, outcomeCode(EhcacheResult.EXPIRED));
+    assertEquals(22, outcomeCode(EhcacheResult.SCAN_ENTRY));
+  }
+
+  @Test
+  public void testAccessTypeCodesRoundTrip() {
+    for (AccessType accessType : AccessType.values()) {
+      assertSame(accessType, accessType(accessTypeCode(accessType)));
+    }
+    assertSame(AccessType.OTHER, accessType(255));
+  }
+
+  @Test
+  public void testAccessTypeCodesAreStable() {
+    assertEquals(0, accessTypeCode(AccessType.GET));
+    assertEquals(1, accessTypeCode(AccessType.PUT));
+    assertEquals(3, accessTypeCode(AccessType.REMOVE));
+    assertEquals(7, accessTypeCode(AccessType.GETALL));
+    assertEquals(10, accessTypeCode(AccessType.OTHER));
+  }
+}
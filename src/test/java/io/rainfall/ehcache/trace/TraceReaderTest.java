@@ -0,0 +1,172 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.trace;
+
+import io.rainfall.ehcache.statistics.EhcacheResult;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class TraceReaderTest {
+
+  private static final int PARTITIONS = 2;
+  private static final int RECORDS = 500;
+  private static final int BLOCK_SIZE = 256;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testRecordsRoundTrip() throws IOException {
+    TraceReader reader = new TraceReader(write());
+    try {
+      assertEquals(PARTITIONS * RECORDS, reader.getRecordCount());
+      assertTrue(reader.getBlockCount() > PARTITIONS);
+
+      TraceCursor cursor = reader.cursor(0, 1);
+      TraceRecord record = TraceRecord.current();
+      int[] next = new int[PARTITIONS];
+      long lastTimestamp = -1;
+      int count = 0;
+      while (cursor.next(record)) {
+        int partition = partitionOf(record.getSequence());
+        int i = next[partition]++;
+        assertEquals(sequence(partition, i), record.getSequence());
+        assertSame(AccessType.values()[i % AccessType.values().length], record.getAccessType());
+        assertEquals(i % 1000, record.getValueSize());
+        assertEquals(timestamp(partition, i), record.getTimestampInNs());
+        assertSame(i % 3 == 0 ? null : EhcacheResult.values()[i % EhcacheResult.values().length], record.getOutcome());
+        assertEquals(i * 7L, record.getLatencyInNs());
+        assertTrue(record.getTimestampInNs() >= lastTimestamp);
+        lastTimestamp = record.getTimestampInNs();
+        count++;
+      }
+      assertEquals(PARTITIONS * RECORDS, count);
+    } finally {
+      reader.close();
+    }
+  }
+
+  @Test
+  public void testWholePartitionsPerThread() throws IOException {
+    TraceReader reader = new TraceReader(write());
+    try {
+      for (int threadNb = 0; threadNb < PARTITIONS; threadNb++) {
+        TraceCursor cursor = reader.cursor(threadNb, PARTITIONS, false);
+        TraceRecord record = TraceRecord.current();
+        int i = 0;
+        while (cursor.next(record)) {
+          assertEquals(sequence(threadNb, i++), record.getSequence());
+        }
+        assertEquals(RECORDS, i);
+      }
+    } finally {
+      reader.close();
+    }
+  }
+
+  @Test
+  public void testSplitPartitionsAreSpreadInTimeOrder() throws IOException {
+    int nbThreads = 3;
+    TraceReader reader = new TraceReader(write());
+    try {
+      boolean[] seen = new boolean[PARTITIONS * RECORDS];
+      int total = 0;
+      for (int threadNb = 0; threadNb < nbThreads; threadNb++) {
+        TraceCursor cursor = reader.cursor(threadNb, nbThreads, true);
+        TraceRecord record = TraceRecord.current();
+        long lastTimestamp = -1;
+        int count = 0;
+        while (cursor.next(record)) {
+          assertTrue(record.getTimestampInNs() >= lastTimestamp);
+          lastTimestamp = record.getTimestampInNs();
+          int partition = partitionOf(record.getSequence());
+          int index = partition * RECORDS + (int)(record.getSequence() - sequence(partition, 0)) / 3;
+          assertFalse(seen[index]);
+          seen[index] = true;
+          count++;
+        }
+        assertTrue(count > 0);
+        total += count;
+      }
+      assertEquals(PARTITIONS * RECORDS, total);
+    } finally {
+      reader.close();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testThreadNumberOutOfRange() throws IOException {
+    TraceReader reader = new TraceReader(write());
+    try {
+      reader.cursor(2, 2);
+    } finally {
+      reader.close();
+    }
+  }
+
+  private File write() throws IOException {
+    File file = folder.newFile("test.trace");
+    TraceWriter writer = new TraceWriter(file);
+    try {
+      TraceBlock[] blocks = new TraceBlock[PARTITIONS];
+      for (int partition = 0; partition < PARTITIONS; partition++) {
+        blocks[partition] = new TraceBlock(partition, BLOCK_SIZE);
+      }
+      for (int i = 0; i < RECORDS; i++) {
+        for (int partition = 0; partition < PARTITIONS; partition++) {
+          TraceBlock block = blocks[partition];
+          if (block.isFull()) {
+            writer.write(block);
+          }
+          assertTrue(block.add(AccessType.values()[i % AccessType.values().length], sequence(partition, i), i % 1000,
+              timestamp(partition, i), i % 3 == 0 ? null : EhcacheResult.values()[i % EhcacheResult.values().length],
+              i * 7L));
+        }
+      }
+      for (TraceBlock block : blocks) {
+        writer.write(block);
+      }
+    } finally {
+      writer.close();
+    }
+    return file;
+  }
+
+  private static long sequence(final int partition, final int i) {
+    return partition * 1000000L - 100 + i * 3L;
+  }
+
+  private static int partitionOf(final long sequence) {
+    return (int)((sequence + 100) / 1000000L);
+  }
+
+  private static long timestamp(final int partition, final int i) {
+    return i * 1000L + partition * 500L;
+  }
+}
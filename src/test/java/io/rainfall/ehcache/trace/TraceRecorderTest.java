@@ -0,0 +1,59 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.rainfall.ehcache.trace;
+
+import io.rainfall.ehcache.statistics.EhcacheResult;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class TraceRecorderTest {
+
+  private static final int BLOCK_SIZE = 256;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testEveryRecordIsWrittenOrDropped() throws IOException {
+    for (int attempt = 0; attempt < 20; attempt++) {
+      File file = folder.newFile("trace" + attempt);
+      TraceRecorder recorder = new TraceRecorder(file, BLOCK_SIZE, 4);
+      int records = 1000 + attempt * 37;
+      for (int i = 0; i < records; i++) {
+        recorder.record(AccessType.GET, i, null, i, 10, EhcacheResult.GET);
+      }
+      recorder.close();
+
+      TraceReader reader = new TraceReader(file);
+      try {
+        assertEquals(records, reader.getRecordCount() + recorder.getDroppedRecords());
+      } finally {
+        reader.close();
+      }
+    }
+  }
+}
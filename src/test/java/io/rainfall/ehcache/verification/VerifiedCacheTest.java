@@ -0,0 +1,132 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.verification;
+
+import org.junit.Test;
+
+import static io.rainfall.ehcache.verification.ValueVerification.valueVerification;
+import static io.rainfall.ehcache.verification.VerifiedValueFormat.encode;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class VerifiedCacheTest {
+
+  @Test
+  public void testStaleRead() {
+    VerifiedCache cache = valueVerification(100).verifiedCache("cache");
+    byte[] v1 = encode(5, 1, 64);
+    byte[] v2 = encode(5, 2, 64);
+    write(cache, v1);
+    write(cache, v2);
+    assertNull(cache.verify(5, v2, cache.readStarted(5)));
+    assertSame(ReadAnomaly.STALE, cache.verify(5, v1, cache.readStarted(5)));
+    assertEquals(1, cache.getCount(ReadAnomaly.STALE));
+  }
+
+  @Test
+  public void testLastWriteWinsWhateverItsVersion() {
+    VerifiedCache cache = valueVerification(100).verifiedCache("cache");
+    byte[] older = encode(5, 1, 64);
+    byte[] newer = encode(5, 2, 64);
+    write(cache, newer);
+    write(cache, older);
+    assertNull(cache.verify(5, older, cache.readStarted(5)));
+  }
+
+  @Test
+  public void testOverlappingWritesDoNotReportStale() {
+    VerifiedCache cache = valueVerification(100).verifiedCache("cache");
+    byte[] older = encode(5, 1, 64);
+    byte[] newer = encode(5, 2, 64);
+    cache.writeStarted(older);
+    cache.writeStarted(newer);
+    cache.writeEnded(newer, true);
+    cache.writeEnded(older, true);
+    // the cache may hold either value
+    assertNull(cache.verify(5, older, cache.readStarted(5)));
+    assertNull(cache.verify(5, newer, cache.readStarted(5)));
+    assertEquals(0, cache.getCount(ReadAnomaly.STALE));
+  }
+
+  @Test
+  public void testReadOverlappingWriteIsNotChecked() {
+    VerifiedCache cache = valueVerification(100).verifiedCache("cache");
+    byte[] v1 = encode(5, 1, 64);
+    byte[] v2 = encode(5, 2, 64);
+    write(cache, v1);
+
+    long stamp = cache.readStarted(5);
+    write(cache, v2);
+    assertNull(cache.verify(5, v1, stamp));
+
+    cache.writeStarted(v2);
+    stamp = cache.readStarted(5);
+    cache.writeEnded(v2, true);
+    assertNull(cache.verify(5, v1, stamp));
+    assertEquals(0, cache.getCount(ReadAnomaly.STALE));
+  }
+
+  @Test
+  public void testPreviousValueOfOwnWrite() {
+    VerifiedCache cache = valueVerification(100).verifiedCache("cache");
+    byte[] v1 = encode(5, 1, 64);
+    byte[] v2 = encode(5, 2, 64);
+    byte[] v3 = encode(5, 3, 64);
+    write(cache, v1);
+    write(cache, v2);
+
+    long stamp = cache.readStarted(5);
+    cache.writeStarted(v3);
+    assertSame(ReadAnomaly.STALE, cache.verifyPrevious(5, v1, stamp));
+    assertNull(cache.verifyPrevious(5, v2, stamp));
+    cache.writeEnded(v3, true);
+    assertNull(cache.verify(5, v3, cache.readStarted(5)));
+  }
+
+  @Test
+  public void testFailedWriteOnlyLowersTheCommittedVersion() {
+    VerifiedCache cache = valueVerification(100).verifiedCache("cache");
+    byte[] v1 = encode(5, 1, 64);
+    byte[] v2 = encode(5, 2, 64);
+    byte[] v3 = encode(5, 3, 64);
+    write(cache, v2);
+    cache.writeStarted(v3);
+    cache.writeFailed(v3);
+    assertSame(ReadAnomaly.STALE, cache.verify(5, v1, cache.readStarted(5)));
+    cache.writeStarted(v1);
+    cache.writeFailed(v1);
+    assertNull(cache.verify(5, v1, cache.readStarted(5)));
+  }
+
+  @Test
+  public void testCorruptedAndWrongKey() {
+    VerifiedCache cache = valueVerification(100).verifiedCache("cache");
+    byte[] value = encode(5, 1, 64);
+    assertSame(ReadAnomaly.CORRUPTED, cache.verify(6, value, cache.readStarted(6)));
+    value[40] ^= 1;
+    assertSame(ReadAnomaly.CORRUPTED, cache.verify(5, value, cache.readStarted(5)));
+  }
+
+  private static void write(final VerifiedCache cache, final byte[] value) {
+    cache.writeStarted(value);
+    cache.writeEnded(value, true);
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.verification;
+
+import org.junit.Test;
+
+import static io.rainfall.ehcache.verification.VerifiedValueFormat.MIN_LENGTH;
+import static io.rainfall.ehcache.verification.VerifiedValueFormat.TRAILER_SIZE;
+import static io.rainfall.ehcache.verification.VerifiedValueFormat.check;
+import static io.rainfall.ehcache.verification.VerifiedValueFormat.encode;
+import static io.rainfall.ehcache.verification.VerifiedValueFormat.isVerified;
+import static io.rainfall.ehcache.verification.VerifiedValueFormat.keyOf;
+import static io.rainfall.ehcache.verification.VerifiedValueFormat.versionOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class VerifiedValueFormatTest {
+
+  @Test
+  public void testRoundTrip() {
+    for (int length : new int[] { MIN_LENGTH, MIN_LENGTH + 1, 1024 }) {
+      byte[] value = encode(-42L, Long.MAX_VALUE, length);
+      assertEquals(length, value.length);
+      assertTrue(isVerified(value));
+      assertEquals(-42L, keyOf(value));
+      assertEquals(Long.MAX_VALUE, versionOf(value));
+      assertNull(check(value));
+    }
+  }
+
+  @Test
+  public void testNotVerified() {
+    assertFalse(isVerified(null));
+    assertFalse(isVerified("value"));
+    assertFalse(isVerified(new byte[MIN_LENGTH - 1]));
+    assertFalse(isVerified(new byte[MIN_LENGTH]));
+    assertSame(ReadAnomaly.CORRUPTED, check(null));
+    assertSame(ReadAnomaly.CORRUPTED, check(new byte[64]));
+  }
+
+  @Test
+  public void testCorruptedPayload() {
+    byte[] value = encode(1L, 2L, 64);
+    value[40] ^= 1;
+    assertSame(ReadAnomaly.CORRUPTED, check(value));
+  }
+
+  @Test
+  public void testCorruptedKey() {
+    byte[] value = encode(1L, 2L, 64);
+    value[VerifiedValueFormat.KEY_OFFSET + 7] ^= 1;
+    assertSame(ReadAnomaly.CORRUPTED, check(value));
+  }
+
+  @Test
+  public void testTornValue() {
+    byte[] older = encode(1L, 2L, 64);
+    byte[] newer = encode(1L, 3L, 64);
+    System.arraycopy(older, 64 - TRAILER_SIZE, newer, 64 - TRAILER_SIZE, TRAILER_SIZE);
+    assertSame(ReadAnomaly.TORN, check(newer));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTooShort() {
+    encode(1L, 2L, MIN_LENGTH - 1);
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.rainfall.ehcache3;
+
+import io.rainfall.Configuration;
+import io.rainfall.ehcache.operation.BulkBatch;
+import io.rainfall.ehcache.trace.TraceRecorder;
+import org.ehcache.Cache;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class CacheBindingTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testHashOfKeySplitsTheBatchPerCache() {
+    CacheBinding<Long, Long> binding = binding(CacheSelection.hashOfKey(), 3);
+    assertTrue(binding.isSplitByKey());
+
+    BulkBatch<Long, Long> batch = new BulkBatch<Long, Long>(100);
+    Set<Long> keys = new HashSet<Long>();
+    for (long key = 0; key < 100; key++) {
+      keys.add(key);
+    }
+    Set<Long>[] parts = batch.keyParts(3);
+    binding.split(keys, parts);
+
+    int total = 0;
+    for (int i = 0; i < 3; i++) {
+      for (Long key : parts[i]) {
+        assertSame(binding.getSlots()[i], binding.select(key)[0]);
+      }
+      total += parts[i].size();
+    }
+    assertEquals(100, total);
+  }
+
+  @Test
+  public void testHashOfKeySplitsTheEntriesPerCache() {
+    CacheBinding<Long, Long> binding = binding(CacheSelection.hashOfKey(), 2);
+
+    Map<Long, Long> entries = new HashMap<Long, Long>();
+    for (long key = 0; key < 50; key++) {
+      entries.put(key, -key);
+    }
+    Map<Long, Long>[] parts = new BulkBatch<Long, Long>(50).entryParts(2);
+    binding.split(entries, parts);
+
+    assertEquals(50, parts[0].size() + parts[1].size());
+    for (int i = 0; i < 2; i++) {
+      for (Map.Entry<Long, Long> entry : parts[i].entrySet()) {
+        assertSame(binding.getSlots()[i], binding.select(entry.getKey())[0]);
+        assertEquals(-entry.getKey(), entry.getValue().longValue());
+      }
+    }
+  }
+
+  @Test
+  public void testPartsAreClearedOnReuse() {
+    BulkBatch<Long, Long> batch = new BulkBatch<Long, Long>(10);
+    Set<Long>[] parts = batch.keyParts(2);
+    parts[1].add(1L);
+    assertSame(parts, batch.keyParts(2));
+    assertTrue(parts[1].isEmpty());
+  }
+
+  @Test
+  public void testOtherSelectionsAndSingleCacheAreNotSplit() {
+    assertFalse(binding(CacheSelection.hashOfKey(), 1).isSplitByKey());
+    assertFalse(binding(CacheSelection.all(), 3).isSplitByKey());
+    assertFalse(binding(CacheSelection.roundRobin(), 3).isSplitByKey());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testDefinitionsNotMatchingTheConfiguredCachesAccessAllOfThem() {
+    CacheBinding<Long, Long> configured = binding(CacheSelection.weightedRandom(1, 1, 1), 3);
+    CacheDefinition<Long, Long> one = CacheDefinition.cache("one", mock(Cache.class));
+    CacheDefinition<Long, Long> two = CacheDefinition.cache("two", mock(Cache.class));
+
+    CacheBinding<Long, Long> binding = CacheBinding.bind(configurations(configured.getCacheConfig()), one, two);
+    assertEquals(2, binding.select(1L).length);
+    assertEquals("one", binding.select(1L)[0].getName());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testDefinitionsMatchingTheConfiguredCachesUseTheSelection() {
+    CacheBinding<Long, Long> configured = binding(CacheSelection.roundRobin(), 2);
+    CacheDefinition<Long, Long> one = CacheDefinition.cache("one", mock(Cache.class));
+    CacheDefinition<Long, Long> two = CacheDefinition.cache("two", mock(Cache.class));
+
+    CacheBinding<Long, Long> binding = CacheBinding.bind(configurations(configured.getCacheConfig()), one, two);
+    assertEquals(1, binding.select(1L).length);
+    assertTrue(binding.select(1L)[0] != binding.select(1L)[0]);
+  }
+
+  @Test
+  public void testOperationOverAllCachesIsTracedOnce() throws IOException {
+    TraceRecorder traceRecorder = new TraceRecorder(folder.newFile("trace"));
+    try {
+      CacheBinding<Long, Long> all = binding(CacheSelection.all(), 3, traceRecorder);
+      assertSame(traceRecorder, all.getRecorder(all.getSlots()[0]));
+      assertNull(all.getRecorder(all.getSlots()[1]));
+      assertNull(all.getRecorder(all.getSlots()[2]));
+
+      CacheBinding<Long, Long> hashOfKey = binding(CacheSelection.hashOfKey(), 3, traceRecorder);
+      for (CacheSlot<Long, Long> slot : hashOfKey.getSlots()) {
+        assertSame(traceRecorder, hashOfKey.getRecorder(slot));
+      }
+    } finally {
+      traceRecorder.close();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static CacheBinding<Long, Long> binding(final CacheSelection selection, final int nbCaches,
+                                                  final Configuration... recorders) {
+    CacheConfig<Long, Long> cacheConfig = CacheConfig.cacheConfig(Long.class, Long.class).selection(selection);
+    for (int i = 0; i < nbCaches; i++) {
+      cacheConfig.cache("cache" + i, mock(Cache.class));
+    }
+    Map<Class<? extends Configuration>, Configuration> configurations = configurations(cacheConfig);
+    for (Configuration recorder : recorders) {
+      configurations.put(recorder.getClass(), recorder);
+    }
+    return new CacheBinding<Long, Long>(configurations);
+  }
+
+  private static Map<Class<? extends Configuration>, Configuration> configurations(final CacheConfig<?, ?> cacheConfig) {
+    Map<Class<? extends Configuration>, Configuration> configurations = new HashMap<Class<? extends Configuration>, Configuration>();
+    configurations.put(CacheConfig.class, cacheConfig);
+    return configurations;
+  }
+}
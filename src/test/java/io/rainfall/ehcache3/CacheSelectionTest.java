@@ -0,0 +1,101 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3;
+
+import org.junit.Test;
+
+import static io.rainfall.ehcache3.CacheSelection.ALL;
+import static io.rainfall.ehcache3.CacheSelection.all;
+import static io.rainfall.ehcache3.CacheSelection.hashOfKey;
+import static io.rainfall.ehcache3.CacheSelection.roundRobin;
+import static io.rainfall.ehcache3.CacheSelection.weightedRandom;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class CacheSelectionTest {
+
+  @Test
+  public void testAll() {
+    assertEquals(ALL, all().select(1L, 3));
+  }
+
+  @Test
+  public void testOnlyHashOfKeyIsKeyRouted() {
+    assertTrue(hashOfKey().isKeyRouted());
+    assertFalse(all().isKeyRouted());
+    assertFalse(roundRobin().isKeyRouted());
+    assertFalse(weightedRandom(1, 1).isKeyRouted());
+  }
+
+  @Test
+  public void testHashOfKeyIsStableAndInRange() {
+    CacheSelection selection = hashOfKey();
+    int[] counts = new int[4];
+    for (long key = -1000; key < 1000; key++) {
+      int index = selection.select(key, 4);
+      assertTrue(index >= 0 && index < 4);
+      assertEquals(index, selection.select(Long.valueOf(key), 4));
+      counts[index]++;
+    }
+    for (int count : counts) {
+      assertTrue(count > 2000 / 4 / 2);
+    }
+    assertEquals(0, selection.select(null, 4));
+    assertEquals(0, selection.select(Integer.MIN_VALUE, 1));
+  }
+
+  @Test
+  public void testRoundRobin() {
+    CacheSelection selection = roundRobin();
+    for (int i = 0; i < 10; i++) {
+      assertEquals(i % 3, selection.select(null, 3));
+    }
+  }
+
+  @Test
+  public void testWeightedRandomDistribution() {
+    CacheSelection selection = weightedRandom(1, 0, 3);
+    selection.validate(3);
+    int draws = 100000;
+    int[] counts = new int[3];
+    for (int i = 0; i < draws; i++) {
+      counts[selection.select(null, 3)]++;
+    }
+    assertEquals(0, counts[1]);
+    assertEquals(0.25, (double)counts[0] / draws, 0.02);
+    assertEquals(0.75, (double)counts[2] / draws, 0.02);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testWeightedRandomValidatesNumberOfCaches() {
+    weightedRandom(1, 2).validate(3);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWeightedRandomRejectsNegativeWeights() {
+    weightedRandom(1, -1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWeightedRandomRejectsZeroTotal() {
+    weightedRandom(0, 0);
+  }
+}
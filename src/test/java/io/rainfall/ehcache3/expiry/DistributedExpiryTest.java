@@ -0,0 +1,90 @@
+/*
+ * Copyright 2014 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.rainfall.ehcache3.expiry;
+
+import io.rainfall.ehcache.expiry.Expiration;
+import io.rainfall.ehcache.expiry.ExpiringCache;
+import io.rainfall.ehcache.expiry.ExpiryDuration;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class DistributedExpiryTest {
+
+  @Test
+  public void testTimeToIdleHitKeepsTheDurationOfTheWrite() {
+    Expiration expiration = Expiration.expiration(100)
+        .timeToIdle(ExpiryDuration.uniform(1, 1000000, TimeUnit.SECONDS));
+    ExpiringCache expiringCache = expiration.expiringCache("cache");
+    DistributedExpiry expiry = DistributedExpiry.distributedExpiry(expiration);
+
+    DistributedExpiry.takeLastInMs();
+    expiry.getExpiryForCreation(7L, "value");
+    long writtenInMs = DistributedExpiry.takeLastInMs();
+    expiringCache.written(7L, writtenInMs);
+
+    for (int i = 0; i < 10; i++) {
+      DistributedExpiry.accessing(expiringCache.getDurationInMs(7L));
+      expiry.getExpiryForAccess(7L, null);
+      assertEquals(writtenInMs, DistributedExpiry.takeLastInMs());
+    }
+  }
+
+  @Test
+  public void testTimeToIdleHitOfUnknownEntryDrawsADuration() {
+    Expiration expiration = Expiration.expiration(100)
+        .timeToIdle(ExpiryDuration.fixed(5, TimeUnit.SECONDS));
+    DistributedExpiry expiry = DistributedExpiry.distributedExpiry(expiration);
+
+    DistributedExpiry.takeLastInMs();
+    DistributedExpiry.accessing(expiration.expiringCache("cache").getDurationInMs(3L));
+    expiry.getExpiryForAccess(3L, null);
+    assertEquals(5000L, DistributedExpiry.takeLastInMs());
+  }
+
+  @Test
+  public void testAccessedDurationIsClearedWhenTaken() {
+    Expiration expiration = Expiration.expiration(100)
+        .timeToIdle(ExpiryDuration.fixed(5, TimeUnit.SECONDS));
+    DistributedExpiry expiry = DistributedExpiry.distributedExpiry(expiration);
+
+    DistributedExpiry.accessing(42L);
+    DistributedExpiry.takeLastInMs();
+    expiry.getExpiryForAccess(3L, null);
+    assertEquals(5000L, DistributedExpiry.takeLastInMs());
+  }
+
+  @Test
+  public void testTimeToLiveHitKeepsTheExpiry() {
+    Expiration expiration = Expiration.expiration(100)
+        .timeToLive(ExpiryDuration.fixed(5, TimeUnit.SECONDS));
+    DistributedExpiry expiry = DistributedExpiry.distributedExpiry(expiration);
+
+    DistributedExpiry.takeLastInMs();
+    DistributedExpiry.accessing(42L);
+    assertNull(expiry.getExpiryForAccess(3L, null));
+    assertTrue(DistributedExpiry.takeLastInMs() < 0);
+  }
+}